@@ -0,0 +1,90 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.config.JwtInterceptor;
+import org.example.springboot.config.SecurityConfig;
+import org.example.springboot.entity.User;
+import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.service.CurrentPrincipal;
+import org.example.springboot.service.JwtVerifierCache;
+import org.example.springboot.util.JwtTokenUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 鉴权路径：签发token、BCrypt 校验密码（强度与 SecurityConfig 一致）、JwtInterceptor 校验token（校验器缓存命中）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthBenchmark {
+    private static final Long USER_ID = 1L;
+    private static final String RAW_PASSWORD = "123456";
+
+    private PasswordEncoder passwordEncoder;
+    private String encodedPassword;
+    private String token;
+    private JwtInterceptor jwtInterceptor;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new SecurityConfig().passwordEncoder();
+        encodedPassword = passwordEncoder.encode(RAW_PASSWORD);
+
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername("admin");
+        user.setPassword(encodedPassword);
+        user.setRoleCode("ADMIN");
+        user.setStatus(1);
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectById(USER_ID)).thenReturn(user);
+
+        JwtVerifierCache jwtVerifierCache = new JwtVerifierCache();
+        ReflectionTestUtils.setField(jwtVerifierCache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(jwtVerifierCache, "capacity", 1000);
+        jwtVerifierCache.init();
+
+        jwtInterceptor = new JwtInterceptor();
+        ReflectionTestUtils.setField(jwtInterceptor, "jwtVerifierCache", jwtVerifierCache);
+        ReflectionTestUtils.setField(jwtInterceptor, "currentPrincipal", new CurrentPrincipal());
+        token = JwtTokenUtils.genToken(USER_ID.toString(), encodedPassword);
+    }
+
+    @Benchmark
+    public String genToken() {
+        return JwtTokenUtils.genToken(USER_ID.toString(), encodedPassword);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean bcryptMatches() {
+        return passwordEncoder.matches(RAW_PASSWORD, encodedPassword);
+    }
+
+    @Benchmark
+    public boolean jwtPreHandle() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointment/page");
+        request.addHeader("token", token);
+        return jwtInterceptor.preHandle(request, new MockHttpServletResponse(), this);
+    }
+}
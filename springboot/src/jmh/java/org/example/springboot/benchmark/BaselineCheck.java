@@ -0,0 +1,149 @@
+package org.example.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把本次 JMH 结果（-rf json）与基线比较，任一基准变慢超过阈值、没有基线且不在豁免清单中、或基线不存在/为空时以非0状态退出
+ * 用法：BaselineCheck 本次结果 基线文件 [阈值，默认0.2] [update 用本次结果更新基线中的同名基准] [allow=豁免清单文件]
+ * 豁免清单每行一项，基准名（含参数）包含该项即豁免，#开头为注释
+ */
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BaselineCheck <result.json> <baseline.json> [threshold] [update]");
+            System.exit(2);
+        }
+        File resultFile = new File(args[0]);
+        File baselineFile = new File(args[1]);
+        double threshold = 0.2;
+        boolean update = false;
+        List<String> allowed = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            if ("update".equals(args[i])) {
+                update = true;
+            } else if (args[i].startsWith("allow=")) {
+                allowed = readAllowList(new File(args[i].substring("allow=".length())));
+            } else {
+                threshold = Double.parseDouble(args[i]);
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode results = objectMapper.readTree(resultFile);
+        Map<String, JsonNode> baseline = baselineFile.exists()
+                ? index(objectMapper.readTree(baselineFile))
+                : new LinkedHashMap<>();
+        if (update) {
+            // 只替换本次运行过的基准，未运行的（如 -Djmh.include 只选了部分）保留原基线
+            baseline.putAll(index(results));
+            ArrayNode merged = objectMapper.createArrayNode().addAll(baseline.values());
+            objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(baselineFile, merged);
+            System.out.println("已用 " + resultFile + " 更新基线 " + baselineFile + "，共 " + baseline.size() + " 项");
+            return;
+        }
+        if (baseline.isEmpty()) {
+            System.err.println("基线 " + baselineFile + " 不存在或为空，请先在参考机器上以 update 生成");
+            System.exit(2);
+        }
+
+        int regressions = 0;
+        int missing = 0;
+        int exempted = 0;
+        for (Map.Entry<String, JsonNode> entry : index(results).entrySet()) {
+            JsonNode current = entry.getValue();
+            JsonNode base = baseline.get(entry.getKey());
+            String unit = current.path("primaryMetric").path("scoreUnit").asText();
+            double score = current.path("primaryMetric").path("score").asDouble();
+            if (base == null || !unit.equals(base.path("primaryMetric").path("scoreUnit").asText())) {
+                if (isAllowed(entry.getKey(), allowed)) {
+                    exempted++;
+                    System.out.printf("%-70s %14.3f %-8s (无基线，已豁免)%n", entry.getKey(), score, unit);
+                } else {
+                    missing++;
+                    System.out.printf("%-70s %14.3f %-8s (无基线)%n", entry.getKey(), score, unit);
+                }
+                continue;
+            }
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            // 吞吐量模式越大越好，其余模式（平均时间等）越小越好
+            double change = "thrpt".equals(current.path("mode").asText())
+                    ? (baseScore - score) / baseScore
+                    : (score - baseScore) / baseScore;
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %-8s 基线 %14.3f  %+7.1f%%%s%n", entry.getKey(), score, unit, baseScore,
+                    change * 100, regressed ? "  退化" : "");
+        }
+        if (exempted > 0) {
+            System.out.println(exempted + " 项基准没有基线，在豁免清单中，未参与比较");
+        }
+        if (missing > 0) {
+            System.out.println(missing + " 项基准没有基线，请以 update 补充基线或加入豁免清单");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " 项基准相对基线变慢超过 " + Math.round(threshold * 100) + "%");
+        }
+        if (missing > 0 || regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 读取豁免清单，文件不存在时为空
+     */
+    private static List<String> readAllowList(File file) throws IOException {
+        List<String> allowed = new ArrayList<>();
+        if (!file.exists()) {
+            return allowed;
+        }
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            String item = line.trim();
+            if (!item.isEmpty() && !item.startsWith("#")) {
+                allowed.add(item);
+            }
+        }
+        return allowed;
+    }
+
+    private static boolean isAllowed(String key, List<String> allowed) {
+        for (String item : allowed) {
+            if (key.contains(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按 基准方法名 + 参数 建立索引
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            indexed.put(key.toString(), result);
+        }
+        return indexed;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.SpringbootApplication;
+import org.example.springboot.TestDatabase;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 需要数据库的基准测试共用：在内嵌 MariaDB（src/test 中的 TestDatabase）上以非Web方式启动应用，
+ * 使用与集成测试相同的 test 配置（关闭启动后的后台加载），每个 JMH fork 启动各自的数据库
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * @param properties 额外配置，如 booking.ledger.enabled=true
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>();
+        TestDatabase.properties().forEach((name, value) -> args.add("--" + name + "=" + value));
+        args.add("--spring.profiles.active=test");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(SpringbootApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+}
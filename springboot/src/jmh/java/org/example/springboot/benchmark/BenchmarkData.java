@@ -0,0 +1,187 @@
+package org.example.springboot.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.springboot.config.LocalDateTimeConfig;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Department;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.MedicalRecord;
+import org.example.springboot.entity.Medicine;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.entity.Prescription;
+import org.example.springboot.entity.PrescriptionDetail;
+import org.example.springboot.entity.Schedule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试共用的数据：与接口实际返回一致、关联信息已填充的分页数据
+ */
+final class BenchmarkData {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 20, 9, 30, 15);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 与应用相同的 ObjectMapper：Spring Boot 默认配置 + LocalDateTimeConfig 的定制
+     */
+    static ObjectMapper objectMapper() {
+        // 与 Spring Boot 默认配置及 application.properties 中的 spring.jackson.* 一致
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_EMPTY);
+        new LocalDateTimeConfig().jsonCustomizer().customize(builder);
+        return builder.build();
+    }
+
+    static Page<Appointment> appointmentPage(int size) {
+        Page<Appointment> page = new Page<>(1, size, 1000);
+        List<Appointment> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId((long) i);
+            appointment.setPatientId((long) i);
+            appointment.setDoctorId((long) (i % 20));
+            appointment.setScheduleId((long) i);
+            appointment.setAppointmentNo("A20240520" + String.format("%06d", i));
+            appointment.setAppointmentDate(LocalDate.of(2024, 5, 21));
+            appointment.setTimeSlot(i % 2 == 0 ? "上午" : "下午");
+            appointment.setSymptoms("头痛，失眠多梦，口干口苦");
+            appointment.setStatus(1);
+            appointment.setCreateTime(NOW);
+            appointment.setUpdateTime(NOW);
+            appointment.setPatient(patient(i));
+            appointment.setDoctor(doctor(i % 20));
+            Schedule schedule = new Schedule();
+            schedule.setId((long) i);
+            schedule.setDoctorId((long) (i % 20));
+            schedule.setScheduleDate(LocalDate.of(2024, 5, 21));
+            schedule.setTimeSlot(appointment.getTimeSlot());
+            schedule.setMaxPatients(30);
+            schedule.setCurrentPatients(12);
+            schedule.setStatus(1);
+            schedule.setCreateTime(NOW);
+            schedule.setUpdateTime(NOW);
+            appointment.setSchedule(schedule);
+            records.add(appointment);
+        }
+        page.setRecords(records);
+        return page;
+    }
+
+    static Page<Prescription> prescriptionPage(int size, int detailsPerPrescription) {
+        Page<Prescription> page = new Page<>(1, size, 1000);
+        List<Prescription> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Prescription prescription = new Prescription();
+            prescription.setId((long) i);
+            prescription.setPrescriptionNo("P20240520" + String.format("%06d", i));
+            prescription.setPatientId((long) i);
+            prescription.setDoctorId((long) (i % 20));
+            prescription.setRecordId((long) i);
+            prescription.setPrescriptionDate(LocalDate.of(2024, 5, 20));
+            prescription.setDiagnosis("不寐");
+            prescription.setNotes("饭后温服");
+            prescription.setStatus(0);
+            prescription.setCreateTime(NOW);
+            prescription.setUpdateTime(NOW);
+            prescription.setPatient(patient(i));
+            prescription.setDoctor(doctor(i % 20));
+            MedicalRecord record = new MedicalRecord();
+            record.setId((long) i);
+            record.setRecordNo("R20240520" + String.format("%06d", i));
+            record.setPatientId((long) i);
+            record.setDoctorId((long) (i % 20));
+            record.setSymptom("失眠多梦，心悸健忘，神疲食少");
+            record.setStandardSymptoms("失眠,多梦,心悸,健忘,神疲,食少");
+            record.setTraditionalChineseMedicineDiagnosis("不寐");
+            record.setSyndromeType("心脾两虚证");
+            record.setTreatment("补益心脾，养血安神");
+            record.setRecordDate(LocalDate.of(2024, 5, 20));
+            record.setCreateTime(NOW);
+            record.setUpdateTime(NOW);
+            prescription.setMedicalRecord(record);
+            List<PrescriptionDetail> details = new ArrayList<>(detailsPerPrescription);
+            for (int j = 0; j < detailsPerPrescription; j++) {
+                PrescriptionDetail detail = new PrescriptionDetail();
+                detail.setId((long) (i * detailsPerPrescription + j));
+                detail.setPrescriptionId((long) i);
+                detail.setMedicineId((long) j);
+                detail.setDosage("10g");
+                detail.setFrequency("每日两次");
+                detail.setDays(7);
+                detail.setQuantity(14);
+                detail.setUsage("水煎服");
+                detail.setCreateTime(NOW);
+                detail.setUpdateTime(NOW);
+                Medicine medicine = new Medicine();
+                medicine.setId((long) j);
+                medicine.setMedicineCode("M" + String.format("%05d", j));
+                medicine.setMedicineName("酸枣仁");
+                medicine.setSpecification("500g/袋");
+                medicine.setDosageForm("饮片");
+                medicine.setManufacturer("某某中药饮片有限公司");
+                medicine.setCategory("安神药");
+                medicine.setCategoryId(3L);
+                medicine.setPrice(new BigDecimal("0.35"));
+                medicine.setStock(5000);
+                medicine.setStatus(1);
+                medicine.setCreateTime(NOW);
+                medicine.setUpdateTime(NOW);
+                detail.setMedicine(medicine);
+                details.add(detail);
+            }
+            prescription.setDetails(details);
+            records.add(prescription);
+        }
+        page.setRecords(records);
+        return page;
+    }
+
+    private static Patient patient(int i) {
+        Patient patient = new Patient();
+        patient.setId((long) i);
+        patient.setPatientNo("P" + String.format("%08d", i));
+        patient.setName("患者" + i);
+        patient.setIdCard("11010119900101" + String.format("%04d", i % 10000));
+        patient.setBirthday(LocalDate.of(1990, 1, 1));
+        patient.setSex(i % 2 == 0 ? "男" : "女");
+        patient.setPhone("138" + String.format("%08d", i));
+        patient.setAddress("北京市东城区");
+        patient.setAllergies("无");
+        patient.setCreateTime(NOW);
+        patient.setUpdateTime(NOW);
+        return patient;
+    }
+
+    private static Doctor doctor(int i) {
+        Doctor doctor = new Doctor();
+        doctor.setId((long) i);
+        doctor.setDoctorNo("D" + String.format("%03d", i));
+        doctor.setName("医生" + i);
+        doctor.setDepartmentId((long) (i % 5));
+        doctor.setTitle("主任医师");
+        doctor.setExpertise("失眠、头痛、脾胃病");
+        doctor.setStatus(1);
+        doctor.setCreateTime(NOW);
+        doctor.setUpdateTime(NOW);
+        Department department = new Department();
+        department.setId((long) (i % 5));
+        department.setDeptName("中医内科");
+        department.setDeptCode("ZYNK");
+        department.setStatus(1);
+        department.setCreateTime(NOW);
+        department.setUpdateTime(NOW);
+        doctor.setDepartment(department);
+        return doctor;
+    }
+}
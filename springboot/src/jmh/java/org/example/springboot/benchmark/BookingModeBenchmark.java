@@ -0,0 +1,118 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.example.springboot.service.AppointmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 64个线程同时预约热门排班时 createAppointment 的吞吐量（内嵌 MariaDB）：
+ * ledger=false 为默认的条件UPDATE模式，ledger=true 为号源内存账本模式（预约等到所在批次写库后返回）。
+ * 患者 × 排班 的组合足够多，测量期间不会触发重复预约或占满
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class BookingModeBenchmark {
+    private static final int PATIENTS = 20_000;
+    private static final int SCHEDULES = 50;
+
+    @Param({"false", "true"})
+    public boolean ledger;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private final List<Long> patientIds = new ArrayList<>();
+    private final List<Schedule> schedules = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        // 64个线程排队等10个连接，冷启动的第一轮预热里排在最后的线程会超过默认30秒的取连接超时
+        context = BenchmarkApplication.start("booking.ledger.enabled=" + ledger,
+                "spring.datasource.hikari.connection-timeout=300000");
+        appointmentService = context.getBean(AppointmentService.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+
+        // 每个 fork 各自启动数据库，前缀不必全局唯一；patient_no 只有20位
+        String prefix = "BM-";
+        List<Object[]> rows = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            rows.add(new Object[]{"基准测试患者" + i, prefix + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patient (name, patient_no) VALUES (?, ?)", rows);
+        patientIds.addAll(jdbcTemplate.queryForList("SELECT id FROM patient WHERE patient_no LIKE ? ORDER BY id",
+                Long.class, prefix + "%"));
+
+        // 每位医生一个排班，同一患者可以预约不同医生
+        for (int i = 0; i < SCHEDULES; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setName("基准测试医生" + i);
+            doctor.setStatus(1);
+            doctor.setCreateTime(LocalDateTime.now());
+            doctor.setUpdateTime(LocalDateTime.now());
+            context.getBean(DoctorMapper.class).insert(doctor);
+
+            Schedule schedule = new Schedule();
+            schedule.setDoctorId(doctor.getId());
+            schedule.setScheduleDate(LocalDate.now().plusDays(1));
+            schedule.setTimeSlot("上午");
+            schedule.setMaxPatients(1_000_000_000);
+            schedule.setCurrentPatients(0);
+            schedule.setStatus(1);
+            context.getBean(ScheduleMapper.class).insert(schedule);
+            schedules.add(schedule);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Appointment createAppointment() {
+        int index = next.getAndIncrement();
+        Schedule schedule = schedules.get(index % SCHEDULES);
+        Appointment appointment = new Appointment();
+        appointment.setPatientId(patientIds.get(index / SCHEDULES % PATIENTS));
+        appointment.setDoctorId(schedule.getDoctorId());
+        appointment.setScheduleId(schedule.getId());
+        try {
+            return appointmentService.createAppointment(appointment);
+        } catch (ServiceException e) {
+            // 组合用完后的重复预约，不计入有效结果
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.util.CaseFactIndex;
+import org.example.springboot.util.CaseFactIndex.CaseItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 病例索引基准共用的合成数据：每条就诊记录一张处方，诊断、证型、症状、药品都是少数条目占大多数
+ */
+final class CaseBenchmarkData {
+    static final String[] DIAGNOSES = {"感冒", "咳嗽", "头痛", "眩晕", "不寐", "胃痛", "泄泻", "便秘",
+            "胸痹", "心悸", "消渴", "水肿", "腰痛", "痹证", "郁证", "虚劳", "月经不调", "痛经", "湿疹", "口疮"};
+    static final String[] SYNDROMES = {"风寒束表", "风热犯表", "肝阳上亢", "肝郁气滞", "心脾两虚",
+            "脾胃虚弱", "湿热蕴结", "痰湿内阻", "气滞血瘀", "肝肾阴虚", "肾阳虚衰", "气血两虚", "阴虚火旺",
+            "寒湿困脾", "痰热壅肺", "肺气虚"};
+    static final String[] SYMPTOMS = {"头痛", "发热", "恶寒", "咳嗽", "咽痛", "鼻塞", "流涕", "失眠",
+            "多梦", "心悸", "胸闷", "气短", "乏力", "纳差", "腹胀", "腹痛", "便溏", "便秘", "口干", "口苦",
+            "耳鸣", "腰膝酸软", "畏寒", "盗汗", "自汗", "眩晕", "烦躁", "胁痛", "嗳气", "反酸", "恶心", "水肿",
+            "尿频", "月经量少", "痛经", "皮疹", "瘙痒", "舌红少苔", "舌淡苔白", "脉弦"};
+    private static final String[] DOSAGES = {"3g", "6g", "9g", "10g", "12g", "15g", "30g"};
+    private static final String[] FREQUENCIES = {"每日一剂", "每日两次", "每日三次"};
+    private static final int MEDICINES = 300;
+
+    final int size;
+    final String[] diagnoses;
+    final String[] syndromes;
+    final String[] symptoms;
+    final List<List<CaseItem>> prescriptions;
+
+    CaseBenchmarkData(int size, long seed) {
+        Random random = new Random(seed);
+        this.size = size;
+        diagnoses = new String[size];
+        syndromes = new String[size];
+        symptoms = new String[size];
+        prescriptions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            diagnoses[i] = DIAGNOSES[skewed(random, DIAGNOSES.length)];
+            syndromes[i] = SYNDROMES[skewed(random, SYNDROMES.length)];
+            StringBuilder text = new StringBuilder();
+            int count = 2 + random.nextInt(4);
+            for (int j = 0; j < count; j++) {
+                text.append(j == 0 ? "" : "，").append(SYMPTOMS[skewed(random, SYMPTOMS.length)]);
+            }
+            symptoms[i] = text.toString();
+            int medicines = 6 + random.nextInt(7);
+            List<CaseItem> items = new ArrayList<>(medicines);
+            for (int j = 0; j < medicines; j++) {
+                CaseItem item = new CaseItem();
+                item.setMedicineId(1 + skewed(random, MEDICINES));
+                item.setDosage(DOSAGES[random.nextInt(DOSAGES.length)]);
+                item.setFrequency(FREQUENCIES[skewed(random, FREQUENCIES.length)]);
+                item.setDays(3 + random.nextInt(12));
+                items.add(item);
+            }
+            prescriptions.add(items);
+        }
+    }
+
+    /**
+     * 按启动时的顺序全量加载：先全部就诊记录，再全部处方（ID均从1开始，处方i属于记录i）
+     */
+    <T extends CaseFactIndex> T load(T index) {
+        index.beginLoad();
+        for (int i = 0; i < size; i++) {
+            index.loadRecord(i + 1, diagnoses[i], syndromes[i], symptoms[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            index.loadPrescription(i + 1, i + 1, prescriptions.get(i));
+        }
+        index.endLoad();
+        return index;
+    }
+
+    /**
+     * 偏向小下标的随机下标，模拟少数条目占大多数的分布
+     */
+    static int skewed(Random random, int size) {
+        double r = random.nextDouble();
+        return (int) (r * r * size);
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.util.TcmCooccurrenceIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.springboot.benchmark.CaseBenchmarkData.DIAGNOSES;
+import static org.example.springboot.benchmark.CaseBenchmarkData.SYMPTOMS;
+import static org.example.springboot.benchmark.CaseBenchmarkData.SYNDROMES;
+
+/**
+ * 20万条就诊记录、20万张处方上的诊疗共现统计（TcmCooccurrenceIndex）：
+ * fullLoad 为启动时的全量加载（不含数据库扫描），top* 为统计接口读取的共现查询，
+ * updateRecord 为修改一条就诊记录（改变证型）后的增量更新，包括撤销并重新计入其处方的用药共现
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CooccurrenceIndexBenchmark {
+    private static final int RECORDS = 200_000;
+
+    private CaseBenchmarkData data;
+    private TcmCooccurrenceIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        data = new CaseBenchmarkData(RECORDS, 20240601L);
+        index = data.load(new TcmCooccurrenceIndex());
+    }
+
+    @Benchmark
+    public TcmCooccurrenceIndex fullLoad() {
+        return data.load(new TcmCooccurrenceIndex());
+    }
+
+    @Benchmark
+    public List<TcmCooccurrenceIndex.Count> topSyndromesByDiagnosis() {
+        return index.topSyndromesByDiagnosis(DIAGNOSES[next++ % DIAGNOSES.length], 10);
+    }
+
+    @Benchmark
+    public List<TcmCooccurrenceIndex.Count> topSyndromesBySymptom() {
+        return index.topSyndromesBySymptom(SYMPTOMS[next++ % SYMPTOMS.length], 10);
+    }
+
+    @Benchmark
+    public List<TcmCooccurrenceIndex.IdCount> topMedicinesBySyndrome() {
+        return index.topMedicinesBySyndrome(SYNDROMES[next++ % SYNDROMES.length], 10);
+    }
+
+    @Benchmark
+    public List<TcmCooccurrenceIndex.Count> topSymptoms() {
+        return index.topSymptoms(10);
+    }
+
+    @Benchmark
+    public void updateRecord() {
+        int i = next++ % RECORDS;
+        String syndrome = SYNDROMES[(next / RECORDS + i) % SYNDROMES.length];
+        index.putRecord(i + 1, data.diagnoses[i], syndrome, data.symptoms[i]);
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.springboot.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.example.springboot.common.CursorPage;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.example.springboot.service.AppointmentService;
+import org.example.springboot.util.KeysetCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预约列表第1页与第10000页（每页20条）的响应时间（内嵌 MariaDB，约20万条预约）：
+ * offsetPage 为 /appointment/page（LIMIT OFFSET + COUNT），keysetPage 为 /appointment/cursor（跳过计数）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeysetPagingBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int ROWS = 200_020;
+    private static final int BATCH = 5_000;
+
+    @Param({"1", "10000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        appointmentService = context.getBean(AppointmentService.class);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+
+        Doctor doctor = new Doctor();
+        doctor.setName("分页基准医生");
+        doctor.setStatus(1);
+        doctor.setCreateTime(LocalDateTime.now());
+        doctor.setUpdateTime(LocalDateTime.now());
+        context.getBean(DoctorMapper.class).insert(doctor);
+
+        Schedule schedule = new Schedule();
+        schedule.setDoctorId(doctor.getId());
+        schedule.setScheduleDate(LocalDate.now());
+        schedule.setTimeSlot("上午");
+        schedule.setMaxPatients(ROWS);
+        schedule.setCurrentPatients(ROWS);
+        schedule.setStatus(1);
+        context.getBean(ScheduleMapper.class).insert(schedule);
+
+        jdbcTemplate.update("INSERT INTO patient (name, patient_no) VALUES ('分页基准患者', 'KP-1')");
+        Long patientId = jdbcTemplate.queryForObject("SELECT id FROM patient WHERE patient_no = 'KP-1'", Long.class);
+
+        // 每秒一条，创建时间各不相同，与线上按时间递增写入的分布一致
+        LocalDateTime base = LocalDateTime.now().minusSeconds(ROWS);
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{patientId, doctor.getId(), schedule.getId(), "KP" + i, LocalDate.now(), "上午", 2,
+                    Timestamp.valueOf(base.plusSeconds(i))});
+            if (rows.size() == BATCH || i == ROWS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO appointment (patient_id, doctor_id, schedule_id, appointment_no, "
+                        + "appointment_date, time_slot, status, create_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE TABLE appointment");
+
+        // 第N页的游标即第 N-1 页最后一条记录的位置
+        if (page > 1) {
+            cursor = jdbcTemplate.queryForObject("SELECT create_time, id FROM appointment "
+                            + "ORDER BY create_time DESC, id DESC LIMIT 1 OFFSET ?",
+                    (rs, rowNum) -> new KeysetCursor(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)).encode(),
+                    (page - 1) * PAGE_SIZE - 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Appointment> offsetPage() {
+        return appointmentService.getAppointmentsByPage(null, null, null, null, null, null, null, page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<Appointment> keysetPage() {
+        return appointmentService.getAppointmentsByCursor(null, null, null, null, null, null, null, cursor, PAGE_SIZE, true);
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.config.RequestMetricsInterceptor;
+import org.example.springboot.config.SqlMetricsWebInterceptor;
+import org.example.springboot.controller.AppointmentController;
+import org.example.springboot.service.RequestMetrics;
+import org.example.springboot.service.SqlMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计拦截器给每个请求增加的开销（目标小于1微秒）：
+ * requestMetrics 为接口统计拦截器的 preHandle + afterCompletion，
+ * sqlStatement 为一条语句在请求范围内的 beforeStatement + afterStatement。
+ * emptyRequest 只创建模拟请求，用于扣除请求对象本身的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+    private static final String STATEMENT_ID = "org.example.springboot.mapper.AppointmentMapper.selectPage";
+    private static final String SQL = "SELECT id,patient_id,doctor_id FROM appointment WHERE status = ? LIMIT ?";
+
+    private RequestMetricsInterceptor requestMetricsInterceptor;
+    private SqlMetricsWebInterceptor sqlMetricsWebInterceptor;
+    private SqlMetrics sqlMetrics;
+    private HandlerMethod handler;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setUp() throws Exception {
+        requestMetricsInterceptor = new RequestMetricsInterceptor();
+        ReflectionTestUtils.setField(requestMetricsInterceptor, "requestMetrics", new RequestMetrics());
+        sqlMetrics = new SqlMetrics();
+        sqlMetricsWebInterceptor = new SqlMetricsWebInterceptor();
+        ReflectionTestUtils.setField(sqlMetricsWebInterceptor, "sqlMetrics", sqlMetrics);
+        AppointmentController controller = new AppointmentController();
+        for (Method method : AppointmentController.class.getMethods()) {
+            if (method.getName().equals("getAppointmentsByPage")) {
+                handler = new HandlerMethod(controller, method);
+            }
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletRequest emptyRequest() {
+        return new MockHttpServletRequest("GET", "/api/appointment/page");
+    }
+
+    @Benchmark
+    public MockHttpServletRequest requestMetrics() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointment/page");
+        requestMetricsInterceptor.preHandle(request, response, handler);
+        requestMetricsInterceptor.afterCompletion(request, response, handler, null);
+        return request;
+    }
+
+    @Benchmark
+    public MockHttpServletRequest sqlRequestScope() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointment/page");
+        sqlMetricsWebInterceptor.preHandle(request, response, handler);
+        sqlMetricsWebInterceptor.afterCompletion(request, response, handler, null);
+        return request;
+    }
+
+    @Benchmark
+    public void sqlStatement() {
+        sqlMetrics.beginRequest();
+        sqlMetrics.beforeStatement(STATEMENT_ID, SQL);
+        sqlMetrics.afterStatement(STATEMENT_ID, 1_000_000L, 10, false);
+        sqlMetrics.endRequest("GET /appointment/page");
+    }
+}
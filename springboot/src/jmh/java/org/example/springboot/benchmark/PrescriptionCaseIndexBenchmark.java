@@ -0,0 +1,86 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.util.PrescriptionCaseIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.springboot.benchmark.CaseBenchmarkData.SYMPTOMS;
+import static org.example.springboot.benchmark.CaseBenchmarkData.SYNDROMES;
+
+/**
+ * 20万条就诊记录、20万张处方上的用药推荐（PrescriptionCaseIndex），参数与 recommend.* 的默认配置一致：
+ * recommend 为证型加2-3个症状的推荐（接口要求20ms以内），recommendBySyndrome 只给高发证型、
+ * 倒排列表超过 max-postings 的情况；fullLoad 为启动时的全量加载（不含数据库扫描），updatePrescription 为单张处方的增量更新
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrescriptionCaseIndexBenchmark {
+    private static final int RECORDS = 200_000;
+    private static final int QUERIES = 1024;
+    private static final double SYNDROME_WEIGHT = 2.0;
+    private static final int MAX_POSTINGS = 10000;
+    private static final int NEIGHBORS = 50;
+
+    private CaseBenchmarkData data;
+    private PrescriptionCaseIndex index;
+    private String[] querySyndromes;
+    private List<List<String>> querySymptoms;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        data = new CaseBenchmarkData(RECORDS, 20240601L);
+        index = data.load(new PrescriptionCaseIndex(SYNDROME_WEIGHT, MAX_POSTINGS));
+        Random random = new Random(20240602L);
+        querySyndromes = new String[QUERIES];
+        querySymptoms = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            querySyndromes[i] = SYNDROMES[CaseBenchmarkData.skewed(random, SYNDROMES.length)];
+            int count = 2 + random.nextInt(2);
+            List<String> symptoms = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                symptoms.add(SYMPTOMS[CaseBenchmarkData.skewed(random, SYMPTOMS.length)]);
+            }
+            querySymptoms.add(symptoms);
+        }
+    }
+
+    @Benchmark
+    public List<PrescriptionCaseIndex.Recommendation> recommend() {
+        int i = next++ % QUERIES;
+        return index.recommend(querySyndromes[i], querySymptoms.get(i), NEIGHBORS, 10);
+    }
+
+    @Benchmark
+    public List<PrescriptionCaseIndex.Recommendation> recommendBySyndrome() {
+        return index.recommend(SYNDROMES[0], List.of(), NEIGHBORS, 10);
+    }
+
+    @Benchmark
+    public PrescriptionCaseIndex fullLoad() {
+        return data.load(new PrescriptionCaseIndex(SYNDROME_WEIGHT, MAX_POSTINGS));
+    }
+
+    @Benchmark
+    public void updatePrescription() {
+        int i = next++ % RECORDS;
+        index.putPrescription(i + 1, i + 1, data.prescriptions.get((i + next / RECORDS) % RECORDS));
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.util.NgramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100万条患者（姓名、身份证号、手机号）上的关键词检索：
+ * ngramSearch 为 NgramIndex.search，linearScan 为逐条子串匹配（相当于 LIKE '%关键词%' 全表扫描，
+ * 且数据已在内存中、不含磁盘与网络开销，是数据库扫描耗时的下限）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SearchIndexBenchmark {
+    private static final int ROWS = 1_000_000;
+    private static final String SURNAMES = "王李张刘陈杨赵黄周吴徐孙胡朱高林何郭马罗梁宋郑谢韩唐冯于董萧程曹袁邓许傅沈曾彭吕";
+    private static final String GIVEN_NAMES = "伟芳娜秀英敏静丽强磊军洋勇艳杰娟涛明超兰霞平刚桂华建国文玉志红梅鑫宇浩然子涵欣怡";
+
+    /**
+     * 完整姓名（几十条命中）、手机号片段（少量命中）、常见姓（约2.5万条命中）
+     */
+    @Param({"张伟强", "1380013", "王"})
+    public String keyword;
+
+    private NgramIndex index;
+    private String[] documents;
+    private String query;
+
+    @Setup
+    public void setUp() {
+        index = new NgramIndex();
+        documents = new String[ROWS + 1];
+        Random random = new Random(20240601L);
+        index.beginLoad();
+        for (int id = 1; id <= ROWS; id++) {
+            StringBuilder name = new StringBuilder(3).append(SURNAMES.charAt(random.nextInt(SURNAMES.length())));
+            int given = random.nextInt(3) == 0 ? 1 : 2;
+            for (int i = 0; i < given; i++) {
+                name.append(GIVEN_NAMES.charAt(random.nextInt(GIVEN_NAMES.length())));
+            }
+            String idCard = String.format("%06d%08d%04d", 110100 + random.nextInt(900),
+                    19500101 + random.nextInt(600000), random.nextInt(10000));
+            String phone = "1" + (30 + random.nextInt(60)) + String.format("%08d", random.nextInt(100_000_000));
+            index.load(id, name.toString(), idCard, phone);
+            documents[id] = NgramIndex.normalize(name + "\u0001" + idCard + "\u0001" + phone);
+        }
+        index.endLoad();
+        query = NgramIndex.normalize(keyword);
+    }
+
+    @Benchmark
+    public long[] ngramSearch() {
+        return index.search(keyword);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int matches = 0;
+        for (int id = ROWS; id >= 1; id--) {
+            if (documents[id].contains(query)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
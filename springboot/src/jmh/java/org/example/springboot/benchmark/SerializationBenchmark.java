@@ -0,0 +1,67 @@
+package org.example.springboot.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.springboot.common.Result;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Prescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页接口的响应序列化：关联信息已填充的预约/处方分页，使用应用的 ObjectMapper 配置。
+ * pageRaw 与 pageResult 的差值即 Result 包装的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    @Param({"10", "50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<Appointment> appointmentPage;
+    private Page<Prescription> prescriptionPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkData.objectMapper();
+        appointmentPage = BenchmarkData.appointmentPage(pageSize);
+        prescriptionPage = BenchmarkData.prescriptionPage(pageSize, 8);
+    }
+
+    @Benchmark
+    public byte[] appointmentPageResult() throws Exception {
+        return objectMapper.writeValueAsBytes(Result.success(appointmentPage));
+    }
+
+    @Benchmark
+    public byte[] appointmentPageRaw() throws Exception {
+        return objectMapper.writeValueAsBytes(appointmentPage);
+    }
+
+    @Benchmark
+    public byte[] prescriptionPageResult() throws Exception {
+        return objectMapper.writeValueAsBytes(Result.success(prescriptionPage));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Result<Page<Appointment>> resultWrap() {
+        return Result.success(appointmentPage);
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.entity.Medicine;
+import org.example.springboot.entity.MedicineCategory;
+import org.example.springboot.mapper.DepartmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.MedicineCategoryMapper;
+import org.example.springboot.mapper.SequenceMapper;
+import org.example.springboot.service.AppointmentService;
+import org.example.springboot.service.MedicineCategoryService;
+import org.example.springboot.service.MedicineService;
+import org.example.springboot.service.ReferenceDataCache;
+import org.example.springboot.service.SequenceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 业务热点：预约编号生成（号段内不访问数据库）、药品分类信息同步（分类缓存命中）
+ * 两个方法都是私有方法，通过反射调用，反射本身的开销在纳秒级
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+    private AppointmentService appointmentService;
+    private Method generateAppointmentNo;
+    private MedicineService medicineService;
+    private Method syncCategoryInfo;
+
+    @Setup
+    public void setUp() throws Exception {
+        // 号段取得足够大，测量期间几乎不领取新号段
+        AtomicLong sequence = new AtomicLong();
+        SequenceMapper sequenceMapper = mock(SequenceMapper.class);
+        when(sequenceMapper.allocateBlock(anyString(), anyInt())).thenAnswer(invocation -> {
+            sequence.addAndGet(invocation.<Integer>getArgument(1));
+            return 1;
+        });
+        when(sequenceMapper.selectCurrentValue(anyString())).thenAnswer(invocation -> sequence.get());
+        SequenceService sequenceService = new SequenceService();
+        ReflectionTestUtils.setField(sequenceService, "sequenceMapper", sequenceMapper);
+        ReflectionTestUtils.setField(sequenceService, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(sequenceService, "blockSize", 1_000_000);
+        sequenceService.init();
+        appointmentService = new AppointmentService();
+        ReflectionTestUtils.setField(appointmentService, "sequenceService", sequenceService);
+        generateAppointmentNo = AppointmentService.class.getDeclaredMethod("generateAppointmentNo");
+        generateAppointmentNo.setAccessible(true);
+
+        MedicineCategory category = new MedicineCategory();
+        category.setId(3L);
+        category.setCategoryName("安神药");
+        category.setStatus(1);
+        MedicineCategoryMapper medicineCategoryMapper = mock(MedicineCategoryMapper.class);
+        when(medicineCategoryMapper.selectById(3L)).thenReturn(category);
+        when(medicineCategoryMapper.selectList(any())).thenReturn(List.of(category));
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache();
+        ReflectionTestUtils.setField(referenceDataCache, "doctorMapper", mock(DoctorMapper.class));
+        ReflectionTestUtils.setField(referenceDataCache, "departmentMapper", mock(DepartmentMapper.class));
+        ReflectionTestUtils.setField(referenceDataCache, "medicineCategoryMapper", medicineCategoryMapper);
+        ReflectionTestUtils.setField(referenceDataCache, "capacity", 1000);
+        ReflectionTestUtils.setField(referenceDataCache, "ttlMinutes", 60L);
+        referenceDataCache.init();
+        MedicineCategoryService medicineCategoryService = new MedicineCategoryService();
+        ReflectionTestUtils.setField(medicineCategoryService, "referenceDataCache", referenceDataCache);
+        medicineService = new MedicineService();
+        ReflectionTestUtils.setField(medicineService, "medicineCategoryService", medicineCategoryService);
+        syncCategoryInfo = MedicineService.class.getDeclaredMethod("syncCategoryInfo", Medicine.class);
+        syncCategoryInfo.setAccessible(true);
+    }
+
+    @Benchmark
+    public Object generateAppointmentNo() throws Exception {
+        return generateAppointmentNo.invoke(appointmentService);
+    }
+
+    @Benchmark
+    public Medicine syncCategoryById() throws Exception {
+        Medicine medicine = new Medicine();
+        medicine.setCategoryId(3L);
+        syncCategoryInfo.invoke(medicineService, medicine);
+        return medicine;
+    }
+
+    @Benchmark
+    public Medicine syncCategoryByName() throws Exception {
+        Medicine medicine = new Medicine();
+        medicine.setCategory("安神药");
+        syncCategoryInfo.invoke(medicineService, medicine);
+        return medicine;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.springboot.benchmark;
+
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.example.springboot.service.ScheduleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 16个线程争用同一排班行时占用号源的吞吐量（内嵌 MariaDB）：
+ * guardedUpdate 为当前的 updateSchedulePatients（带条件的单条UPDATE），
+ * readModifyWrite 为改造前的实现（同一事务内先查询、检查上限、再按ID更新）。
+ * 排班上限足够大，测量期间不会占满
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class SlotReservationBenchmark {
+    private ConfigurableApplicationContext context;
+    private ScheduleService scheduleService;
+    private ScheduleMapper scheduleMapper;
+    private TransactionTemplate transactionTemplate;
+    private Long scheduleId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        scheduleService = context.getBean(ScheduleService.class);
+        scheduleMapper = context.getBean(ScheduleMapper.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        Doctor doctor = new Doctor();
+        doctor.setName("基准测试医生");
+        doctor.setStatus(1);
+        doctor.setCreateTime(LocalDateTime.now());
+        doctor.setUpdateTime(LocalDateTime.now());
+        context.getBean(DoctorMapper.class).insert(doctor);
+
+        Schedule schedule = new Schedule();
+        schedule.setDoctorId(doctor.getId());
+        schedule.setScheduleDate(LocalDate.now().plusDays(1));
+        schedule.setTimeSlot("上午");
+        schedule.setMaxPatients(1_000_000_000);
+        schedule.setCurrentPatients(0);
+        schedule.setStatus(1);
+        scheduleMapper.insert(schedule);
+        scheduleId = schedule.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void guardedUpdate() {
+        scheduleService.updateSchedulePatients(scheduleId, 1);
+    }
+
+    @Benchmark
+    public Integer readModifyWrite() {
+        return transactionTemplate.execute(status -> {
+            Schedule current = scheduleMapper.selectById(scheduleId);
+            if (current.getCurrentPatients() + 1 > current.getMaxPatients()) {
+                return 0;
+            }
+            Schedule update = new Schedule();
+            update.setId(scheduleId);
+            update.setCurrentPatients(current.getCurrentPatients() + 1);
+            update.setUpdateTime(LocalDateTime.now());
+            return scheduleMapper.updateById(update);
+        });
+    }
+}
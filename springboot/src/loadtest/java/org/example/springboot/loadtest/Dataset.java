@@ -0,0 +1,87 @@
+package org.example.springboot.loadtest;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 已写入数据库的合成数据集
+ * 主键按下标顺序从1开始分配：医生用户在前、患者用户在后，压测时据此直接构造请求参数，不再查库。
+ */
+public class Dataset {
+    private final DatasetSpec spec;
+    private final LocalDate today;
+    private final String passwordHash;
+    private final ZipfSampler doctorPopularity;
+    private final ZipfSampler patientActivity;
+    private final long[][] upcomingSchedules;
+    private final Map<String, Long> rowCounts;
+
+    Dataset(DatasetSpec spec, LocalDate today, String passwordHash, ZipfSampler doctorPopularity,
+            ZipfSampler patientActivity, long[][] upcomingSchedules, Map<String, Long> rowCounts) {
+        this.spec = spec;
+        this.today = today;
+        this.passwordHash = passwordHash;
+        this.doctorPopularity = doctorPopularity;
+        this.patientActivity = patientActivity;
+        this.upcomingSchedules = upcomingSchedules;
+        this.rowCounts = rowCounts;
+    }
+
+    public DatasetSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * 生成数据时的“今天”，之前的排班已就诊，之后的可预约
+     */
+    public LocalDate getToday() {
+        return today;
+    }
+
+    /**
+     * 所有合成用户共用的密码哈希，签发token时作为签名密钥
+     */
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    /**
+     * 医生热度分布，返回医生下标
+     */
+    public ZipfSampler getDoctorPopularity() {
+        return doctorPopularity;
+    }
+
+    /**
+     * 患者就诊频次分布，返回患者下标
+     */
+    public ZipfSampler getPatientActivity() {
+        return patientActivity;
+    }
+
+    /**
+     * 医生今天及以后的排班ID
+     */
+    public long[] getUpcomingSchedules(int doctorIndex) {
+        return upcomingSchedules[doctorIndex];
+    }
+
+    public long doctorId(int doctorIndex) {
+        return doctorIndex + 1;
+    }
+
+    public long patientId(int patientIndex) {
+        return patientIndex + 1;
+    }
+
+    public long patientUserId(int patientIndex) {
+        return spec.getDoctors() + patientIndex + 1;
+    }
+
+    /**
+     * 各表写入的行数
+     */
+    public Map<String, Long> getRowCounts() {
+        return rowCounts;
+    }
+}
@@ -0,0 +1,497 @@
+package org.example.springboot.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 合成医院数据生成器
+ * 依次执行 schema-before.sql、schema.sql、schema-after.sql 建表、keyset-index-migration.sql 建游标分页索引、sequence-migration.sql 建编号序列表，再按 DatasetSpec 用 JDBC 批量写入
+ * 用户、科室、医生、患者、药品、排班、预约、就诊记录、处方和处方明细。
+ * 医生热度、患者就诊频次和药品使用频次都服从 Zipf 分布：少数专家的号源很快约满，少数老病号有大量历史预约和处方。
+ * 相同的 DatasetSpec（含种子）和“今天”生成相同的数据。
+ */
+public class DatasetGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String DEFAULT_PASSWORD = "123456";
+    private static final String[] SCRIPTS = {"db/schema-before.sql", "schema.sql", "db/schema-after.sql",
+            "db/keyset-index-migration.sql", "db/sequence-migration.sql"};
+    private static final DateTimeFormatter NO_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String[] DEPARTMENTS = {"中医内科", "针灸推拿科", "心血管内科", "呼吸内科", "消化内科", "神经内科",
+            "内分泌科", "肾内科", "普外科", "骨科", "妇科", "儿科", "皮肤科", "眼科", "耳鼻喉科", "口腔科", "康复科",
+            "肿瘤科", "急诊科", "治未病科"};
+    private static final String[] TITLES = {"主任医师", "副主任医师", "主治医师", "住院医师"};
+    private static final String[] TIME_SLOTS = {"上午", "下午", "晚上"};
+    private static final int[] SLOT_HOURS = {8, 14, 18};
+    static final String SURNAMES = "王李张刘陈杨赵黄周吴徐孙胡朱高林何郭马罗梁宋郑谢韩唐冯于董萧程曹袁邓许傅沈曾彭吕";
+    static final String GIVEN_NAMES = "伟芳娜秀英敏静丽强磊军洋勇艳杰娟涛明超兰霞平刚桂华建国文玉志红梅鑫宇浩然子涵欣怡";
+    private static final String[] CITIES = {"北京市朝阳区", "上海市浦东新区", "广州市天河区", "成都市武侯区", "杭州市西湖区", "南京市鼓楼区"};
+    private static final String[] MEDICINE_CATEGORIES = {"解表药", "清热药", "补虚药", "理气药", "活血化瘀药", "化痰止咳平喘药",
+            "安神药", "消食药", "利水渗湿药", "抗感染药", "解热镇痛药", "心血管用药"};
+    private static final String[] HERBS = {"黄芪", "当归", "白术", "茯苓", "甘草", "党参", "川芎", "柴胡", "半夏", "陈皮",
+            "白芍", "熟地黄", "丹参", "桂枝", "麦冬", "五味子", "酸枣仁", "枸杞子", "山药", "葛根", "黄芩", "金银花",
+            "连翘", "板蓝根", "杏仁", "桔梗", "厚朴", "枳壳", "山楂", "神曲"};
+    private static final String[] DOSAGE_FORMS = {"饮片", "颗粒", "丸剂", "片剂", "胶囊", "口服液"};
+    private static final String[] SYMPTOMS = {"头痛", "咳嗽", "发热", "失眠", "乏力", "胃脘胀痛", "腰膝酸软", "心悸",
+            "口干", "便秘", "眩晕", "食欲不振", "咽痛", "鼻塞", "多汗", "胸闷"};
+    private static final String[] TCM_DIAGNOSES = {"感冒", "咳嗽", "不寐", "胃痛", "眩晕", "腰痛", "头痛", "便秘", "心悸", "虚劳"};
+    private static final String[] WESTERN_DIAGNOSES = {"上呼吸道感染", "急性支气管炎", "失眠症", "慢性胃炎", "高血压",
+            "腰椎间盘突出", "偏头痛", "功能性便秘", "心律失常", "慢性疲劳综合征"};
+    private static final String[] SYNDROMES = {"风寒束表", "风热犯肺", "肝郁气滞", "脾胃虚弱", "肾阳虚", "气血两虚",
+            "痰湿内阻", "阴虚火旺", "心脾两虚", "瘀血阻络"};
+    private static final String[] FREQUENCIES = {"每日1次", "每日2次", "每日3次"};
+
+    private final DatasetSpec spec;
+    private final LocalDate today;
+    private final Random random;
+    private final ZipfSampler doctorPopularity;
+    private final ZipfSampler patientActivity;
+    private final ZipfSampler medicineUsage;
+    private final ZipfSampler departmentSize;
+    private final Map<String, Long> rowCounts = new LinkedHashMap<>();
+
+    public DatasetGenerator(DatasetSpec spec) {
+        this(spec, LocalDate.now());
+    }
+
+    public DatasetGenerator(DatasetSpec spec, LocalDate today) {
+        this.spec = spec;
+        this.today = today;
+        this.random = new Random(spec.getSeed());
+        this.doctorPopularity = new ZipfSampler(spec.getDoctors(), spec.getDoctorSkew(), spec.getSeed() + 1);
+        this.patientActivity = new ZipfSampler(spec.getPatients(), spec.getPatientSkew(), spec.getSeed() + 2);
+        this.medicineUsage = new ZipfSampler(spec.getMedicines(), spec.getMedicineSkew(), spec.getSeed() + 3);
+        this.departmentSize = new ZipfSampler(spec.getDepartments(), 0.8, spec.getSeed() + 4);
+    }
+
+    /**
+     * 建表并写入数据，连接须指向一个空库
+     */
+    public Dataset generate(Connection connection) throws SQLException {
+        long start = System.currentTimeMillis();
+        createSchema(connection);
+        String passwordHash = new BCryptPasswordEncoder().encode(DEFAULT_PASSWORD);
+
+        boolean autoCommit = connection.getAutoCommit();
+        long[][] upcomingSchedules;
+        try (Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            // 按主键顺序写入，外键在写完后才全部满足
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            writeUsers(connection, passwordHash);
+            int[] doctorDepartments = writeDoctors(connection);
+            writeDepartments(connection, doctorDepartments);
+            writePatients(connection);
+            writeMedicines(connection);
+            List<ScheduleRow> schedules = planSchedules();
+            writeAppointments(connection, schedules);
+            upcomingSchedules = writeSchedules(connection, schedules);
+            connection.commit();
+            statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        LOGGER.info("合成数据写入完成，耗时{}ms: {}", System.currentTimeMillis() - start, rowCounts);
+        return new Dataset(spec, today, passwordHash, doctorPopularity, patientActivity, upcomingSchedules,
+                new LinkedHashMap<>(rowCounts));
+    }
+
+    private void createSchema(Connection connection) throws SQLException {
+        for (String script : SCRIPTS) {
+            ScriptUtils.executeSqlScript(connection,
+                    new EncodedResource(new ClassPathResource(script), StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeUsers(Connection connection, String passwordHash) throws SQLException {
+        try (BatchWriter users = new BatchWriter(connection, "user",
+                "id, username, password, phone, role_code, name, sex, status, create_time, update_time")) {
+            for (int i = 0; i < spec.getDoctors(); i++) {
+                LocalDateTime created = pastTime(3 * 365);
+                users.add(i + 1L, "doctor" + (i + 1), passwordHash, phone(), "DOCTOR", name(), sex(), 1, created, created);
+            }
+            for (int i = 0; i < spec.getPatients(); i++) {
+                LocalDateTime created = pastTime(3 * 365);
+                users.add(spec.getDoctors() + i + 1L, "patient" + (i + 1), passwordHash, phone(), "PATIENT", name(), sex(),
+                        1, created, created);
+            }
+        }
+    }
+
+    /**
+     * 写入医生，返回每个医生所属科室的下标
+     * 职称按热度排名分配：排名前10%为主任医师，其后20%为副主任医师。
+     */
+    private int[] writeDoctors(Connection connection) throws SQLException {
+        int n = spec.getDoctors();
+        String[] titles = new String[n];
+        for (int rank = 0; rank < n; rank++) {
+            double position = (double) rank / n;
+            titles[doctorPopularity.byRank(rank)] = position < 0.1 ? TITLES[0]
+                    : position < 0.3 ? TITLES[1] : position < 0.7 ? TITLES[2] : TITLES[3];
+        }
+        int[] departments = new int[n];
+        try (BatchWriter doctors = new BatchWriter(connection, "doctor",
+                "id, doctor_no, name, department_id, title, expertise, introduction, user_id, status, create_time, update_time")) {
+            for (int i = 0; i < n; i++) {
+                departments[i] = departmentSize.next(random);
+                String department = departmentName(departments[i]);
+                LocalDateTime created = pastTime(3 * 365);
+                doctors.add(i + 1L, String.format("D%05d", i + 1), name(), departments[i] + 1L, titles[i],
+                        pick(SYNDROMES) + "、" + pick(TCM_DIAGNOSES), "从事" + department + "临床工作多年", i + 1L, 1,
+                        created, created);
+            }
+        }
+        return departments;
+    }
+
+    /**
+     * 写入科室，科室主任取该科室第一位医生
+     */
+    private void writeDepartments(Connection connection, int[] doctorDepartments) throws SQLException {
+        Long[] directors = new Long[spec.getDepartments()];
+        for (int i = 0; i < doctorDepartments.length; i++) {
+            if (directors[doctorDepartments[i]] == null) {
+                directors[doctorDepartments[i]] = i + 1L;
+            }
+        }
+        try (BatchWriter departments = new BatchWriter(connection, "department",
+                "id, dept_name, dept_code, description, director_id, status, create_time, update_time")) {
+            for (int i = 0; i < spec.getDepartments(); i++) {
+                LocalDateTime created = pastTime(5 * 365);
+                departments.add(i + 1L, departmentName(i), String.format("DEPT%03d", i + 1), departmentName(i) + "门诊",
+                        directors[i], 1, created, created);
+            }
+        }
+    }
+
+    private void writePatients(Connection connection) throws SQLException {
+        try (BatchWriter patients = new BatchWriter(connection, "patient",
+                "id, user_id, patient_no, name, id_card, birthday, sex, phone, address, medical_history, allergies, create_time, update_time")) {
+            for (int i = 0; i < spec.getPatients(); i++) {
+                LocalDate birthday = LocalDate.of(1940, 1, 1).plusDays(random.nextInt(80 * 365));
+                LocalDateTime created = pastTime(3 * 365);
+                patients.add(i + 1L, spec.getDoctors() + i + 1L, String.format("P%08d", i + 1), name(),
+                        String.format("1101%02d%s%04d", random.nextInt(100), birthday.format(NO_DATE), i % 10000),
+                        birthday, sex(), phone(), pick(CITIES) + (random.nextInt(200) + 1) + "号",
+                        random.nextInt(4) == 0 ? pick(WESTERN_DIAGNOSES) : null,
+                        random.nextInt(10) == 0 ? "青霉素" : null, created, created);
+            }
+        }
+    }
+
+    private void writeMedicines(Connection connection) throws SQLException {
+        int categories = spec.getMedicineCategories();
+        try (BatchWriter writer = new BatchWriter(connection, "medicine_category",
+                "id, category_name, category_code, description, status, create_time, update_time")) {
+            for (int i = 0; i < categories; i++) {
+                LocalDateTime created = pastTime(5 * 365);
+                String name = MEDICINE_CATEGORIES[i % MEDICINE_CATEGORIES.length]
+                        + (i < MEDICINE_CATEGORIES.length ? "" : String.valueOf(i / MEDICINE_CATEGORIES.length + 1));
+                writer.add(i + 1L, name, String.format("C%03d", i + 1), name, 1, created, created);
+            }
+        }
+        try (BatchWriter writer = new BatchWriter(connection, "medicine",
+                "id, medicine_code, medicine_name, specification, dosage_form, manufacturer, category, category_id, price, stock, status, instructions, create_time, update_time")) {
+            for (int i = 0; i < spec.getMedicines(); i++) {
+                int category = random.nextInt(categories);
+                String form = pick(DOSAGE_FORMS);
+                String name = HERBS[i % HERBS.length] + (i < HERBS.length ? "" : form + (i / HERBS.length));
+                LocalDateTime created = pastTime(2 * 365);
+                writer.add(i + 1L, String.format("M%06d", i + 1), name, (random.nextInt(5) + 1) * 10 + "g/袋", form,
+                        "合成制药" + (random.nextInt(20) + 1) + "厂", MEDICINE_CATEGORIES[category % MEDICINE_CATEGORIES.length],
+                        category + 1L, BigDecimal.valueOf(100 + random.nextInt(20000), 2), random.nextInt(5000), 1,
+                        "遵医嘱", created, created);
+            }
+        }
+    }
+
+    /**
+     * 按出诊概率排出每位医生过去与未来几天的上午、下午号（少数医生加开晚上），今天以后的排班有少量停诊
+     */
+    private List<ScheduleRow> planSchedules() {
+        List<ScheduleRow> schedules = new ArrayList<>();
+        for (int day = -spec.getPastDays(); day < spec.getFutureDays(); day++) {
+            for (int doctor = 0; doctor < spec.getDoctors(); doctor++) {
+                if (random.nextDouble() >= spec.getWorkdayRate()) {
+                    continue;
+                }
+                int slots = random.nextInt(10) == 0 ? 3 : 2;
+                for (int slot = 0; slot < slots; slot++) {
+                    ScheduleRow row = new ScheduleRow();
+                    row.doctor = doctor;
+                    row.day = day;
+                    row.slot = slot;
+                    row.maxPatients = 20 + 5 * random.nextInt(5);
+                    row.status = day >= 0 && random.nextInt(50) == 0 ? 0 : 1;
+                    schedules.add(row);
+                }
+            }
+        }
+        return schedules;
+    }
+
+    /**
+     * 按医生热度和患者就诊频次抽取预约，已满或停诊的排班换一个重抽
+     * 已过去的预约大多已就诊并生成就诊记录和处方，今天及以后的预约为待就诊。
+     */
+    private void writeAppointments(Connection connection, List<ScheduleRow> schedules) throws SQLException {
+        int[][] byDoctor = schedulesByDoctor(schedules, false);
+        Set<Long> booked = new HashSet<>();
+        long appointmentId = 0;
+        long recordId = 0;
+        long prescriptionId = 0;
+        long detailId = 0;
+        long attempts = 0;
+        long maxAttempts = 20L * spec.getAppointments() + 1000;
+        try (BatchWriter appointments = new BatchWriter(connection, "appointment",
+                "id, patient_id, doctor_id, schedule_id, appointment_no, appointment_date, time_slot, symptoms, status, create_time, update_time");
+             BatchWriter records = new BatchWriter(connection, "medical_record",
+                     "id, record_no, patient_id, doctor_id, appointment_id, number_of_visits, symptom, standard_symptoms, traditional_chinese_medicine_diagnosis, western_medicine_diagnosis, syndrome_type, treatment, record_date, follow_up, create_time, update_time");
+             BatchWriter prescriptions = new BatchWriter(connection, "prescription",
+                     "id, prescription_no, patient_id, doctor_id, record_id, prescription_date, diagnosis, status, create_time, update_time");
+             BatchWriter details = new BatchWriter(connection, "prescription_detail",
+                     "id, prescription_id, medicine_id, dosage, frequency, days, quantity, `usage`, create_time, update_time")) {
+            while (appointmentId < spec.getAppointments() && attempts++ < maxAttempts) {
+                int doctor = doctorPopularity.next(random);
+                int[] candidates = byDoctor[doctor];
+                if (candidates.length == 0) {
+                    continue;
+                }
+                int scheduleIndex = candidates[random.nextInt(candidates.length)];
+                ScheduleRow schedule = schedules.get(scheduleIndex);
+                if (schedule.status == 0 || schedule.currentPatients >= schedule.maxPatients) {
+                    continue;
+                }
+                int patient = patientActivity.next(random);
+                if (!booked.add((long) patient * schedules.size() + scheduleIndex)) {
+                    continue;
+                }
+
+                LocalDate date = today.plusDays(schedule.day);
+                boolean past = schedule.day < 0;
+                int status = past ? (random.nextInt(100) < 85 ? 2 : 0) : (random.nextInt(100) < 90 ? 1 : 0);
+                if (status != 0) {
+                    schedule.currentPatients++;
+                }
+                // 预约都在就诊日前几天、且早于今天提交，编号不会与今天的业务编号冲突
+                LocalDateTime created = LocalDateTime.of(today, LocalTime.MIDNIGHT)
+                        .minusMinutes(1 + random.nextInt(7 * 24 * 60))
+                        .minusDays(past ? -schedule.day : 0);
+                LocalDateTime visit = date.atTime(SLOT_HOURS[schedule.slot], random.nextInt(60));
+                long patientId = patient + 1L;
+                long doctorId = doctor + 1L;
+                String symptoms = symptoms();
+                appointmentId++;
+                appointments.add(appointmentId, patientId, doctorId, scheduleIndex + 1L,
+                        "A" + created.format(NO_DATE) + String.format("%06d", appointmentId), date,
+                        TIME_SLOTS[schedule.slot], symptoms, status, created, past ? visit : created);
+
+                if (status != 2 || random.nextDouble() >= spec.getRecordRate()) {
+                    continue;
+                }
+                recordId++;
+                String diagnosis = pick(TCM_DIAGNOSES);
+                records.add(recordId, "MR" + date.format(NO_DATE) + String.format("%06d", recordId), patientId, doctorId,
+                        appointmentId, random.nextInt(3) == 0 ? "复诊" : "初诊", symptoms, symptoms, diagnosis,
+                        pick(WESTERN_DIAGNOSES), pick(SYNDROMES), "中药调理，注意休息", date,
+                        random.nextInt(3) == 0 ? date.plusDays(7) : null, visit, visit);
+
+                if (random.nextDouble() >= spec.getPrescriptionRate()) {
+                    continue;
+                }
+                prescriptionId++;
+                prescriptions.add(prescriptionId, "P" + date.format(NO_DATE) + String.format("%06d", prescriptionId),
+                        patientId, doctorId, recordId, date, diagnosis, 1, visit, visit);
+                int items = 1 + random.nextInt(spec.getMaxPrescriptionItems());
+                Set<Integer> medicines = new HashSet<>();
+                for (int i = 0; i < items; i++) {
+                    int medicine = medicineUsage.next(random);
+                    if (!medicines.add(medicine)) {
+                        continue;
+                    }
+                    int days = 3 + random.nextInt(12);
+                    detailId++;
+                    details.add(detailId, prescriptionId, medicine + 1L, (random.nextInt(5) + 1) * 5 + "g",
+                            pick(FREQUENCIES), days, days * (1 + random.nextInt(3)), random.nextBoolean() ? "水煎服" : "口服",
+                            visit, visit);
+                }
+            }
+        }
+        if (appointmentId < spec.getAppointments()) {
+            LOGGER.warn("排班号源不足，只生成了{}条预约（目标{}条）", appointmentId, spec.getAppointments());
+        }
+    }
+
+    /**
+     * 写入排班（当前预约人数为生成预约后的结果），返回每位医生今天及以后可预约的排班ID
+     */
+    private long[][] writeSchedules(Connection connection, List<ScheduleRow> schedules) throws SQLException {
+        try (BatchWriter writer = new BatchWriter(connection, "schedule",
+                "id, doctor_id, schedule_date, time_slot, max_patients, current_patients, status, create_time, update_time")) {
+            for (int i = 0; i < schedules.size(); i++) {
+                ScheduleRow row = schedules.get(i);
+                LocalDate date = today.plusDays(row.day);
+                LocalDateTime created = LocalDateTime.of(date.minusDays(14), LocalTime.of(9, 0));
+                writer.add(i + 1L, row.doctor + 1L, date, TIME_SLOTS[row.slot], row.maxPatients, row.currentPatients,
+                        row.status, created, created);
+            }
+        }
+        int[][] upcoming = schedulesByDoctor(schedules, true);
+        long[][] ids = new long[upcoming.length][];
+        for (int doctor = 0; doctor < upcoming.length; doctor++) {
+            ids[doctor] = new long[upcoming[doctor].length];
+            for (int i = 0; i < upcoming[doctor].length; i++) {
+                ids[doctor][i] = upcoming[doctor][i] + 1L;
+            }
+        }
+        return ids;
+    }
+
+    private int[][] schedulesByDoctor(List<ScheduleRow> schedules, boolean upcomingOnly) {
+        List<List<Integer>> lists = new ArrayList<>();
+        for (int i = 0; i < spec.getDoctors(); i++) {
+            lists.add(new ArrayList<>());
+        }
+        for (int i = 0; i < schedules.size(); i++) {
+            ScheduleRow row = schedules.get(i);
+            if (!upcomingOnly || (row.day >= 0 && row.status == 1)) {
+                lists.get(row.doctor).add(i);
+            }
+        }
+        int[][] result = new int[lists.size()][];
+        for (int i = 0; i < lists.size(); i++) {
+            result[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+
+    private String departmentName(int index) {
+        return DEPARTMENTS[index % DEPARTMENTS.length]
+                + (index < DEPARTMENTS.length ? "" : String.valueOf(index / DEPARTMENTS.length + 1));
+    }
+
+    private String name() {
+        StringBuilder name = new StringBuilder(3).append(SURNAMES.charAt(random.nextInt(SURNAMES.length())));
+        int given = random.nextInt(3) == 0 ? 1 : 2;
+        for (int i = 0; i < given; i++) {
+            name.append(GIVEN_NAMES.charAt(random.nextInt(GIVEN_NAMES.length())));
+        }
+        return name.toString();
+    }
+
+    private String sex() {
+        return random.nextBoolean() ? "男" : "女";
+    }
+
+    private String phone() {
+        return "1" + (3 + random.nextInt(7)) + String.format("%09d", random.nextInt(1_000_000_000));
+    }
+
+    private String symptoms() {
+        int n = 1 + random.nextInt(3);
+        Set<String> picked = new LinkedHashSet<>();
+        for (int i = 0; i < n; i++) {
+            picked.add(pick(SYMPTOMS));
+        }
+        return String.join("，", picked);
+    }
+
+    private LocalDateTime pastTime(int maxDays) {
+        return LocalDateTime.of(today, LocalTime.MIDNIGHT).minusMinutes(1 + random.nextInt(maxDays * 24 * 60));
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private void count(String table) {
+        rowCounts.merge(table, 1L, Long::sum);
+    }
+
+    /**
+     * 排班生成过程中的中间数据
+     */
+    private static class ScheduleRow {
+        int doctor;
+        int day;
+        int slot;
+        int maxPatients;
+        int currentPatients;
+        int status;
+    }
+
+    /**
+     * 单表批量写入，每攒满 BATCH_SIZE 行执行一次并提交
+     */
+    private class BatchWriter implements AutoCloseable {
+        private final Connection connection;
+        private final String table;
+        private final PreparedStatement statement;
+        private int pending;
+
+        BatchWriter(Connection connection, String table, String columns) throws SQLException {
+            this.connection = connection;
+            this.table = table;
+            int n = columns.split(",").length;
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(columns).append(") VALUES (");
+            for (int i = 0; i < n; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            this.statement = connection.prepareStatement(sql.append(')').toString());
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            count(table);
+            if (++pending >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.commit();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.springboot.loadtest;
+
+import lombok.Data;
+
+/**
+ * 合成数据集的规模与分布参数
+ * 默认值约为一家中型医院一个多月的数据量，scaled 按比例放大或缩小医生、患者、药品和预约数量。
+ */
+@Data
+public class DatasetSpec {
+    /** 科室数 */
+    private int departments = 20;
+    /** 医生数 */
+    private int doctors = 200;
+    /** 患者数 */
+    private int patients = 20000;
+    /** 药品分类数 */
+    private int medicineCategories = 12;
+    /** 药品数 */
+    private int medicines = 500;
+    /** 已过去的排班天数（不含今天） */
+    private int pastDays = 30;
+    /** 今天起可预约的排班天数 */
+    private int futureDays = 7;
+    /** 医生每天出诊的概率 */
+    private double workdayRate = 0.7;
+    /** 历史与已预约的预约数 */
+    private int appointments = 100000;
+    /** 已就诊预约生成就诊记录的比例 */
+    private double recordRate = 0.9;
+    /** 就诊记录开具处方的比例 */
+    private double prescriptionRate = 0.8;
+    /** 每张处方最多的药品数 */
+    private int maxPrescriptionItems = 8;
+    /** 医生热度的 Zipf 指数：越大号源越集中在少数专家 */
+    private double doctorSkew = 1.1;
+    /** 患者就诊频次的 Zipf 指数：0.3 时最常来的患者约60次预约，中位数约4次 */
+    private double patientSkew = 0.3;
+    /** 药品使用频次的 Zipf 指数 */
+    private double medicineSkew = 1.0;
+    /** 随机种子，相同种子生成相同数据 */
+    private long seed = 20240601L;
+
+    public DatasetSpec scaled(double factor) {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setDepartments(departments);
+        spec.setDoctors(Math.max(1, (int) (doctors * factor)));
+        spec.setPatients(Math.max(1, (int) (patients * factor)));
+        spec.setMedicineCategories(medicineCategories);
+        spec.setMedicines(Math.max(1, (int) (medicines * factor)));
+        spec.setPastDays(pastDays);
+        spec.setFutureDays(futureDays);
+        spec.setWorkdayRate(workdayRate);
+        spec.setAppointments((int) (appointments * factor));
+        spec.setRecordRate(recordRate);
+        spec.setPrescriptionRate(prescriptionRate);
+        spec.setMaxPrescriptionItems(maxPrescriptionItems);
+        spec.setDoctorSkew(doctorSkew);
+        spec.setPatientSkew(patientSkew);
+        spec.setMedicineSkew(medicineSkew);
+        spec.setSeed(seed);
+        return spec;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.springboot.loadtest;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 压测用的内嵌 MariaDB（MariaDB4j），与 MySQL 协议兼容，应用仍使用 mysql-connector-j 连接
+ * 每次启动在临时目录新建数据目录、随机选择空闲端口，关闭时删除数据。
+ * 尚未在压测中实际启动验证过。
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+    private final String databaseName;
+    private final DB db;
+
+    public EmbeddedDatabase(String databaseName, String bufferPoolSize) throws ManagedProcessException {
+        this.databaseName = databaseName;
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        config.addArg("--character-set-server=utf8mb4");
+        config.addArg("--collation-server=utf8mb4_general_ci");
+        if ("root".equals(System.getProperty("user.name"))) {
+            // mariadbd 拒绝以 root 身份启动，除非显式指定
+            config.addArg("--user=root");
+        }
+        config.addArg("--innodb-buffer-pool-size=" + bufferPoolSize);
+        config.addArg("--max-connections=500");
+        this.db = DB.newEmbeddedDB(config.build());
+    }
+
+    public void start() throws ManagedProcessException, SQLException {
+        db.start();
+        recreate();
+    }
+
+    /**
+     * 删除并重建数据库，多轮压测之间恢复到空库
+     */
+    public void recreate() throws SQLException {
+        String serverUrl = "jdbc:mysql://localhost:" + getPort() + "/?useSSL=false&allowPublicKeyRetrieval=true";
+        try (Connection connection = DriverManager.getConnection(serverUrl, getUsername(), getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS `" + databaseName + "`");
+            statement.execute("CREATE DATABASE `" + databaseName + "` DEFAULT CHARACTER SET utf8mb4");
+        }
+    }
+
+    public int getPort() {
+        return db.getConfiguration().getPort();
+    }
+
+    /**
+     * 应用使用的连接地址，参数与 application.properties 一致
+     */
+    public String getJdbcUrl() {
+        return "jdbc:mysql://localhost:" + getPort() + "/" + databaseName
+                + "?useUnicode=true&characterEncoding=utf-8&allowMultiQueries=true&useSSL=false"
+                + "&serverTimezone=GMT%2b8&allowPublicKeyRetrieval=true";
+    }
+
+    public String getUsername() {
+        return "root";
+    }
+
+    public String getPassword() {
+        return "";
+    }
+
+    /**
+     * 生成数据用的连接，开启批量改写把一批 INSERT 合并为一条语句
+     */
+    public Connection getConnection() throws SQLException {
+        return DriverManager.getConnection(getJdbcUrl() + "&rewriteBatchedStatements=true", getUsername(), getPassword());
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        db.stop();
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 两种运行模式的对比压测
+ * compare=virtual-threads（默认）比较平台线程与虚拟线程，需要在 Java 21 上运行；
+ * compare=fan-out 比较详情查询的子查询顺序执行与并发执行（fan-out.enabled），两轮都用平台线程，Java 17 即可。
+ * 用同一份合成数据（每轮重建数据库，挂号对号源的消耗不会带到下一轮）和相同的请求组合先后压测两种模式，
+ * 默认2000个并发客户端，输出各接口吞吐量和 p99 的对比。
+ * 每轮在单独的 JVM 中运行：同一 JVM 里后一轮会用上前一轮的 JIT 编译结果，单核机器上曾因此把没有差别的两种模式测出近六成的差距。
+ */
+public class LoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTest.parse(args);
+        options.putIfAbsent("threads", "2000");
+        String dimension = options.getOrDefault("compare", "virtual-threads");
+        String[] labels;
+        switch (dimension) {
+            case "virtual-threads":
+                if (Runtime.version().feature() < 21) {
+                    System.err.println("虚拟线程对比需要 Java 21，当前为 " + Runtime.version() + "，请用 -Pjava21 构建并在 Java 21 上运行");
+                    System.exit(2);
+                }
+                labels = new String[]{"平台", "虚拟"};
+                break;
+            case "fan-out":
+                labels = new String[]{"顺序", "并发"};
+                break;
+            default:
+                throw new IllegalArgumentException("compare 只能是 virtual-threads 或 fan-out: " + dimension);
+        }
+        Map<String, String> baselineOptions = new LinkedHashMap<>(options);
+        baselineOptions.put(dimension, "false");
+        Map<String, String> candidateOptions = new LinkedHashMap<>(options);
+        candidateOptions.put(dimension, "true");
+        String reportPath = options.getOrDefault("report", "target/loadtest-comparison.json");
+        String prefix = reportPath.endsWith(".json") ? reportPath.substring(0, reportPath.length() - 5) : reportPath;
+        Map<String, Object> baseline = runForked(baselineOptions, new File(prefix + "-baseline.json"));
+        Map<String, Object> candidate = runForked(candidateOptions, new File(prefix + "-candidate.json"));
+
+        List<Map<String, Object>> comparison = compare(baseline, candidate);
+        System.out.printf("%n%-20s %12s %12s %8s %10s %10s%n", "接口", labels[0] + " 吞吐/秒", labels[1] + " 吞吐/秒", "提升",
+                labels[0] + " p99", labels[1] + " p99");
+        for (Map<String, Object> row : comparison) {
+            System.out.printf("%-20s %12.1f %12.1f %7.1f%% %10.0f %10.0f%n", row.get("endpoint"),
+                    row.get("baselineThroughput"), row.get("candidateThroughput"), row.get("gainPercent"),
+                    row.get("baselineP99Ms"), row.get("candidateP99Ms"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("compare", dimension);
+        report.put("comparison", comparison);
+        report.put("baseline", baseline);
+        report.put("candidate", candidate);
+        LoadTest.write(report, new File(reportPath));
+        System.exit(0);
+    }
+
+    /**
+     * 以相同的类路径和 JVM 参数启动一个新的 JVM 运行一轮 LoadTest（各自启动内嵌数据库），读回它写出的报告
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> runForked(Map<String, String> options, File reportFile)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-classpath");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LoadTest.class.getName());
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            if (!"report".equals(option.getKey()) && !"compare".equals(option.getKey())) {
+                command.add(option.getKey() + "=" + option.getValue());
+            }
+        }
+        command.add("report=" + reportFile.getPath());
+        int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exit != 0) {
+            throw new IllegalStateException("压测进程异常退出: " + exit + ", " + options);
+        }
+        return new ObjectMapper().readValue(reportFile, Map.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> compare(Map<String, Object> baseline, Map<String, Object> candidate) {
+        Map<String, Object> baselineClient = (Map<String, Object>) baseline.get("client");
+        Map<String, Object> candidateClient = (Map<String, Object>) candidate.get("client");
+        List<Map<String, Object>> baselineRows = new ArrayList<>((List<Map<String, Object>>) baselineClient.get("endpoints"));
+        List<Map<String, Object>> candidateRows = new ArrayList<>((List<Map<String, Object>>) candidateClient.get("endpoints"));
+        baselineRows.add((Map<String, Object>) baselineClient.get("total"));
+        candidateRows.add((Map<String, Object>) candidateClient.get("total"));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < baselineRows.size(); i++) {
+            Map<String, Object> b = baselineRows.get(i);
+            Map<String, Object> c = candidateRows.get(i);
+            double before = (double) b.get("throughput");
+            double after = (double) c.get("throughput");
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", b.get("endpoint"));
+            row.put("baselineThroughput", before);
+            row.put("candidateThroughput", after);
+            row.put("gainPercent", before == 0 ? 0.0 : (after - before) * 100 / before);
+            row.put("baselineP99Ms", b.get("p99Ms"));
+            row.put("candidateP99Ms", c.get("p99Ms"));
+            result.add(row);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,397 @@
+package org.example.springboot.loadtest;
+
+import org.example.springboot.common.ResultCode;
+import org.example.springboot.util.JwtTokenUtils;
+import org.example.springboot.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预约早高峰压测驱动
+ * 固定数量的工作线程各自循环：按权重抽取一个接口、按合成数据的分布构造参数、同步发送并记录耗时（闭环模型）。
+ * 预热阶段的请求不计入统计。响应 Result.code 为200记为成功，其余记为业务拒绝（如号源已满），
+ * HTTP 错误和连接/超时异常记为失败。
+ */
+public class LoadDriver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadDriver.class);
+
+    /**
+     * 耗时分布的桶上界（毫秒），比接口统计更细，分位数按桶上界估算
+     */
+    static final long[] BUCKET_MS = {1, 2, 3, 4, 5, 6, 8, 10, 12, 15, 20, 25, 30, 40, 50, 60, 80, 100, 120, 150, 200,
+            250, 300, 400, 500, 600, 800, 1000, 1500, 2000, 3000, 5000, 10000, 30000};
+
+    private static final Pattern CODE = Pattern.compile("\"code\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern MSG = Pattern.compile("\"msg\"\\s*:\\s*\"([^\"]*)\"");
+    private static final String[] SYMPTOMS = {"头痛", "咳嗽", "发热", "失眠", "胃脘胀痛", "眩晕", "咽痛", "乏力"};
+    private static final int MAX_REASONS = 20;
+
+    private final String baseUrl;
+    private final Dataset dataset;
+    private final HttpClient client;
+    private final List<Operation> operations = new ArrayList<>();
+    private final int totalWeight;
+    private final EndpointStats total = new EndpointStats("total");
+    private final Map<Long, String> tokens = new ConcurrentHashMap<>();
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    /**
+     * @param baseUrl 接口前缀，如 http://localhost:8080/api
+     * @param mix     接口名到权重
+     */
+    public LoadDriver(String baseUrl, Dataset dataset, Map<String, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        int weights = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            operations.add(new Operation(entry.getKey(), entry.getValue(), requestFactory(entry.getKey())));
+            weights += entry.getValue();
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("接口权重不能全部为0");
+        }
+        this.totalWeight = weights;
+    }
+
+    /**
+     * 预约早高峰的默认接口比例：近半是查看排班，其次是“我的预约/处方”，挂号约占15%，
+     * 另有少量前台按患者姓名查预约
+     */
+    public static Map<String, Integer> defaultMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("schedule.date", 20);
+        mix.put("schedule.doctor", 15);
+        mix.put("schedule.page", 10);
+        mix.put("appointment.create", 15);
+        mix.put("appointment.my", 15);
+        mix.put("prescription.my", 10);
+        mix.put("prescription.page", 10);
+        mix.put("appointment.page", 5);
+        mix.put("appointment.name", 5);
+        return mix;
+    }
+
+    /**
+     * 运行压测，返回各接口的吞吐量与耗时分位数
+     *
+     * @param thinkMs 每个线程两次请求之间的间隔，0为不间断发送
+     */
+    public Map<String, Object> run(int threads, Duration warmup, Duration duration, long thinkMs, long seed)
+            throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            long workerSeed = seed + i;
+            workers.execute(() -> work(new Random(workerSeed), thinkMs));
+        }
+        LOGGER.info("预热{}秒，{}个线程", warmup.getSeconds(), threads);
+        Thread.sleep(warmup.toMillis());
+        resetServerMetrics();
+        measuring = true;
+        long start = System.nanoTime();
+        LOGGER.info("开始统计，持续{}秒", duration.getSeconds());
+        Thread.sleep(duration.toMillis());
+        measuring = false;
+        long elapsed = System.nanoTime() - start;
+        stopped = true;
+        workers.shutdown();
+        if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        return report(elapsed);
+    }
+
+    /**
+     * 读取服务端统计接口（/metrics/requests、/metrics/sql）的原始响应
+     */
+    public String fetch(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private void work(Random random, long thinkMs) {
+        while (!stopped) {
+            Operation operation = pick(random);
+            HttpRequest request = operation.factory.create(random);
+            long start = System.nanoTime();
+            String outcome;
+            String reason = null;
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() >= 400) {
+                    outcome = "failed";
+                    reason = "HTTP " + response.statusCode();
+                } else {
+                    String code = find(CODE, response.body());
+                    if (code == null || ResultCode.SUCCESS.getCode().equals(code)) {
+                        outcome = "ok";
+                    } else {
+                        outcome = "rejected";
+                        String msg = find(MSG, response.body());
+                        reason = code + (msg == null ? "" : " " + msg);
+                    }
+                }
+            } catch (IOException e) {
+                outcome = "failed";
+                reason = e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long nanos = System.nanoTime() - start;
+            if (measuring) {
+                operation.stats.record(nanos, outcome, reason);
+                total.record(nanos, outcome, reason);
+            }
+            if (thinkMs > 0) {
+                try {
+                    Thread.sleep(thinkMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private Operation pick(Random random) {
+        int n = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            n -= operation.weight;
+            if (n < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private RequestFactory requestFactory(String name) {
+        LocalDate today = dataset.getToday();
+        int futureDays = Math.max(1, dataset.getSpec().getFutureDays());
+        LocalDate lastDay = today.plusDays(futureDays - 1);
+        switch (name) {
+            case "schedule.date":
+                // 多数人看当天的号
+                return random -> get("/schedule/date/" + today.plusDays(random.nextInt(10) < 6 ? 0 : random.nextInt(futureDays)), null);
+            case "schedule.doctor":
+                return random -> get("/schedule/doctor/" + popularDoctor(random) + "?startDate=" + today + "&endDate=" + lastDay, null);
+            case "schedule.page":
+                return random -> get("/schedule/page?startDate=" + today + "&endDate=" + lastDay + "&status=1&currentPage="
+                        + (1 + random.nextInt(5)) + "&size=10", null);
+            case "appointment.create":
+                return this::createAppointment;
+            case "appointment.my":
+                return random -> get("/appointment/my", token(dataset.getPatientActivity().next(random)));
+            case "prescription.my":
+                return random -> get("/prescription/my", token(dataset.getPatientActivity().next(random)));
+            case "prescription.page":
+                return random -> get("/prescription/page?doctorId=" + popularDoctor(random) + "&currentPage="
+                        + (1 + random.nextInt(3)) + "&size=10", null);
+            case "appointment.page":
+                return random -> get("/appointment/page?doctorId=" + popularDoctor(random) + "&startDate=" + today
+                        + "&endDate=" + today + "&currentPage=1&size=10", null);
+            case "appointment.name":
+                return random -> get("/appointment/page?patientName=" + patientName(random) + "&currentPage=1&size=10", null);
+            case "appointment.detail":
+                return random -> get("/appointment/" + randomId(random, "appointment"), null);
+            case "prescription.detail":
+                return random -> get("/prescription/" + randomId(random, "prescription"), null);
+            default:
+                throw new IllegalArgumentException("未知接口: " + name);
+        }
+    }
+
+    /**
+     * 挂号：医生按热度抽取（热门专家的号被反复争抢），排班从该医生今天起的号中随机选，患者随机
+     */
+    private HttpRequest createAppointment(Random random) {
+        int doctor = dataset.getDoctorPopularity().next(random);
+        long[] schedules = dataset.getUpcomingSchedules(doctor);
+        int patient = random.nextInt(dataset.getSpec().getPatients());
+        long scheduleId = schedules.length == 0 ? 0 : schedules[random.nextInt(schedules.length)];
+        String body = "{\"patientId\":" + dataset.patientId(patient) + ",\"doctorId\":" + dataset.doctorId(doctor)
+                + ",\"scheduleId\":" + scheduleId + ",\"symptoms\":\"" + SYMPTOMS[random.nextInt(SYMPTOMS.length)] + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/appointment"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("token", token(patient))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) {
+            builder.header("token", token);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 前台按姓名查预约：一半只输入姓（匹配约四十分之一的患者，超过 IN 列表上限，走关联查询），
+     * 一半输入完整的三字姓名（匹配少量患者，走 IN 列表）
+     */
+    private String patientName(Random random) {
+        StringBuilder name = new StringBuilder(3)
+                .append(DatasetGenerator.SURNAMES.charAt(random.nextInt(DatasetGenerator.SURNAMES.length())));
+        if (random.nextBoolean()) {
+            for (int i = 0; i < 2; i++) {
+                name.append(DatasetGenerator.GIVEN_NAMES.charAt(random.nextInt(DatasetGenerator.GIVEN_NAMES.length())));
+            }
+        }
+        return URLEncoder.encode(name.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 表中随机一行的主键（合成数据的主键从1连续分配）
+     */
+    private long randomId(Random random, String table) {
+        long rows = dataset.getRowCounts().getOrDefault(table, 0L);
+        return rows <= 0 ? 1 : 1 + (long) (random.nextDouble() * rows);
+    }
+
+    private long popularDoctor(Random random) {
+        return dataset.doctorId(dataset.getDoctorPopularity().next(random));
+    }
+
+    /**
+     * 患者的登录token，与登录接口签发的一致（以密码哈希为签名密钥）
+     */
+    private String token(int patientIndex) {
+        long userId = dataset.patientUserId(patientIndex);
+        return tokens.computeIfAbsent(userId, id -> JwtTokenUtils.genToken(String.valueOf(id), dataset.getPasswordHash()));
+    }
+
+    /**
+     * 清空预热期间的服务端统计，使其与压测统计窗口一致
+     */
+    private void resetServerMetrics() {
+        for (String path : new String[]{"/metrics/requests", "/metrics/sql"}) {
+            try {
+                client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).DELETE().build(),
+                        HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                LOGGER.warn("清空服务端统计失败: {}", path, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Map<String, Object> report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (Operation operation : operations) {
+            endpoints.add(operation.stats.toMap(seconds));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("durationSeconds", seconds);
+        result.put("bucketsMs", BUCKET_MS);
+        result.put("endpoints", endpoints);
+        result.put("total", total.toMap(seconds));
+        return result;
+    }
+
+    private static String find(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * 根据随机数构造一次请求
+     */
+    private interface RequestFactory {
+        HttpRequest create(Random random);
+    }
+
+    private static class Operation {
+        final int weight;
+        final RequestFactory factory;
+        final EndpointStats stats;
+
+        Operation(String name, int weight, RequestFactory factory) {
+            this.weight = weight;
+            this.factory = factory;
+            this.stats = new EndpointStats(name);
+        }
+    }
+
+    /**
+     * 单个接口的客户端统计
+     */
+    static class EndpointStats {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram(BUCKET_MS);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Map<String, LongAdder> reasons = new ConcurrentHashMap<>();
+
+        EndpointStats(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, String outcome, String reason) {
+            latency.record(nanos);
+            if ("ok".equals(outcome)) {
+                ok.increment();
+            } else if ("rejected".equals(outcome)) {
+                rejected.increment();
+            } else {
+                failed.increment();
+            }
+            if (reason != null && (reasons.size() < MAX_REASONS || reasons.containsKey(reason))) {
+                reasons.computeIfAbsent(reason, k -> new LongAdder()).increment();
+            }
+        }
+
+        Map<String, Object> toMap(double seconds) {
+            long n = latency.getCount();
+            Map<String, Long> reasonCounts = new LinkedHashMap<>();
+            reasons.forEach((reason, count) -> reasonCounts.put(reason, count.sum()));
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("endpoint", name);
+            map.put("count", n);
+            map.put("throughput", seconds <= 0 ? 0.0 : n / seconds);
+            map.put("ok", ok.sum());
+            map.put("rejected", rejected.sum());
+            map.put("failed", failed.sum());
+            map.put("avgMs", n == 0 ? 0.0 : latency.getTotalNanos() / 1_000_000.0 / n);
+            map.put("p50Ms", latency.percentileMs(0.5));
+            map.put("p95Ms", latency.percentileMs(0.95));
+            map.put("p99Ms", latency.percentileMs(0.99));
+            map.put("maxMs", latency.getMaxNanos() / 1_000_000.0);
+            map.put("reasons", reasonCounts);
+            return map;
+        }
+    }
+}
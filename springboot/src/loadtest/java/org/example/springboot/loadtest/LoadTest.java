@@ -0,0 +1,180 @@
+package org.example.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.springboot.SpringbootApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 端到端压测入口
+ * 启动内嵌 MariaDB、生成合成医院数据、以随机端口启动应用，然后回放预约早高峰的请求组合，
+ * 输出各接口的吞吐量与 p50/p95/p99 耗时，并把客户端统计与服务端接口/SQL统计一起写入 JSON 报告。
+ * 参数均为 key=value 形式，见 src/loadtest/README.md。
+ */
+public class LoadTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        try (EmbeddedDatabase database = new EmbeddedDatabase("hospital_db", options.getOrDefault("buffer-pool", "512M"))) {
+            database.start();
+            Map<String, Object> report = run(database, options);
+            print(report);
+            write(report, new File(options.getOrDefault("report", "target/loadtest-report.json")));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 一轮完整的压测：重建数据库、生成数据、启动应用、回放请求，返回报告
+     */
+    static Map<String, Object> run(EmbeddedDatabase database, Map<String, String> options) throws Exception {
+        DatasetSpec spec = new DatasetSpec().scaled(Double.parseDouble(options.getOrDefault("scale", "1")));
+        if (options.containsKey("seed")) {
+            spec.setSeed(Long.parseLong(options.get("seed")));
+        }
+        if (options.containsKey("patients")) {
+            spec.setPatients(Integer.parseInt(options.get("patients")));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "32"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "30")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "120")));
+        long thinkMs = Long.parseLong(options.getOrDefault("think", "0"));
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        boolean fanOut = Boolean.parseBoolean(options.getOrDefault("fan-out", "false"));
+        Map<String, Integer> mix = options.containsKey("mix") ? parseMix(options.get("mix")) : LoadDriver.defaultMix();
+
+        database.recreate();
+        Dataset dataset;
+        try (Connection connection = database.getConnection()) {
+            dataset = new DatasetGenerator(spec).generate(connection);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplication(SpringbootApplication.class).run(
+                "--spring.datasource.url=" + database.getJdbcUrl(),
+                "--spring.datasource.username=" + database.getUsername(),
+                "--spring.datasource.password=" + database.getPassword(),
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--fan-out.enabled=" + fanOut,
+                // 压测环境没有症状标准化服务
+                "--symptom.pipeline.enabled=false",
+                // 控制器每个请求都打 INFO 日志，压测时会成为瓶颈并淹没报告
+                "--logging.level.org.example.springboot=" + options.getOrDefault("log-level", "WARN"));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver("http://localhost:" + port + "/api", dataset, mix);
+            Map<String, Object> client = driver.run(threads, warmup, duration, thinkMs, spec.getSeed());
+
+            ObjectMapper objectMapper = new ObjectMapper();
+            Map<String, Object> server = new LinkedHashMap<>();
+            server.put("requests", objectMapper.readTree(driver.fetch("/metrics/requests")).path("data"));
+            server.put("sql", objectMapper.readTree(driver.fetch("/metrics/sql")).path("data"));
+
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("threads", threads);
+            settings.put("warmupSeconds", warmup.getSeconds());
+            settings.put("durationSeconds", duration.getSeconds());
+            settings.put("thinkMs", thinkMs);
+            settings.put("virtualThreads", virtualThreads);
+            settings.put("fanOut", fanOut);
+            settings.put("javaVersion", Runtime.version().toString());
+            settings.put("mix", mix);
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("options", settings);
+            report.put("dataset", spec);
+            report.put("rows", dataset.getRowCounts());
+            report.put("client", client);
+            report.put("server", server);
+            return report;
+        } finally {
+            context.close();
+        }
+    }
+
+    static void write(Map<String, Object> report, File reportFile) throws IOException {
+        File dir = reportFile.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            LOGGER.warn("无法创建报告目录: {}", dir);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+        System.out.println("报告已写入 " + reportFile.getAbsolutePath());
+    }
+
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> report) {
+        Map<String, Object> client = (Map<String, Object>) report.get("client");
+        JsonNode sql = (JsonNode) ((Map<String, Object>) report.get("server")).get("sql");
+        Map<String, Object> settings = (Map<String, Object>) report.get("options");
+        System.out.printf("%n%s线程，详情子查询%s，%d 个并发客户端，统计时长 %.1f 秒%n",
+                (boolean) settings.get("virtualThreads") ? "虚拟" : "平台", (boolean) settings.get("fanOut") ? "并发" : "顺序",
+                (int) settings.get("threads"), (double) client.get("durationSeconds"));
+        System.out.printf("%-20s %9s %9s %9s %9s %9s %8s %8s %8s %9s%n",
+                "接口", "请求数", "吞吐/秒", "成功", "业务拒绝", "失败", "p50ms", "p95ms", "p99ms", "最大ms");
+        for (Map<String, Object> row : (List<Map<String, Object>>) client.get("endpoints")) {
+            printRow(row);
+        }
+        printRow((Map<String, Object>) client.get("total"));
+        for (Map<String, Object> row : (List<Map<String, Object>>) client.get("endpoints")) {
+            Map<String, Long> reasons = (Map<String, Long>) row.get("reasons");
+            if (!reasons.isEmpty()) {
+                System.out.println(row.get("endpoint") + " 拒绝/失败原因: " + reasons);
+            }
+        }
+        // 服务端每个接口的平均语句数，便于把耗时回归与 N+1 对应起来
+        for (JsonNode endpoint : sql.path("endpoints")) {
+            System.out.printf("%-40s 平均 %.1f 条SQL/请求, 最多 %d 条%n", endpoint.path("endpoint").asText(),
+                    endpoint.path("statements").asDouble() / Math.max(1, endpoint.path("requests").asLong()),
+                    endpoint.path("maxStatements").asLong());
+        }
+    }
+
+    private static void printRow(Map<String, Object> row) {
+        System.out.printf("%-20s %9d %9.1f %9d %9d %9d %8.0f %8.0f %8.0f %9.1f%n", row.get("endpoint"), row.get("count"),
+                row.get("throughput"), row.get("ok"), row.get("rejected"), row.get("failed"), row.get("p50Ms"),
+                row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"));
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            String value = arg.substring(eq + 1).trim();
+            if (!value.isEmpty()) {
+                options.put(arg.substring(0, eq).trim(), value);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * 解析接口比例，如 schedule.date:20,appointment.create:30
+     */
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String item : value.split(",")) {
+            String[] parts = item.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("接口比例格式应为 name:weight: " + item);
+            }
+            mix.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
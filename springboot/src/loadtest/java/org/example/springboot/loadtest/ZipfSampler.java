@@ -0,0 +1,62 @@
+package org.example.springboot.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 按 Zipf 分布抽取下标：排名第 k 的元素被抽中的概率与 1/k^s 成正比
+ * 排名到下标的对应关系按种子随机打乱，热门医生、常来的患者不会集中在编号最小的几条记录上。
+ * 构造后只读，多线程共用时每个线程使用自己的 Random。
+ */
+public class ZipfSampler {
+    private final double[] cdf;
+    private final int[] indexByRank;
+
+    public ZipfSampler(int n, double exponent, long seed) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("元素个数必须大于0");
+        }
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        indexByRank = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexByRank[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = indexByRank[i];
+            indexByRank[i] = indexByRank[j];
+            indexByRank[j] = tmp;
+        }
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+
+    /**
+     * 抽取一个下标（0 到 size-1）
+     */
+    public int next(Random random) {
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return indexByRank[Math.min(rank, cdf.length - 1)];
+    }
+
+    /**
+     * 排名第 rank（从0开始）的下标
+     */
+    public int byRank(int rank) {
+        return indexByRank[rank];
+    }
+}
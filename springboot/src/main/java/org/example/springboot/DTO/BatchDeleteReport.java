@@ -0,0 +1,49 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "批量删除结果")
+public class BatchDeleteReport {
+    @Schema(description = "删除成功数")
+    private int deleted;
+
+    @Schema(description = "未删除数")
+    private int failed;
+
+    @Schema(description = "每个ID的处理结果，顺序与请求一致")
+    private List<Outcome> outcomes = new ArrayList<>();
+
+    /**
+     * 记录一个ID的处理结果
+     */
+    public void add(Long id, String reason) {
+        outcomes.add(new Outcome(id, reason == null, reason));
+        if (reason == null) {
+            deleted++;
+        } else {
+            failed++;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "单个ID的处理结果")
+    public static class Outcome {
+        @Schema(description = "ID")
+        private Long id;
+
+        @Schema(description = "是否已删除")
+        private boolean deleted;
+
+        @Schema(description = "未删除的原因")
+        private String reason;
+    }
+}
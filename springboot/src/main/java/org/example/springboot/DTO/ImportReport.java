@@ -0,0 +1,43 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "批量导入结果")
+public class ImportReport {
+    @Schema(description = "数据行数（不含表头和空行）")
+    private long total;
+
+    @Schema(description = "导入成功行数")
+    private long succeeded;
+
+    @Schema(description = "导入失败行数")
+    private long failed;
+
+    @Schema(description = "耗时(毫秒)")
+    private long elapsedMs;
+
+    @Schema(description = "失败明细，超过上限的不再列出")
+    private List<RowError> errors = new ArrayList<>();
+
+    @Schema(description = "失败明细是否被截断")
+    private boolean truncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "失败行")
+    public static class RowError {
+        @Schema(description = "文件中的行号（从1开始，含表头）")
+        private long line;
+
+        @Schema(description = "失败原因")
+        private String message;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.springboot.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Schema(description = "排班模板DTO")
+public class ScheduleTemplateDTO {
+    @Schema(description = "医生ID列表")
+    @NotEmpty(message = "医生不能为空")
+    private List<Long> doctorIds;
+
+    @Schema(description = "开始日期")
+    @NotNull(message = "开始日期不能为空")
+    private LocalDate startDate;
+
+    @Schema(description = "生成周数")
+    @NotNull(message = "生成周数不能为空")
+    @Min(value = 1, message = "生成周数至少为1")
+    @Max(value = 12, message = "生成周数不能超过12")
+    private Integer weeks;
+
+    @Schema(description = "出诊的星期(1-7，为空时为周一至周五)")
+    private List<Integer> weekdays;
+
+    @Schema(description = "时间段(上午/下午/晚上，为空时为上午、下午)")
+    private List<String> timeSlots;
+
+    @Schema(description = "最大接诊人数")
+    @NotNull(message = "最大接诊人数不能为空")
+    @Min(value = 1, message = "最大接诊人数至少为1")
+    private Integer maxPatients;
+
+    @Schema(description = "是否跳过已有排班，为false时遇到已有排班整体失败")
+    private Boolean skipExisting = true;
+}
@@ -0,0 +1,36 @@
+package org.example.springboot.common;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ */
+@Data
+public class CursorPage<T> {
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+
+    /**
+     * 每页条数
+     */
+    private Integer size;
+
+    /**
+     * 下一页游标，没有更多数据时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+
+    /**
+     * 总条数，请求跳过计数时为空
+     */
+    private Long total;
+}
@@ -0,0 +1,159 @@
+package org.example.springboot.common;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.service.ResourceVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 读多写少列表接口的响应缓存
+ * 缓存序列化后的 Result JSON，按所依赖资源的版本号判断是否失效；
+ * ETag 取自响应内容摘要，Last-Modified 为内容最近一次变化的时间，
+ * 客户端携带的 If-None-Match / If-Modified-Since 与当前内容一致时直接返回304，不查询数据库也不做序列化。
+ * 缓存条目另设过期时间，兜底其他节点写入导致的版本号不一致。
+ */
+@Component
+public class JsonResponseCache {
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private ResourceVersions resourceVersions;
+
+    @Value("${http-cache.capacity:256}")
+    private int capacity;
+
+    @Value("${http-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private LRUCache<String, Entry> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder notModified = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(capacity, TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+
+    /**
+     * 返回缓存的列表响应
+     * @param cacheKey 接口及参数组成的缓存键
+     * @param loader 缓存失效时加载数据
+     * @param families 响应数据依赖的资源类别
+     */
+    public ResponseEntity<byte[]> serve(HttpServletRequest request, String cacheKey, Supplier<?> loader,
+                                        ResourceVersions.Family... families) {
+        String versionKey = resourceVersions.key(families);
+        Entry entry = cache.get(cacheKey, false);
+        if (entry == null || !entry.versionKey.equals(versionKey)) {
+            misses.increment();
+            entry = build(versionKey, loader.get(), entry);
+            cache.put(cacheKey, entry);
+        } else {
+            hits.increment();
+        }
+
+        if (notModified(request, entry)) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(entry.etag)
+                    .lastModified(entry.lastModified)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(entry.etag)
+                .lastModified(entry.lastModified)
+                .body(entry.body);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 命中统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("notModified", notModified.sum());
+        return stats;
+    }
+
+    private Entry build(String versionKey, Object data, Entry previous) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(Result.success(data));
+        } catch (JsonProcessingException e) {
+            throw new ServiceException("响应序列化失败");
+        }
+        String etag = "\"" + DigestUtil.md5Hex(body) + "\"";
+        // 内容未变化时保留原来的修改时间，Last-Modified精确到秒
+        long lastModified = previous != null && previous.etag.equals(etag)
+                ? previous.lastModified
+                : System.currentTimeMillis() / 1000 * 1000;
+        return new Entry(versionKey, body, etag, lastModified);
+    }
+
+    private boolean notModified(HttpServletRequest request, Entry entry) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals(entry.etag) || candidate.equals("*")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && entry.lastModified <= ifModifiedSince;
+    }
+
+    private static final class Entry {
+        private final String versionKey;
+        private final byte[] body;
+        private final String etag;
+        private final long lastModified;
+
+        private Entry(String versionKey, byte[] body, String etag, long lastModified) {
+            this.versionKey = versionKey;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -2,8 +2,6 @@ package org.example.springboot.config;
 
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
 
@@ -13,7 +11,8 @@ import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.example.springboot.entity.User;
-import org.example.springboot.service.UserService;
+import org.example.springboot.service.CurrentPrincipal;
+import org.example.springboot.service.JwtVerifierCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -26,7 +25,9 @@ import org.springframework.web.servlet.HandlerInterceptor;
 public class JwtInterceptor implements HandlerInterceptor {
     public static final Logger LOGGER = LoggerFactory.getLogger(HandlerInterceptor.class);
     @Resource
-    private UserService userService;
+    private JwtVerifierCache jwtVerifierCache;
+    @Resource
+    private CurrentPrincipal currentPrincipal;
 
     @Override
     public boolean preHandle(HttpServletRequest request,  HttpServletResponse response,  Object handler) throws Exception {
@@ -40,10 +41,9 @@ public class JwtInterceptor implements HandlerInterceptor {
             return false;
         }
 
-        User user;
+        Long userId;
         try {
-            String userId = JWT.decode(token).getAudience().get(0);
-            user = userService.getUserById(Long.valueOf(userId));
+            userId = Long.valueOf(JWT.decode(token).getAudience().get(0));
         } catch (Exception e) {
             String errMsg = "token失效，重新登录！";
             LOGGER.error(errMsg + " ,token=" + token, e);
@@ -51,19 +51,16 @@ public class JwtInterceptor implements HandlerInterceptor {
             response.getWriter().print(errMsg); // 返回错误信息
             return false;
         }
-        if (user == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().print("User not found");
-            return false;
-        }
+        User user;
         try {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(user.getPassword())).build();
-            jwtVerifier.verify(token);
+            // 校验器按用户缓存，命中时不查询数据库
+            user = jwtVerifierCache.verify(userId, token);
         } catch (JWTVerificationException e) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().print("token认证失败，重新登录！");
             return false;
         }
+        currentPrincipal.authenticate(userId, user);
         LOGGER.info("验证成功，允许放行。{}",user);
         return HandlerInterceptor.super.preHandle(request, response, handler);
     }
@@ -3,6 +3,7 @@ package org.example.springboot.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import org.example.springboot.service.SqlMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -19,4 +20,12 @@ public class MybatisPlusConfig {
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
         return interceptor;
     }
+
+    /**
+     * SQL统计插件
+     */
+    @Bean
+    public SqlMetricsInterceptor sqlMetricsInterceptor(SqlMetrics sqlMetrics) {
+        return new SqlMetricsInterceptor(sqlMetrics);
+    }
 }
@@ -0,0 +1,56 @@
+package org.example.springboot.config;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.springboot.common.ResultCode;
+import org.example.springboot.service.RequestMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 接口请求统计拦截器
+ * 返回码由 ResultCodeAdvice 从响应的 Result 中取出放入请求属性；非 Result 响应按HTTP状态码记录。
+ * 异步请求（如流式导出）在异步处理完成后的再次分发中结束计时。
+ */
+@Component
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+    static final String STATS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".stats";
+    static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+    static final String CODE_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".code";
+
+    @Resource
+    private RequestMetrics requestMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!requestMetrics.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)
+                || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        request.setAttribute(STATS_ATTRIBUTE, requestMetrics.start(handlerMethod.getMethod()));
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object stats = request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            return;
+        }
+        request.removeAttribute(STATS_ATTRIBUTE);
+        long nanos = System.nanoTime() - (Long) request.getAttribute(START_ATTRIBUTE);
+        String code = (String) request.getAttribute(CODE_ATTRIBUTE);
+        if (code == null) {
+            if (ex != null) {
+                code = ResultCode.SYSTEM_ERROR.getCode();
+            } else if (response.getStatus() >= 400) {
+                code = String.valueOf(response.getStatus());
+            }
+        }
+        requestMetrics.finish((RequestMetrics.HandlerStats) stats, nanos, code);
+    }
+}
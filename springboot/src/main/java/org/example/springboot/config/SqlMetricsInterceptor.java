@@ -0,0 +1,58 @@
+package org.example.springboot.config;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.example.springboot.service.SqlMetrics;
+
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * SQL统计拦截器
+ * 拦截 StatementHandler 的执行方法，只统计真正发往数据库的语句（不含一级缓存命中），
+ * 分页插件生成的 COUNT 语句以 "_mpCount" 结尾的ID单独统计
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+    private final SqlMetrics sqlMetrics;
+
+    public SqlMetricsInterceptor(SqlMetrics sqlMetrics) {
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!sqlMetrics.isEnabled()) {
+            return invocation.proceed();
+        }
+        PluginUtils.MPStatementHandler handler = PluginUtils.mpStatementHandler((StatementHandler) invocation.getTarget());
+        String statementId = handler.mappedStatement().getId();
+        sqlMetrics.beforeStatement(statementId, handler.boundSql().getSql());
+
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            if (result instanceof Collection<?> collection) {
+                rows = collection.size();
+            } else if (result instanceof Integer count) {
+                rows = count;
+            }
+            failed = false;
+            return result;
+        } finally {
+            sqlMetrics.afterStatement(statementId, System.nanoTime() - start, rows, failed);
+        }
+    }
+}
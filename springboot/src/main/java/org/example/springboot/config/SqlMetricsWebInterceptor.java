@@ -0,0 +1,40 @@
+package org.example.springboot.config;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.springboot.service.SqlMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * 为每个请求开启SQL统计范围，结束时按接口（请求方法 + 路径模板）汇总
+ * 异步请求（如流式导出）在主线程返回时结束，之后在其他线程执行的语句只计入 Mapper 方法统计
+ */
+@Component
+public class SqlMetricsWebInterceptor implements AsyncHandlerInterceptor {
+    @Resource
+    private SqlMetrics sqlMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlMetrics.beginRequest();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlMetrics.endRequest(endpointOf(request));
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        sqlMetrics.endRequest(endpointOf(request));
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern == null ? "UNMAPPED" : pattern);
+    }
+}
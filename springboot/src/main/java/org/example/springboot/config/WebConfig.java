@@ -12,6 +12,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * 主要功能：
  * 1. 配置全局API路径前缀
  * 2. 配置JWT拦截器及其路径规则
+ * 3. 配置接口请求统计和SQL统计拦截器
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -42,6 +43,12 @@ public class WebConfig implements WebMvcConfigurer {
     @Resource
     private JwtInterceptor jwtInterceptor;
 
+    @Resource
+    private RequestMetricsInterceptor requestMetricsInterceptor;
+
+    @Resource
+    private SqlMetricsWebInterceptor sqlMetricsWebInterceptor;
+
 
 
     /**
@@ -66,6 +73,12 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // 统计拦截器放在最前，JWT校验的耗时和查询也计入请求
+        registry.addInterceptor(requestMetricsInterceptor)
+                .addPathPatterns("/**");
+        registry.addInterceptor(sqlMetricsWebInterceptor)
+                .addPathPatterns("/**");
+
         // 配置JWT拦截器
         registry.addInterceptor(jwtInterceptor)
                 .addPathPatterns(API_PREFIX + "/**")    // 拦截所有API请求
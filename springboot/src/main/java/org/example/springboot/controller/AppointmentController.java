@@ -4,10 +4,12 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.Appointment;
 import org.example.springboot.entity.Patient;
 import org.example.springboot.service.AppointmentService;
+import org.example.springboot.service.ExportService;
 import org.example.springboot.service.PatientService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.slf4j.Logger;
@@ -28,6 +30,8 @@ public class AppointmentController {
     private AppointmentService appointmentService;
     @Autowired
     private PatientService patientService;
+    @Resource
+    private ExportService exportService;
 
     @Operation(summary = "新增预约")
     @PostMapping
@@ -78,6 +82,23 @@ public class AppointmentController {
         return Result.success(page);
     }
     
+    @Operation(summary = "游标分页查询预约列表")
+    @GetMapping("/cursor")
+    public Result<?> getAppointmentsByCursor(
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String patientName,
+            @RequestParam(required = false) String doctorName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") boolean skipCount) {
+        return Result.success(appointmentService.getAppointmentsByCursor(patientId, doctorId, patientName, doctorName,
+                startDate, endDate, status, cursor, size, skipCount));
+    }
+    
     @Operation(summary = "获取患者预约列表")
     @GetMapping("/patient/{patientId}")
     public Result<?> getAppointmentsByPatient(@PathVariable Long patientId) {
@@ -114,4 +135,16 @@ public class AppointmentController {
         appointmentService.updateAppointment(id, appointment);
         return Result.success();
     }
+    
+    @Operation(summary = "导出预约（CSV）")
+    @GetMapping("/export")
+    public void exportAppointments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer status,
+            HttpServletResponse response) {
+        LOGGER.info("导出预约: startDate={}, endDate={}, status={}", startDate, endDate, status);
+        exportService.exportAppointments(startDate, endDate, status,
+                ExportService.csvAttachment(response, "appointments_" + startDate + "_" + endDate + ".csv"));
+    }
 } 
\ No newline at end of file
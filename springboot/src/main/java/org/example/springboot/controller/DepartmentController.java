@@ -3,11 +3,15 @@ package org.example.springboot.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.springboot.common.JsonResponseCache;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.Department;
 import org.example.springboot.service.DepartmentService;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @Tag(name = "科室管理接口")
@@ -19,6 +23,9 @@ public class DepartmentController {
     @Resource
     private DepartmentService departmentService;
     
+    @Resource
+    private JsonResponseCache jsonResponseCache;
+    
     @Operation(summary = "新增科室")
     @PostMapping
     public Result<?> createDepartment(@RequestBody Department department) {
@@ -44,8 +51,9 @@ public class DepartmentController {
     
     @Operation(summary = "获取所有科室列表")
     @GetMapping("/list")
-    public Result<?> getAllDepartments() {
-        return Result.success(departmentService.getAllDepartments());
+    public ResponseEntity<byte[]> getAllDepartments(HttpServletRequest request) {
+        return jsonResponseCache.serve(request, "department:list", departmentService::getAllDepartments,
+                Family.DEPARTMENT, Family.DOCTOR);
     }
     
     @Operation(summary = "分页查询科室列表")
@@ -4,15 +4,23 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.springboot.common.JsonResponseCache;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.Doctor;
 import org.example.springboot.entity.User;
+import org.example.springboot.service.BulkImportService;
 import org.example.springboot.service.DoctorService;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.example.springboot.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -25,9 +33,15 @@ public class DoctorController {
     @Resource
     private DoctorService doctorService;
     
+    @Resource
+    private JsonResponseCache jsonResponseCache;
+    
     @Resource
     private UserService userService;
     
+    @Resource
+    private BulkImportService bulkImportService;
+    
     @Operation(summary = "创建医生")
     @PostMapping
     public Result<?> createDoctor(@RequestBody Doctor doctor) {
@@ -82,10 +96,9 @@ public class DoctorController {
     
     @Operation(summary = "获取所有医生列表")
     @GetMapping("/list")
-    public Result<?> getAllDoctors() {
-        LOGGER.info("获取所有医生列表");
-        List<Doctor> doctors = doctorService.getAllDoctors();
-        return Result.success(doctors);
+    public ResponseEntity<byte[]> getAllDoctors(HttpServletRequest request) {
+        return jsonResponseCache.serve(request, "doctor:list", doctorService::getAllDoctors,
+                Family.DOCTOR, Family.DEPARTMENT, Family.USER);
     }
     
     @Operation(summary = "获取所有医生列表(供前端下拉框使用)")
@@ -110,6 +123,16 @@ public class DoctorController {
         return Result.success(page);
     }
     
+    @Operation(summary = "按关键词检索医生")
+    @GetMapping("/search")
+    public Result<?> searchDoctors(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        Page<Doctor> page = doctorService.searchDoctors(keyword, currentPage, size);
+        return Result.success(page);
+    }
+    
     @Operation(summary = "获取科室下的医生")
     @GetMapping("/department/{departmentId}")
     public Result<?> getDoctorsByDepartment(@PathVariable Long departmentId) {
@@ -148,4 +171,13 @@ public class DoctorController {
         doctorService.unbindUserFromDoctor(doctorId);
         return Result.success();
     }
+    
+    @Operation(summary = "批量导入医生（CSV）")
+    @PostMapping("/import")
+    public Result<?> importDoctors(@RequestParam("file") MultipartFile file) throws IOException {
+        LOGGER.info("批量导入医生: fileName={}, size={}", file.getOriginalFilename(), file.getSize());
+        try (InputStream in = file.getInputStream()) {
+            return Result.success(bulkImportService.importDoctors(in));
+        }
+    }
 } 
\ No newline at end of file
@@ -4,11 +4,14 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.MedicalRecord;
 import org.example.springboot.entity.Patient;
+import org.example.springboot.service.ExportService;
 import org.example.springboot.service.MedicalRecordService;
 import org.example.springboot.service.PatientService;
+import org.example.springboot.service.TcmAnalyticsService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +31,10 @@ public class MedicalRecordController {
     private MedicalRecordService medicalRecordService;
     @Autowired
     private PatientService patientService;
+    @Resource
+    private TcmAnalyticsService tcmAnalyticsService;
+    @Resource
+    private ExportService exportService;
 
     @Operation(summary = "新增就诊记录")
     @PostMapping
@@ -69,6 +76,22 @@ public class MedicalRecordController {
         return Result.success(page);
     }
     
+    @Operation(summary = "游标分页查询就诊记录")
+    @GetMapping("/cursor")
+    public Result<?> getMedicalRecordsByCursor(
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String patientName,
+            @RequestParam(required = false) String doctorName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") boolean skipCount) {
+        return Result.success(medicalRecordService.getMedicalRecordsByCursor(patientId, doctorId, patientName, doctorName,
+                startDate, endDate, cursor, size, skipCount));
+    }
+    
     @Operation(summary = "获取患者就诊记录")
     @GetMapping("/patient/{patientId}")
     public Result<?> getMedicalRecordsByPatient(@PathVariable Long patientId) {
@@ -104,4 +127,64 @@ public class MedicalRecordController {
         medicalRecordService.deleteMedicalRecord(id);
         return Result.success();
     }
+    
+    @Operation(summary = "诊疗统计：最常见的诊断")
+    @GetMapping("/analytics/diagnoses")
+    public Result<?> getTopDiagnoses(@RequestParam(required = false) Integer top) {
+        return Result.success(tcmAnalyticsService.topDiagnoses(top));
+    }
+    
+    @Operation(summary = "诊疗统计：最常见的证型，可按诊断筛选")
+    @GetMapping("/analytics/syndromes")
+    public Result<?> getTopSyndromes(@RequestParam(required = false) String diagnosis,
+                                     @RequestParam(required = false) Integer top) {
+        return Result.success(tcmAnalyticsService.topSyndromes(diagnosis, top));
+    }
+    
+    @Operation(summary = "诊疗统计：最常见的症状")
+    @GetMapping("/analytics/symptoms")
+    public Result<?> getTopSymptoms(@RequestParam(required = false) Integer top) {
+        return Result.success(tcmAnalyticsService.topSymptoms(top));
+    }
+    
+    @Operation(summary = "诊疗统计：与症状共同出现最多的证型")
+    @GetMapping("/analytics/symptom-syndromes")
+    public Result<?> getSyndromesBySymptom(@RequestParam String symptom,
+                                           @RequestParam(required = false) Integer top) {
+        return Result.success(tcmAnalyticsService.topSyndromesBySymptom(symptom, top));
+    }
+    
+    @Operation(summary = "诊疗统计：证型下最常用的药品")
+    @GetMapping("/analytics/syndrome-medicines")
+    public Result<?> getMedicinesBySyndrome(@RequestParam String syndrome,
+                                            @RequestParam(required = false) Integer top) {
+        return Result.success(tcmAnalyticsService.topMedicinesBySyndrome(syndrome, top));
+    }
+    
+    @Operation(summary = "诊疗统计：概况")
+    @GetMapping("/analytics/summary")
+    public Result<?> getAnalyticsSummary() {
+        return Result.success(tcmAnalyticsService.getSummary());
+    }
+    
+    @Operation(summary = "诊疗统计：重新全量加载")
+    @PostMapping("/analytics/rebuild")
+    public Result<?> rebuildAnalytics() {
+        LOGGER.info("重新加载诊疗统计");
+        if (!tcmAnalyticsService.rebuild()) {
+            return Result.error("诊疗统计正在加载，请稍后再试");
+        }
+        return Result.success(tcmAnalyticsService.getSummary());
+    }
+    
+    @Operation(summary = "导出就诊记录（CSV）")
+    @GetMapping("/export")
+    public void exportMedicalRecords(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) {
+        LOGGER.info("导出就诊记录: startDate={}, endDate={}", startDate, endDate);
+        exportService.exportMedicalRecords(startDate, endDate,
+                ExportService.csvAttachment(response, "medical_records_" + startDate + "_" + endDate + ".csv"));
+    }
 } 
\ No newline at end of file
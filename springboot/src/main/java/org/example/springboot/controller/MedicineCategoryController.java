@@ -3,11 +3,15 @@ package org.example.springboot.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.springboot.common.JsonResponseCache;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.MedicineCategory;
 import org.example.springboot.service.MedicineCategoryService;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -21,6 +25,9 @@ public class MedicineCategoryController {
     @Resource
     private MedicineCategoryService medicineCategoryService;
     
+    @Resource
+    private JsonResponseCache jsonResponseCache;
+    
     @Operation(summary = "新增药品分类")
     @PostMapping
     public Result<?> addCategory(@RequestBody MedicineCategory medicineCategory) {
@@ -84,10 +91,9 @@ public class MedicineCategoryController {
     
     @Operation(summary = "获取所有药品分类")
     @GetMapping("/list")
-    public Result<?> getAllCategories() {
-        LOGGER.info("获取所有药品分类");
-        List<MedicineCategory> categories = medicineCategoryService.getAllCategories();
-        return Result.success(categories);
+    public ResponseEntity<byte[]> getAllCategories(HttpServletRequest request) {
+        return jsonResponseCache.serve(request, "medicine-category:list", medicineCategoryService::getAllCategories,
+                Family.MEDICINE_CATEGORY);
     }
     
     @Operation(summary = "分页查询药品分类")
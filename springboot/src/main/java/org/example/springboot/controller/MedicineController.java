@@ -3,12 +3,21 @@ package org.example.springboot.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.springboot.common.JsonResponseCache;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.Medicine;
+import org.example.springboot.service.BulkImportService;
 import org.example.springboot.service.MedicineService;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @Tag(name = "药品管理接口")
 @RestController
@@ -19,6 +28,12 @@ public class MedicineController {
     @Resource
     private MedicineService medicineService;
     
+    @Resource
+    private JsonResponseCache jsonResponseCache;
+    
+    @Resource
+    private BulkImportService bulkImportService;
+    
     @Operation(summary = "新增药品")
     @PostMapping
     public Result<?> createMedicine(@RequestBody Medicine medicine) {
@@ -61,6 +76,15 @@ public class MedicineController {
         return Result.success(medicineService.getMedicinesByPage(medicineName, medicineCode, category, categoryId, status, currentPage, size));
     }
     
+    @Operation(summary = "按关键词检索药品")
+    @GetMapping("/search")
+    public Result<?> searchMedicines(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(medicineService.searchMedicines(keyword, currentPage, size));
+    }
+    
     @Operation(summary = "删除药品")
     @DeleteMapping("/{id}")
     public Result<?> deleteMedicine(@PathVariable Long id) {
@@ -87,8 +111,9 @@ public class MedicineController {
     
     @Operation(summary = "获取所有药品分类")
     @GetMapping("/categories")
-    public Result<?> getAllCategories() {
-        return Result.success(medicineService.getAllCategories());
+    public ResponseEntity<byte[]> getAllCategories(HttpServletRequest request) {
+        return jsonResponseCache.serve(request, "medicine:categories", medicineService::getAllCategories,
+                Family.MEDICINE_CATEGORY);
     }
     
     @Operation(summary = "根据分类ID获取药品列表")
@@ -97,4 +122,13 @@ public class MedicineController {
         LOGGER.info("根据分类ID获取药品列表: categoryId={}", categoryId);
         return Result.success(medicineService.getMedicinesByCategory(categoryId));
     }
+    
+    @Operation(summary = "批量导入药品（CSV）")
+    @PostMapping("/import")
+    public Result<?> importMedicines(@RequestParam("file") MultipartFile file) throws IOException {
+        LOGGER.info("批量导入药品: fileName={}, size={}", file.getOriginalFilename(), file.getSize());
+        try (InputStream in = file.getInputStream()) {
+            return Result.success(bulkImportService.importMedicines(in));
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.example.springboot.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
+import org.example.springboot.common.Result;
+import org.example.springboot.service.PrometheusExporter;
+import org.example.springboot.service.RequestMetrics;
+import org.example.springboot.service.SqlMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "运行统计接口")
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsController.class);
+
+    @Resource
+    private SqlMetrics sqlMetrics;
+
+    @Resource
+    private RequestMetrics requestMetrics;
+
+    @Resource
+    private PrometheusExporter prometheusExporter;
+
+    @Operation(summary = "Prometheus 格式的运行统计")
+    @GetMapping(value = "/prometheus", produces = PrometheusExporter.CONTENT_TYPE)
+    public String prometheus() {
+        return prometheusExporter.scrape();
+    }
+
+    @Operation(summary = "接口请求统计（按控制器方法）")
+    @GetMapping("/requests")
+    public Result<?> getRequestStats() {
+        return Result.success(requestMetrics.getStats());
+    }
+
+    @Operation(summary = "清空接口请求统计")
+    @DeleteMapping("/requests")
+    public Result<?> resetRequestStats() {
+        LOGGER.info("清空接口请求统计");
+        requestMetrics.reset();
+        return Result.success();
+    }
+
+    @Operation(summary = "SQL执行统计（按Mapper方法和接口）")
+    @GetMapping("/sql")
+    public Result<?> getSqlStats() {
+        return Result.success(sqlMetrics.getStats());
+    }
+
+    @Operation(summary = "清空SQL执行统计")
+    @DeleteMapping("/sql")
+    public Result<?> resetSqlStats() {
+        LOGGER.info("清空SQL执行统计");
+        sqlMetrics.reset();
+        return Result.success();
+    }
+}
@@ -3,18 +3,23 @@ package org.example.springboot.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import org.example.springboot.DTO.BatchDeleteReport;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.Patient;
 import org.example.springboot.entity.User;
 import org.example.springboot.DTO.PatientRegisterDTO;
+import org.example.springboot.service.BulkImportService;
 import org.example.springboot.service.PatientService;
 import org.example.springboot.util.JwtTokenUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -27,6 +32,9 @@ public class PatientController {
     @Resource
     private PatientService patientService;
     
+    @Resource
+    private BulkImportService bulkImportService;
+    
     @Operation(summary = "新增患者")
     @PostMapping
     public Result<?> createPatient(@RequestBody Patient patient) {
@@ -82,6 +90,28 @@ public class PatientController {
         return Result.success(patientService.getPatientsByPage(name, idCard, phone, username, currentPage, size));
     }
     
+    @Operation(summary = "按关键词检索患者")
+    @GetMapping("/search")
+    public Result<?> searchPatients(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "1") Integer currentPage,
+            @RequestParam(defaultValue = "10") Integer size) {
+        return Result.success(patientService.searchPatients(keyword, currentPage, size));
+    }
+    
+    @Operation(summary = "游标分页查询患者列表")
+    @GetMapping("/cursor")
+    public Result<?> getPatientsByCursor(
+            @RequestParam(defaultValue = "") String name,
+            @RequestParam(defaultValue = "") String idCard,
+            @RequestParam(defaultValue = "") String phone,
+            @RequestParam(defaultValue = "") String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") boolean skipCount) {
+        return Result.success(patientService.getPatientsByCursor(name, idCard, phone, username, cursor, size, skipCount));
+    }
+    
     @Operation(summary = "删除患者")
     @DeleteMapping("/{id}")
     public Result<?> deletePatient(@PathVariable Long id) {
@@ -94,8 +124,9 @@ public class PatientController {
     @DeleteMapping("/batch")
     public Result<?> batchDeletePatients(@RequestBody List<Long> ids) {
         LOGGER.info("批量删除患者: ids={}", ids);
-        patientService.batchDeletePatients(ids);
-        return Result.success();
+        BatchDeleteReport report = patientService.batchDeletePatients(ids);
+        LOGGER.info("批量删除患者完成: deleted={}, failed={}", report.getDeleted(), report.getFailed());
+        return Result.success(report);
     }
     
     @Operation(summary = "绑定患者与用户关系")
@@ -186,4 +217,13 @@ public class PatientController {
         Patient newPatient = patientService.createPatientWithUser(user, patient);
         return Result.success(newPatient);
     }
+    
+    @Operation(summary = "批量导入患者（CSV）")
+    @PostMapping("/import")
+    public Result<?> importPatients(@RequestParam("file") MultipartFile file) throws IOException {
+        LOGGER.info("批量导入患者: fileName={}, size={}", file.getOriginalFilename(), file.getSize());
+        try (InputStream in = file.getInputStream()) {
+            return Result.success(bulkImportService.importPatients(in));
+        }
+    }
 } 
\ No newline at end of file
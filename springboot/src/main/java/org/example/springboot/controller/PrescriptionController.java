@@ -4,11 +4,15 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.springboot.common.Result;
+import org.example.springboot.entity.Patient;
 import org.example.springboot.entity.Prescription;
 import org.example.springboot.entity.PrescriptionDetail;
+import org.example.springboot.service.ExportService;
+import org.example.springboot.service.PatientService;
+import org.example.springboot.service.PrescriptionRecommendService;
 import org.example.springboot.service.PrescriptionService;
-import org.example.springboot.util.JwtTokenUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -25,6 +29,15 @@ public class PrescriptionController {
     @Resource
     private PrescriptionService prescriptionService;
     
+    @Resource
+    private PatientService patientService;
+    
+    @Resource
+    private PrescriptionRecommendService prescriptionRecommendService;
+    
+    @Resource
+    private ExportService exportService;
+    
     @Operation(summary = "新增处方")
     @PostMapping
     public Result<?> createPrescription(@RequestBody Prescription prescription) {
@@ -69,6 +82,25 @@ public class PrescriptionController {
         return Result.success(page);
     }
     
+    @Operation(summary = "游标分页查询处方列表")
+    @GetMapping("/cursor")
+    public Result<?> getPrescriptionsByCursor(
+            @RequestParam(required = false) String prescriptionNo,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String patientName,
+            @RequestParam(required = false) String doctorName,
+            @RequestParam(required = false) Long recordId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "false") boolean skipCount) {
+        return Result.success(prescriptionService.getPrescriptionsByCursor(prescriptionNo, patientId, doctorId, patientName,
+                doctorName, recordId, startDate, endDate, status, cursor, size, skipCount));
+    }
+    
     @Operation(summary = "获取患者处方列表")
     @GetMapping("/patient/{patientId}")
     public Result<?> getPrescriptionsByPatient(@PathVariable Long patientId) {
@@ -79,8 +111,8 @@ public class PrescriptionController {
     @GetMapping("/my")
     public Result<?> getMyPrescriptions() {
         // 获取当前登录用户的患者ID
-        Long userId = JwtTokenUtils.getCurrentUserId();
-        return Result.success(prescriptionService.getPrescriptionsByPatient(userId));
+        Patient currentPatient = patientService.getCurrentPatient();
+        return Result.success(prescriptionService.getPrescriptionsByPatient(currentPatient.getId()));
     }
     
     @Operation(summary = "获取就诊记录关联的处方列表")
@@ -112,4 +144,40 @@ public class PrescriptionController {
         prescriptionService.deletePrescriptionDetail(id);
         return Result.success();
     }
+    
+    @Operation(summary = "按证型和症状推荐用药（基于相似的历史处方）")
+    @GetMapping("/recommend")
+    public Result<?> recommendMedicines(@RequestParam(required = false) String syndrome,
+                                        @RequestParam(required = false) String symptoms,
+                                        @RequestParam(required = false) Integer top) {
+        return Result.success(prescriptionRecommendService.recommend(syndrome, symptoms, top));
+    }
+    
+    @Operation(summary = "用药推荐索引统计")
+    @GetMapping("/recommend/stats")
+    public Result<?> getRecommendStats() {
+        return Result.success(prescriptionRecommendService.getStats());
+    }
+    
+    @Operation(summary = "重新加载用药推荐索引")
+    @PostMapping("/recommend/rebuild")
+    public Result<?> rebuildRecommendIndex() {
+        LOGGER.info("重新加载用药推荐索引");
+        if (!prescriptionRecommendService.rebuild()) {
+            return Result.error("用药推荐索引正在加载，请稍后再试");
+        }
+        return Result.success(prescriptionRecommendService.getStats());
+    }
+    
+    @Operation(summary = "导出处方（CSV，每条明细一行）")
+    @GetMapping("/export")
+    public void exportPrescriptions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer status,
+            HttpServletResponse response) {
+        LOGGER.info("导出处方: startDate={}, endDate={}, status={}", startDate, endDate, status);
+        exportService.exportPrescriptions(startDate, endDate, status,
+                ExportService.csvAttachment(response, "prescriptions_" + startDate + "_" + endDate + ".csv"));
+    }
 } 
\ No newline at end of file
@@ -3,12 +3,18 @@ package org.example.springboot.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.springboot.DTO.ScheduleTemplateDTO;
+import org.example.springboot.common.JsonResponseCache;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.Schedule;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.example.springboot.service.ScheduleService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -23,6 +29,9 @@ public class ScheduleController {
     @Resource
     private ScheduleService scheduleService;
     
+    @Resource
+    private JsonResponseCache jsonResponseCache;
+    
     @Operation(summary = "新增排班")
     @PostMapping
     public Result<?> createSchedule(@RequestBody Schedule schedule) {
@@ -39,6 +48,15 @@ public class ScheduleController {
         return Result.success();
     }
     
+    @Operation(summary = "按模板生成排班")
+    @PostMapping("/generate")
+    public Result<?> generateSchedules(@Validated @RequestBody ScheduleTemplateDTO template) {
+        LOGGER.info("按模板生成排班: doctors={}, startDate={}, weeks={}, weekdays={}, timeSlots={}",
+                template.getDoctorIds().size(), template.getStartDate(), template.getWeeks(),
+                template.getWeekdays(), template.getTimeSlots());
+        return Result.success(scheduleService.generateSchedules(template));
+    }
+    
     @Operation(summary = "更新排班信息")
     @PutMapping("/{id}")
     public Result<?> updateSchedule(@PathVariable Long id, @RequestBody Schedule schedule) {
@@ -79,9 +97,10 @@ public class ScheduleController {
     
     @Operation(summary = "获取某日排班列表")
     @GetMapping("/date/{date}")
-    public Result<?> getSchedulesByDate(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<Schedule> schedules = scheduleService.getSchedulesByDate(date);
-        return Result.success(schedules);
+    public ResponseEntity<byte[]> getSchedulesByDate(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                     HttpServletRequest request) {
+        return jsonResponseCache.serve(request, "schedule:date:" + date, () -> scheduleService.getSchedulesByDate(date),
+                Family.SCHEDULE, Family.DOCTOR, Family.DEPARTMENT);
     }
     
     @Operation(summary = "更新排班状态")
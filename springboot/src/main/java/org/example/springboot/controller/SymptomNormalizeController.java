@@ -1,46 +1,65 @@
 package org.example.springboot.controller;
 
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Resource;
 import org.example.springboot.common.Result;
-import org.springframework.http.*;
+import org.example.springboot.service.SymptomNormalizeService;
+import org.example.springboot.service.SymptomStandardizePipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
-import java.util.HashMap;
+
+import java.util.List;
 import java.util.Map;
 
+@Tag(name = "症状标准化接口")
 @RestController
 @RequestMapping("/symptom")
 public class SymptomNormalizeController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SymptomNormalizeController.class);
+
+    @Resource
+    private SymptomNormalizeService symptomNormalizeService;
 
-    private static final String PYTHON_API = "http://localhost:9001/normalize";
+    @Resource
+    private SymptomStandardizePipeline symptomStandardizePipeline;
 
+    @Operation(summary = "症状标准化")
     @PostMapping("/normalize")
     public Result<String> normalize(@RequestBody Map<String, String> body) {
         String symptom = body.get("symptom");
         if (symptom == null || symptom.trim().isEmpty()) {
             return Result.error("症状不能为空");
         }
+        return Result.success(symptomNormalizeService.normalize(symptom));
+    }
 
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, String> req = new HashMap<>();
-            req.put("symptom", symptom);
-
-            HttpEntity<Map<String, String>> entity =
-                    new HttpEntity<>(req, headers);
+    @Operation(summary = "批量症状标准化")
+    @PostMapping("/normalize/batch")
+    public Result<?> normalizeBatch(@RequestBody Map<String, List<String>> body) {
+        List<String> symptoms = body.get("symptoms");
+        LOGGER.info("批量症状标准化: size={}", symptoms == null ? 0 : symptoms.size());
+        return Result.success(symptomNormalizeService.normalizeBatch(symptoms));
+    }
 
-            ResponseEntity<Map> resp =
-                    restTemplate.postForEntity(PYTHON_API, entity, Map.class);
+    @Operation(summary = "症状标准化命中统计")
+    @GetMapping("/stats")
+    public Result<?> getStats() {
+        return Result.success(symptomNormalizeService.getStats());
+    }
 
-            String standard = (String) resp.getBody().get("standard");
-            return Result.success(standard);
+    @Operation(summary = "就诊记录症状异步标准化队列统计")
+    @GetMapping("/pipeline/stats")
+    public Result<?> getPipelineStats() {
+        return Result.success(symptomStandardizePipeline.getStats());
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return Result.error("症状标准化失败");
-        }
+    @Operation(summary = "死信重新入队")
+    @PostMapping("/pipeline/retry-dead-letters")
+    public Result<?> retryDeadLetters() {
+        int count = symptomStandardizePipeline.retryDeadLetters();
+        LOGGER.info("症状标准化死信重新入队: {}", count);
+        return Result.success(count);
     }
 }
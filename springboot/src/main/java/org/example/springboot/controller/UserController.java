@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import org.example.springboot.DTO.BatchDeleteReport;
 import org.example.springboot.common.Result;
 import org.example.springboot.entity.User;
 import org.example.springboot.DTO.UserPasswordUpdateDTO;
@@ -104,8 +105,8 @@ public class UserController {
     @Operation(summary = "批量删除用户")
     @DeleteMapping("/deleteBatch")
     public Result<?> deleteBatch(@RequestParam List<Integer> ids) {
-        userService.deleteBatch(ids);
-        return Result.success("批量删除成功");
+        BatchDeleteReport report = userService.deleteBatch(ids);
+        return Result.success(report);
     }
 
     @Operation(summary = "获取所有用户")
@@ -3,22 +3,33 @@ package org.example.springboot.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.example.springboot.entity.Appointment;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface AppointmentMapper extends BaseMapper<Appointment> {
     /**
      * 根据患者姓名和医生姓名查询预约信息（分页）
+     * 姓名条件在关联表上过滤，一条SQL完成，不需要先查出全部匹配的患者ID
      */
     @Select({
         "<script>",
         "SELECT a.* FROM appointment a",
-        "LEFT JOIN patient p ON a.patient_id = p.id",
-        "LEFT JOIN doctor d ON a.doctor_id = d.id",
+        "<if test='patientName != null and patientName != \"\"'>",
+        "JOIN patient p ON a.patient_id = p.id",
+        "</if>",
+        "<if test='doctorName != null and doctorName != \"\"'>",
+        "JOIN doctor d ON a.doctor_id = d.id",
+        "</if>",
         "WHERE 1=1",
         "<if test='patientId != null'>",
         "    AND a.patient_id = #{patientId}",
@@ -41,7 +52,7 @@ public interface AppointmentMapper extends BaseMapper<Appointment> {
         "<if test='status != null'>",
         "    AND a.status = #{status}",
         "</if>",
-        "ORDER BY a.create_time DESC",
+        "ORDER BY a.create_time DESC, a.id DESC",
         "</script>"
     })
     Page<Appointment> selectAppointmentsByNamePage(Page<Appointment> page, 
@@ -52,4 +63,59 @@ public interface AppointmentMapper extends BaseMapper<Appointment> {
                                           @Param("startDate") LocalDate startDate,
                                           @Param("endDate") LocalDate endDate,
                                           @Param("status") Integer status);
-} 
\ No newline at end of file
+    
+    /**
+     * 按排班统计有效预约数（未取消），用于校正排班的当前预约人数
+     */
+    @Select({
+        "SELECT schedule_id AS scheduleId, COUNT(*) AS total FROM appointment",
+        "WHERE status <> 0 AND appointment_date >= #{fromDate}",
+        "GROUP BY schedule_id"
+    })
+    List<Map<String, Object>> countActiveBySchedule(@Param("fromDate") LocalDate fromDate);
+
+    /**
+     * 流式导出预约，患者、医生、科室名称在SQL中关联带出
+     */
+    @Select({
+        "<script>",
+        "SELECT a.id, a.appointment_no AS appointmentNo, a.appointment_date AS appointmentDate,",
+        "    a.time_slot AS timeSlot, a.status, a.symptoms, a.create_time AS createTime,",
+        "    p.patient_no AS patientNo, p.name AS patientName, p.phone AS patientPhone,",
+        "    d.doctor_no AS doctorNo, d.name AS doctorName, dep.dept_name AS deptName",
+        "FROM appointment a",
+        "LEFT JOIN patient p ON a.patient_id = p.id",
+        "LEFT JOIN doctor d ON a.doctor_id = d.id",
+        "LEFT JOIN department dep ON d.department_id = dep.id",
+        "<where>",
+        "<if test='startDate != null'>",
+        "    AND a.appointment_date &gt;= #{startDate}",
+        "</if>",
+        "<if test='endDate != null'>",
+        "    AND a.appointment_date &lt;= #{endDate}",
+        "</if>",
+        "<if test='status != null'>",
+        "    AND a.status = #{status}",
+        "</if>",
+        "</where>",
+        "ORDER BY a.id",
+        "</script>"
+    })
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> scanForExport(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              @Param("status") Integer status);
+
+    /**
+     * 按患者统计预约数，用于批量删除患者前的依赖检查
+     */
+    @Select({
+        "<script>",
+        "SELECT patient_id AS patientId, COUNT(*) AS total FROM appointment",
+        "WHERE patient_id IN",
+        "<foreach collection='patientIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "GROUP BY patient_id",
+        "</script>"
+    })
+    List<Map<String, Object>> countByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+}
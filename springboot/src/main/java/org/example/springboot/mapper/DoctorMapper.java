@@ -1,10 +1,31 @@
 package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.Doctor;
 
+import java.util.List;
+
 @Mapper
 public interface DoctorMapper extends BaseMapper<Doctor> {
     // 无需实现方法，使用MyBatis-Plus提供的方法
+    
+    /**
+     * 批量新增（单条多值INSERT），回填自增ID
+     */
+    @Insert({
+        "<script>",
+        "INSERT INTO doctor (doctor_no, name, department_id, title, expertise, introduction, status,",
+        "    create_time, update_time) VALUES",
+        "<foreach collection='doctors' item='d' separator=','>",
+        "    (#{d.doctorNo}, #{d.name}, #{d.departmentId}, #{d.title}, #{d.expertise}, #{d.introduction},",
+        "    #{d.status}, #{d.createTime}, #{d.updateTime})",
+        "</foreach>",
+        "</script>"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "doctors.id", keyColumn = "id")
+    int batchInsert(@Param("doctors") List<Doctor> doctors);
 } 
\ No newline at end of file
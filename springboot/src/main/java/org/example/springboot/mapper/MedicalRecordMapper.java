@@ -3,11 +3,18 @@ package org.example.springboot.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.example.springboot.entity.MedicalRecord;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface MedicalRecordMapper extends BaseMapper<MedicalRecord> {
@@ -48,4 +55,70 @@ public interface MedicalRecordMapper extends BaseMapper<MedicalRecord> {
                                               @Param("doctorName") String doctorName,
                                               @Param("startDate") LocalDate startDate,
                                               @Param("endDate") LocalDate endDate);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量回写标准症状
+     * 仅当症状原文未被修改且标准症状仍为空时写入，避免覆盖医生手工填写或之后修改的内容
+     */
+    @Update({
+        "<script>",
+        "UPDATE medical_record SET standard_symptoms = CASE",
+        "<foreach collection='records' item='r'>",
+        "    WHEN id = #{r.id} AND symptom = #{r.symptom} THEN #{r.standardSymptoms}",
+        "</foreach>",
+        "    ELSE standard_symptoms END",
+        "WHERE id IN",
+        "<foreach collection='records' item='r' open='(' separator=',' close=')'>#{r.id}</foreach>",
+        "AND (standard_symptoms IS NULL OR standard_symptoms = '')",
+        "</script>"
+    })
+    int batchUpdateStandardSymptoms(@Param("records") List<MedicalRecord> records);
+
+    /**
+     * 流式读取全部就诊记录的诊断、证型和症状（逐行读取，不把结果集整体载入内存）
+     */
+    @Select("SELECT id, symptom, standard_symptoms, traditional_chinese_medicine_diagnosis, syndrome_type FROM medical_record")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<MedicalRecord> scanDiagnosisFacts();
+
+    /**
+     * 流式导出就诊记录，患者、医生名称在SQL中关联带出
+     */
+    @Select({
+        "<script>",
+        "SELECT m.id, m.record_no AS recordNo, m.record_date AS recordDate, m.number_of_visits AS numberOfVisits,",
+        "    m.symptom, m.standard_symptoms AS standardSymptoms,",
+        "    m.traditional_chinese_medicine_diagnosis AS tcmDiagnosis, m.western_medicine_diagnosis AS westernDiagnosis,",
+        "    m.syndrome_type AS syndromeType, m.treatment, m.follow_up AS followUp, m.notes, m.create_time AS createTime,",
+        "    p.patient_no AS patientNo, p.name AS patientName, d.doctor_no AS doctorNo, d.name AS doctorName",
+        "FROM medical_record m",
+        "LEFT JOIN patient p ON m.patient_id = p.id",
+        "LEFT JOIN doctor d ON m.doctor_id = d.id",
+        "<where>",
+        "<if test='startDate != null'>",
+        "    AND m.record_date &gt;= #{startDate}",
+        "</if>",
+        "<if test='endDate != null'>",
+        "    AND m.record_date &lt;= #{endDate}",
+        "</if>",
+        "</where>",
+        "ORDER BY m.id",
+        "</script>"
+    })
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> scanForExport(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    /**
+     * 按患者统计就诊记录数，用于批量删除患者前的依赖检查
+     */
+    @Select({
+        "<script>",
+        "SELECT patient_id AS patientId, COUNT(*) AS total FROM medical_record",
+        "WHERE patient_id IN",
+        "<foreach collection='patientIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "GROUP BY patient_id",
+        "</script>"
+    })
+    List<Map<String, Object>> countByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+}
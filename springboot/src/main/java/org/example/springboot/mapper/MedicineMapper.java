@@ -1,10 +1,32 @@
 package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.Medicine;
 
+import java.util.List;
+
 @Mapper
 public interface MedicineMapper extends BaseMapper<Medicine> {
     // 无需实现方法，使用MyBatis-Plus提供的方法
+    
+    /**
+     * 批量新增（单条多值INSERT），回填自增ID
+     */
+    @Insert({
+        "<script>",
+        "INSERT INTO medicine (medicine_code, medicine_name, specification, dosage_form, manufacturer, category,",
+        "    category_id, price, stock, status, instructions, create_time, update_time) VALUES",
+        "<foreach collection='medicines' item='m' separator=','>",
+        "    (#{m.medicineCode}, #{m.medicineName}, #{m.specification}, #{m.dosageForm}, #{m.manufacturer},",
+        "    #{m.category}, #{m.categoryId}, #{m.price}, #{m.stock}, #{m.status}, #{m.instructions},",
+        "    #{m.createTime}, #{m.updateTime})",
+        "</foreach>",
+        "</script>"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "medicines.id", keyColumn = "id")
+    int batchInsert(@Param("medicines") List<Medicine> medicines);
 } 
\ No newline at end of file
@@ -2,11 +2,17 @@ package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.example.springboot.entity.Patient;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper
 public interface PatientMapper extends BaseMapper<Patient> {
     // 无需实现方法，使用MyBatis-Plus提供的方法
@@ -39,4 +45,35 @@ public interface PatientMapper extends BaseMapper<Patient> {
                                           @Param("idCard") String idCard, 
                                           @Param("phone") String phone, 
                                           @Param("username") String username);
+
+    /**
+     * 批量新增（单条多值INSERT），回填自增ID
+     */
+    @Insert({
+        "<script>",
+        "INSERT INTO patient (patient_no, name, id_card, birthday, sex, phone, address, medical_history, allergies,",
+        "    create_time, update_time) VALUES",
+        "<foreach collection='patients' item='p' separator=','>",
+        "    (#{p.patientNo}, #{p.name}, #{p.idCard}, #{p.birthday}, #{p.sex}, #{p.phone}, #{p.address},",
+        "    #{p.medicalHistory}, #{p.allergies}, #{p.createTime}, #{p.updateTime})",
+        "</foreach>",
+        "</script>"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "patients.id", keyColumn = "id")
+    int batchInsert(@Param("patients") List<Patient> patients);
+
+    /**
+     * 批量删除没有预约、就诊记录和处方的患者
+     * 依赖条件放在同一条DELETE中，检查之后新产生关联数据的患者不会被删除
+     */
+    @Delete({
+        "<script>",
+        "DELETE FROM patient WHERE id IN",
+        "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "AND NOT EXISTS (SELECT 1 FROM appointment a WHERE a.patient_id = patient.id)",
+        "AND NOT EXISTS (SELECT 1 FROM medical_record r WHERE r.patient_id = patient.id)",
+        "AND NOT EXISTS (SELECT 1 FROM prescription p WHERE p.patient_id = patient.id)",
+        "</script>"
+    })
+    int deleteUnreferenced(@Param("ids") Collection<Long> ids);
 } 
\ No newline at end of file
@@ -2,9 +2,26 @@ package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.example.springboot.entity.PrescriptionDetail;
 
+import java.util.Map;
+
 @Mapper
 public interface PrescriptionDetailMapper extends BaseMapper<PrescriptionDetail> {
-    // 无需实现方法，使用MyBatis-Plus提供的方法
-} 
\ No newline at end of file
+    /**
+     * 流式读取全部处方明细及其就诊记录ID，按处方ID排序，同一处方的明细相邻
+     */
+    @Select({
+        "SELECT p.id AS prescriptionId, p.record_id AS recordId, d.medicine_id AS medicineId,",
+        "d.dosage, d.frequency, d.`usage`, d.days, d.quantity",
+        "FROM prescription p",
+        "JOIN prescription_detail d ON d.prescription_id = p.id",
+        "ORDER BY p.id"
+    })
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> scanPrescriptionMedicines();
+}
@@ -3,11 +3,20 @@ package org.example.springboot.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.example.springboot.entity.Prescription;
+import org.example.springboot.entity.PrescriptionDetail;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface PrescriptionMapper extends BaseMapper<Prescription> {
@@ -60,4 +69,94 @@ public interface PrescriptionMapper extends BaseMapper<Prescription> {
                                            @Param("startDate") LocalDate startDate,
                                            @Param("endDate") LocalDate endDate,
                                            @Param("status") Integer status);
-} 
\ No newline at end of file
+    
+    /**
+     * 批量查询多张处方的明细，并通过JOIN一次性带出药品信息
+     * 药品列使用 m_ 前缀，映射到 PrescriptionDetail.medicine
+     */
+    @Select({
+        "<script>",
+        "SELECT pd.*,",
+        "    m.id AS m_id, m.medicine_code AS m_medicine_code, m.medicine_name AS m_medicine_name,",
+        "    m.specification AS m_specification, m.dosage_form AS m_dosage_form, m.manufacturer AS m_manufacturer,",
+        "    m.category AS m_category, m.category_id AS m_category_id, m.price AS m_price, m.stock AS m_stock,",
+        "    m.status AS m_status, m.instructions AS m_instructions,",
+        "    m.create_time AS m_create_time, m.update_time AS m_update_time",
+        "FROM prescription_detail pd",
+        "LEFT JOIN medicine m ON pd.medicine_id = m.id",
+        "WHERE pd.prescription_id IN",
+        "<foreach collection='prescriptionIds' item='pid' open='(' separator=',' close=')'>",
+        "    #{pid}",
+        "</foreach>",
+        "ORDER BY pd.prescription_id, pd.id",
+        "</script>"
+    })
+    @Results(id = "detailWithMedicineMap", value = {
+        @Result(column = "id", property = "id", id = true),
+        @Result(column = "prescription_id", property = "prescriptionId"),
+        @Result(column = "medicine_id", property = "medicineId"),
+        @Result(column = "usage", property = "usage"),
+        @Result(column = "m_id", property = "medicine.id"),
+        @Result(column = "m_medicine_code", property = "medicine.medicineCode"),
+        @Result(column = "m_medicine_name", property = "medicine.medicineName"),
+        @Result(column = "m_specification", property = "medicine.specification"),
+        @Result(column = "m_dosage_form", property = "medicine.dosageForm"),
+        @Result(column = "m_manufacturer", property = "medicine.manufacturer"),
+        @Result(column = "m_category", property = "medicine.category"),
+        @Result(column = "m_category_id", property = "medicine.categoryId"),
+        @Result(column = "m_price", property = "medicine.price"),
+        @Result(column = "m_stock", property = "medicine.stock"),
+        @Result(column = "m_status", property = "medicine.status"),
+        @Result(column = "m_instructions", property = "medicine.instructions"),
+        @Result(column = "m_create_time", property = "medicine.createTime"),
+        @Result(column = "m_update_time", property = "medicine.updateTime")
+    })
+    List<PrescriptionDetail> selectDetailsWithMedicine(@Param("prescriptionIds") Collection<Long> prescriptionIds);
+
+    /**
+     * 流式导出处方，每行一条明细（无明细的处方占一行），患者、医生、药品名称在SQL中关联带出
+     */
+    @Select({
+        "<script>",
+        "SELECT p.id, p.prescription_no AS prescriptionNo, p.prescription_date AS prescriptionDate,",
+        "    p.diagnosis, p.status, p.notes, p.create_time AS createTime,",
+        "    pt.patient_no AS patientNo, pt.name AS patientName, d.doctor_no AS doctorNo, d.name AS doctorName,",
+        "    m.medicine_code AS medicineCode, m.medicine_name AS medicineName, m.specification,",
+        "    pd.dosage, pd.frequency, pd.`usage`, pd.days, pd.quantity",
+        "FROM prescription p",
+        "LEFT JOIN patient pt ON p.patient_id = pt.id",
+        "LEFT JOIN doctor d ON p.doctor_id = d.id",
+        "LEFT JOIN prescription_detail pd ON pd.prescription_id = p.id",
+        "LEFT JOIN medicine m ON pd.medicine_id = m.id",
+        "<where>",
+        "<if test='startDate != null'>",
+        "    AND p.prescription_date &gt;= #{startDate}",
+        "</if>",
+        "<if test='endDate != null'>",
+        "    AND p.prescription_date &lt;= #{endDate}",
+        "</if>",
+        "<if test='status != null'>",
+        "    AND p.status = #{status}",
+        "</if>",
+        "</where>",
+        "ORDER BY p.id, pd.id",
+        "</script>"
+    })
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> scanForExport(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              @Param("status") Integer status);
+
+    /**
+     * 按患者统计处方数，用于批量删除患者前的依赖检查
+     */
+    @Select({
+        "<script>",
+        "SELECT patient_id AS patientId, COUNT(*) AS total FROM prescription",
+        "WHERE patient_id IN",
+        "<foreach collection='patientIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "GROUP BY patient_id",
+        "</script>"
+    })
+    List<Map<String, Object>> countByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+}
@@ -1,10 +1,58 @@
 package org.example.springboot.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 import org.example.springboot.entity.Schedule;
 
+import java.util.List;
+
 @Mapper
 public interface ScheduleMapper extends BaseMapper<Schedule> {
-    // 无需实现方法，使用MyBatis-Plus提供的方法
-} 
\ No newline at end of file
+    /**
+     * 原子占用号源：仅当排班正常且占用后不超过最大接诊人数时才更新
+     * @return 影响行数，0表示排班不存在、已停诊或名额不足
+     */
+    @Update({
+        "UPDATE schedule",
+        "SET current_patients = current_patients + #{count}, update_time = NOW()",
+        "WHERE id = #{id} AND status = 1 AND current_patients + #{count} <= max_patients"
+    })
+    int reserveSlots(@Param("id") Long id, @Param("count") int count);
+    
+    /**
+     * 原子释放号源：释放后预约人数不能小于0
+     * @return 影响行数，0表示排班不存在或预约人数不足
+     */
+    @Update({
+        "UPDATE schedule",
+        "SET current_patients = current_patients - #{count}, update_time = NOW()",
+        "WHERE id = #{id} AND current_patients - #{count} >= 0"
+    })
+    int releaseSlots(@Param("id") Long id, @Param("count") int count);
+    
+    /**
+     * 将排班的当前预约人数校正为实际预约数
+     */
+    @Update("UPDATE schedule SET current_patients = #{count}, update_time = NOW() WHERE id = #{id} AND current_patients <> #{count}")
+    int correctPatients(@Param("id") Long id, @Param("count") int count);
+    
+    /**
+     * 批量新增（单条多值INSERT），回填自增ID
+     */
+    @Insert({
+        "<script>",
+        "INSERT INTO schedule (doctor_id, schedule_date, time_slot, max_patients, current_patients, status,",
+        "    create_time, update_time) VALUES",
+        "<foreach collection='schedules' item='s' separator=','>",
+        "    (#{s.doctorId}, #{s.scheduleDate}, #{s.timeSlot}, #{s.maxPatients}, #{s.currentPatients}, #{s.status},",
+        "    #{s.createTime}, #{s.updateTime})",
+        "</foreach>",
+        "</script>"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "schedules.id", keyColumn = "id")
+    int batchInsert(@Param("schedules") List<Schedule> schedules);
+}
@@ -0,0 +1,28 @@
+package org.example.springboot.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface SequenceMapper {
+    /**
+     * 序列不存在时初始化为0
+     */
+    @Insert("INSERT IGNORE INTO biz_sequence (seq_key, next_value) VALUES (#{seqKey}, 0)")
+    int initSequence(@Param("seqKey") String seqKey);
+    
+    /**
+     * 为序列分配一段号段
+     */
+    @Update("UPDATE biz_sequence SET next_value = next_value + #{step} WHERE seq_key = #{seqKey}")
+    int allocateBlock(@Param("seqKey") String seqKey, @Param("step") int step);
+    
+    /**
+     * 查询序列当前已分配到的值
+     */
+    @Select("SELECT next_value FROM biz_sequence WHERE seq_key = #{seqKey}")
+    Long selectCurrentValue(@Param("seqKey") String seqKey);
+}
@@ -2,9 +2,26 @@ package org.example.springboot.mapper;
 
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.example.springboot.entity.User;
 
+import java.util.Collection;
+
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+    /**
+     * 批量删除未关联医生和患者的用户
+     * 关联条件放在同一条DELETE中，检查之后新绑定的用户不会被删除
+     */
+    @Delete({
+        "<script>",
+        "DELETE FROM user WHERE id IN",
+        "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "AND NOT EXISTS (SELECT 1 FROM doctor d WHERE d.user_id = user.id)",
+        "AND NOT EXISTS (SELECT 1 FROM patient p WHERE p.user_id = user.id)",
+        "</script>"
+    })
+    int deleteUnreferenced(@Param("ids") Collection<Long> ids);
 }
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.common.CursorPage;
 import org.example.springboot.entity.Appointment;
 import org.example.springboot.entity.Doctor;
 import org.example.springboot.entity.Patient;
@@ -14,14 +15,19 @@ import org.example.springboot.mapper.AppointmentMapper;
 import org.example.springboot.mapper.DoctorMapper;
 import org.example.springboot.mapper.PatientMapper;
 import org.example.springboot.mapper.ScheduleMapper;
-import org.example.springboot.mapper.DepartmentMapper;
+import org.example.springboot.service.ResourceVersions.Family;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AppointmentService {
@@ -38,16 +44,54 @@ public class AppointmentService {
     private ScheduleMapper scheduleMapper;
     
     @Resource
-    private DepartmentMapper departmentMapper;
+    private ReferenceDataCache referenceDataCache;
     
     @Resource
     private ScheduleService scheduleService;
     
+    @Resource
+    private AssociationLoader associationLoader;
+    
+    @Resource
+    private SlotQuotaLedger slotQuotaLedger;
+    
+    @Resource
+    private SequenceService sequenceService;
+    
+    /**
+     * 按姓名筛选时ID列表的最大长度，超过后改走关联查询
+     */
+    @Value("${appointment.name-filter.in-limit:200}")
+    private int nameFilterInLimit;
+    
+    @Resource
+    private ResourceVersions resourceVersions;
+    
+    @Resource
+    private FanOutExecutor fanOutExecutor;
+    
+    @Resource
+    private TransactionTemplate transactionTemplate;
+    
     /**
      * 创建预约
+     * 高峰预约模式下不开启事务，等待账本写库期间不占用数据库连接
      */
-    @Transactional
     public Appointment createAppointment(Appointment appointment) {
+        if (slotQuotaLedger.isEnabled()) {
+            return bookWithLedger(appointment, checkBookable(appointment));
+        }
+        // 预约编号在事务外生成：领取号段需要另一个连接，若在持有排班行锁时领取，
+        // 等待行锁的预约占满连接池后双方会互相等待，被拒绝的预约只会在编号中留下空号
+        String appointmentNo = generateAppointmentNo();
+        return transactionTemplate.execute(status ->
+                bookWithGuardedUpdate(appointment, checkBookable(appointment), appointmentNo));
+    }
+    
+    /**
+     * 检查患者、医生、排班，返回要预约的排班
+     */
+    private Schedule checkBookable(Appointment appointment) {
         // 检查患者是否存在
         Patient patient = patientMapper.selectById(appointment.getPatientId());
         if (patient == null) {
@@ -55,7 +99,7 @@ public class AppointmentService {
         }
         
         // 检查医生是否存在
-        Doctor doctor = doctorMapper.selectById(appointment.getDoctorId());
+        Doctor doctor = referenceDataCache.getDoctor(appointment.getDoctorId());
         if (doctor == null) {
             throw new ServiceException("医生不存在");
         }
@@ -70,13 +114,13 @@ public class AppointmentService {
         if (schedule.getStatus() != 1) {
             throw new ServiceException("该排班已停诊，无法预约");
         }
-        
-        // 检查是否有剩余预约名额
-        if (schedule.getCurrentPatients() >= schedule.getMaxPatients()) {
-            throw new ServiceException("该排班已满，无法预约");
-        }
-        
-        // 检查患者是否已经预约过同一天同一医生的门诊
+        return schedule;
+    }
+    
+    /**
+     * 检查患者是否已经预约过同一天同一医生的门诊
+     */
+    private void checkNotBooked(Appointment appointment, Schedule schedule) {
         LambdaQueryWrapper<Appointment> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(Appointment::getPatientId, appointment.getPatientId())
                    .eq(Appointment::getDoctorId, appointment.getDoctorId())
@@ -86,9 +130,59 @@ public class AppointmentService {
         if (appointmentMapper.selectCount(queryWrapper) > 0) {
             throw new ServiceException("您已预约过该医生当天的门诊");
         }
+    }
+    
+    /**
+     * 默认模式：在事务内原子占用号源并写入预约
+     */
+    private Appointment bookWithGuardedUpdate(Appointment appointment, Schedule schedule, String appointmentNo) {
+        checkNotBooked(appointment, schedule);
+        
+        // 原子占用号源，名额不足时不会修改排班
+        if (scheduleMapper.reserveSlots(schedule.getId(), 1) <= 0) {
+            throw new ServiceException("该排班已满，无法预约");
+        }
+        resourceVersions.bump(Family.SCHEDULE);
+        
+        fillNewAppointment(appointment, schedule, appointmentNo);
+        
+        // 保存预约信息
+        if (appointmentMapper.insert(appointment) <= 0) {
+            throw new ServiceException("预约失败");
+        }
         
-        // 生成预约编号
-        appointment.setAppointmentNo(generateAppointmentNo());
+        return appointment;
+    }
+    
+    /**
+     * 高峰预约模式：在内存账本中占用名额，预约记录由账本批量写库，写库完成后返回
+     */
+    private Appointment bookWithLedger(Appointment appointment, Schedule schedule) {
+        // 先在账本中占用预约资格，再查库，尚未写库的同类预约也会被拦截
+        if (!slotQuotaLedger.claim(appointment, schedule)) {
+            throw new ServiceException("您已预约过该医生当天的门诊");
+        }
+        CompletableFuture<Appointment> written;
+        try {
+            checkNotBooked(appointment, schedule);
+            if (!slotQuotaLedger.reserve(appointment, schedule)) {
+                throw new ServiceException("该排班已满，无法预约");
+            }
+            fillNewAppointment(appointment, schedule, generateAppointmentNo());
+            written = slotQuotaLedger.enqueue(appointment, schedule);
+        } catch (RuntimeException e) {
+            slotQuotaLedger.abandon(appointment, schedule);
+            throw e;
+        }
+        return slotQuotaLedger.awaitWritten(written);
+    }
+    
+    /**
+     * 设置新预约的编号、日期、状态等字段
+     */
+    private void fillNewAppointment(Appointment appointment, Schedule schedule, String appointmentNo) {
+        // 设置预约编号
+        appointment.setAppointmentNo(appointmentNo);
         
         // 设置预约日期和时间段
         appointment.setAppointmentDate(schedule.getScheduleDate());
@@ -101,16 +195,6 @@ public class AppointmentService {
         LocalDateTime now = LocalDateTime.now();
         appointment.setCreateTime(now);
         appointment.setUpdateTime(now);
-        
-        // 保存预约信息
-        if (appointmentMapper.insert(appointment) <= 0) {
-            throw new ServiceException("预约失败");
-        }
-        
-        // 更新排班的当前预约人数
-        scheduleService.updateSchedulePatients(schedule.getId(), 1);
-        
-        return appointment;
     }
     
     /**
@@ -145,6 +229,9 @@ public class AppointmentService {
         
         // 更新排班的当前预约人数
         scheduleService.updateSchedulePatients(appointment.getScheduleId(), -1);
+        if (slotQuotaLedger.isEnabled()) {
+            slotQuotaLedger.release(appointment.getScheduleId(), 1);
+        }
     }
     
     /**
@@ -182,25 +269,27 @@ public class AppointmentService {
             throw new ServiceException("预约不存在");
         }
         
-        // 查询患者信息
-        Patient patient = patientMapper.selectById(appointment.getPatientId());
-        appointment.setPatient(patient);
-        
-        // 查询医生信息
-        Doctor doctor = doctorMapper.selectById(appointment.getDoctorId());
-        if (doctor != null) {
-            // 查询科室信息
-            if (doctor.getDepartmentId() != null) {
-                Department department = departmentMapper.selectById(doctor.getDepartmentId());
-                doctor.setDepartment(department);
+        // 患者和排班互不依赖，并发查询
+        try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+            FanOutExecutor.Subtask<Patient> patient = scope.fork(() -> patientMapper.selectById(appointment.getPatientId()));
+            FanOutExecutor.Subtask<Schedule> schedule = scope.fork(() -> scheduleMapper.selectById(appointment.getScheduleId()));
+            
+            // 查询医生信息
+            Doctor doctor = referenceDataCache.getDoctor(appointment.getDoctorId());
+            if (doctor != null) {
+                // 查询科室信息
+                if (doctor.getDepartmentId() != null) {
+                    Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
+                    doctor.setDepartment(department);
+                }
+                appointment.setDoctor(doctor);
             }
-            appointment.setDoctor(doctor);
+            
+            scope.join();
+            appointment.setPatient(patient.get());
+            appointment.setSchedule(schedule.get());
         }
         
-        // 查询排班信息
-        Schedule schedule = scheduleMapper.selectById(appointment.getScheduleId());
-        appointment.setSchedule(schedule);
-        
         return appointment;
     }
     
@@ -210,8 +299,63 @@ public class AppointmentService {
     public Page<Appointment> getAppointmentsByPage(Long patientId, Long doctorId, String patientName, String doctorName,
                                                LocalDate startDate, LocalDate endDate, Integer status, 
                                                Integer currentPage, Integer size) {
-        Page<Appointment> page = new Page<>(currentPage, size);
+        NameMatch patientMatch = matchPatientsByName(patientName);
+        NameMatch doctorMatch = matchDoctorsByName(doctorName);
+        if (NameMatch.isEmpty(patientMatch) || NameMatch.isEmpty(doctorMatch)) {
+            return new Page<>(currentPage, size);
+        }
+        
+        Page<Appointment> resultPage;
+        if (NameMatch.isOverflow(patientMatch) || NameMatch.isOverflow(doctorMatch)) {
+            // 姓名匹配的人数过多，改为单条关联查询，不在内存中构造ID列表
+            resultPage = appointmentMapper.selectAppointmentsByNamePage(new Page<>(currentPage, size),
+                    patientId, doctorId, patientName, doctorName, startDate, endDate, status);
+        } else {
+            LambdaQueryWrapper<Appointment> queryWrapper = buildAppointmentQuery(patientId, doctorId, patientMatch, doctorMatch,
+                    startDate, endDate, status);
+            
+            // 按创建时间降序排序
+            queryWrapper.orderByDesc(Appointment::getCreateTime);
+            
+            resultPage = appointmentMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
+        }
+        
+        // 填充患者和医生信息
+        fillAppointmentsInfo(resultPage.getRecords());
         
+        return resultPage;
+    }
+    
+    /**
+     * 游标分页查询预约列表
+     * 按 (create_time, id) 倒序翻页，深翻页代价与首页相同
+     */
+    public CursorPage<Appointment> getAppointmentsByCursor(Long patientId, Long doctorId, String patientName, String doctorName,
+                                                       LocalDate startDate, LocalDate endDate, Integer status,
+                                                       String cursor, Integer size, boolean skipCount) {
+        NameMatch patientMatch = matchPatientsByName(patientName);
+        NameMatch doctorMatch = matchDoctorsByName(doctorName);
+        if (NameMatch.isEmpty(patientMatch) || NameMatch.isEmpty(doctorMatch)) {
+            return KeysetPager.empty(size, skipCount);
+        }
+        LambdaQueryWrapper<Appointment> queryWrapper = buildAppointmentQuery(patientId, doctorId, patientMatch, doctorMatch,
+                startDate, endDate, status);
+        
+        CursorPage<Appointment> resultPage = KeysetPager.page(appointmentMapper, queryWrapper,
+                Appointment::getCreateTime, Appointment::getId, cursor, size, skipCount);
+        
+        // 填充患者和医生信息
+        fillAppointmentsInfo(resultPage.getRecords());
+        
+        return resultPage;
+    }
+    
+    /**
+     * 构造预约列表的筛选条件
+     * 姓名匹配数量在上限内时使用ID列表，超过上限时以子查询下推到SQL
+     */
+    private LambdaQueryWrapper<Appointment> buildAppointmentQuery(Long patientId, Long doctorId, NameMatch patientMatch, NameMatch doctorMatch,
+                                                              LocalDate startDate, LocalDate endDate, Integer status) {
         LambdaQueryWrapper<Appointment> queryWrapper = new LambdaQueryWrapper<>();
         
         // 添加查询条件
@@ -234,35 +378,82 @@ public class AppointmentService {
         if (status != null) {
             queryWrapper.eq(Appointment::getStatus, status);
         }
-        if(StringUtils.isNotBlank(patientName)){
-            List<Long> ids = patientMapper.selectList(new LambdaQueryWrapper<Patient>().like(Patient::getName, patientName)).stream().map(Patient::getId).toList();
-            if(!ids.isEmpty()){
-                queryWrapper.in(Appointment::getPatientId, ids);
-            }else{
-                return new Page<>(currentPage, size);
+        if (patientMatch != null) {
+            if (patientMatch.ids != null) {
+                queryWrapper.in(Appointment::getPatientId, patientMatch.ids);
+            } else {
+                queryWrapper.apply("patient_id IN (SELECT id FROM patient WHERE name LIKE CONCAT('%', {0}, '%'))", patientMatch.name);
             }
-
         }
-        if(StringUtils.isNotBlank(doctorName)){
-            List<Long> ids = doctorMapper.selectList(new LambdaQueryWrapper<Doctor>().like(Doctor::getName, doctorName)).stream().map(Doctor::getId).toList();
-            if(!ids.isEmpty()){
-                queryWrapper.in(Appointment::getDoctorId, ids);
-            }else{
-                return new Page<>(currentPage, size);
+        if (doctorMatch != null) {
+            if (doctorMatch.ids != null) {
+                queryWrapper.in(Appointment::getDoctorId, doctorMatch.ids);
+            } else {
+                queryWrapper.apply("doctor_id IN (SELECT id FROM doctor WHERE name LIKE CONCAT('%', {0}, '%'))", doctorMatch.name);
             }
-
         }
         
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(Appointment::getCreateTime);
-
+        return queryWrapper;
+    }
+    
+    /**
+     * 按患者姓名预查ID，最多读取 nameFilterInLimit+1 条，未传姓名返回null
+     */
+    private NameMatch matchPatientsByName(String patientName) {
+        if (StringUtils.isBlank(patientName)) {
+            return null;
+        }
+        List<Object> ids = patientMapper.selectObjs(new LambdaQueryWrapper<Patient>()
+                .select(Patient::getId)
+                .like(Patient::getName, patientName)
+                .last("LIMIT " + (nameFilterInLimit + 1)));
+        return NameMatch.of(patientName, ids, nameFilterInLimit);
+    }
+    
+    /**
+     * 按医生姓名预查ID，最多读取 nameFilterInLimit+1 条，未传姓名返回null
+     */
+    private NameMatch matchDoctorsByName(String doctorName) {
+        if (StringUtils.isBlank(doctorName)) {
+            return null;
+        }
+        List<Object> ids = doctorMapper.selectObjs(new LambdaQueryWrapper<Doctor>()
+                .select(Doctor::getId)
+                .like(Doctor::getName, doctorName)
+                .last("LIMIT " + (nameFilterInLimit + 1)));
+        return NameMatch.of(doctorName, ids, nameFilterInLimit);
+    }
+    
+    /**
+     * 姓名预查结果：ids 为空列表表示无匹配，为null表示匹配数超过上限
+     */
+    private static final class NameMatch {
+        private final String name;
+        private final List<Long> ids;
         
-        Page<Appointment> resultPage = appointmentMapper.selectPage(page, queryWrapper);
+        private NameMatch(String name, List<Long> ids) {
+            this.name = name;
+            this.ids = ids;
+        }
         
-        // 填充患者和医生信息
-        fillAppointmentsInfo(resultPage.getRecords());
+        static NameMatch of(String name, List<Object> ids, int limit) {
+            if (ids.size() > limit) {
+                return new NameMatch(name, null);
+            }
+            List<Long> result = new ArrayList<>(ids.size());
+            for (Object id : ids) {
+                result.add(((Number) id).longValue());
+            }
+            return new NameMatch(name, result);
+        }
         
-        return resultPage;
+        static boolean isEmpty(NameMatch match) {
+            return match != null && match.ids != null && match.ids.isEmpty();
+        }
+        
+        static boolean isOverflow(NameMatch match) {
+            return match != null && match.ids == null;
+        }
     }
     
     /**
@@ -276,23 +467,8 @@ public class AppointmentService {
         
         List<Appointment> appointments = appointmentMapper.selectList(queryWrapper);
         
-        // 查询关联信息
-        for (Appointment appointment : appointments) {
-            // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(appointment.getDoctorId());
-            if (doctor != null) {
-                // 查询科室信息
-                if (doctor.getDepartmentId() != null) {
-                    Department department = departmentMapper.selectById(doctor.getDepartmentId());
-                    doctor.setDepartment(department);
-                }
-                appointment.setDoctor(doctor);
-            }
-            
-            // 查询排班信息
-            Schedule schedule = scheduleMapper.selectById(appointment.getScheduleId());
-            appointment.setSchedule(schedule);
-        }
+        // 批量查询关联信息
+        fillAppointmentsInfo(appointments, false, true);
         
         return appointments;
     }
@@ -313,16 +489,8 @@ public class AppointmentService {
         
         List<Appointment> appointments = appointmentMapper.selectList(queryWrapper);
         
-        // 查询关联信息
-        for (Appointment appointment : appointments) {
-            // 查询患者信息
-            Patient patient = patientMapper.selectById(appointment.getPatientId());
-            appointment.setPatient(patient);
-            
-            // 查询排班信息
-            Schedule schedule = scheduleMapper.selectById(appointment.getScheduleId());
-            appointment.setSchedule(schedule);
-        }
+        // 批量查询关联信息
+        fillAppointmentsInfo(appointments, true, false);
         
         return appointments;
     }
@@ -360,16 +528,19 @@ public class AppointmentService {
                 throw new ServiceException("该排班已停诊，无法预约");
             }
             
-            // 检查新排班是否有剩余预约名额
-            if (newSchedule.getCurrentPatients() >= newSchedule.getMaxPatients()) {
+            // 原子占用新排班的号源
+            if (scheduleMapper.reserveSlots(newSchedule.getId(), 1) <= 0) {
                 throw new ServiceException("该排班已满，无法预约");
             }
             
-            // 更新原排班的当前预约人数
+            // 释放原排班的号源
             scheduleService.updateSchedulePatients(existingAppointment.getScheduleId(), -1);
             
-            // 更新新排班的当前预约人数
-            scheduleService.updateSchedulePatients(appointment.getScheduleId(), 1);
+            // 数据库已直接变更，内存账本需重新加载
+            if (slotQuotaLedger.isEnabled()) {
+                slotQuotaLedger.evict(existingAppointment.getScheduleId());
+                slotQuotaLedger.evict(newSchedule.getId());
+            }
             
             // 设置新的预约日期和时间段
             appointment.setAppointmentDate(newSchedule.getScheduleDate());
@@ -388,39 +559,43 @@ public class AppointmentService {
      * 生成预约编号
      */
     private String generateAppointmentNo() {
-        // 生成格式：A + 年月日 + 6位随机数
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String randomStr = String.format("%06d", (int)(Math.random() * 1000000));
-        return "A" + dateStr + randomStr;
+        // 生成格式：A + 年月日 + 6位当日序号
+        return sequenceService.nextNo("A", 6);
     }
     
     /**
      * 填充预约关联信息
      */
     private void fillAppointmentsInfo(List<Appointment> appointments) {
+        fillAppointmentsInfo(appointments, true, true);
+    }
+    
+    /**
+     * 批量填充预约关联信息，每类关联只查询一次
+     */
+    private void fillAppointmentsInfo(List<Appointment> appointments, boolean withPatient, boolean withDoctor) {
         if (appointments == null || appointments.isEmpty()) {
             return;
         }
         
+        Map<Long, Patient> patients = withPatient
+                ? associationLoader.loadPatients(AssociationLoader.collectIds(appointments, Appointment::getPatientId))
+                : Collections.emptyMap();
+        Map<Long, Doctor> doctors = withDoctor
+                ? associationLoader.loadDoctorsWithDepartment(AssociationLoader.collectIds(appointments, Appointment::getDoctorId))
+                : Collections.emptyMap();
+        Map<Long, Schedule> schedules = associationLoader.loadSchedules(
+                AssociationLoader.collectIds(appointments, Appointment::getScheduleId));
+        
         for (Appointment appointment : appointments) {
-            // 查询患者信息
-            Patient patient = patientMapper.selectById(appointment.getPatientId());
-            appointment.setPatient(patient);
-            
-            // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(appointment.getDoctorId());
+            if (withPatient) {
+                appointment.setPatient(patients.get(appointment.getPatientId()));
+            }
+            Doctor doctor = doctors.get(appointment.getDoctorId());
             if (doctor != null) {
-                // 查询科室信息
-                if (doctor.getDepartmentId() != null) {
-                    Department department = departmentMapper.selectById(doctor.getDepartmentId());
-                    doctor.setDepartment(department);
-                }
                 appointment.setDoctor(doctor);
             }
-            
-            // 查询排班信息
-            Schedule schedule = scheduleMapper.selectById(appointment.getScheduleId());
-            appointment.setSchedule(schedule);
+            appointment.setSchedule(schedules.get(appointment.getScheduleId()));
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.Department;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.MedicalRecord;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.mapper.MedicalRecordMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 关联数据批量加载器
+ * 收集一页记录中去重后的外键，每个Mapper只执行一次selectBatchIds，
+ * 避免在循环中逐条selectById造成的N+1查询
+ */
+@Component
+public class AssociationLoader {
+    @Resource
+    private PatientMapper patientMapper;
+
+    @Resource
+    private ReferenceDataCache referenceDataCache;
+
+    @Resource
+    private ScheduleMapper scheduleMapper;
+
+    @Resource
+    private MedicalRecordMapper medicalRecordMapper;
+
+    /**
+     * 批量加载患者
+     */
+    public Map<Long, Patient> loadPatients(Collection<Long> ids) {
+        return loadByIds(patientMapper, ids, Patient::getId);
+    }
+
+    /**
+     * 批量加载医生，并一次性填充医生所属科室（经基础数据缓存）
+     */
+    public Map<Long, Doctor> loadDoctorsWithDepartment(Collection<Long> ids) {
+        Map<Long, Doctor> doctors = referenceDataCache.getDoctors(ids);
+        Map<Long, Department> departments = loadDepartments(collectIds(doctors.values(), Doctor::getDepartmentId));
+        for (Doctor doctor : doctors.values()) {
+            if (doctor.getDepartmentId() != null) {
+                doctor.setDepartment(departments.get(doctor.getDepartmentId()));
+            }
+        }
+        return doctors;
+    }
+
+    /**
+     * 批量加载医生（不含科室，经基础数据缓存）
+     */
+    public Map<Long, Doctor> loadDoctors(Collection<Long> ids) {
+        return referenceDataCache.getDoctors(ids);
+    }
+
+    /**
+     * 批量加载科室（经基础数据缓存）
+     */
+    public Map<Long, Department> loadDepartments(Collection<Long> ids) {
+        return referenceDataCache.getDepartments(ids);
+    }
+
+    /**
+     * 批量加载排班
+     */
+    public Map<Long, Schedule> loadSchedules(Collection<Long> ids) {
+        return loadByIds(scheduleMapper, ids, Schedule::getId);
+    }
+
+    /**
+     * 批量加载就诊记录
+     */
+    public Map<Long, MedicalRecord> loadMedicalRecords(Collection<Long> ids) {
+        return loadByIds(medicalRecordMapper, ids, MedicalRecord::getId);
+    }
+
+    /**
+     * 从记录列表中收集去重后的非空外键
+     */
+    public static <E> Set<Long> collectIds(Collection<E> records, Function<E, Long> keyGetter) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (E record : records) {
+            Long id = keyGetter.apply(record);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 把 selectObjs 查出的单列ID转换为集合
+     */
+    public static Set<Long> toIdSet(List<Object> values) {
+        Set<Long> ids = new HashSet<>(Math.max(16, values.size() * 2));
+        for (Object value : values) {
+            if (value != null) {
+                ids.add(((Number) value).longValue());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 把 GROUP BY 统计结果（键列 + total 列）转换为 键 -> 数量 的映射
+     */
+    public static Map<Long, Long> toCountMap(List<Map<String, Object>> rows, String keyColumn) {
+        Map<Long, Long> counts = new HashMap<>(Math.max(16, rows.size() * 2));
+        for (Map<String, Object> row : rows) {
+            Object key = row.get(keyColumn);
+            Object total = row.get("total");
+            if (key != null && total != null) {
+                counts.put(((Number) key).longValue(), ((Number) total).longValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 按主键批量查询并转换为 id -> 实体 的映射
+     */
+    public static <T> Map<Long, T> loadByIds(BaseMapper<T> mapper, Collection<Long> ids, Function<T, Long> idGetter) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<T> entities = mapper.selectBatchIds(distinctIds);
+        Map<Long, T> result = new HashMap<>(entities.size() * 2);
+        for (T entity : entities) {
+            result.put(Objects.requireNonNull(idGetter.apply(entity)), entity);
+        }
+        return result;
+    }
+}
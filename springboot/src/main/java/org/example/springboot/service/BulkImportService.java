@@ -0,0 +1,610 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.DTO.ImportReport;
+import org.example.springboot.entity.Department;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Medicine;
+import org.example.springboot.entity.MedicineCategory;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.DepartmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.MedicineMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.example.springboot.service.ResourceVersions.Family;
+import org.example.springboot.service.SearchIndexService.Kind;
+import org.example.springboot.util.CsvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * 患者、医生、药品批量导入
+ * 逐行解析上传的 CSV，唯一键（身份证号、医生编号、药品编码）与导入前一次性加载的已有键集合比对，
+ * 通过校验的行攒够一批后用多值INSERT写入，每批一个事务；出错的行记录行号和原因，不影响其他行。
+ */
+@Service
+public class BulkImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final Pattern ID_CARD = Pattern.compile("^\\d{17}[\\dX]$");
+
+    private static final Pattern PHONE = Pattern.compile("^1[3-9]\\d{9}$");
+
+    private static final DateTimeFormatter SLASH_DATE = DateTimeFormatter.ofPattern("yyyy/M/d");
+
+    @Resource
+    private PatientMapper patientMapper;
+
+    @Resource
+    private DoctorMapper doctorMapper;
+
+    @Resource
+    private MedicineMapper medicineMapper;
+
+    @Resource
+    private DepartmentMapper departmentMapper;
+
+    @Resource
+    private MedicineCategoryService medicineCategoryService;
+
+    @Resource
+    private SequenceService sequenceService;
+
+    @Resource
+    private SearchIndexService searchIndexService;
+
+    @Resource
+    private ResourceVersions resourceVersions;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${import.max-rows:200000}")
+    private int maxRows;
+
+    @Value("${import.max-errors:1000}")
+    private int maxErrors;
+
+    /**
+     * 同一时间只允许一个导入任务，避免两个任务各自加载键集合后写入重复数据
+     */
+    private final AtomicBoolean importing = new AtomicBoolean();
+
+    /**
+     * 导入患者，身份证号不能与已有患者重复
+     */
+    public ImportReport importPatients(InputStream in) {
+        return run(new PatientImporter(), in);
+    }
+
+    /**
+     * 导入医生，医生编号为空时自动生成
+     */
+    public ImportReport importDoctors(InputStream in) {
+        return run(new DoctorImporter(), in);
+    }
+
+    /**
+     * 导入药品，药品编码不能与已有药品重复
+     */
+    public ImportReport importMedicines(InputStream in) {
+        return run(new MedicineImporter(), in);
+    }
+
+    private <T> ImportReport run(Importer<T> importer, InputStream in) {
+        if (!importing.compareAndSet(false, true)) {
+            throw new ServiceException("已有导入任务在进行，请稍后再试");
+        }
+        long start = System.currentTimeMillis();
+        ImportReport report = new ImportReport();
+        try (CsvReader reader = new CsvReader(in)) {
+            String[] header = reader.readRow();
+            if (header == null) {
+                throw new ServiceException("导入文件为空");
+            }
+            Map<String, Integer> columns = importer.resolveHeader(header);
+            importer.prepare();
+
+            List<T> batch = new ArrayList<>(batchSize);
+            List<Long> lines = new ArrayList<>(batchSize);
+            String[] values;
+            while ((values = reader.readRow()) != null) {
+                if (isBlankRow(values)) {
+                    continue;
+                }
+                long line = reader.getLineNumber();
+                if (report.getTotal() >= maxRows) {
+                    fail(report, line, "超过单次导入上限" + maxRows + "行，此行及之后的数据未导入");
+                    break;
+                }
+                report.setTotal(report.getTotal() + 1);
+                T entity;
+                try {
+                    entity = importer.parse(new Row(columns, values));
+                } catch (ServiceException e) {
+                    fail(report, line, e.getMessage());
+                    continue;
+                }
+                String key = importer.keyOf(entity);
+                if (!importer.keys.add(key)) {
+                    fail(report, line, importer.keyLabel + "已存在: " + key);
+                    continue;
+                }
+                batch.add(entity);
+                lines.add(line);
+                if (batch.size() >= batchSize) {
+                    flush(importer, batch, lines, report);
+                }
+            }
+            flush(importer, batch, lines, report);
+        } catch (IOException e) {
+            throw new ServiceException("导入文件读取失败: " + e.getMessage());
+        } finally {
+            importing.set(false);
+        }
+        report.setElapsedMs(System.currentTimeMillis() - start);
+        LOGGER.info("批量导入{}完成: total={}, succeeded={}, failed={}, 耗时={}ms", importer.name,
+                report.getTotal(), report.getSucceeded(), report.getFailed(), report.getElapsedMs());
+        return report;
+    }
+
+    /**
+     * 写入一批，整批失败时（多为导入期间其他请求写入了相同的唯一键）逐行重试以定位出错的行
+     */
+    private <T> void flush(Importer<T> importer, List<T> batch, List<Long> lines, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(importer, batch);
+            report.setSucceeded(report.getSucceeded() + batch.size());
+        } catch (DataAccessException e) {
+            LOGGER.warn("批量导入{}整批写入失败，逐行重试: {}", importer.name, e.getMostSpecificCause().getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    insert(importer, List.of(batch.get(i)));
+                    report.setSucceeded(report.getSucceeded() + 1);
+                } catch (DataAccessException ex) {
+                    fail(report, lines.get(i), "写入失败: " + ex.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        batch.clear();
+        lines.clear();
+    }
+
+    private <T> void insert(Importer<T> importer, List<T> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            importer.insert(rows);
+            importer.afterInsert(rows);
+        });
+    }
+
+    private void fail(ImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, message));
+        } else {
+            report.setTruncated(true);
+        }
+    }
+
+    private static boolean isBlankRow(String[] values) {
+        for (String value : values) {
+            if (StringUtils.isNotBlank(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已有的唯一键集合
+     */
+    private static Set<String> toKeySet(List<Object> values) {
+        Set<String> keys = new HashSet<>(Math.max(16, values.size() * 2));
+        for (Object value : values) {
+            if (value != null) {
+                keys.add(value.toString());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 某一类数据的导入规则：列定义、行解析、唯一键及写入方式
+     */
+    private abstract static class Importer<T> {
+        private final String name;
+        private final String keyLabel;
+
+        /**
+         * 列名 -> 字段名，列名可以是字段名或中文名
+         */
+        private final Map<String, String> aliases = new HashMap<>();
+
+        /**
+         * 必填字段 -> 中文名
+         */
+        private final Map<String, String> required = new LinkedHashMap<>();
+
+        /**
+         * 已有的和本次已接受的唯一键
+         */
+        protected Set<String> keys;
+
+        Importer(String name, String keyLabel) {
+            this.name = name;
+            this.keyLabel = keyLabel;
+        }
+
+        void column(String field, String label, boolean mandatory) {
+            aliases.put(field, field);
+            aliases.put(label, field);
+            if (mandatory) {
+                required.put(field, label);
+            }
+        }
+
+        Map<String, Integer> resolveHeader(String[] header) {
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                String field = aliases.get(header[i].trim());
+                if (field != null) {
+                    columns.putIfAbsent(field, i);
+                }
+            }
+            List<String> missing = new ArrayList<>();
+            for (Map.Entry<String, String> entry : required.entrySet()) {
+                if (!columns.containsKey(entry.getKey())) {
+                    missing.add(entry.getValue());
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new ServiceException("导入文件缺少必填列: " + String.join("、", missing));
+            }
+            return columns;
+        }
+
+        /**
+         * 开始导入前加载已有键等参照数据
+         */
+        abstract void prepare();
+
+        abstract T parse(Row row);
+
+        abstract String keyOf(T entity);
+
+        abstract void insert(List<T> rows);
+
+        /**
+         * 与写入在同一事务内执行，用于登记提交后的索引和缓存更新
+         */
+        void afterInsert(List<T> rows) {
+        }
+    }
+
+    private final class PatientImporter extends Importer<Patient> {
+        PatientImporter() {
+            super("患者", "身份证号");
+            column("name", "姓名", true);
+            column("idCard", "身份证号", true);
+            column("birthday", "出生日期", false);
+            column("sex", "性别", false);
+            column("phone", "手机号", false);
+            column("address", "地址", false);
+            column("medicalHistory", "既往病史", false);
+            column("allergies", "过敏史", false);
+        }
+
+        @Override
+        void prepare() {
+            keys = toKeySet(patientMapper.selectObjs(new LambdaQueryWrapper<Patient>()
+                    .select(Patient::getIdCard)
+                    .isNotNull(Patient::getIdCard)));
+        }
+
+        @Override
+        Patient parse(Row row) {
+            Patient patient = new Patient();
+            patient.setName(row.require("name", "姓名"));
+            String idCard = row.require("idCard", "身份证号").toUpperCase();
+            if (!ID_CARD.matcher(idCard).matches()) {
+                throw new ServiceException("身份证号格式不正确");
+            }
+            patient.setIdCard(idCard);
+            patient.setBirthday(row.date("birthday", "出生日期"));
+            String sex = row.get("sex");
+            if (sex != null && !"男".equals(sex) && !"女".equals(sex)) {
+                throw new ServiceException("性别只能为男或女");
+            }
+            patient.setSex(sex);
+            String phone = row.get("phone");
+            if (phone != null && !PHONE.matcher(phone).matches()) {
+                throw new ServiceException("手机号格式不正确");
+            }
+            patient.setPhone(phone);
+            patient.setAddress(row.get("address"));
+            patient.setMedicalHistory(row.get("medicalHistory"));
+            patient.setAllergies(row.get("allergies"));
+            patient.setPatientNo("P" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+            LocalDateTime now = LocalDateTime.now();
+            patient.setCreateTime(now);
+            patient.setUpdateTime(now);
+            return patient;
+        }
+
+        @Override
+        String keyOf(Patient patient) {
+            return patient.getIdCard();
+        }
+
+        @Override
+        void insert(List<Patient> rows) {
+            patientMapper.batchInsert(rows);
+        }
+
+        @Override
+        void afterInsert(List<Patient> rows) {
+            searchIndexService.refreshAll(Kind.PATIENT, rows);
+        }
+    }
+
+    private final class DoctorImporter extends Importer<Doctor> {
+        /**
+         * 科室名称 -> 科室ID
+         */
+        private final Map<String, Long> departments = new HashMap<>();
+
+        DoctorImporter() {
+            super("医生", "医生编号");
+            column("doctorNo", "医生编号", false);
+            column("name", "姓名", true);
+            column("deptName", "科室", false);
+            column("title", "职称", false);
+            column("expertise", "专长", false);
+            column("introduction", "简介", false);
+            column("status", "状态", false);
+        }
+
+        @Override
+        void prepare() {
+            keys = toKeySet(doctorMapper.selectObjs(new LambdaQueryWrapper<Doctor>()
+                    .select(Doctor::getDoctorNo)
+                    .isNotNull(Doctor::getDoctorNo)));
+            for (Department department : departmentMapper.selectList(new LambdaQueryWrapper<Department>()
+                    .select(Department::getId, Department::getDeptName))) {
+                departments.put(department.getDeptName(), department.getId());
+            }
+        }
+
+        @Override
+        Doctor parse(Row row) {
+            Doctor doctor = new Doctor();
+            doctor.setName(row.require("name", "姓名"));
+            String deptName = row.get("deptName");
+            if (deptName != null) {
+                Long departmentId = departments.get(deptName);
+                if (departmentId == null) {
+                    throw new ServiceException("科室不存在: " + deptName);
+                }
+                doctor.setDepartmentId(departmentId);
+            }
+            doctor.setTitle(row.get("title"));
+            doctor.setExpertise(row.get("expertise"));
+            doctor.setIntroduction(row.get("introduction"));
+            doctor.setStatus(row.flag("status", "状态", "在职", "离职"));
+            // 编号最后生成，校验失败的行不占用序号
+            String doctorNo = row.get("doctorNo");
+            doctor.setDoctorNo(doctorNo != null ? doctorNo : sequenceService.nextNo("D", 3));
+            LocalDateTime now = LocalDateTime.now();
+            doctor.setCreateTime(now);
+            doctor.setUpdateTime(now);
+            return doctor;
+        }
+
+        @Override
+        String keyOf(Doctor doctor) {
+            return doctor.getDoctorNo();
+        }
+
+        @Override
+        void insert(List<Doctor> rows) {
+            doctorMapper.batchInsert(rows);
+        }
+
+        @Override
+        void afterInsert(List<Doctor> rows) {
+            resourceVersions.bump(Family.DOCTOR);
+            searchIndexService.refreshAll(Kind.DOCTOR, rows);
+        }
+    }
+
+    private final class MedicineImporter extends Importer<Medicine> {
+        /**
+         * 分类名称 -> 分类，不存在的分类记为null，避免重复查询
+         */
+        private final Map<String, MedicineCategory> categories = new HashMap<>();
+
+        MedicineImporter() {
+            super("药品", "药品编码");
+            column("medicineCode", "药品编码", true);
+            column("medicineName", "药品名称", true);
+            column("specification", "规格", false);
+            column("dosageForm", "剂型", false);
+            column("manufacturer", "生产厂家", false);
+            column("category", "分类", false);
+            column("price", "单价", false);
+            column("stock", "库存", false);
+            column("status", "状态", false);
+            column("instructions", "说明", false);
+        }
+
+        @Override
+        void prepare() {
+            keys = toKeySet(medicineMapper.selectObjs(new LambdaQueryWrapper<Medicine>()
+                    .select(Medicine::getMedicineCode)
+                    .isNotNull(Medicine::getMedicineCode)));
+        }
+
+        @Override
+        Medicine parse(Row row) {
+            Medicine medicine = new Medicine();
+            medicine.setMedicineCode(row.require("medicineCode", "药品编码"));
+            medicine.setMedicineName(row.require("medicineName", "药品名称"));
+            medicine.setSpecification(row.get("specification"));
+            medicine.setDosageForm(row.get("dosageForm"));
+            medicine.setManufacturer(row.get("manufacturer"));
+            // 与新增药品时一致：按名称关联分类，未填写时为“未分类”
+            String category = row.get("category");
+            if (category == null) {
+                medicine.setCategory("未分类");
+            } else {
+                medicine.setCategory(category);
+                MedicineCategory matched = categories.computeIfAbsent(category, medicineCategoryService::getActiveByName);
+                if (matched != null) {
+                    medicine.setCategoryId(matched.getId());
+                }
+            }
+            BigDecimal price = row.decimal("price", "单价");
+            if (price != null && price.signum() < 0) {
+                throw new ServiceException("单价不能为负数");
+            }
+            medicine.setPrice(price);
+            Integer stock = row.integer("stock", "库存");
+            if (stock != null && stock < 0) {
+                throw new ServiceException("库存不能为负数");
+            }
+            medicine.setStock(stock);
+            medicine.setStatus(row.flag("status", "状态", "上架", "下架"));
+            medicine.setInstructions(row.get("instructions"));
+            LocalDateTime now = LocalDateTime.now();
+            medicine.setCreateTime(now);
+            medicine.setUpdateTime(now);
+            return medicine;
+        }
+
+        @Override
+        String keyOf(Medicine medicine) {
+            return medicine.getMedicineCode();
+        }
+
+        @Override
+        void insert(List<Medicine> rows) {
+            medicineMapper.batchInsert(rows);
+        }
+
+        @Override
+        void afterInsert(List<Medicine> rows) {
+            searchIndexService.refreshAll(Kind.MEDICINE, rows);
+        }
+    }
+
+    /**
+     * 一行数据，按字段名取值，空白值视为未填写
+     */
+    static final class Row {
+        private final Map<String, Integer> columns;
+        private final String[] values;
+
+        Row(Map<String, Integer> columns, String[] values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        String get(String field) {
+            Integer index = columns.get(field);
+            if (index == null || index >= values.length) {
+                return null;
+            }
+            String value = values[index].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String require(String field, String label) {
+            String value = get(field);
+            if (value == null) {
+                throw new ServiceException(label + "不能为空");
+            }
+            return value;
+        }
+
+        LocalDate date(String field, String label) {
+            String value = get(field);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return value.indexOf('/') >= 0 ? LocalDate.parse(value, SLASH_DATE) : LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new ServiceException(label + "格式不正确，应为yyyy-MM-dd: " + value);
+            }
+        }
+
+        Integer integer(String field, String label) {
+            String value = get(field);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new ServiceException(label + "必须为整数: " + value);
+            }
+        }
+
+        BigDecimal decimal(String field, String label) {
+            String value = get(field);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new ServiceException(label + "必须为数字: " + value);
+            }
+        }
+
+        /**
+         * 1/0 状态列，也接受对应的中文，未填写时为1
+         */
+        Integer flag(String field, String label, String on, String off) {
+            String value = get(field);
+            if (value == null || "1".equals(value) || on.equals(value)) {
+                return 1;
+            }
+            if ("0".equals(value) || off.equals(value)) {
+                return 0;
+            }
+            throw new ServiceException(label + "只能为" + on + "或" + off);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.springboot.entity.MedicalRecord;
+import org.example.springboot.entity.Prescription;
+import org.example.springboot.entity.PrescriptionDetail;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.MedicalRecordMapper;
+import org.example.springboot.mapper.PrescriptionDetailMapper;
+import org.example.springboot.mapper.PrescriptionMapper;
+import org.example.springboot.util.CaseFactIndex;
+import org.example.springboot.util.CaseFactIndex.CaseItem;
+import org.example.springboot.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 病例索引（诊疗共现统计、用药推荐）的加载与同步
+ * 启动后在后台线程对就诊记录和处方明细各流式扫描一次，同时加载所有已注册的索引；
+ * 就诊记录、处方的增删改在事务提交后按ID重新读取一次，再分发给各索引增量更新。
+ */
+@Component
+public class CaseIndexLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaseIndexLoader.class);
+
+    @Resource
+    private MedicalRecordMapper medicalRecordMapper;
+
+    @Resource
+    private PrescriptionMapper prescriptionMapper;
+
+    @Resource
+    private PrescriptionDetailMapper prescriptionDetailMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 已启用的索引，启动时加载并接收增量更新
+     */
+    private final List<CaseFactIndex> indexes = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * 注册索引，在各服务初始化时调用
+     */
+    public void register(CaseFactIndex index) {
+        indexes.add(index);
+    }
+
+    /**
+     * 启动后在后台线程加载，不阻塞应用启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(() -> rebuild(indexes), "case-index-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 全量重建：先扫描就诊记录，再扫描处方明细（游标需要在事务内保持连接），每行同时送入各索引
+     * @return 已有加载在进行时返回false
+     */
+    public boolean rebuild(List<? extends CaseFactIndex> targets) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            for (CaseFactIndex index : targets) {
+                index.beginLoad();
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                loadRecords(targets);
+                loadPrescriptions(targets);
+            });
+            Map<String, Object> stats = new LinkedHashMap<>();
+            for (CaseFactIndex index : targets) {
+                index.endLoad();
+                stats.put(index.getClass().getSimpleName(), index.getStats());
+            }
+            LOGGER.info("病例索引加载完成: {}, 耗时={}ms", stats, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.error("病例索引加载失败", e);
+        } finally {
+            rebuilding.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * 就诊记录新增、修改、删除后同步到各索引（有事务时在提交后执行）
+     */
+    public void refreshRecord(Long recordId) {
+        if (indexes.isEmpty() || recordId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            try {
+                MedicalRecord record = medicalRecordMapper.selectById(recordId);
+                for (CaseFactIndex index : indexes) {
+                    if (record == null) {
+                        index.removeRecord(recordId);
+                    } else {
+                        index.putRecord(recordId, record.getTraditionalChineseMedicineDiagnosis(),
+                                record.getSyndromeType(), symptomsOf(record));
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.error("病例索引同步就诊记录失败: recordId={}", recordId, e);
+            }
+        });
+    }
+
+    /**
+     * 处方或处方明细新增、修改、删除后同步到各索引（有事务时在提交后执行）
+     */
+    public void refreshPrescription(Long prescriptionId) {
+        if (indexes.isEmpty() || prescriptionId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            try {
+                Prescription prescription = prescriptionMapper.selectById(prescriptionId);
+                if (prescription == null || prescription.getRecordId() == null) {
+                    for (CaseFactIndex index : indexes) {
+                        index.removePrescription(prescriptionId);
+                    }
+                    return;
+                }
+                List<PrescriptionDetail> details = prescriptionDetailMapper.selectList(
+                        new LambdaQueryWrapper<PrescriptionDetail>()
+                                .select(PrescriptionDetail::getMedicineId, PrescriptionDetail::getDosage,
+                                        PrescriptionDetail::getFrequency, PrescriptionDetail::getUsage,
+                                        PrescriptionDetail::getDays, PrescriptionDetail::getQuantity)
+                                .eq(PrescriptionDetail::getPrescriptionId, prescriptionId));
+                List<CaseItem> items = new ArrayList<>(details.size());
+                for (PrescriptionDetail detail : details) {
+                    if (detail.getMedicineId() != null) {
+                        items.add(toItem(detail.getMedicineId(), detail.getDosage(), detail.getFrequency(),
+                                detail.getUsage(), detail.getDays(), detail.getQuantity()));
+                    }
+                }
+                for (CaseFactIndex index : indexes) {
+                    index.putPrescription(prescriptionId, prescription.getRecordId(), items);
+                }
+            } catch (Exception e) {
+                LOGGER.error("病例索引同步处方失败: prescriptionId={}", prescriptionId, e);
+            }
+        });
+    }
+
+    private void loadRecords(List<? extends CaseFactIndex> targets) {
+        try (Cursor<MedicalRecord> cursor = medicalRecordMapper.scanDiagnosisFacts()) {
+            for (MedicalRecord record : cursor) {
+                String symptoms = symptomsOf(record);
+                for (CaseFactIndex index : targets) {
+                    index.loadRecord(record.getId(), record.getTraditionalChineseMedicineDiagnosis(),
+                            record.getSyndromeType(), symptoms);
+                }
+            }
+        } catch (Exception e) {
+            throw new ServiceException("就诊记录扫描失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 明细按处方ID有序，相邻的同一处方明细合并为一张处方加载
+     */
+    private void loadPrescriptions(List<? extends CaseFactIndex> targets) {
+        try (Cursor<Map<String, Object>> cursor = prescriptionDetailMapper.scanPrescriptionMedicines()) {
+            long currentId = -1;
+            long currentRecordId = -1;
+            List<CaseItem> items = new ArrayList<>();
+            for (Map<String, Object> row : cursor) {
+                long prescriptionId = ((Number) row.get("prescriptionId")).longValue();
+                if (prescriptionId != currentId) {
+                    loadPrescription(targets, currentId, currentRecordId, items);
+                    currentId = prescriptionId;
+                    Object recordId = row.get("recordId");
+                    currentRecordId = recordId == null ? -1 : ((Number) recordId).longValue();
+                    items = new ArrayList<>();
+                }
+                Object medicineId = row.get("medicineId");
+                if (medicineId != null) {
+                    items.add(toItem(((Number) medicineId).longValue(), (String) row.get("dosage"),
+                            (String) row.get("frequency"), (String) row.get("usage"),
+                            toInteger(row.get("days")), toInteger(row.get("quantity"))));
+                }
+            }
+            loadPrescription(targets, currentId, currentRecordId, items);
+        } catch (Exception e) {
+            throw new ServiceException("处方明细扫描失败: " + e.getMessage());
+        }
+    }
+
+    private static void loadPrescription(List<? extends CaseFactIndex> targets, long id, long recordId,
+                                         List<CaseItem> items) {
+        if (items.isEmpty() || recordId < 0) {
+            return;
+        }
+        for (CaseFactIndex index : targets) {
+            index.loadPrescription(id, recordId, items);
+        }
+    }
+
+    private static CaseItem toItem(long medicineId, String dosage, String frequency,
+                                   String usage, Integer days, Integer quantity) {
+        CaseItem item = new CaseItem();
+        item.setMedicineId(medicineId);
+        item.setDosage(dosage);
+        item.setFrequency(frequency);
+        item.setUsage(usage);
+        item.setDays(days);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static Integer toInteger(Object value) {
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    /**
+     * 优先使用标准症状，尚未标准化时使用症状原文
+     */
+    private static String symptomsOf(MedicalRecord record) {
+        return StringUtils.isNotBlank(record.getStandardSymptoms()) ? record.getStandardSymptoms() : record.getSymptom();
+    }
+}
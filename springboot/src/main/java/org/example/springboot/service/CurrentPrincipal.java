@@ -0,0 +1,147 @@
+package org.example.springboot.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.entity.User;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.example.springboot.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.List;
+
+/**
+ * 当前请求的登录主体
+ * 由 JwtInterceptor 在校验token后填充，未经过拦截器的请求在首次使用时解析一次token；
+ * 用户、患者、医生信息按需加载并在本次请求内复用
+ */
+@Component
+@RequestScope
+public class CurrentPrincipal {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CurrentPrincipal.class);
+
+    @Resource
+    private HttpServletRequest request;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private PatientMapper patientMapper;
+
+    @Resource
+    private DoctorMapper doctorMapper;
+
+    private boolean resolved;
+    private Long userId;
+
+    private boolean userLoaded;
+    private User user;
+
+    private boolean patientLoaded;
+    private Patient patient;
+
+    private boolean doctorLoaded;
+    private Doctor doctor;
+
+    /**
+     * 拦截器校验通过后写入当前用户
+     */
+    public void authenticate(Long userId, User user) {
+        this.resolved = true;
+        this.userId = userId;
+        if (user != null) {
+            // 复制一份，避免调用方修改缓存中的用户快照
+            User copy = new User();
+            BeanUtils.copyProperties(user, copy);
+            this.user = copy;
+            this.userLoaded = true;
+        }
+    }
+
+    /**
+     * 当前用户ID，未登录返回null
+     */
+    public Long getUserId() {
+        if (!resolved) {
+            resolved = true;
+            userId = decodeUserId();
+        }
+        return userId;
+    }
+
+    /**
+     * 当前用户，未登录或用户不存在返回null
+     */
+    public User getUser() {
+        if (!userLoaded) {
+            userLoaded = true;
+            Long id = getUserId();
+            user = id == null ? null : userMapper.selectById(id);
+        }
+        return user;
+    }
+
+    /**
+     * 当前用户关联的患者（含用户信息），不存在返回null
+     */
+    public Patient getPatient() {
+        if (!patientLoaded) {
+            patientLoaded = true;
+            Long id = getUserId();
+            if (id != null) {
+                patient = patientMapper.selectOne(new LambdaQueryWrapper<Patient>().eq(Patient::getUserId, id));
+                if (patient != null) {
+                    patient.setUser(getUser());
+                }
+            }
+        }
+        return patient;
+    }
+
+    /**
+     * 当前用户关联的医生，不存在返回null
+     */
+    public Doctor getDoctor() {
+        if (!doctorLoaded) {
+            doctorLoaded = true;
+            Long id = getUserId();
+            if (id != null) {
+                doctor = doctorMapper.selectOne(new LambdaQueryWrapper<Doctor>().eq(Doctor::getUserId, id));
+            }
+        }
+        return doctor;
+    }
+
+    private Long decodeUserId() {
+        String token = request.getHeader("token");
+        if (StringUtils.isBlank(token)) {
+            token = request.getParameter("token");
+        }
+        if (StringUtils.isBlank(token)) {
+            return null;
+        }
+        // 格式错误的token按未登录处理，与 JwtTokenUtils 一致，不作为系统错误
+        try {
+            List<String> audience = JWT.decode(token).getAudience();
+            if (audience == null || audience.isEmpty()) {
+                LOGGER.warn("token中缺少用户ID");
+                return null;
+            }
+            return Long.valueOf(audience.get(0));
+        } catch (JWTDecodeException | NumberFormatException e) {
+            LOGGER.warn("解析token中的用户ID失败: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -9,11 +9,13 @@ import org.example.springboot.entity.Doctor;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.DepartmentMapper;
 import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class DepartmentService {
@@ -23,6 +25,12 @@ public class DepartmentService {
     @Resource
     private DoctorMapper doctorMapper;
     
+    @Resource
+    private ReferenceDataCache referenceDataCache;
+    
+    @Resource
+    private ResourceVersions resourceVersions;
+    
     /**
      * 新增科室
      */
@@ -42,7 +50,7 @@ public class DepartmentService {
         
         // 如果设置了负责人，检查负责人是否存在
         if (department.getDirectorId() != null) {
-            Doctor doctor = doctorMapper.selectById(department.getDirectorId());
+            Doctor doctor = referenceDataCache.getDoctor(department.getDirectorId());
             if (doctor == null) {
                 throw new ServiceException("负责人不存在");
             }
@@ -51,6 +59,7 @@ public class DepartmentService {
         if (departmentMapper.insert(department) <= 0) {
             throw new ServiceException("科室添加失败");
         }
+        resourceVersions.bump(Family.DEPARTMENT);
         
         return department;
     }
@@ -77,7 +86,7 @@ public class DepartmentService {
         
         // 如果设置了负责人，检查负责人是否存在
         if (department.getDirectorId() != null) {
-            Doctor doctor = doctorMapper.selectById(department.getDirectorId());
+            Doctor doctor = referenceDataCache.getDoctor(department.getDirectorId());
             if (doctor == null) {
                 throw new ServiceException("负责人不存在");
             }
@@ -89,6 +98,8 @@ public class DepartmentService {
         if (departmentMapper.updateById(department) <= 0) {
             throw new ServiceException("科室信息更新失败");
         }
+        referenceDataCache.evictDepartment(id);
+        resourceVersions.bump(Family.DEPARTMENT);
     }
     
     /**
@@ -102,7 +113,7 @@ public class DepartmentService {
         
         // 如果有负责人，查询负责人信息
         if (department.getDirectorId() != null) {
-            Doctor director = doctorMapper.selectById(department.getDirectorId());
+            Doctor director = referenceDataCache.getDoctor(department.getDirectorId());
             department.setDirector(director);
         }
         
@@ -119,10 +130,11 @@ public class DepartmentService {
         );
         
         // 查询负责人信息
+        Map<Long, Doctor> directors = referenceDataCache.getDoctors(
+            AssociationLoader.collectIds(departments, Department::getDirectorId));
         for (Department department : departments) {
             if (department.getDirectorId() != null) {
-                Doctor director = doctorMapper.selectById(department.getDirectorId());
-                department.setDirector(director);
+                department.setDirector(directors.get(department.getDirectorId()));
             }
         }
         
@@ -154,7 +166,7 @@ public class DepartmentService {
         // 查询负责人信息
         for (Department department : page.getRecords()) {
             if (department.getDirectorId() != null) {
-                Doctor director = doctorMapper.selectById(department.getDirectorId());
+                Doctor director = referenceDataCache.getDoctor(department.getDirectorId());
                 department.setDirector(director);
             }
         }
@@ -184,5 +196,7 @@ public class DepartmentService {
         if (departmentMapper.deleteById(id) <= 0) {
             throw new ServiceException("科室删除失败");
         }
+        referenceDataCache.evictDepartment(id);
+        resourceVersions.bump(Family.DEPARTMENT);
     }
 } 
\ No newline at end of file
@@ -18,6 +18,8 @@ import org.example.springboot.mapper.ScheduleMapper;
 import org.example.springboot.mapper.AppointmentMapper;
 import org.example.springboot.mapper.MedicalRecordMapper;
 import org.example.springboot.mapper.PrescriptionMapper;
+import org.example.springboot.service.ResourceVersions.Family;
+import org.example.springboot.service.SearchIndexService.Kind;
 import org.example.springboot.util.JwtTokenUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,8 +28,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.Resource;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
@@ -40,6 +42,15 @@ public class DoctorService {
     @Resource
     private DepartmentMapper departmentMapper;
     
+    @Resource
+    private ReferenceDataCache referenceDataCache;
+    
+    @Resource
+    private ResourceVersions resourceVersions;
+    
+    @Resource
+    private SearchIndexService searchIndexService;
+    
     @Resource
     private UserMapper userMapper;
     
@@ -57,6 +68,9 @@ public class DoctorService {
     
     @Resource
     private PrescriptionMapper prescriptionMapper;
+    
+    @Resource
+    private SequenceService sequenceService;
 
     /**
      * 创建医生并同时创建用户
@@ -101,6 +115,8 @@ public class DoctorService {
         doctor.setUpdateTime(now);
         
         doctorMapper.insert(doctor);
+        resourceVersions.bump(Family.DOCTOR);
+        searchIndexService.refresh(Kind.DOCTOR, doctor.getId());
         
         // 如果关联了用户，更新用户状态
         if (doctor.getUserId() != null) {
@@ -123,6 +139,9 @@ public class DoctorService {
         doctor.setId(id);
         doctor.setUpdateTime(LocalDateTime.now());
         doctorMapper.updateById(doctor);
+        referenceDataCache.evictDoctor(id);
+        resourceVersions.bump(Family.DOCTOR);
+        searchIndexService.refresh(Kind.DOCTOR, id);
         
         // 处理用户绑定关系变更
         Long oldUserId = existingDoctor.getUserId();
@@ -155,7 +174,7 @@ public class DoctorService {
         
         // 获取科室信息
         if (doctor.getDepartmentId() != null) {
-            Department department = departmentMapper.selectById(doctor.getDepartmentId());
+            Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
             doctor.setDepartment(department);
         }
         
@@ -181,7 +200,7 @@ public class DoctorService {
         // 获取关联信息
         for (Doctor doctor : doctors) {
             if (doctor.getDepartmentId() != null) {
-                Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                 doctor.setDepartment(department);
             }
             
@@ -228,7 +247,7 @@ public class DoctorService {
         // 获取关联信息
         for (Doctor doctor : resultPage.getRecords()) {
             if (doctor.getDepartmentId() != null) {
-                Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                 doctor.setDepartment(department);
             }
             
@@ -241,6 +260,38 @@ public class DoctorService {
         return resultPage;
     }
 
+    /**
+     * 按关键词检索医生（姓名、医生编号、姓名拼音首字母）
+     * 优先由检索索引得到当前页的ID，索引未就绪时改走数据库模糊查询
+     */
+    public Page<Doctor> searchDoctors(String keyword, Integer currentPage, Integer size) {
+        Page<Doctor> resultPage = searchIndexService.page(Kind.DOCTOR, keyword, currentPage, size);
+        if (resultPage == null) {
+            LambdaQueryWrapper<Doctor> queryWrapper = new LambdaQueryWrapper<>();
+            if (StringUtils.isNotBlank(keyword)) {
+                queryWrapper.and(wrapper -> wrapper.like(Doctor::getName, keyword)
+                        .or().like(Doctor::getDoctorNo, keyword));
+            }
+            queryWrapper.orderByDesc(Doctor::getId);
+            resultPage = doctorMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
+        }
+        
+        // 获取关联信息
+        Map<Long, Department> departments = referenceDataCache.getDepartments(
+                AssociationLoader.collectIds(resultPage.getRecords(), Doctor::getDepartmentId));
+        Map<Long, User> users = AssociationLoader.loadByIds(userMapper,
+                AssociationLoader.collectIds(resultPage.getRecords(), Doctor::getUserId), User::getId);
+        for (Doctor doctor : resultPage.getRecords()) {
+            if (doctor.getDepartmentId() != null) {
+                doctor.setDepartment(departments.get(doctor.getDepartmentId()));
+            }
+            if (doctor.getUserId() != null) {
+                doctor.setUser(users.get(doctor.getUserId()));
+            }
+        }
+        return resultPage;
+    }
+
     /**
      * 根据科室ID获取医生列表
      */
@@ -268,6 +319,8 @@ public class DoctorService {
         updateDoctor.setUpdateTime(LocalDateTime.now());
         
         doctorMapper.updateById(updateDoctor);
+        referenceDataCache.evictDoctor(id);
+        resourceVersions.bump(Family.DOCTOR);
     }
 
     /**
@@ -329,6 +382,9 @@ public class DoctorService {
         }
         
         doctorMapper.deleteById(id);
+        referenceDataCache.evictDoctor(id);
+        resourceVersions.bump(Family.DOCTOR);
+        searchIndexService.remove(Kind.DOCTOR, List.of(id));
     }
 
     /**
@@ -361,6 +417,8 @@ public class DoctorService {
         updateDoctor.setUserId(userId);
         updateDoctor.setUpdateTime(LocalDateTime.now());
         doctorMapper.updateById(updateDoctor);
+        referenceDataCache.evictDoctor(doctorId);
+        resourceVersions.bump(Family.DOCTOR);
     }
 
     /**
@@ -379,37 +437,15 @@ public class DoctorService {
         updateDoctor.setUpdateTime(LocalDateTime.now());
         
         doctorMapper.updateById(updateDoctor);
+        referenceDataCache.evictDoctor(doctorId);
+        resourceVersions.bump(Family.DOCTOR);
     }
 
     /**
      * 生成医生编号
      */
     private String generateDoctorNo() {
-        LocalDateTime now = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-        String datePrefix = now.format(formatter);
-        
-        // 获取当天最大编号
-        String likePrefix = "D" + datePrefix;
-        LambdaQueryWrapper<Doctor> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.likeRight(Doctor::getDoctorNo, likePrefix);
-        queryWrapper.orderByDesc(Doctor::getDoctorNo);
-        queryWrapper.last("LIMIT 1");
-        
-        Doctor lastDoctor = doctorMapper.selectOne(queryWrapper);
-        
-        int sequence = 1;
-        if (lastDoctor != null && lastDoctor.getDoctorNo() != null) {
-            String lastNo = lastDoctor.getDoctorNo();
-            if (lastNo.length() > 9) {
-                try {
-                    sequence = Integer.parseInt(lastNo.substring(9)) + 1;
-                } catch (NumberFormatException e) {
-                    LOGGER.error("解析医生编号序列号异常", e);
-                }
-            }
-        }
-        
-        return String.format("D%s%03d", datePrefix, sequence);
+        // 生成格式：D + 年月日 + 3位当日序号
+        return sequenceService.nextNo("D", 3);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
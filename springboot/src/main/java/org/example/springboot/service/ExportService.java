@@ -0,0 +1,287 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.mapper.MedicalRecordMapper;
+import org.example.springboot.mapper.PrescriptionMapper;
+import org.example.springboot.util.CsvWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * 数据导出
+ * 通过 MyBatis 游标逐行读取（fetchSize 流式），边读边写 CSV 到输出流，患者、医生等名称在SQL中关联带出；
+ * 不在内存中累积结果集，导出行数再多堆占用也保持不变。
+ */
+@Service
+public class ExportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportService.class);
+
+    static final List<Column> APPOINTMENT_COLUMNS = List.of(
+            new Column("预约ID", "id"),
+            new Column("预约编号", "appointmentNo"),
+            new Column("预约日期", "appointmentDate"),
+            new Column("时间段", "timeSlot"),
+            new Column("状态", "status", ExportService::appointmentStatusLabel),
+            new Column("症状描述", "symptoms"),
+            new Column("患者编号", "patientNo"),
+            new Column("患者姓名", "patientName"),
+            new Column("联系电话", "patientPhone"),
+            new Column("医生编号", "doctorNo"),
+            new Column("医生姓名", "doctorName"),
+            new Column("科室", "deptName"),
+            new Column("创建时间", "createTime"));
+
+    static final List<Column> MEDICAL_RECORD_COLUMNS = List.of(
+            new Column("记录ID", "id"),
+            new Column("记录编号", "recordNo"),
+            new Column("就诊日期", "recordDate"),
+            new Column("就诊次数", "numberOfVisits"),
+            new Column("患者编号", "patientNo"),
+            new Column("患者姓名", "patientName"),
+            new Column("医生编号", "doctorNo"),
+            new Column("医生姓名", "doctorName"),
+            new Column("症状", "symptom"),
+            new Column("标准症状", "standardSymptoms"),
+            new Column("中医诊断", "tcmDiagnosis"),
+            new Column("西医诊断", "westernDiagnosis"),
+            new Column("证型", "syndromeType"),
+            new Column("治疗方案", "treatment"),
+            new Column("随访计划", "followUp"),
+            new Column("备注", "notes"),
+            new Column("创建时间", "createTime"));
+
+    static final List<Column> PRESCRIPTION_COLUMNS = List.of(
+            new Column("处方ID", "id"),
+            new Column("处方编号", "prescriptionNo"),
+            new Column("开方日期", "prescriptionDate"),
+            new Column("患者编号", "patientNo"),
+            new Column("患者姓名", "patientName"),
+            new Column("医生编号", "doctorNo"),
+            new Column("医生姓名", "doctorName"),
+            new Column("诊断", "diagnosis"),
+            new Column("状态", "status", ExportService::prescriptionStatusLabel),
+            new Column("药品编码", "medicineCode"),
+            new Column("药品名称", "medicineName"),
+            new Column("规格", "specification"),
+            new Column("用量", "dosage"),
+            new Column("频次", "frequency"),
+            new Column("用法", "usage"),
+            new Column("天数", "days"),
+            new Column("数量", "quantity"),
+            new Column("备注", "notes"),
+            new Column("创建时间", "createTime"));
+
+    @Resource
+    private AppointmentMapper appointmentMapper;
+
+    @Resource
+    private MedicalRecordMapper medicalRecordMapper;
+
+    @Resource
+    private PrescriptionMapper prescriptionMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${export.max-days:366}")
+    private int maxDays;
+
+    /**
+     * 游标在导出期间独占一个数据库连接，限制同时进行的导出数
+     */
+    private Semaphore permits;
+
+    private TransactionTemplate readOnlyTemplate;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(Math.max(1, maxConcurrent));
+        readOnlyTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 导出预约
+     * @return 导出的数据行数（不含表头），客户端中途断开时为-1
+     */
+    public long exportAppointments(LocalDate startDate, LocalDate endDate, Integer status, ExportTarget target) {
+        return export("预约", startDate, endDate, target, APPOINTMENT_COLUMNS,
+                () -> appointmentMapper.scanForExport(startDate, endDate, status));
+    }
+
+    /**
+     * 导出就诊记录
+     * @return 导出的数据行数（不含表头），客户端中途断开时为-1
+     */
+    public long exportMedicalRecords(LocalDate startDate, LocalDate endDate, ExportTarget target) {
+        return export("就诊记录", startDate, endDate, target, MEDICAL_RECORD_COLUMNS,
+                () -> medicalRecordMapper.scanForExport(startDate, endDate));
+    }
+
+    /**
+     * 导出处方（每条明细一行）
+     * @return 导出的数据行数（不含表头），客户端中途断开时为-1
+     */
+    public long exportPrescriptions(LocalDate startDate, LocalDate endDate, Integer status, ExportTarget target) {
+        return export("处方", startDate, endDate, target, PRESCRIPTION_COLUMNS,
+                () -> prescriptionMapper.scanForExport(startDate, endDate, status));
+    }
+
+    private long export(String name, LocalDate startDate, LocalDate endDate, ExportTarget target,
+                        List<Column> columns, CursorSource source) {
+        checkRange(startDate, endDate);
+        if (!permits.tryAcquire()) {
+            throw new ServiceException("导出任务过多，请稍后再试");
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // 游标需要在事务内保持连接，结果集读完后才提交
+            Long rows = readOnlyTemplate.execute(status -> {
+                try (Cursor<Map<String, Object>> cursor = source.open()) {
+                    return writeCsv(cursor, columns, target.open());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            LOGGER.info("导出{}完成: startDate={}, endDate={}, rows={}, 耗时={}ms",
+                    name, startDate, endDate, rows, System.currentTimeMillis() - start);
+            return rows == null ? 0 : rows;
+        } catch (UncheckedIOException e) {
+            // 多为客户端中途断开下载。CSV 响应此时已经开始写出，不能再交给全局异常处理写入JSON，只记录日志
+            LOGGER.warn("导出{}中断: {}", name, e.getCause().getMessage());
+            return -1;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void checkRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new ServiceException("请指定导出的开始日期和结束日期");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new ServiceException("开始日期不能晚于结束日期");
+        }
+        if (startDate.plusDays(maxDays).isBefore(endDate)) {
+            throw new ServiceException("单次导出的日期范围不能超过" + maxDays + "天");
+        }
+    }
+
+    /**
+     * 把行逐条写成 CSV（首行为表头），写完后刷新但不关闭输出流
+     * @return 数据行数（不含表头）
+     */
+    static long writeCsv(Iterable<Map<String, Object>> rows, List<Column> columns, OutputStream out) throws IOException {
+        CsvWriter writer = new CsvWriter(out);
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = columns.get(i).getHeader();
+        }
+        writer.writeRow(values);
+        for (Map<String, Object> row : rows) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = columns.get(i).valueOf(row);
+            }
+            writer.writeRow(values);
+        }
+        writer.flush();
+        return writer.getRows() - 1;
+    }
+
+    private static Object appointmentStatusLabel(Object value) {
+        if (value instanceof Number) {
+            switch (((Number) value).intValue()) {
+                case 0: return "取消";
+                case 1: return "待就诊";
+                case 2: return "已就诊";
+                default: break;
+            }
+        }
+        return value;
+    }
+
+    private static Object prescriptionStatusLabel(Object value) {
+        if (value instanceof Number) {
+            switch (((Number) value).intValue()) {
+                case 0: return "未取药";
+                case 1: return "已取药";
+                default: break;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 以 CSV 附件形式写入HTTP响应，响应头在开始写数据时才设置，校验失败时仍按普通JSON错误返回
+     */
+    public static ExportTarget csvAttachment(HttpServletResponse response, String fileName) {
+        return () -> {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+            return response.getOutputStream();
+        };
+    }
+
+    /**
+     * 导出列：表头、结果集中的列别名、可选的值转换
+     */
+    static final class Column {
+        private final String header;
+        private final String key;
+        private final Function<Object, Object> formatter;
+
+        Column(String header, String key) {
+            this(header, key, null);
+        }
+
+        Column(String header, String key, Function<Object, Object> formatter) {
+            this.header = header;
+            this.key = key;
+            this.formatter = formatter;
+        }
+
+        String getHeader() {
+            return header;
+        }
+
+        Object valueOf(Map<String, Object> row) {
+            Object value = row.get(key);
+            return formatter == null || value == null ? value : formatter.apply(value);
+        }
+    }
+
+    /**
+     * 导出目标，在参数校验通过、开始写数据时才打开（便于控制器此时再设置下载响应头）
+     */
+    @FunctionalInterface
+    public interface ExportTarget {
+        OutputStream open() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface CursorSource {
+        Cursor<Map<String, Object>> open();
+    }
+}
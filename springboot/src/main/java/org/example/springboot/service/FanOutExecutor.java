@@ -0,0 +1,209 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 详情查询的并发子查询
+ * 用法与 StructuredTaskScope.ShutdownOnFailure 相同：在 try-with-resources 中 open，fork 若干互不依赖的查询，
+ * join 等待全部完成，任一失败时尚未开始的其余子任务直接跳过，join 抛出最先发生的异常；离开作用域前总会等已开始的子任务结束，子任务不会比发起方活得更久。
+ * 正在执行的子任务不会被中断，避免打断 JDBC 读写导致连接状态不确定。子任务中不要再开启作用域（平台线程池可能被等待中的父任务占满）。
+ * 开启虚拟线程（spring.threads.virtual.enabled，需 Java 21）时每个子任务一个虚拟线程，否则使用固定大小的平台线程池，池满时由调用线程执行。
+ * 默认关闭（fan-out.enabled）：Java 17 平台线程下的压测对比见 src/loadtest/README.md，虚拟线程下的收益尚未测量。
+ * 关闭、处于事务中（子线程拿不到事务连接）时在调用线程顺序执行。子任务中的语句仍计入发起请求的SQL统计。
+ */
+@Component
+public class FanOutExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FanOutExecutor.class);
+
+    @Value("${fan-out.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fan-out.pool-size:16}")
+    private int poolSize = 16;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Resource
+    private SqlMetrics sqlMetrics;
+
+    private Executor executor;
+
+    private ThreadPoolExecutor platformPool;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            executor = new VirtualThreadTaskExecutor("fan-out-");
+            LOGGER.info("并发子查询使用虚拟线程");
+            return;
+        }
+        if (virtualThreads) {
+            LOGGER.warn("虚拟线程需要 Java 21，当前为 Java {}，并发子查询改用平台线程池", Runtime.version().feature());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        platformPool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(poolSize * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "fan-out-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        platformPool.allowCoreThreadTimeOut(true);
+        executor = platformPool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (platformPool != null) {
+            platformPool.shutdown();
+        }
+    }
+
+    /**
+     * 开启一个子任务作用域
+     */
+    public Scope open() {
+        boolean concurrent = executor != null && !TransactionSynchronizationManager.isActualTransactionActive();
+        return new Scope(concurrent ? executor : null);
+    }
+
+    /**
+     * 子任务作用域，只能由开启它的线程使用
+     */
+    public class Scope implements AutoCloseable {
+        private final Executor executor;
+        private final List<FutureTask<?>> tasks = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private boolean joined;
+
+        Scope(Executor executor) {
+            this.executor = executor;
+        }
+
+        public <T> Subtask<T> fork(Supplier<T> task) {
+            if (joined) {
+                throw new IllegalStateException("作用域已 join，不能再提交子任务");
+            }
+            Supplier<T> scoped = sqlMetrics.propagate(task);
+            FutureTask<T> future = new FutureTask<>(() -> {
+                // 已有子任务失败时，尚未开始的直接跳过
+                if (failure.get() != null) {
+                    throw new CancellationException("同一作用域的子查询已失败");
+                }
+                try {
+                    return scoped.get();
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                }
+            });
+            tasks.add(future);
+            if (executor == null || failure.get() != null) {
+                future.run();
+            } else {
+                executor.execute(future);
+            }
+            return new Subtask<>(future);
+        }
+
+        /**
+         * 等待全部子任务结束，任一失败时抛出最先发生的异常
+         */
+        public void join() {
+            joined = true;
+            awaitAll();
+            Throwable error = failure.get();
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            if (error != null) {
+                throw new CancellationException("等待子查询时线程被中断");
+            }
+        }
+
+        /**
+         * 等待每个子任务真正结束（执行完或跳过），被中断时令未开始的子任务跳过，仍等已开始的结束
+         */
+        private void awaitAll() {
+            boolean interrupted = false;
+            for (FutureTask<?> task : tasks) {
+                while (true) {
+                    try {
+                        task.get();
+                        break;
+                    } catch (ExecutionException e) {
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 未 join 就离开作用域（通常是 fork 之后抛出了异常）时，令未开始的子任务跳过并等待已开始的结束
+         */
+        @Override
+        public void close() {
+            if (!joined) {
+                joined = true;
+                failure.compareAndSet(null, new CancellationException("作用域已关闭"));
+                awaitAll();
+            }
+        }
+    }
+
+    /**
+     * 子任务句柄，join 之后读取结果
+     */
+    public static class Subtask<T> implements Supplier<T> {
+        private final FutureTask<T> future;
+
+        Subtask(FutureTask<T> future) {
+            this.future = future;
+        }
+
+        @Override
+        public T get() {
+            if (!future.isDone()) {
+                throw new IllegalStateException("子任务尚未完成，请先 join");
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("子任务未成功完成", e);
+            }
+        }
+    }
+}
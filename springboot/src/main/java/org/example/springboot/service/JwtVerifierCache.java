@@ -0,0 +1,161 @@
+package org.example.springboot.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.User;
+import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.util.JwtTokenUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JWT校验器缓存
+ * 按用户ID缓存由密码哈希构造的HMAC256校验器及用户快照，条目随密码哈希变化而失效，
+ * 存活时间与token有效期一致，使鉴权路径在缓存命中时不访问数据库。
+ * 本节点的修改在事务前后各移除一次缓存；其他节点的修改由定期复核发现：
+ * 条目超过复核间隔后按主键重新读取用户，密码哈希（即token签名密钥）变化时重建校验器，旧token随之失效
+ */
+@Component
+public class JwtVerifierCache {
+    @Resource
+    private UserMapper userMapper;
+
+    @Value("${jwt.verifier-cache.capacity:10000}")
+    private int capacity;
+
+    /**
+     * 缓存条目复核间隔，即其他节点修改密码后旧token在本节点最多还能通过校验的时间
+     */
+    @Value("${jwt.verifier-cache.revalidate-seconds:30}")
+    private long revalidateSeconds = 30;
+
+    private LRUCache<Long, CachedVerifier> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder revalidations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(capacity, TimeUnit.HOURS.toMillis(JwtTokenUtils.TOKEN_EXPIRE_HOURS));
+    }
+
+    /**
+     * 校验token并返回对应用户
+     * @throws JWTVerificationException token无效或签名不匹配
+     */
+    public User verify(Long userId, String token) {
+        CachedVerifier cached = cache.get(userId, false);
+        if (cached == null) {
+            misses.increment();
+            cached = load(userId);
+        } else if (System.currentTimeMillis() - cached.loadedAt > TimeUnit.SECONDS.toMillis(revalidateSeconds)) {
+            revalidations.increment();
+            cached = revalidate(userId, cached);
+        } else {
+            hits.increment();
+        }
+        try {
+            cached.verifier.verify(token);
+        } catch (JWTVerificationException e) {
+            // 密码可能已在其他节点修改，按数据库中最新的密码哈希重试一次
+            CachedVerifier latest = load(userId);
+            if (latest.passwordHash.equals(cached.passwordHash)) {
+                throw e;
+            }
+            latest.verifier.verify(token);
+            cached = latest;
+        }
+        return cached.user;
+    }
+
+    /**
+     * 用户密码或信息变更后移除缓存，在事务中调用时事务结束后再移除一次，
+     * 避免提交前被并发请求按旧密码哈希重新缓存
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 命中统计
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) cache.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("revalidations", revalidations.sum());
+        return stats;
+    }
+
+    private CachedVerifier load(Long userId) {
+        User user = userMapper.selectById(userId);
+        if (user == null) {
+            cache.remove(userId);
+            throw new JWTVerificationException("User not found");
+        }
+        CachedVerifier cached = new CachedVerifier(user);
+        cache.put(userId, cached);
+        return cached;
+    }
+
+    /**
+     * 按数据库中的最新用户复核缓存条目，密码哈希未变时沿用已构造的校验器
+     */
+    private CachedVerifier revalidate(Long userId, CachedVerifier cached) {
+        User user = userMapper.selectById(userId);
+        if (user == null) {
+            cache.remove(userId);
+            throw new JWTVerificationException("User not found");
+        }
+        CachedVerifier latest = cached.passwordHash.equals(user.getPassword())
+                ? new CachedVerifier(user, cached.verifier)
+                : new CachedVerifier(user);
+        cache.put(userId, latest);
+        return latest;
+    }
+
+    private static final class CachedVerifier {
+        private final User user;
+        private final String passwordHash;
+        private final JWTVerifier verifier;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private CachedVerifier(User user) {
+            this(user, JWT.require(Algorithm.HMAC256(user.getPassword())).build());
+        }
+
+        private CachedVerifier(User user, JWTVerifier verifier) {
+            this.user = user;
+            this.passwordHash = user.getPassword();
+            this.verifier = verifier;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import org.example.springboot.common.CursorPage;
+import org.example.springboot.util.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标（Keyset）分页
+ * 按 (create_time, id) 倒序定位，翻页时以上一页最后一条记录为起点，
+ * 查询代价与页码无关；可选跳过COUNT(*)。
+ * create_time 为空的记录无法参与定位，不在游标分页中返回（历史数据由 db/keyset-index-migration.sql 补齐）
+ */
+public final class KeysetPager {
+    public static final int MAX_SIZE = 500;
+
+    private KeysetPager() {
+    }
+
+    /**
+     * 按游标查询一页
+     * @param wrapper 已设置好筛选条件的查询，不含排序
+     * @param cursor 上一页返回的游标，首页传空
+     * @param skipCount 是否跳过总数统计
+     */
+    public static <T> CursorPage<T> page(BaseMapper<T> mapper, LambdaQueryWrapper<T> wrapper,
+                                         SFunction<T, LocalDateTime> createTimeColumn, SFunction<T, Long> idColumn,
+                                         String cursor, Integer size, boolean skipCount) {
+        int pageSize = normalizeSize(size);
+
+        wrapper.isNotNull(createTimeColumn);
+        CursorPage<T> page = new CursorPage<>();
+        page.setSize(pageSize);
+        if (!skipCount) {
+            page.setTotal(mapper.selectCount(wrapper));
+        }
+
+        if (StringUtils.isNotBlank(cursor)) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            wrapper.and(w -> w.lt(createTimeColumn, position.getCreateTime())
+                    .or(o -> o.eq(createTimeColumn, position.getCreateTime()).lt(idColumn, position.getId())));
+        }
+        wrapper.orderByDesc(createTimeColumn).orderByDesc(idColumn);
+        // 多取一条用于判断是否还有下一页
+        wrapper.last("LIMIT " + (pageSize + 1));
+
+        List<T> records = mapper.selectList(wrapper);
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+            T last = records.get(pageSize - 1);
+            page.setNextCursor(new KeysetCursor(createTimeColumn.apply(last), idColumn.apply(last)).encode());
+        }
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        return page;
+    }
+
+    /**
+     * 筛选条件确定无结果时的空页
+     */
+    public static <T> CursorPage<T> empty(Integer size, boolean skipCount) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setSize(normalizeSize(size));
+        page.setRecords(new ArrayList<>());
+        page.setHasMore(false);
+        if (!skipCount) {
+            page.setTotal(0L);
+        }
+        return page;
+    }
+
+    private static int normalizeSize(Integer size) {
+        return size == null || size <= 0 ? 10 : Math.min(size, MAX_SIZE);
+    }
+}
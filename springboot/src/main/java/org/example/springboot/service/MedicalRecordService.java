@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.common.CursorPage;
 import org.example.springboot.entity.Appointment;
 import org.example.springboot.entity.Doctor;
 import org.example.springboot.entity.MedicalRecord;
@@ -12,17 +13,14 @@ import org.example.springboot.entity.Prescription;
 import org.example.springboot.entity.Department;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.AppointmentMapper;
-import org.example.springboot.mapper.DoctorMapper;
 import org.example.springboot.mapper.MedicalRecordMapper;
 import org.example.springboot.mapper.PatientMapper;
 import org.example.springboot.mapper.PrescriptionMapper;
-import org.example.springboot.mapper.DepartmentMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Service
@@ -34,7 +32,7 @@ public class MedicalRecordService {
     private PatientMapper patientMapper;
     
     @Resource
-    private DoctorMapper doctorMapper;
+    private ReferenceDataCache referenceDataCache;
     
     @Resource
     private AppointmentMapper appointmentMapper;
@@ -46,7 +44,13 @@ public class MedicalRecordService {
     private PrescriptionMapper prescriptionMapper;
     
     @Resource
-    private DepartmentMapper departmentMapper;
+    private SequenceService sequenceService;
+    
+    @Resource
+    private SymptomStandardizePipeline symptomStandardizePipeline;
+    
+    @Resource
+    private CaseIndexLoader caseIndexLoader;
     
     /**
      * 创建就诊记录
@@ -60,7 +64,7 @@ public class MedicalRecordService {
         }
         
         // 检查医生是否存在
-        Doctor doctor = doctorMapper.selectById(medicalRecord.getDoctorId());
+        Doctor doctor = referenceDataCache.getDoctor(medicalRecord.getDoctorId());
         if (doctor == null) {
             throw new ServiceException("医生不存在");
         }
@@ -95,6 +99,12 @@ public class MedicalRecordService {
             throw new ServiceException("就诊记录创建失败");
         }
         
+        // 医生未填写标准症状时，提交后异步标准化
+        if (StringUtils.isBlank(medicalRecord.getStandardSymptoms())) {
+            symptomStandardizePipeline.submit(medicalRecord.getId(), medicalRecord.getSymptom());
+        }
+        caseIndexLoader.refreshRecord(medicalRecord.getId());
+        
         return medicalRecord;
     }
     
@@ -112,9 +122,21 @@ public class MedicalRecordService {
         medicalRecord.setId(id);
         medicalRecord.setUpdateTime(LocalDateTime.now());
         
+        // 症状被修改且未同时填写标准症状时，清空旧的标准症状并重新异步标准化
+        boolean symptomChanged = StringUtils.isNotBlank(medicalRecord.getSymptom())
+                && !medicalRecord.getSymptom().equals(existingRecord.getSymptom());
+        boolean restandardize = symptomChanged && StringUtils.isBlank(medicalRecord.getStandardSymptoms());
+        if (restandardize) {
+            medicalRecord.setStandardSymptoms("");
+        }
+        
         if (medicalRecordMapper.updateById(medicalRecord) <= 0) {
             throw new ServiceException("就诊记录更新失败");
         }
+        if (restandardize) {
+            symptomStandardizePipeline.submit(id, medicalRecord.getSymptom());
+        }
+        caseIndexLoader.refreshRecord(id);
     }
     
     /**
@@ -131,11 +153,11 @@ public class MedicalRecordService {
         medicalRecord.setPatient(patient);
         
         // 查询医生信息
-        Doctor doctor = doctorMapper.selectById(medicalRecord.getDoctorId());
+        Doctor doctor = referenceDataCache.getDoctor(medicalRecord.getDoctorId());
         if (doctor != null) {
             // 查询科室信息
             if (doctor.getDepartmentId() != null) {
-                Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                 doctor.setDepartment(department);
             }
         medicalRecord.setDoctor(doctor);
@@ -169,6 +191,48 @@ public class MedicalRecordService {
             return resultPage;
         }
         
+        LambdaQueryWrapper<MedicalRecord> queryWrapper = buildMedicalRecordQuery(patientId, doctorId, startDate, endDate);
+        
+        // 按就诊日期降序排序
+        queryWrapper.orderByDesc(MedicalRecord::getRecordDate);
+        
+        Page<MedicalRecord> resultPage = medicalRecordMapper.selectPage(page, queryWrapper);
+        
+        // 填充关联信息
+        fillMedicalRecordsInfo(resultPage.getRecords());
+        
+        return resultPage;
+    }
+    
+    /**
+     * 游标分页查询就诊记录
+     * 按 (create_time, id) 倒序翻页，姓名条件以子查询下推到SQL
+     */
+    public CursorPage<MedicalRecord> getMedicalRecordsByCursor(Long patientId, Long doctorId, String patientName, String doctorName,
+                                                           LocalDate startDate, LocalDate endDate,
+                                                           String cursor, Integer size, boolean skipCount) {
+        LambdaQueryWrapper<MedicalRecord> queryWrapper = buildMedicalRecordQuery(patientId, doctorId, startDate, endDate);
+        if (StringUtils.isNotBlank(patientName)) {
+            queryWrapper.apply("patient_id IN (SELECT id FROM patient WHERE name LIKE CONCAT('%', {0}, '%'))", patientName);
+        }
+        if (StringUtils.isNotBlank(doctorName)) {
+            queryWrapper.apply("doctor_id IN (SELECT id FROM doctor WHERE name LIKE CONCAT('%', {0}, '%'))", doctorName);
+        }
+        
+        CursorPage<MedicalRecord> resultPage = KeysetPager.page(medicalRecordMapper, queryWrapper,
+                MedicalRecord::getCreateTime, MedicalRecord::getId, cursor, size, skipCount);
+        
+        // 填充关联信息
+        fillMedicalRecordsInfo(resultPage.getRecords());
+        
+        return resultPage;
+    }
+    
+    /**
+     * 构造就诊记录列表的筛选条件（不含姓名条件）
+     */
+    private LambdaQueryWrapper<MedicalRecord> buildMedicalRecordQuery(Long patientId, Long doctorId,
+                                                                  LocalDate startDate, LocalDate endDate) {
         LambdaQueryWrapper<MedicalRecord> queryWrapper = new LambdaQueryWrapper<>();
         
         // 添加查询条件
@@ -184,16 +248,7 @@ public class MedicalRecordService {
         if (endDate != null) {
             queryWrapper.le(MedicalRecord::getRecordDate, endDate);
         }
-        
-        // 按就诊日期降序排序
-        queryWrapper.orderByDesc(MedicalRecord::getRecordDate);
-        
-        Page<MedicalRecord> resultPage = medicalRecordMapper.selectPage(page, queryWrapper);
-        
-        // 填充关联信息
-        fillMedicalRecordsInfo(resultPage.getRecords());
-        
-        return resultPage;
+        return queryWrapper;
     }
     
     /**
@@ -209,11 +264,11 @@ public class MedicalRecordService {
         // 查询关联信息
         for (MedicalRecord record : records) {
             // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(record.getDoctorId());
+            Doctor doctor = referenceDataCache.getDoctor(record.getDoctorId());
             if (doctor != null) {
                 // 查询科室信息
                 if (doctor.getDepartmentId() != null) {
-                    Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                    Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                     doctor.setDepartment(department);
                 }
             record.setDoctor(doctor);
@@ -245,11 +300,11 @@ public class MedicalRecordService {
             record.setPatient(patient);
             
             // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(record.getDoctorId());
+            Doctor doctor = referenceDataCache.getDoctor(record.getDoctorId());
             if (doctor != null) {
                 // 查询科室信息
                 if (doctor.getDepartmentId() != null) {
-                    Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                    Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                     doctor.setDepartment(department);
                 }
                 record.setDoctor(doctor);
@@ -281,16 +336,15 @@ public class MedicalRecordService {
         if (medicalRecordMapper.deleteById(id) <= 0) {
             throw new ServiceException("就诊记录删除失败");
         }
+        caseIndexLoader.refreshRecord(id);
     }
     
     /**
      * 生成就诊记录编号
      */
     private String generateRecordNo() {
-        // 生成格式：MR + 年月日 + 6位随机数
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String randomStr = String.format("%06d", (int)(Math.random() * 1000000));
-        return "MR" + dateStr + randomStr;
+        // 生成格式：MR + 年月日 + 6位当日序号
+        return sequenceService.nextNo("MR", 6);
     }
 
     private void fillMedicalRecordsInfo(List<MedicalRecord> records) {
@@ -300,11 +354,11 @@ public class MedicalRecordService {
             record.setPatient(patient);
             
             // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(record.getDoctorId());
+            Doctor doctor = referenceDataCache.getDoctor(record.getDoctorId());
             if (doctor != null) {
                 // 查询科室信息
                 if (doctor.getDepartmentId() != null) {
-                    Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                    Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                     doctor.setDepartment(department);
                 }
                 record.setDoctor(doctor);
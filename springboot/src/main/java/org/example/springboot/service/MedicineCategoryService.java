@@ -6,6 +6,7 @@ import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
 import org.example.springboot.entity.MedicineCategory;
 import org.example.springboot.mapper.MedicineCategoryMapper;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,43 +16,61 @@ public class MedicineCategoryService {
     @Resource
     private MedicineCategoryMapper medicineCategoryMapper;
 
+    @Resource
+    private ReferenceDataCache referenceDataCache;
+    
+    @Resource
+    private ResourceVersions resourceVersions;
+
     /**
      * 新增药品分类
      */
     public boolean add(MedicineCategory medicineCategory) {
-        return medicineCategoryMapper.insert(medicineCategory) > 0;
+        boolean success = medicineCategoryMapper.insert(medicineCategory) > 0;
+        referenceDataCache.evictCategory(medicineCategory.getId());
+        resourceVersions.bump(Family.MEDICINE_CATEGORY);
+        return success;
     }
 
     /**
      * 更新药品分类
      */
     public boolean update(MedicineCategory medicineCategory) {
-        return medicineCategoryMapper.updateById(medicineCategory) > 0;
+        boolean success = medicineCategoryMapper.updateById(medicineCategory) > 0;
+        referenceDataCache.evictCategory(medicineCategory.getId());
+        resourceVersions.bump(Family.MEDICINE_CATEGORY);
+        return success;
     }
 
     /**
      * 删除药品分类
      */
     public boolean delete(Long id) {
-        return medicineCategoryMapper.deleteById(id) > 0;
+        boolean success = medicineCategoryMapper.deleteById(id) > 0;
+        referenceDataCache.evictCategory(id);
+        resourceVersions.bump(Family.MEDICINE_CATEGORY);
+        return success;
     }
 
     /**
      * 根据ID获取药品分类
      */
     public MedicineCategory getById(Long id) {
-        return medicineCategoryMapper.selectById(id);
+        return referenceDataCache.getCategory(id);
+    }
+
+    /**
+     * 根据名称获取启用的药品分类
+     */
+    public MedicineCategory getActiveByName(String categoryName) {
+        return referenceDataCache.getActiveCategoryByName(categoryName);
     }
 
     /**
      * 获取所有药品分类
      */
     public List<MedicineCategory> getAllCategories() {
-        return medicineCategoryMapper.selectList(
-            new LambdaQueryWrapper<MedicineCategory>()
-                .eq(MedicineCategory::getStatus, 1)
-                .orderByAsc(MedicineCategory::getCategoryName)
-        );
+        return referenceDataCache.getActiveCategories();
     }
 
     /**
@@ -10,6 +10,7 @@ import org.example.springboot.entity.PrescriptionDetail;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.MedicineMapper;
 import org.example.springboot.mapper.PrescriptionDetailMapper;
+import org.example.springboot.service.SearchIndexService.Kind;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,6 +30,9 @@ public class MedicineService {
     @Resource
     private PrescriptionDetailMapper prescriptionDetailMapper;
     
+    @Resource
+    private SearchIndexService searchIndexService;
+    
     /**
      * 新增药品
      */
@@ -58,6 +62,7 @@ public class MedicineService {
         if (medicineMapper.insert(medicine) <= 0) {
             throw new ServiceException("药品添加失败");
         }
+        searchIndexService.refresh(Kind.MEDICINE, medicine.getId());
         
         return medicine;
     }
@@ -92,6 +97,7 @@ public class MedicineService {
         if (medicineMapper.updateById(medicine) <= 0) {
             throw new ServiceException("药品信息更新失败");
         }
+        searchIndexService.refresh(Kind.MEDICINE, id);
     }
     
     /**
@@ -108,12 +114,9 @@ public class MedicineService {
         } 
         // 如果设置了category但没有设置categoryId
         else if (StringUtils.isNotBlank(medicine.getCategory()) && medicine.getCategoryId() == null) {
-            List<MedicineCategory> categories = medicineCategoryService.getAllCategories();
-            for (MedicineCategory category : categories) {
-                if (category.getCategoryName().equals(medicine.getCategory())) {
-                    medicine.setCategoryId(category.getId());
-                    break;
-                }
+            MedicineCategory category = medicineCategoryService.getActiveByName(medicine.getCategory());
+            if (category != null) {
+                medicine.setCategoryId(category.getId());
             }
         }
         // 两者都没设置时，设置默认值
@@ -190,6 +193,24 @@ public class MedicineService {
         return medicineMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
     }
     
+    /**
+     * 按关键词检索药品（药品名称、药品编码、名称拼音首字母）
+     * 优先由检索索引得到当前页的ID，索引未就绪时改走数据库模糊查询
+     */
+    public Page<Medicine> searchMedicines(String keyword, Integer currentPage, Integer size) {
+        Page<Medicine> resultPage = searchIndexService.page(Kind.MEDICINE, keyword, currentPage, size);
+        if (resultPage != null) {
+            return resultPage;
+        }
+        LambdaQueryWrapper<Medicine> queryWrapper = new LambdaQueryWrapper<>();
+        if (StringUtils.isNotBlank(keyword)) {
+            queryWrapper.and(wrapper -> wrapper.like(Medicine::getMedicineName, keyword)
+                    .or().like(Medicine::getMedicineCode, keyword));
+        }
+        queryWrapper.orderByDesc(Medicine::getId);
+        return medicineMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
+    }
+    
     /**
      * 删除药品
      */
@@ -212,6 +233,7 @@ public class MedicineService {
         if (medicineMapper.deleteById(id) <= 0) {
             throw new ServiceException("药品删除失败");
         }
+        searchIndexService.remove(Kind.MEDICINE, List.of(id));
     }
     
     /**
@@ -4,6 +4,8 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.StringUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
+import org.example.springboot.DTO.BatchDeleteReport;
+import org.example.springboot.common.CursorPage;
 import org.example.springboot.entity.Patient;
 import org.example.springboot.entity.User;
 import org.example.springboot.entity.Appointment;
@@ -15,22 +17,35 @@ import org.example.springboot.mapper.UserMapper;
 import org.example.springboot.mapper.AppointmentMapper;
 import org.example.springboot.mapper.MedicalRecordMapper;
 import org.example.springboot.mapper.PrescriptionMapper;
-import org.example.springboot.util.JwtTokenUtils;
+import org.example.springboot.service.SearchIndexService.Kind;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class PatientService {
+    /**
+     * 批量删除时每次检查和删除的ID数
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+    
     @Resource
     private PatientMapper patientMapper;
     
     @Resource
     private UserMapper userMapper;
     
+    @Resource
+    private CurrentPrincipal currentPrincipal;
+    
     @Resource
     private AppointmentMapper appointmentMapper;
     
@@ -43,6 +58,9 @@ public class PatientService {
     @Resource
     private UserService userService;
     
+    @Resource
+    private SearchIndexService searchIndexService;
+    
     /**
      * 新增患者
      */
@@ -75,6 +93,7 @@ public class PatientService {
         if (patientMapper.insert(patient) <= 0) {
             throw new ServiceException("患者信息添加失败");
         }
+        searchIndexService.refresh(Kind.PATIENT, patient.getId());
         
         return patient;
     }
@@ -105,6 +124,7 @@ public class PatientService {
         if (patientMapper.updateById(patient) <= 0) {
             throw new ServiceException("患者信息更新失败");
         }
+        searchIndexService.refresh(Kind.PATIENT, id);
     }
     
     /**
@@ -149,12 +169,15 @@ public class PatientService {
      * 获取当前登录用户的患者信息
      */
     public Patient getCurrentPatient() {
-        User currentUser = JwtTokenUtils.getCurrentUser();
-        if (currentUser == null) {
+        if (currentPrincipal.getUserId() == null) {
             throw new ServiceException("用户未登录");
         }
         
-        return getPatientByUserId(currentUser.getId());
+        Patient patient = currentPrincipal.getPatient();
+        if (patient == null) {
+            throw new ServiceException("未找到患者信息");
+        }
+        return patient;
     }
     
     /**
@@ -169,18 +192,7 @@ public class PatientService {
         }
         
         // 常规查询条件
-        LambdaQueryWrapper<Patient> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 添加查询条件
-        if (StringUtils.isNotBlank(name)) {
-            queryWrapper.like(Patient::getName, name);
-        }
-        if (StringUtils.isNotBlank(idCard)) {
-            queryWrapper.like(Patient::getIdCard, idCard);
-        }
-        if (StringUtils.isNotBlank(phone)) {
-            queryWrapper.like(Patient::getPhone, phone);
-        }
+        LambdaQueryWrapper<Patient> queryWrapper = buildPatientQuery(name, idCard, phone);
         
         // 按创建时间降序排序
         queryWrapper.orderByDesc(Patient::getCreateTime);
@@ -198,6 +210,79 @@ public class PatientService {
         return patientPage;
     }
     
+    /**
+     * 按关键词检索患者（姓名、身份证号、手机号、姓名拼音首字母）
+     * 优先由检索索引得到当前页的ID，索引未就绪时改走数据库模糊查询
+     */
+    public Page<Patient> searchPatients(String keyword, Integer currentPage, Integer size) {
+        Page<Patient> resultPage = searchIndexService.page(Kind.PATIENT, keyword, currentPage, size);
+        if (resultPage == null) {
+            LambdaQueryWrapper<Patient> queryWrapper = new LambdaQueryWrapper<>();
+            if (StringUtils.isNotBlank(keyword)) {
+                queryWrapper.and(wrapper -> wrapper.like(Patient::getName, keyword)
+                        .or().like(Patient::getIdCard, keyword)
+                        .or().like(Patient::getPhone, keyword));
+            }
+            queryWrapper.orderByDesc(Patient::getId);
+            resultPage = patientMapper.selectPage(new Page<>(currentPage, size), queryWrapper);
+        }
+        
+        // 查询关联的用户信息
+        Map<Long, User> users = AssociationLoader.loadByIds(userMapper,
+                AssociationLoader.collectIds(resultPage.getRecords(), Patient::getUserId), User::getId);
+        for (Patient patient : resultPage.getRecords()) {
+            if (patient.getUserId() != null) {
+                patient.setUser(users.get(patient.getUserId()));
+            }
+        }
+        return resultPage;
+    }
+    
+    /**
+     * 游标分页查询患者列表
+     * 按 (create_time, id) 倒序翻页，用户名条件以子查询下推到SQL
+     */
+    public CursorPage<Patient> getPatientsByCursor(String name, String idCard, String phone, String username,
+                                               String cursor, Integer size, boolean skipCount) {
+        LambdaQueryWrapper<Patient> queryWrapper = buildPatientQuery(name, idCard, phone);
+        if (StringUtils.isNotBlank(username)) {
+            queryWrapper.apply("user_id IN (SELECT id FROM user WHERE username LIKE CONCAT('%', {0}, '%'))", username);
+        }
+        
+        CursorPage<Patient> resultPage = KeysetPager.page(patientMapper, queryWrapper,
+                Patient::getCreateTime, Patient::getId, cursor, size, skipCount);
+        
+        // 查询关联的用户信息
+        Map<Long, User> users = AssociationLoader.loadByIds(userMapper,
+                AssociationLoader.collectIds(resultPage.getRecords(), Patient::getUserId), User::getId);
+        for (Patient patient : resultPage.getRecords()) {
+            if (patient.getUserId() != null) {
+                patient.setUser(users.get(patient.getUserId()));
+            }
+        }
+        
+        return resultPage;
+    }
+    
+    /**
+     * 构造患者列表的筛选条件（不含用户名条件）
+     */
+    private LambdaQueryWrapper<Patient> buildPatientQuery(String name, String idCard, String phone) {
+        LambdaQueryWrapper<Patient> queryWrapper = new LambdaQueryWrapper<>();
+        
+        // 添加查询条件
+        if (StringUtils.isNotBlank(name)) {
+            queryWrapper.like(Patient::getName, name);
+        }
+        if (StringUtils.isNotBlank(idCard)) {
+            queryWrapper.like(Patient::getIdCard, idCard);
+        }
+        if (StringUtils.isNotBlank(phone)) {
+            queryWrapper.like(Patient::getPhone, phone);
+        }
+        return queryWrapper;
+    }
+    
     /**
      * 删除患者
      */
@@ -236,48 +321,69 @@ public class PatientService {
         if (patientMapper.deleteById(id) <= 0) {
             throw new ServiceException("患者删除失败");
         }
+        searchIndexService.remove(Kind.PATIENT, List.of(id));
     }
     
     /**
      * 批量删除患者
+     * 每批ID用一次查询确认存在，按患者 GROUP BY 统计预约、就诊记录和处方，
+     * 无关联数据的患者用一条带 NOT EXISTS 条件的DELETE删除，其余的在结果中给出原因
      */
     @Transactional
-    public void batchDeletePatients(List<Long> ids) {
-        for (Long id : ids) {
-            // 检查患者是否存在
-            Patient patient = patientMapper.selectById(id);
-            if (patient == null) {
-                throw new ServiceException("ID为" + id + "的患者不存在");
-            }
-            
-            // 检查患者是否有关联预约
-            LambdaQueryWrapper<Appointment> appointmentQueryWrapper = new LambdaQueryWrapper<>();
-            appointmentQueryWrapper.eq(Appointment::getPatientId, id);
-            long appointmentCount = appointmentMapper.selectCount(appointmentQueryWrapper);
-            if (appointmentCount > 0) {
-                throw new ServiceException("ID为" + id + "的患者已有预约记录，不能删除");
-            }
+    public BatchDeleteReport batchDeletePatients(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ServiceException("请选择要删除的患者");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinctIds.remove(null);
+        
+        Map<Long, String> reasons = new HashMap<>();
+        List<Long> deleted = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, distinctIds.size()));
+            Set<Long> existing = AssociationLoader.toIdSet(patientMapper.selectObjs(
+                    new LambdaQueryWrapper<Patient>().select(Patient::getId).in(Patient::getId, chunk)));
+            Map<Long, Long> appointments = AssociationLoader.toCountMap(appointmentMapper.countByPatientIds(chunk), "patientId");
+            Map<Long, Long> records = AssociationLoader.toCountMap(medicalRecordMapper.countByPatientIds(chunk), "patientId");
+            Map<Long, Long> prescriptions = AssociationLoader.toCountMap(prescriptionMapper.countByPatientIds(chunk), "patientId");
             
-            // 检查患者是否有关联就诊记录
-            LambdaQueryWrapper<MedicalRecord> medicalRecordQueryWrapper = new LambdaQueryWrapper<>();
-            medicalRecordQueryWrapper.eq(MedicalRecord::getPatientId, id);
-            long medicalRecordCount = medicalRecordMapper.selectCount(medicalRecordQueryWrapper);
-            if (medicalRecordCount > 0) {
-                throw new ServiceException("ID为" + id + "的患者已有就诊记录，不能删除");
+            List<Long> candidates = new ArrayList<>(chunk.size());
+            for (Long id : chunk) {
+                String reason = null;
+                if (!existing.contains(id)) {
+                    reason = "患者不存在";
+                } else if (appointments.containsKey(id)) {
+                    reason = "该患者已有" + appointments.get(id) + "条预约记录，不能删除";
+                } else if (records.containsKey(id)) {
+                    reason = "该患者已有" + records.get(id) + "条就诊记录，不能删除";
+                } else if (prescriptions.containsKey(id)) {
+                    reason = "该患者已有" + prescriptions.get(id) + "条处方记录，不能删除";
+                }
+                if (reason == null) {
+                    candidates.add(id);
+                } else {
+                    reasons.put(id, reason);
+                }
             }
             
-            // 检查患者是否有关联处方
-            LambdaQueryWrapper<Prescription> prescriptionQueryWrapper = new LambdaQueryWrapper<>();
-            prescriptionQueryWrapper.eq(Prescription::getPatientId, id);
-            long prescriptionCount = prescriptionMapper.selectCount(prescriptionQueryWrapper);
-            if (prescriptionCount > 0) {
-                throw new ServiceException("ID为" + id + "的患者已有处方记录，不能删除");
+            if (!candidates.isEmpty() && patientMapper.deleteUnreferenced(candidates) < candidates.size()) {
+                // 检查之后又产生了关联数据的患者不会被删除
+                Set<Long> remaining = AssociationLoader.toIdSet(patientMapper.selectObjs(
+                        new LambdaQueryWrapper<Patient>().select(Patient::getId).in(Patient::getId, candidates)));
+                for (Long id : remaining) {
+                    reasons.put(id, "该患者已产生关联数据，不能删除");
+                }
+                candidates.removeAll(remaining);
             }
+            deleted.addAll(candidates);
         }
+        searchIndexService.remove(Kind.PATIENT, deleted);
         
-        if (patientMapper.deleteBatchIds(ids) <= 0) {
-            throw new ServiceException("批量删除患者失败");
+        BatchDeleteReport report = new BatchDeleteReport();
+        for (Long id : distinctIds) {
+            report.add(id, reasons.get(id));
         }
+        return report;
     }
     
     /**
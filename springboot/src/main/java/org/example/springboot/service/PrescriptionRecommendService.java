@@ -0,0 +1,122 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.entity.Medicine;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.MedicineMapper;
+import org.example.springboot.util.PrescriptionCaseIndex;
+import org.example.springboot.util.TcmCooccurrenceIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于历史处方的用药推荐
+ * 相似病例索引由 CaseIndexLoader 在启动后全量加载，之后随就诊记录、处方的增删改增量更新（事务提交后），
+ * 不再重新扫描历史数据；推荐请求只读内存索引，最后按药品ID批量补充药品名称。
+ */
+@Component
+public class PrescriptionRecommendService {
+    @Resource
+    private MedicineMapper medicineMapper;
+
+    @Resource
+    private SymptomNormalizeService symptomNormalizeService;
+
+    @Resource
+    private CaseIndexLoader caseIndexLoader;
+
+    @Value("${recommend.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommend.neighbors:50}")
+    private int neighbors;
+
+    @Value("${recommend.max-top:50}")
+    private int maxTop;
+
+    @Value("${recommend.syndrome-weight:2.0}")
+    private double syndromeWeight;
+
+    @Value("${recommend.max-postings:10000}")
+    private int maxPostings;
+
+    private PrescriptionCaseIndex index;
+
+    @PostConstruct
+    public void init() {
+        index = new PrescriptionCaseIndex(syndromeWeight, maxPostings);
+        if (enabled) {
+            caseIndexLoader.register(index);
+        }
+    }
+
+    /**
+     * 全量重建，见 CaseIndexLoader
+     * @return 已有加载在进行时返回false
+     */
+    public boolean rebuild() {
+        return caseIndexLoader.rebuild(List.of(index));
+    }
+
+    /**
+     * 按证型和症状推荐药品及常用用量
+     * 症状先用本地词典和缓存转换为标准症状（与就诊记录的标准症状一致），不调用远程标准化服务
+     */
+    public List<PrescriptionCaseIndex.Recommendation> recommend(String syndrome, String symptoms, Integer top) {
+        if (StringUtils.isBlank(syndrome) && StringUtils.isBlank(symptoms)) {
+            throw new ServiceException("证型和症状不能同时为空");
+        }
+        if (!enabled) {
+            throw new ServiceException("用药推荐未启用");
+        }
+        if (!index.isReady()) {
+            throw new ServiceException("用药推荐索引正在加载，请稍后再试");
+        }
+        int limit = top == null || top <= 0 ? 10 : Math.min(top, maxTop);
+        List<PrescriptionCaseIndex.Recommendation> recommendations =
+                index.recommend(syndrome, standardSymptoms(symptoms), neighbors, limit);
+
+        List<Long> medicineIds = new ArrayList<>(recommendations.size());
+        for (PrescriptionCaseIndex.Recommendation recommendation : recommendations) {
+            medicineIds.add(recommendation.getMedicineId());
+        }
+        Map<Long, Medicine> medicines = AssociationLoader.loadByIds(medicineMapper, medicineIds, Medicine::getId);
+        for (PrescriptionCaseIndex.Recommendation recommendation : recommendations) {
+            Medicine medicine = medicines.get(recommendation.getMedicineId());
+            if (medicine != null) {
+                recommendation.setMedicineName(medicine.getMedicineName());
+            }
+        }
+        return recommendations;
+    }
+
+    /**
+     * 索引统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = index.getStats();
+        stats.put("enabled", enabled);
+        return stats;
+    }
+
+    private Set<String> standardSymptoms(String symptoms) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String symptom : TcmCooccurrenceIndex.splitSymptoms(symptoms)) {
+            String standard = symptomNormalizeService.normalizeLocal(symptom);
+            if (standard == null) {
+                result.add(symptom);
+            } else {
+                result.addAll(TcmCooccurrenceIndex.splitSymptoms(standard));
+            }
+        }
+        return result;
+    }
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.common.CursorPage;
 import org.example.springboot.entity.*;
 import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.*;
@@ -12,8 +13,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class PrescriptionService {
@@ -30,11 +33,23 @@ public class PrescriptionService {
     private PatientMapper patientMapper;
     
     @Resource
-    private DoctorMapper doctorMapper;
+    private ReferenceDataCache referenceDataCache;
     
     @Resource
     private MedicineMapper medicineMapper;
     
+    @Resource
+    private AssociationLoader associationLoader;
+    
+    @Resource
+    private SequenceService sequenceService;
+    
+    @Resource
+    private CaseIndexLoader caseIndexLoader;
+    
+    @Resource
+    private FanOutExecutor fanOutExecutor;
+    
     /**
      * 创建处方
      */
@@ -53,7 +68,7 @@ public class PrescriptionService {
         }
         
         // 检查医生是否存在
-        Doctor doctor = doctorMapper.selectById(prescription.getDoctorId());
+        Doctor doctor = referenceDataCache.getDoctor(prescription.getDoctorId());
         if (doctor == null) {
             throw new ServiceException("医生不存在");
         }
@@ -98,6 +113,7 @@ public class PrescriptionService {
                 }
             }
         }
+        caseIndexLoader.refreshPrescription(prescription.getId());
         
         return prescription;
     }
@@ -131,31 +147,25 @@ public class PrescriptionService {
             throw new ServiceException("处方不存在");
         }
         
-        // 查询患者信息
-        Patient patient = patientMapper.selectById(prescription.getPatientId());
-        prescription.setPatient(patient);
-        
-        // 查询医生信息
-        Doctor doctor = doctorMapper.selectById(prescription.getDoctorId());
-        prescription.setDoctor(doctor);
-        
-        // 查询就诊记录信息
-        MedicalRecord medicalRecord = medicalRecordMapper.selectById(prescription.getRecordId());
-        prescription.setMedicalRecord(medicalRecord);
-        
-        // 查询处方明细
-        LambdaQueryWrapper<PrescriptionDetail> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(PrescriptionDetail::getPrescriptionId, id);
-        List<PrescriptionDetail> details = prescriptionDetailMapper.selectList(queryWrapper);
-        
-        // 查询药品信息
-        for (PrescriptionDetail detail : details) {
-            Medicine medicine = medicineMapper.selectById(detail.getMedicineId());
-            detail.setMedicine(medicine);
+        // 患者、就诊记录、处方明细互不依赖，并发查询
+        try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+            FanOutExecutor.Subtask<Patient> patient = scope.fork(() -> patientMapper.selectById(prescription.getPatientId()));
+            FanOutExecutor.Subtask<MedicalRecord> medicalRecord =
+                    scope.fork(() -> medicalRecordMapper.selectById(prescription.getRecordId()));
+            // 处方明细及药品信息
+            FanOutExecutor.Subtask<List<PrescriptionDetail>> details =
+                    scope.fork(() -> prescriptionMapper.selectDetailsWithMedicine(List.of(id)));
+            
+            // 查询医生信息
+            Doctor doctor = referenceDataCache.getDoctor(prescription.getDoctorId());
+            prescription.setDoctor(doctor);
+            
+            scope.join();
+            prescription.setPatient(patient.get());
+            prescription.setMedicalRecord(medicalRecord.get());
+            prescription.setDetails(details.get());
         }
         
-        prescription.setDetails(details);
-        
         return prescription;
     }
     
@@ -168,6 +178,65 @@ public class PrescriptionService {
                                                Integer currentPage, Integer size) {
         Page<Prescription> page = new Page<>(currentPage, size);
         
+        LambdaQueryWrapper<Prescription> queryWrapper = buildPrescriptionQuery(prescriptionNo, patientId, doctorId,
+                recordId, startDate, endDate, status);
+        
+        // 按创建时间降序排序
+        queryWrapper.orderByDesc(Prescription::getCreateTime);
+        
+        // 如果有患者姓名或医生姓名查询条件，需要进行关联查询
+        if (StringUtils.isNotBlank(patientName) || StringUtils.isNotBlank(doctorName)) {
+            // 使用自定义SQL查询
+            Page<Prescription> resultPage = prescriptionMapper.selectPrescriptionsByNamePage(
+                page, prescriptionNo, patientId, doctorId, patientName, doctorName, 
+                recordId, startDate, endDate, status);
+            
+            // 填充关联信息
+            fillPrescriptionsInfo(resultPage.getRecords());
+            
+            return resultPage;
+        }
+        
+        Page<Prescription> resultPage = prescriptionMapper.selectPage(page, queryWrapper);
+            
+        // 填充关联信息
+        fillPrescriptionsInfo(resultPage.getRecords());
+        
+        return resultPage;
+    }
+    
+    /**
+     * 游标分页查询处方列表
+     * 按 (create_time, id) 倒序翻页，姓名条件以子查询下推到SQL
+     */
+    public CursorPage<Prescription> getPrescriptionsByCursor(String prescriptionNo, Long patientId, Long doctorId,
+                                                         String patientName, String doctorName, Long recordId,
+                                                         LocalDate startDate, LocalDate endDate, Integer status,
+                                                         String cursor, Integer size, boolean skipCount) {
+        LambdaQueryWrapper<Prescription> queryWrapper = buildPrescriptionQuery(prescriptionNo, patientId, doctorId,
+                recordId, startDate, endDate, status);
+        if (StringUtils.isNotBlank(patientName)) {
+            queryWrapper.apply("patient_id IN (SELECT id FROM patient WHERE name LIKE CONCAT('%', {0}, '%'))", patientName);
+        }
+        if (StringUtils.isNotBlank(doctorName)) {
+            queryWrapper.apply("doctor_id IN (SELECT id FROM doctor WHERE name LIKE CONCAT('%', {0}, '%'))", doctorName);
+        }
+        
+        CursorPage<Prescription> resultPage = KeysetPager.page(prescriptionMapper, queryWrapper,
+                Prescription::getCreateTime, Prescription::getId, cursor, size, skipCount);
+        
+        // 填充关联信息
+        fillPrescriptionsInfo(resultPage.getRecords());
+        
+        return resultPage;
+    }
+    
+    /**
+     * 构造处方列表的筛选条件（不含姓名条件）
+     */
+    private LambdaQueryWrapper<Prescription> buildPrescriptionQuery(String prescriptionNo, Long patientId, Long doctorId,
+                                                                Long recordId, LocalDate startDate, LocalDate endDate,
+                                                                Integer status) {
         LambdaQueryWrapper<Prescription> queryWrapper = new LambdaQueryWrapper<>();
         
         // 添加查询条件
@@ -199,23 +268,7 @@ public class PrescriptionService {
             queryWrapper.eq(Prescription::getStatus, status);
         }
         
-        // 按创建时间降序排序
-        queryWrapper.orderByDesc(Prescription::getCreateTime);
-        
-        // 如果有患者姓名或医生姓名查询条件，需要进行关联查询
-        if (StringUtils.isNotBlank(patientName) || StringUtils.isNotBlank(doctorName)) {
-            // 使用自定义SQL查询
-            return prescriptionMapper.selectPrescriptionsByNamePage(
-                page, prescriptionNo, patientId, doctorId, patientName, doctorName, 
-                recordId, startDate, endDate, status);
-        }
-        
-        Page<Prescription> resultPage = prescriptionMapper.selectPage(page, queryWrapper);
-            
-        // 填充关联信息
-        fillPrescriptionsInfo(resultPage.getRecords());
-        
-        return resultPage;
+        return queryWrapper;
     }
     
     /**
@@ -231,7 +284,7 @@ public class PrescriptionService {
         // 查询关联信息
         for (Prescription prescription : prescriptions) {
             // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(prescription.getDoctorId());
+            Doctor doctor = referenceDataCache.getDoctor(prescription.getDoctorId());
             prescription.setDoctor(doctor);
         }
         
@@ -248,29 +301,8 @@ public class PrescriptionService {
         
         List<Prescription> prescriptions = prescriptionMapper.selectList(queryWrapper);
         
-        // 查询关联信息
-        for (Prescription prescription : prescriptions) {
-            // 查询患者信息
-            Patient patient = patientMapper.selectById(prescription.getPatientId());
-            prescription.setPatient(patient);
-            
-            // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(prescription.getDoctorId());
-            prescription.setDoctor(doctor);
-            
-            // 查询处方明细
-            LambdaQueryWrapper<PrescriptionDetail> detailQueryWrapper = new LambdaQueryWrapper<>();
-            detailQueryWrapper.eq(PrescriptionDetail::getPrescriptionId, prescription.getId());
-            List<PrescriptionDetail> details = prescriptionDetailMapper.selectList(detailQueryWrapper);
-            
-            // 查询药品信息
-            for (PrescriptionDetail detail : details) {
-                Medicine medicine = medicineMapper.selectById(detail.getMedicineId());
-                detail.setMedicine(medicine);
-            }
-            
-            prescription.setDetails(details);
-        }
+        // 填充关联信息
+        fillPrescriptionsInfo(prescriptions);
         
         return prescriptions;
     }
@@ -300,6 +332,7 @@ public class PrescriptionService {
         if (prescriptionDetailMapper.insert(detail) <= 0) {
             throw new ServiceException("处方明细添加失败");
         }
+        caseIndexLoader.refreshPrescription(detail.getPrescriptionId());
         
         return detail;
     }
@@ -321,6 +354,10 @@ public class PrescriptionService {
         if (prescriptionDetailMapper.updateById(detail) <= 0) {
             throw new ServiceException("处方明细更新失败");
         }
+        caseIndexLoader.refreshPrescription(existingDetail.getPrescriptionId());
+        if (detail.getPrescriptionId() != null && !detail.getPrescriptionId().equals(existingDetail.getPrescriptionId())) {
+            caseIndexLoader.refreshPrescription(detail.getPrescriptionId());
+        }
     }
     
     /**
@@ -328,54 +365,50 @@ public class PrescriptionService {
      */
     @Transactional
     public void deletePrescriptionDetail(Long id) {
-        if (prescriptionDetailMapper.deleteById(id) <= 0) {
+        PrescriptionDetail existingDetail = prescriptionDetailMapper.selectById(id);
+        if (existingDetail == null || prescriptionDetailMapper.deleteById(id) <= 0) {
             throw new ServiceException("处方明细删除失败");
         }
+        caseIndexLoader.refreshPrescription(existingDetail.getPrescriptionId());
     }
     
     /**
      * 生成处方编号
      */
     private String generatePrescriptionNo() {
-        // 生成格式：P + 年月日 + 6位随机数
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String randomStr = String.format("%06d", (int)(Math.random() * 1000000));
-        return "P" + dateStr + randomStr;
+        // 生成格式：P + 年月日 + 6位当日序号
+        return sequenceService.nextNo("P", 6);
     }
     
     /**
      * 填充处方关联信息
+     * 患者、医生、就诊记录各批量查询一次，明细与药品通过一次JOIN查询获取
      */
     private void fillPrescriptionsInfo(List<Prescription> prescriptions) {
         if (prescriptions == null || prescriptions.isEmpty()) {
             return;
         }
         
+        Map<Long, Patient> patients = associationLoader.loadPatients(
+                AssociationLoader.collectIds(prescriptions, Prescription::getPatientId));
+        Map<Long, Doctor> doctors = associationLoader.loadDoctors(
+                AssociationLoader.collectIds(prescriptions, Prescription::getDoctorId));
+        Map<Long, MedicalRecord> medicalRecords = associationLoader.loadMedicalRecords(
+                AssociationLoader.collectIds(prescriptions, Prescription::getRecordId));
+        
+        // 按处方ID分组明细
+        Map<Long, List<PrescriptionDetail>> detailsByPrescription = new HashMap<>();
+        List<PrescriptionDetail> details = prescriptionMapper.selectDetailsWithMedicine(
+                AssociationLoader.collectIds(prescriptions, Prescription::getId));
+        for (PrescriptionDetail detail : details) {
+            detailsByPrescription.computeIfAbsent(detail.getPrescriptionId(), k -> new ArrayList<>()).add(detail);
+        }
+        
         for (Prescription prescription : prescriptions) {
-            // 查询患者信息
-            Patient patient = patientMapper.selectById(prescription.getPatientId());
-            prescription.setPatient(patient);
-            
-            // 查询医生信息
-            Doctor doctor = doctorMapper.selectById(prescription.getDoctorId());
-            prescription.setDoctor(doctor);
-            
-            // 查询就诊记录信息
-            MedicalRecord medicalRecord = medicalRecordMapper.selectById(prescription.getRecordId());
-            prescription.setMedicalRecord(medicalRecord);
-            
-            // 查询处方明细
-            LambdaQueryWrapper<PrescriptionDetail> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(PrescriptionDetail::getPrescriptionId, prescription.getId());
-            List<PrescriptionDetail> details = prescriptionDetailMapper.selectList(queryWrapper);
-            
-            // 填充药品信息
-            for (PrescriptionDetail detail : details) {
-                Medicine medicine = medicineMapper.selectById(detail.getMedicineId());
-                detail.setMedicine(medicine);
-            }
-            
-            prescription.setDetails(details);
+            prescription.setPatient(patients.get(prescription.getPatientId()));
+            prescription.setDoctor(doctors.get(prescription.getDoctorId()));
+            prescription.setMedicalRecord(medicalRecords.get(prescription.getRecordId()));
+            prescription.setDetails(detailsByPrescription.getOrDefault(prescription.getId(), new ArrayList<>()));
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
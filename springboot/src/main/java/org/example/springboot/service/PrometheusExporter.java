@@ -0,0 +1,191 @@
+package org.example.springboot.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.Resource;
+import org.example.springboot.common.JsonResponseCache;
+import org.example.springboot.util.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 以 Prometheus 文本格式（0.0.4）导出运行统计
+ * 包括接口耗时分布/进行中请求数/返回码计数、Mapper 方法耗时分布、连接池使用情况和各缓存命中情况。
+ * 只在抓取时读取各统计对象的当前值，不增加请求路径上的开销。
+ */
+@Component
+public class PrometheusExporter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Resource
+    private RequestMetrics requestMetrics;
+
+    @Resource
+    private SqlMetrics sqlMetrics;
+
+    @Resource
+    private DataSource dataSource;
+
+    @Resource
+    private ReferenceDataCache referenceDataCache;
+
+    @Resource
+    private JsonResponseCache jsonResponseCache;
+
+    @Resource
+    private JwtVerifierCache jwtVerifierCache;
+
+    @Resource
+    private SymptomNormalizeService symptomNormalizeService;
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        writeRequests(out);
+        writeStatements(out);
+        writeConnectionPool(out);
+        writeCaches(out);
+        return out.toString();
+    }
+
+    private void writeRequests(StringBuilder out) {
+        List<RequestMetrics.HandlerStats> handlers = requestMetrics.getHandlerStats();
+        header(out, "http_server_requests_seconds", "histogram", "Request latency per controller method");
+        for (RequestMetrics.HandlerStats stats : handlers) {
+            histogram(out, "http_server_requests_seconds", "handler", stats.getName(), stats.getLatency());
+        }
+        header(out, "http_server_requests_max_seconds", "gauge", "Maximum request latency per controller method");
+        for (RequestMetrics.HandlerStats stats : handlers) {
+            sample(out, "http_server_requests_max_seconds", labels("handler", stats.getName()),
+                    seconds(stats.getLatency().getMaxNanos()));
+        }
+        header(out, "http_server_requests_in_flight", "gauge", "Requests currently being handled");
+        for (RequestMetrics.HandlerStats stats : handlers) {
+            sample(out, "http_server_requests_in_flight", labels("handler", stats.getName()), stats.getInFlight());
+        }
+        header(out, "http_server_results_total", "counter", "Responses per controller method and result code");
+        for (RequestMetrics.HandlerStats stats : handlers) {
+            for (Map.Entry<String, Long> entry : stats.getCodes().entrySet()) {
+                sample(out, "http_server_results_total",
+                        labels("handler", stats.getName()) + "," + labels("code", entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    private void writeStatements(StringBuilder out) {
+        Map<String, SqlMetrics.StatementStats> statements = sqlMetrics.getStatementStats();
+        header(out, "mybatis_statement_seconds", "histogram", "Statement latency per mapper method");
+        statements.forEach((id, stats) -> histogram(out, "mybatis_statement_seconds", "statement", id, stats.getLatency()));
+        header(out, "mybatis_statement_rows_total", "counter", "Rows returned or affected per mapper method");
+        statements.forEach((id, stats) -> sample(out, "mybatis_statement_rows_total", labels("statement", id), stats.getRows()));
+        header(out, "mybatis_statement_errors_total", "counter", "Failed statements per mapper method");
+        statements.forEach((id, stats) -> sample(out, "mybatis_statement_errors_total", labels("statement", id), stats.getErrors()));
+    }
+
+    private void writeConnectionPool(StringBuilder out) {
+        HikariDataSource hikari;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return;
+        }
+        String pool = labels("pool", String.valueOf(hikari.getPoolName()));
+        header(out, "db_pool_max_connections", "gauge", "Maximum size of the connection pool");
+        sample(out, "db_pool_max_connections", pool, hikari.getMaximumPoolSize());
+        // 连接池在第一次获取连接时才创建
+        HikariPoolMXBean bean = hikari.getHikariPoolMXBean();
+        if (bean == null) {
+            return;
+        }
+        header(out, "db_pool_connections", "gauge", "Connections in the pool by state");
+        sample(out, "db_pool_connections", pool + "," + labels("state", "active"), bean.getActiveConnections());
+        sample(out, "db_pool_connections", pool + "," + labels("state", "idle"), bean.getIdleConnections());
+        sample(out, "db_pool_connections", pool + "," + labels("state", "total"), bean.getTotalConnections());
+        header(out, "db_pool_pending_threads", "gauge", "Threads waiting for a connection");
+        sample(out, "db_pool_pending_threads", pool, bean.getThreadsAwaitingConnection());
+    }
+
+    private void writeCaches(StringBuilder out) {
+        Map<String, long[]> caches = new LinkedHashMap<>();
+        referenceDataCache.getStats().forEach((name, stats) ->
+                caches.put("reference." + name, new long[]{stats.get("hits"), stats.get("misses")}));
+        Map<String, Long> response = jsonResponseCache.getStats();
+        caches.put("json-response", new long[]{response.get("hits"), response.get("misses")});
+        Map<String, Long> jwt = jwtVerifierCache.getStats();
+        caches.put("jwt-verifier", new long[]{jwt.get("hits"), jwt.get("misses")});
+        // 词典与结果缓存都算命中，调用标准化服务算未命中
+        Map<String, Object> symptom = symptomNormalizeService.getStats();
+        caches.put("symptom-normalize", new long[]{
+                (Long) symptom.get("dictionaryHits") + (Long) symptom.get("cacheHits"), (Long) symptom.get("remoteCalls")});
+
+        header(out, "cache_requests_total", "counter", "Cache lookups by result");
+        caches.forEach((name, counts) -> {
+            sample(out, "cache_requests_total", labels("cache", name) + "," + labels("result", "hit"), counts[0]);
+            sample(out, "cache_requests_total", labels("cache", name) + "," + labels("result", "miss"), counts[1]);
+        });
+        header(out, "cache_hit_ratio", "gauge", "Cache hit ratio since startup");
+        caches.forEach((name, counts) -> {
+            long total = counts[0] + counts[1];
+            sample(out, "cache_hit_ratio", labels("cache", name), total == 0 ? 0.0 : (double) counts[0] / total);
+        });
+    }
+
+    /**
+     * 输出 histogram 的累计桶、总和与次数
+     */
+    static void histogram(StringBuilder out, String name, String labelName, String labelValue, LatencyHistogram histogram) {
+        String label = labels(labelName, labelValue);
+        long[] bounds = histogram.getBoundsMs();
+        long[] buckets = histogram.getBuckets();
+        long cumulative = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            cumulative += buckets[i];
+            sample(out, name + "_bucket", label + "," + labels("le", Double.toString(bounds[i] / 1000.0)), cumulative);
+        }
+        cumulative += buckets[bounds.length];
+        sample(out, name + "_bucket", label + "," + labels("le", "+Inf"), cumulative);
+        sample(out, name + "_sum", label, seconds(histogram.getTotalNanos()));
+        // 桶与次数分别读取，并发记录时以桶的合计为准，保证 +Inf 桶与 _count 一致
+        sample(out, name + "_count", label, cumulative);
+    }
+
+    static String labels(String name, String value) {
+        StringBuilder label = new StringBuilder(name.length() + value.length() + 3);
+        label.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                label.append('\\').append(c);
+            } else if (c == '\n') {
+                label.append("\\n");
+            } else {
+                label.append(c);
+            }
+        }
+        return label.append('"').toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
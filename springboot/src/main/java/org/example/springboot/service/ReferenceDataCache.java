@@ -0,0 +1,320 @@
+package org.example.springboot.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.Department;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.MedicineCategory;
+import org.example.springboot.mapper.DepartmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.MedicineCategoryMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 基础数据读穿缓存（科室、医生、药品分类）
+ * 按ID缓存，容量受限（LRU淘汰）并设置过期时间兜底多节点间的数据不一致；
+ * 读写均返回副本，调用方填充关联对象不会影响缓存中的数据。
+ * 各Service在新增、修改、删除后调用 evict 系列方法使缓存失效。
+ */
+@Component
+public class ReferenceDataCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    @Resource
+    private DepartmentMapper departmentMapper;
+
+    @Resource
+    private DoctorMapper doctorMapper;
+
+    @Resource
+    private MedicineCategoryMapper medicineCategoryMapper;
+
+    @Value("${reference-cache.capacity:5000}")
+    private int capacity;
+
+    @Value("${reference-cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${reference-cache.warm-up:false}")
+    private boolean warmUp;
+
+    private EntityCache<Department> departments;
+    private EntityCache<Doctor> doctors;
+    private EntityCache<MedicineCategory> categories;
+
+    /**
+     * 启用的药品分类快照（按名称排序），任一分类变更后整体失效，过期时间与实体缓存一致
+     */
+    private volatile CategorySnapshot activeCategories;
+
+    /**
+     * 药品分类变更次数，快照记录加载开始时的值，不一致即视为失效，
+     * 防止与变更并发的加载把旧列表装回缓存
+     */
+    private final AtomicLong categoryGeneration = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        long timeout = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        departments = new EntityCache<>("department", departmentMapper, Department::getId, Department::new, capacity, timeout);
+        doctors = new EntityCache<>("doctor", doctorMapper, Doctor::getId, Doctor::new, capacity, timeout);
+        categories = new EntityCache<>("medicineCategory", medicineCategoryMapper, MedicineCategory::getId, MedicineCategory::new, capacity, timeout);
+    }
+
+    /**
+     * 启动预热：加载全部科室、医生与药品分类
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        departments.putAll(departmentMapper.selectList(null));
+        doctors.putAll(doctorMapper.selectList(null));
+        categories.putAll(medicineCategoryMapper.selectList(null));
+        LOGGER.info("基础数据缓存预热完成: {}", getStats());
+    }
+
+    public Department getDepartment(Long id) {
+        return departments.get(id);
+    }
+
+    public Map<Long, Department> getDepartments(Collection<Long> ids) {
+        return departments.getAll(ids);
+    }
+
+    public Doctor getDoctor(Long id) {
+        return doctors.get(id);
+    }
+
+    public Map<Long, Doctor> getDoctors(Collection<Long> ids) {
+        return doctors.getAll(ids);
+    }
+
+    public MedicineCategory getCategory(Long id) {
+        return categories.get(id);
+    }
+
+    /**
+     * 获取启用的药品分类（按名称排序）
+     */
+    public List<MedicineCategory> getActiveCategories() {
+        List<MedicineCategory> snapshot = getActiveCategorySnapshot();
+        List<MedicineCategory> result = new ArrayList<>(snapshot.size());
+        for (MedicineCategory category : snapshot) {
+            result.add(categories.copy(category));
+        }
+        return result;
+    }
+
+    /**
+     * 按名称查找启用的药品分类
+     */
+    public MedicineCategory getActiveCategoryByName(String categoryName) {
+        for (MedicineCategory category : getActiveCategorySnapshot()) {
+            if (category.getCategoryName().equals(categoryName)) {
+                return categories.copy(category);
+            }
+        }
+        return null;
+    }
+
+    public void evictDepartment(Long id) {
+        evictNowAndAfterCompletion(() -> departments.evict(id));
+    }
+
+    public void evictDoctor(Long id) {
+        evictNowAndAfterCompletion(() -> doctors.evict(id));
+    }
+
+    public void evictCategory(Long id) {
+        evictNowAndAfterCompletion(() -> {
+            categories.evict(id);
+            categoryGeneration.incrementAndGet();
+            activeCategories = null;
+        });
+    }
+
+    /**
+     * 各类缓存的命中统计
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        for (EntityCache<?> cache : List.of(departments, doctors, categories)) {
+            stats.put(cache.name, cache.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * 立即失效，并在事务结束后再失效一次，防止事务提交前被并发读取重新加载旧数据
+     */
+    private void evictNowAndAfterCompletion(Runnable evict) {
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private List<MedicineCategory> getActiveCategorySnapshot() {
+        CategorySnapshot snapshot = activeCategories;
+        long now = System.currentTimeMillis();
+        if (snapshot == null || snapshot.generation != categoryGeneration.get() || now >= snapshot.expireAt) {
+            long generation = categoryGeneration.get();
+            List<MedicineCategory> list = Collections.unmodifiableList(medicineCategoryMapper.selectList(
+                new LambdaQueryWrapper<MedicineCategory>()
+                    .eq(MedicineCategory::getStatus, 1)
+                    .orderByAsc(MedicineCategory::getCategoryName)
+            ));
+            snapshot = new CategorySnapshot(list, generation, now + TimeUnit.MINUTES.toMillis(ttlMinutes));
+            activeCategories = snapshot;
+        }
+        return snapshot.list;
+    }
+
+    /**
+     * 启用的药品分类列表及其加载时的变更次数、过期时间
+     */
+    private static final class CategorySnapshot {
+        private final List<MedicineCategory> list;
+        private final long generation;
+        private final long expireAt;
+
+        private CategorySnapshot(List<MedicineCategory> list, long generation, long expireAt) {
+            this.list = list;
+            this.generation = generation;
+            this.expireAt = expireAt;
+        }
+    }
+
+    /**
+     * 单类实体的缓存
+     */
+    static final class EntityCache<T> {
+        private final String name;
+        private final BaseMapper<T> mapper;
+        private final Function<T, Long> idGetter;
+        private final Supplier<T> factory;
+        private final LRUCache<Long, T> cache;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        EntityCache(String name, BaseMapper<T> mapper, Function<T, Long> idGetter, Supplier<T> factory,
+                    int capacity, long timeout) {
+            this.name = name;
+            this.mapper = mapper;
+            this.idGetter = idGetter;
+            this.factory = factory;
+            this.cache = CacheUtil.newLRUCache(capacity, timeout);
+        }
+
+        T get(Long id) {
+            if (id == null) {
+                return null;
+            }
+            T cached = cache.get(id, false);
+            if (cached != null) {
+                hits.increment();
+                return copy(cached);
+            }
+            misses.increment();
+            T entity = mapper.selectById(id);
+            if (entity != null) {
+                cache.put(id, copy(entity));
+            }
+            return entity;
+        }
+
+        /**
+         * 批量获取，未命中的ID合并为一次selectBatchIds
+         */
+        Map<Long, T> getAll(Collection<Long> ids) {
+            if (ids == null || ids.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            Map<Long, T> result = new HashMap<>(ids.size() * 2);
+            Set<Long> missing = new LinkedHashSet<>();
+            for (Long id : ids) {
+                if (id == null || result.containsKey(id)) {
+                    continue;
+                }
+                T cached = cache.get(id, false);
+                if (cached != null) {
+                    hits.increment();
+                    result.put(id, copy(cached));
+                } else if (missing.add(id)) {
+                    misses.increment();
+                }
+            }
+            if (!missing.isEmpty()) {
+                for (T entity : mapper.selectBatchIds(missing)) {
+                    Long id = idGetter.apply(entity);
+                    cache.put(id, copy(entity));
+                    result.put(id, entity);
+                }
+            }
+            return result;
+        }
+
+        void putAll(List<T> entities) {
+            for (T entity : entities) {
+                cache.put(idGetter.apply(entity), copy(entity));
+            }
+        }
+
+        void evict(Long id) {
+            if (id != null) {
+                cache.remove(id);
+            }
+        }
+
+        /**
+         * 只复制表字段，关联对象（科室、用户、负责人等）不进入缓存
+         */
+        T copy(T source) {
+            T target = factory.get();
+            BeanUtils.copyProperties(source, target, "department", "user", "director");
+            return target;
+        }
+
+        Map<String, Long> stats() {
+            Map<String, Long> stats = new LinkedHashMap<>();
+            stats.put("size", (long) cache.size());
+            stats.put("hits", hits.sum());
+            stats.put("misses", misses.sum());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 调用Python症状标准化服务
+ * 整个应用共用一个 RestTemplate，底层 HttpClient 复用连接，并设置连接与读取超时，
+ * 避免标准化服务变慢时拖住请求线程
+ */
+@Component
+public class RemoteSymptomNormalizer implements SymptomNormalizer {
+    @Value("${symptom.normalizer.url:http://localhost:9001/normalize}")
+    private String url;
+
+    @Value("${symptom.normalizer.connect-timeout-ms:500}")
+    private long connectTimeoutMs;
+
+    @Value("${symptom.normalizer.read-timeout-ms:2000}")
+    private long readTimeoutMs;
+
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void init() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String normalize(String symptom) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, String>> entity = new HttpEntity<>(Map.of("symptom", symptom), headers);
+
+        Map<String, Object> body = restTemplate.postForObject(url, entity, Map.class);
+        if (body == null || body.get("standard") == null) {
+            return null;
+        }
+        return String.valueOf(body.get("standard"));
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.springboot.service;
+
+import org.example.springboot.common.ResultCode;
+import org.example.springboot.util.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 接口请求统计
+ * 按控制器方法记录耗时分布、进行中的请求数和各返回码（Result.code，非 Result 响应取HTTP状态码）的次数。
+ * 统计对象按 Method 缓存，记录一次请求只有一次 Map 查找和几次无锁累加。
+ */
+@Component
+public class RequestMetrics {
+    /**
+     * 耗时分布的桶上界（毫秒）
+     */
+    static final long[] BUCKET_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    @Value("${request.metrics.enabled:true}")
+    private boolean enabled = true;
+
+    private final Map<Method, HandlerStats> handlers = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 请求开始，返回该控制器方法的统计对象
+     */
+    public HandlerStats start(Method method) {
+        HandlerStats stats = handlers.get(method);
+        if (stats == null) {
+            stats = handlers.computeIfAbsent(method,
+                    m -> new HandlerStats(m.getDeclaringClass().getSimpleName() + "." + m.getName()));
+        }
+        stats.inFlight.incrementAndGet();
+        return stats;
+    }
+
+    /**
+     * 请求结束
+     * @param code 返回码，为空时按成功计
+     */
+    public void finish(HandlerStats stats, long nanos, String code) {
+        stats.inFlight.decrementAndGet();
+        stats.latency.record(nanos);
+        stats.codes.computeIfAbsent(code == null ? ResultCode.SUCCESS.getCode() : code, k -> new LongAdder()).increment();
+    }
+
+    public List<HandlerStats> getHandlerStats() {
+        return new ArrayList<>(handlers.values());
+    }
+
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (HandlerStats stats : handlers.values()) {
+            list.add(stats.toMap());
+        }
+        list.sort(Comparator.comparingLong((Map<String, Object> m) -> (long) m.get("count")).reversed());
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("bucketsMs", BUCKET_MS);
+        result.put("handlers", list);
+        return result;
+    }
+
+    public void reset() {
+        handlers.clear();
+    }
+
+    /**
+     * 单个控制器方法的统计
+     */
+    public static class HandlerStats {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram(BUCKET_MS);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Map<String, LongAdder> codes = new ConcurrentHashMap<>();
+
+        HandlerStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * 各返回码的次数
+         */
+        public Map<String, Long> getCodes() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            codes.forEach((code, count) -> result.put(code, count.sum()));
+            return result;
+        }
+
+        Map<String, Object> toMap() {
+            long n = latency.getCount();
+            Map<String, Long> codeCounts = getCodes();
+            long errors = 0;
+            for (Map.Entry<String, Long> entry : codeCounts.entrySet()) {
+                if (!ResultCode.SUCCESS.getCode().equals(entry.getKey())) {
+                    errors += entry.getValue();
+                }
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("handler", name);
+            map.put("count", n);
+            map.put("errors", errors);
+            map.put("inFlight", getInFlight());
+            map.put("avgMs", n == 0 ? 0.0 : latency.getTotalNanos() / 1_000_000.0 / n);
+            map.put("maxMs", latency.getMaxNanos() / 1_000_000.0);
+            map.put("p50Ms", latency.percentileMs(0.5));
+            map.put("p95Ms", latency.percentileMs(0.95));
+            map.put("p99Ms", latency.percentileMs(0.99));
+            map.put("codes", codeCounts);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.springboot.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 资源版本号
+ * 每类资源维护一个递增版本号，对应Service的写方法调用 bump，
+ * 列表接口的响应缓存以所依赖资源的版本号判断是否失效
+ */
+@Component
+public class ResourceVersions {
+    /**
+     * 资源类别
+     */
+    public enum Family {
+        DEPARTMENT,
+        DOCTOR,
+        MEDICINE_CATEGORY,
+        SCHEDULE,
+        USER
+    }
+
+    private final Map<Family, AtomicLong> versions = new EnumMap<>(Family.class);
+
+    public ResourceVersions() {
+        for (Family family : Family.values()) {
+            versions.put(family, new AtomicLong());
+        }
+    }
+
+    /**
+     * 资源发生变更，立即递增版本号，并在事务结束后再递增一次，
+     * 避免事务提交前被并发请求按旧数据重新缓存
+     */
+    public void bump(Family family) {
+        AtomicLong version = versions.get(family);
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    public long get(Family family) {
+        return versions.get(family).get();
+    }
+
+    /**
+     * 多类资源版本号组合成的标识，任一资源变更后该标识随之改变
+     */
+    public String key(Family... families) {
+        StringBuilder builder = new StringBuilder();
+        for (Family family : families) {
+            if (builder.length() > 0) {
+                builder.append('.');
+            }
+            builder.append(versions.get(family).get());
+        }
+        return builder.toString();
+    }
+}
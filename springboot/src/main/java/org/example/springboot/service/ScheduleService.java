@@ -3,30 +3,57 @@ package org.example.springboot.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
+import org.example.springboot.DTO.ScheduleTemplateDTO;
 import org.example.springboot.entity.Doctor;
 import org.example.springboot.entity.Schedule;
 import org.example.springboot.entity.Department;
 import org.example.springboot.exception.ServiceException;
-import org.example.springboot.mapper.DoctorMapper;
 import org.example.springboot.mapper.ScheduleMapper;
-import org.example.springboot.mapper.DepartmentMapper;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ScheduleService {
+    private static final List<String> TIME_SLOTS = List.of("上午", "下午", "晚上");
+
+    /**
+     * 批量写入时每条INSERT的行数，冲突查询时每次IN的医生数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * 未指定最大接诊人数时使用的默认值，与 schedule 表 max_patients 的默认值一致
+     */
+    private static final int DEFAULT_MAX_PATIENTS = 20;
+
+    /**
+     * 按模板生成排班时最多生成的周数
+     */
+    private static final int MAX_TEMPLATE_WEEKS = 12;
+
     @Resource
     private ScheduleMapper scheduleMapper;
     
     @Resource
-    private DoctorMapper doctorMapper;
+    private ReferenceDataCache referenceDataCache;
     
     @Resource
-    private DepartmentMapper departmentMapper;
+    private SlotQuotaLedger slotQuotaLedger;
+    
+    @Resource
+    private ResourceVersions resourceVersions;
     
     /**
      * 新增排班
@@ -34,7 +61,7 @@ public class ScheduleService {
     @Transactional
     public Schedule createSchedule(Schedule schedule) {
         // 检查医生是否存在
-        Doctor doctor = doctorMapper.selectById(schedule.getDoctorId());
+        Doctor doctor = referenceDataCache.getDoctor(schedule.getDoctorId());
         if (doctor == null) {
             throw new ServiceException("医生不存在");
         }
@@ -66,6 +93,7 @@ public class ScheduleService {
         if (scheduleMapper.insert(schedule) <= 0) {
             throw new ServiceException("排班添加失败");
         }
+        resourceVersions.bump(Family.SCHEDULE);
         
         return schedule;
     }
@@ -83,7 +111,7 @@ public class ScheduleService {
         
         // 如果修改了医生，检查医生是否存在
         if (schedule.getDoctorId() != null && !schedule.getDoctorId().equals(existingSchedule.getDoctorId())) {
-            Doctor doctor = doctorMapper.selectById(schedule.getDoctorId());
+            Doctor doctor = referenceDataCache.getDoctor(schedule.getDoctorId());
             if (doctor == null) {
                 throw new ServiceException("医生不存在");
             }
@@ -111,6 +139,8 @@ public class ScheduleService {
         if (scheduleMapper.updateById(schedule) <= 0) {
             throw new ServiceException("排班更新失败");
         }
+        slotQuotaLedger.evict(id);
+        resourceVersions.bump(Family.SCHEDULE);
     }
     
     /**
@@ -123,11 +153,11 @@ public class ScheduleService {
         }
         
         // 查询医生信息
-        Doctor doctor = doctorMapper.selectById(schedule.getDoctorId());
+        Doctor doctor = referenceDataCache.getDoctor(schedule.getDoctorId());
         if (doctor != null) {
             // 查询科室信息
             if (doctor.getDepartmentId() != null) {
-                Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                 doctor.setDepartment(department);
             }
         schedule.setDoctor(doctor);
@@ -169,11 +199,11 @@ public class ScheduleService {
         
         // 查询医生信息
         for (Schedule schedule : page.getRecords()) {
-            Doctor doctor = doctorMapper.selectById(schedule.getDoctorId());
+            Doctor doctor = referenceDataCache.getDoctor(schedule.getDoctorId());
             if (doctor != null) {
                 // 查询科室信息
                 if (doctor.getDepartmentId() != null) {
-                    Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                    Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                     doctor.setDepartment(department);
                 }
             schedule.setDoctor(doctor);
@@ -207,11 +237,11 @@ public class ScheduleService {
         List<Schedule> schedules = scheduleMapper.selectList(queryWrapper);
         
         // 查询医生信息
-        Doctor doctor = doctorMapper.selectById(doctorId);
+        Doctor doctor = referenceDataCache.getDoctor(doctorId);
         if (doctor != null) {
             // 查询科室信息
             if (doctor.getDepartmentId() != null) {
-                Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                 doctor.setDepartment(department);
             }
         for (Schedule schedule : schedules) {
@@ -235,11 +265,11 @@ public class ScheduleService {
         
         // 查询医生信息
         for (Schedule schedule : schedules) {
-            Doctor doctor = doctorMapper.selectById(schedule.getDoctorId());
+            Doctor doctor = referenceDataCache.getDoctor(schedule.getDoctorId());
             if (doctor != null) {
                 // 查询科室信息
                 if (doctor.getDepartmentId() != null) {
-                    Department department = departmentMapper.selectById(doctor.getDepartmentId());
+                    Department department = referenceDataCache.getDepartment(doctor.getDepartmentId());
                     doctor.setDepartment(department);
                 }
             schedule.setDoctor(doctor);
@@ -272,16 +302,172 @@ public class ScheduleService {
         if (scheduleMapper.updateById(updateSchedule) <= 0) {
             throw new ServiceException("排班状态更新失败");
         }
+        slotQuotaLedger.evict(id);
+        resourceVersions.bump(Family.SCHEDULE);
     }
     
     /**
      * 批量创建排班
+     * 医生一次批量校验，冲突按医生和日期范围一次查出后在内存中比对，再按批多值INSERT；任一排班冲突时整体失败
      */
     @Transactional
     public void batchCreateSchedule(List<Schedule> schedules) {
+        insertSchedules(schedules, false);
+    }
+    
+    /**
+     * 按模板生成排班：为指定医生在之后若干周的指定星期、时间段各生成一条排班
+     * @return 生成数和因已有排班跳过的数量
+     */
+    @Transactional
+    public Map<String, Integer> generateSchedules(ScheduleTemplateDTO template) {
+        // DTO上的校验注解不会自动生效，这里显式校验
+        if (template == null || template.getDoctorIds() == null || template.getDoctorIds().isEmpty()) {
+            throw new ServiceException("医生不能为空");
+        }
+        if (template.getStartDate() == null) {
+            throw new ServiceException("开始日期不能为空");
+        }
+        if (template.getWeeks() == null || template.getWeeks() < 1 || template.getWeeks() > MAX_TEMPLATE_WEEKS) {
+            throw new ServiceException("生成周数只能为1-" + MAX_TEMPLATE_WEEKS);
+        }
+        if (template.getMaxPatients() != null && template.getMaxPatients() < 1) {
+            throw new ServiceException("最大接诊人数至少为1");
+        }
+        Set<DayOfWeek> weekdays = new LinkedHashSet<>();
+        if (template.getWeekdays() == null || template.getWeekdays().isEmpty()) {
+            for (int day = 1; day <= 5; day++) {
+                weekdays.add(DayOfWeek.of(day));
+            }
+        } else {
+            for (Integer day : template.getWeekdays()) {
+                if (day == null || day < 1 || day > 7) {
+                    throw new ServiceException("星期只能为1-7");
+                }
+                weekdays.add(DayOfWeek.of(day));
+            }
+        }
+        List<String> timeSlots = template.getTimeSlots() == null || template.getTimeSlots().isEmpty()
+                ? List.of("上午", "下午") : new ArrayList<>(new LinkedHashSet<>(template.getTimeSlots()));
+        for (String timeSlot : timeSlots) {
+            if (!TIME_SLOTS.contains(timeSlot)) {
+                throw new ServiceException("时间段只能为上午、下午或晚上");
+            }
+        }
+        
+        List<Schedule> schedules = new ArrayList<>();
+        LocalDate endDate = template.getStartDate().plusWeeks(template.getWeeks());
+        for (Long doctorId : new LinkedHashSet<>(template.getDoctorIds())) {
+            for (LocalDate date = template.getStartDate(); date.isBefore(endDate); date = date.plusDays(1)) {
+                if (!weekdays.contains(date.getDayOfWeek())) {
+                    continue;
+                }
+                for (String timeSlot : timeSlots) {
+                    Schedule schedule = new Schedule();
+                    schedule.setDoctorId(doctorId);
+                    schedule.setScheduleDate(date);
+                    schedule.setTimeSlot(timeSlot);
+                    schedule.setMaxPatients(template.getMaxPatients());
+                    schedules.add(schedule);
+                }
+            }
+        }
+        
+        int created = insertSchedules(schedules, !Boolean.FALSE.equals(template.getSkipExisting()));
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("created", created);
+        result.put("skipped", schedules.size() - created);
+        return result;
+    }
+    
+    /**
+     * 集合方式写入排班
+     * @param skipExisting 为true时跳过与已有排班冲突的条目，否则抛出异常
+     * @return 实际写入的条数
+     */
+    private int insertSchedules(List<Schedule> schedules, boolean skipExisting) {
+        if (schedules == null || schedules.isEmpty()) {
+            return 0;
+        }
+        Set<Long> doctorIds = new LinkedHashSet<>();
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        for (Schedule schedule : schedules) {
+            if (schedule.getDoctorId() == null || schedule.getScheduleDate() == null || schedule.getTimeSlot() == null) {
+                throw new ServiceException("排班的医生、日期和时间段不能为空");
+            }
+            doctorIds.add(schedule.getDoctorId());
+            LocalDate date = schedule.getScheduleDate();
+            minDate = minDate == null || date.isBefore(minDate) ? date : minDate;
+            maxDate = maxDate == null || date.isAfter(maxDate) ? date : maxDate;
+        }
+        
+        // 检查医生是否存在
+        Map<Long, Doctor> doctors = referenceDataCache.getDoctors(doctorIds);
+        for (Long doctorId : doctorIds) {
+            if (doctors.get(doctorId) == null) {
+                throw new ServiceException("医生不存在: " + doctorId);
+            }
+        }
+        
+        // 已有排班与本次排班放入同一集合，同时排除与库中和批内的重复
+        Set<String> occupied = loadOccupiedSlots(doctorIds, minDate, maxDate);
+        LocalDateTime now = LocalDateTime.now();
+        List<Schedule> accepted = new ArrayList<>(schedules.size());
         for (Schedule schedule : schedules) {
-            createSchedule(schedule);
+            if (!occupied.add(slotKey(schedule.getDoctorId(), schedule.getScheduleDate(), schedule.getTimeSlot()))) {
+                if (skipExisting) {
+                    continue;
+                }
+                throw new ServiceException("医生" + doctors.get(schedule.getDoctorId()).getName() + "在"
+                        + schedule.getScheduleDate() + schedule.getTimeSlot() + "已有排班");
+            }
+            if (schedule.getMaxPatients() == null) {
+                schedule.setMaxPatients(DEFAULT_MAX_PATIENTS); // 批量INSERT显式绑定该列，不会取表默认值
+            }
+            if (schedule.getCurrentPatients() == null) {
+                schedule.setCurrentPatients(0);
+            }
+            if (schedule.getStatus() == null) {
+                schedule.setStatus(1); // 默认正常
+            }
+            schedule.setCreateTime(now);
+            schedule.setUpdateTime(now);
+            accepted.add(schedule);
+        }
+        
+        for (int from = 0; from < accepted.size(); from += BATCH_SIZE) {
+            List<Schedule> batch = accepted.subList(from, Math.min(from + BATCH_SIZE, accepted.size()));
+            if (scheduleMapper.batchInsert(batch) != batch.size()) {
+                throw new ServiceException("排班添加失败");
+            }
+        }
+        if (!accepted.isEmpty()) {
+            resourceVersions.bump(Family.SCHEDULE);
+        }
+        return accepted.size();
+    }
+    
+    /**
+     * 一次范围查询取出这些医生在日期范围内已占用的 医生+日期+时间段
+     */
+    private Set<String> loadOccupiedSlots(Set<Long> doctorIds, LocalDate minDate, LocalDate maxDate) {
+        Set<String> occupied = new HashSet<>();
+        List<Long> ids = new ArrayList<>(doctorIds);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Schedule> existing = scheduleMapper.selectList(new LambdaQueryWrapper<Schedule>()
+                    .select(Schedule::getDoctorId, Schedule::getScheduleDate, Schedule::getTimeSlot)
+                    .in(Schedule::getDoctorId, ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())))
+                    .between(Schedule::getScheduleDate, minDate, maxDate));
+            for (Schedule schedule : existing) {
+                occupied.add(slotKey(schedule.getDoctorId(), schedule.getScheduleDate(), schedule.getTimeSlot()));
+            }
         }
+        return occupied;
+    }
+    
+    private static String slotKey(Long doctorId, LocalDate date, String timeSlot) {
+        return doctorId + "|" + date + "|" + timeSlot;
     }
     
     /**
@@ -302,37 +488,39 @@ public class ScheduleService {
         if (scheduleMapper.deleteById(id) <= 0) {
             throw new ServiceException("排班删除失败");
         }
+        slotQuotaLedger.evict(id);
+        resourceVersions.bump(Family.SCHEDULE);
     }
     
     /**
      * 更新排班预约人数
+     * 通过带条件的单条UPDATE原子完成检查与更新，避免并发下的超额预约
      */
     @Transactional
     public void updateSchedulePatients(Long id, int change) {
-        Schedule schedule = scheduleMapper.selectById(id);
-        if (schedule == null) {
-            throw new ServiceException("排班不存在");
+        if (change == 0) {
+            return;
         }
         
-        int newCount = schedule.getCurrentPatients() + change;
-        
-        // 检查是否超出最大接诊人数
-        if (newCount > schedule.getMaxPatients()) {
-            throw new ServiceException("超出最大接诊人数");
+        int rows = change > 0
+                ? scheduleMapper.reserveSlots(id, change)
+                : scheduleMapper.releaseSlots(id, -change);
+        if (rows > 0) {
+            resourceVersions.bump(Family.SCHEDULE);
+            return;
         }
         
-        // 检查是否小于0
-        if (newCount < 0) {
-            throw new ServiceException("当前预约人数不能小于0");
+        // 更新失败时再查询一次，返回具体原因
+        Schedule schedule = scheduleMapper.selectById(id);
+        if (schedule == null) {
+            throw new ServiceException("排班不存在");
         }
-        
-        Schedule updateSchedule = new Schedule();
-        updateSchedule.setId(id);
-        updateSchedule.setCurrentPatients(newCount);
-        updateSchedule.setUpdateTime(LocalDateTime.now());
-        
-        if (scheduleMapper.updateById(updateSchedule) <= 0) {
-            throw new ServiceException("排班预约人数更新失败");
+        if (change > 0 && schedule.getStatus() != 1) {
+            throw new ServiceException("该排班已停诊，无法预约");
+        }
+        if (change > 0) {
+            throw new ServiceException("超出最大接诊人数");
         }
+        throw new ServiceException("当前预约人数不能小于0");
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,293 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Medicine;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.MedicineMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.example.springboot.util.NgramIndex;
+import org.example.springboot.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 患者、医生、药品的全文检索索引
+ * 启动后在后台线程按主键分批全量加载，各Service在新增、修改、删除后调用 refresh/remove 增量同步（事务提交后生效）；
+ * 检索时由索引得到匹配的ID，再按页用 selectBatchIds 取数据，避免 LIKE '%关键词%' 全表扫描。
+ * 索引未就绪时 page 返回null，调用方改走数据库查询。
+ * 默认关闭。每次启动都会全量加载，内存约0.5KB/条（100万患者约470MB），开启前需按数据量预留堆内存；
+ * 超过 search-index.max-rows 的表不建索引，始终走数据库查询。
+ */
+@Component
+public class SearchIndexService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexService.class);
+
+    /**
+     * 索引类别
+     */
+    public enum Kind {
+        PATIENT,
+        DOCTOR,
+        MEDICINE
+    }
+
+    @Resource
+    private PatientMapper patientMapper;
+
+    @Resource
+    private DoctorMapper doctorMapper;
+
+    @Resource
+    private MedicineMapper medicineMapper;
+
+    @Value("${search-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${search-index.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    /**
+     * 单表索引的最大行数，超过时放弃该表的索引，避免堆内存随数据量无限增长
+     */
+    @Value("${search-index.max-rows:200000}")
+    private int maxRows = 200000;
+
+    private final Map<Kind, IndexedTable<?>> tables = new EnumMap<>(Kind.class);
+
+    @PostConstruct
+    public void init() {
+        tables.put(Kind.PATIENT, new IndexedTable<>(patientMapper, Patient::getId,
+                patient -> new String[]{patient.getName(), patient.getIdCard(), patient.getPhone()},
+                Arrays.asList(Patient::getId, Patient::getName, Patient::getIdCard, Patient::getPhone)));
+        tables.put(Kind.DOCTOR, new IndexedTable<>(doctorMapper, Doctor::getId,
+                doctor -> new String[]{doctor.getName(), doctor.getDoctorNo()},
+                Arrays.asList(Doctor::getId, Doctor::getName, Doctor::getDoctorNo)));
+        tables.put(Kind.MEDICINE, new IndexedTable<>(medicineMapper, Medicine::getId,
+                medicine -> new String[]{medicine.getMedicineName(), medicine.getMedicineCode()},
+                Arrays.asList(Medicine::getId, Medicine::getMedicineName, Medicine::getMedicineCode)));
+    }
+
+    /**
+     * 启动后在后台线程加载索引，不阻塞应用启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuildAll, "search-index-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 重建全部索引
+     */
+    public void rebuildAll() {
+        for (Map.Entry<Kind, IndexedTable<?>> entry : tables.entrySet()) {
+            long start = System.currentTimeMillis();
+            try {
+                if (!entry.getValue().rebuild(loadBatchSize, maxRows)) {
+                    LOGGER.warn("检索索引超过行数上限，不建索引，继续使用数据库查询: kind={}, maxRows={}",
+                            entry.getKey(), maxRows);
+                    continue;
+                }
+                LOGGER.info("检索索引加载完成: kind={}, size={}, 耗时={}ms", entry.getKey(),
+                        entry.getValue().index.size(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                LOGGER.error("检索索引加载失败，将继续使用数据库查询: kind={}", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * 记录新增或修改后重新索引（有事务时在提交后执行）
+     */
+    public void refresh(Kind kind, Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> tables.get(kind).refresh(id));
+    }
+
+    /**
+     * 批量新增后直接按实体内容索引，不再逐条回查（有事务时在提交后执行）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void refreshAll(Kind kind, List<T> rows) {
+        if (!enabled || rows == null || rows.isEmpty()) {
+            return;
+        }
+        IndexedTable<T> table = (IndexedTable<T>) tables.get(kind);
+        List<T> added = new ArrayList<>(rows);
+        TransactionHooks.afterCommit(() -> {
+            for (T row : added) {
+                table.put(row);
+            }
+        });
+    }
+
+    /**
+     * 记录删除后移出索引（有事务时在提交后执行）
+     */
+    public void remove(Kind kind, Collection<Long> ids) {
+        if (!enabled || ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<Long> removed = new ArrayList<>(ids);
+        TransactionHooks.afterCommit(() -> {
+            NgramIndex index = tables.get(kind).index;
+            for (Long id : removed) {
+                if (id != null) {
+                    index.remove(id);
+                }
+            }
+        });
+    }
+
+    /**
+     * 检索匹配的记录ID（按ID倒序）
+     * @return 索引未就绪或关键词无法由索引回答时返回null
+     */
+    public long[] search(Kind kind, String keyword) {
+        if (!enabled) {
+            return null;
+        }
+        return tables.get(kind).index.search(keyword);
+    }
+
+    /**
+     * 按索引分页检索，只查询当前页的记录
+     * @return 索引无法回答时返回null，调用方改走数据库查询
+     */
+    public <T> Page<T> page(Kind kind, String keyword, Integer currentPage, Integer size) {
+        long[] ids = search(kind, keyword);
+        if (ids == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        IndexedTable<T> table = (IndexedTable<T>) tables.get(kind);
+
+        Page<T> page = new Page<>(currentPage, size, ids.length);
+        int from = (int) Math.min((long) (currentPage - 1) * size, ids.length);
+        int to = (int) Math.min((long) from + size, ids.length);
+        if (from >= to) {
+            page.setRecords(new ArrayList<>());
+            return page;
+        }
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(ids[i]);
+        }
+        Map<Long, T> rows = AssociationLoader.loadByIds(table.mapper, pageIds, table.idGetter);
+        List<T> records = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            T row = rows.get(id);
+            if (row != null) {
+                records.add(row);
+            }
+        }
+        page.setRecords(records);
+        return page;
+    }
+
+    /**
+     * 各类索引的统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Map.Entry<Kind, IndexedTable<?>> entry : tables.entrySet()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("ready", entry.getValue().index.isReady());
+            item.put("size", entry.getValue().index.size());
+            stats.put(entry.getKey().name().toLowerCase(), item);
+        }
+        return stats;
+    }
+
+    /**
+     * 一张被索引的表：Mapper、主键、参与索引的字段及对应的查询列
+     */
+    private static final class IndexedTable<T> {
+        private final BaseMapper<T> mapper;
+        private final SFunction<T, Long> idGetter;
+        private final Function<T, String[]> fields;
+        private final List<SFunction<T, ?>> columns;
+        private final NgramIndex index = new NgramIndex();
+
+        IndexedTable(BaseMapper<T> mapper, SFunction<T, Long> idGetter, Function<T, String[]> fields,
+                     List<SFunction<T, ?>> columns) {
+            this.mapper = mapper;
+            this.idGetter = idGetter;
+            this.fields = fields;
+            this.columns = columns;
+        }
+
+        /**
+         * 按主键顺序分批加载，每批只查询参与索引的列
+         * @return 行数超过 maxRows 时放弃加载并返回false
+         */
+        boolean rebuild(int batchSize, int maxRows) {
+            index.beginLoad();
+            long lastId = 0;
+            int loaded = 0;
+            while (true) {
+                List<T> rows = mapper.selectList(new LambdaQueryWrapper<T>()
+                        .select(true, columns)
+                        .gt(idGetter, lastId)
+                        .orderByAsc(idGetter)
+                        .last("LIMIT " + batchSize));
+                loaded += rows.size();
+                if (loaded > maxRows) {
+                    index.abandonLoad();
+                    return false;
+                }
+                for (T row : rows) {
+                    index.load(idGetter.apply(row), fields.apply(row));
+                }
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                lastId = idGetter.apply(rows.get(rows.size() - 1));
+            }
+            index.endLoad();
+            return true;
+        }
+
+        void put(T row) {
+            Long id = idGetter.apply(row);
+            if (id != null) {
+                index.put(id, fields.apply(row));
+            }
+        }
+
+        void refresh(Long id) {
+            T row = mapper.selectById(id);
+            if (row == null) {
+                index.remove(id);
+            } else {
+                index.put(id, fields.apply(row));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.SequenceMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 业务编号生成服务
+ * 按 前缀+日期 维护每日递增序列，采用号段(hi/lo)方式从数据库批量领取，
+ * 常规情况下生成编号无需访问数据库，多节点部署时各节点领取的号段互不重叠。
+ * 调用方通常已在业务事务中占用一个连接，领取号段的独立事务需要第二个连接，因此领取时不持有锁，
+ * 并在号段快用完时提前领取下一段，避免大量请求占着连接等待同一次领取而耗尽连接池。
+ * 表结构与已有库的升级脚本见 db/sequence-migration.sql
+ */
+@Service
+public class SequenceService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SequenceService.class);
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Resource
+    private SequenceMapper sequenceMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sequence.block-size:100}")
+    private int blockSize;
+
+    /**
+     * 号段领取使用独立事务，避免业务事务回滚后号段被重复分配
+     */
+    private TransactionTemplate allocateTemplate;
+
+    /**
+     * 前缀 -> 当日号段
+     */
+    private final Map<String, DailyBlock> blocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        allocateTemplate = new TransactionTemplate(transactionManager);
+        allocateTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 生成编号，格式：前缀 + yyyyMMdd + 至少width位序号
+     */
+    public String nextNo(String prefix, int width) {
+        LocalDate today = LocalDate.now();
+        DailyBlock block = blocks.get(prefix);
+        if (block == null || !block.date.equals(today)) {
+            block = blocks.compute(prefix, (key, old) ->
+                    old != null && old.date.equals(today) ? old : new DailyBlock(today));
+        }
+        String seqKey = prefix + block.dateStr;
+        long sequence = block.take();
+        if (sequence == 0) {
+            // 号段用完且预取未完成：由当前线程自行领取，不持有锁，其他线程不会占着连接排队等待
+            sequence = block.addAndTake(allocate(seqKey), blockSize);
+        }
+        prefetch(block, seqKey);
+
+        StringBuilder builder = new StringBuilder(prefix.length() + 8 + width);
+        builder.append(prefix).append(block.dateStr);
+        String seq = Long.toString(sequence);
+        for (int i = seq.length(); i < width; i++) {
+            builder.append('0');
+        }
+        return builder.append(seq).toString();
+    }
+
+    /**
+     * 剩余序号不足号段的五分之一时由一个线程提前领取下一段，失败时等号段用完再由取号线程自行领取
+     */
+    private void prefetch(DailyBlock block, String seqKey) {
+        if (block.remaining() > Math.max(1, blockSize / 5) || !block.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            block.add(allocate(seqKey), blockSize);
+        } catch (RuntimeException e) {
+            LOGGER.warn("预取号段失败: {}", seqKey, e);
+        } finally {
+            block.prefetching.set(false);
+        }
+    }
+
+    /**
+     * 从数据库领取一个号段，返回号段的最大值
+     * 当日序列不存在时先提交领取事务，再单独初始化后重试：未命中的 UPDATE 持有间隙锁，
+     * 若在同一事务中接着 INSERT，新一天开始时并发领取的事务会互相等待插入意向锁而死锁
+     */
+    private long allocate(String seqKey) {
+        Long max = allocateTemplate.execute(status -> allocateBlock(seqKey));
+        if (max == null) {
+            allocateTemplate.executeWithoutResult(status -> sequenceMapper.initSequence(seqKey));
+            max = allocateTemplate.execute(status -> allocateBlock(seqKey));
+        }
+        if (max == null) {
+            throw new ServiceException("编号生成失败");
+        }
+        return max;
+    }
+
+    /**
+     * 领取号段并读回号段最大值，序列不存在时返回null
+     */
+    private Long allocateBlock(String seqKey) {
+        if (sequenceMapper.allocateBlock(seqKey, blockSize) == 0) {
+            return null;
+        }
+        return sequenceMapper.selectCurrentValue(seqKey);
+    }
+
+    /**
+     * 某个前缀当日已领取、尚未用完的号段；锁只保护内存中的取号，领取号段的数据库操作在锁外进行
+     */
+    private static final class DailyBlock {
+        private final LocalDate date;
+        private final String dateStr;
+
+        /**
+         * 每段为 {已发出的最大序号, 号段最大值}
+         */
+        private final Deque<long[]> ranges = new ArrayDeque<>();
+
+        private final AtomicBoolean prefetching = new AtomicBoolean();
+
+        private DailyBlock(LocalDate date) {
+            this.date = date;
+            this.dateStr = date.format(DATE_FORMATTER);
+        }
+
+        /**
+         * 取下一个序号，号段都已用完时返回0
+         */
+        private synchronized long take() {
+            while (!ranges.isEmpty()) {
+                long[] range = ranges.peekFirst();
+                if (range[0] < range[1]) {
+                    return ++range[0];
+                }
+                ranges.pollFirst();
+            }
+            return 0;
+        }
+
+        private synchronized void add(long max, int size) {
+            ranges.addLast(new long[]{max - size, max});
+        }
+
+        private synchronized long addAndTake(long max, int size) {
+            add(max, size);
+            return take();
+        }
+
+        private synchronized long remaining() {
+            long remaining = 0;
+            for (long[] range : ranges) {
+                remaining += range[1] - range[0];
+            }
+            return remaining;
+        }
+    }
+}
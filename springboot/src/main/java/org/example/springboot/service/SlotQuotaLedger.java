@@ -0,0 +1,405 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.example.springboot.service.ResourceVersions.Family;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * 号源额度内存账本（高峰预约模式）
+ * 每个排班的剩余名额保存在按需加载的 AtomicInteger 中，预约时通过CAS扣减，
+ * 预约记录与名额变化先进入队列，由定时任务批量写回MySQL，避免所有预约事务在同一排班行上串行等待行锁。
+ * 预约请求等到所在批次写库完成才返回（成功时带回预约ID，失败时返回原因），不会确认尚未落库的预约。
+ * 尚未写库的预约对数据库查询不可见，由账本按 患者+医生+日期 拦截重复预约。
+ * 通过 booking.ledger.enabled 开启，默认关闭。
+ */
+@Component
+public class SlotQuotaLedger {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlotQuotaLedger.class);
+
+    /**
+     * 已占用预约资格、尚未占用名额
+     */
+    private static final Long NO_SLOT = 0L;
+
+    @Resource
+    private ScheduleMapper scheduleMapper;
+
+    @Resource
+    private AppointmentMapper appointmentMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+    
+    @Resource
+    private ResourceVersions resourceVersions;
+
+    @Value("${booking.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.ledger.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 预约请求等待写库结果的最长时间
+     */
+    @Value("${booking.ledger.ack-timeout-ms:5000}")
+    private long ackTimeoutMs = 5000;
+
+    /**
+     * 排班ID -> 剩余名额
+     */
+    private final Map<Long, AtomicInteger> remaining = new ConcurrentHashMap<>();
+
+    /**
+     * 尚未写库的预约：患者+医生+日期 -> 已占用名额的排班ID（NO_SLOT 表示尚未占用名额）
+     * 某个排班已在内存扣减但尚未写回数据库的名额数由此统计，不单独计数，写库结束或放弃预约时移除
+     */
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 等待批量写入的预约
+     */
+    private final ConcurrentLinkedQueue<PendingAppointment> writeQueue = new ConcurrentLinkedQueue<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 占用患者在该医生当天的预约资格，已有尚未写库的同类预约时返回 false
+     * 须先于查库检查重复预约调用，成功后必须以 enqueue 或 abandon 结束
+     */
+    public boolean claim(Appointment appointment, Schedule schedule) {
+        return inFlight.putIfAbsent(bookingKey(appointment, schedule), NO_SLOT) == null;
+    }
+
+    /**
+     * 为已占用预约资格的预约占用一个名额
+     * @return 是否占用成功
+     */
+    public boolean reserve(Appointment appointment, Schedule schedule) {
+        if (!tryReserve(schedule)) {
+            return false;
+        }
+        inFlight.put(bookingKey(appointment, schedule), schedule.getId());
+        return true;
+    }
+
+    /**
+     * 放弃尚未进入写入队列的预约（检查失败、生成编号失败等），归还预约资格和已占用的名额
+     */
+    public void abandon(Appointment appointment, Schedule schedule) {
+        Long reserved = inFlight.remove(bookingKey(appointment, schedule));
+        if (reserved != null && !NO_SLOT.equals(reserved)) {
+            release(reserved, 1);
+        }
+    }
+
+    /**
+     * 尝试在内存中占用一个名额
+     * @return 是否占用成功
+     */
+    public boolean tryReserve(Schedule schedule) {
+        AtomicInteger counter = remaining.computeIfAbsent(schedule.getId(), id -> new AtomicInteger(loadRemaining(schedule)));
+        while (true) {
+            int current = counter.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 归还名额（取消预约或写库失败时调用）
+     */
+    public void release(Long scheduleId, int count) {
+        AtomicInteger counter = remaining.get(scheduleId);
+        if (counter != null) {
+            counter.addAndGet(count);
+        }
+    }
+
+    /**
+     * 提交已占用名额的预约到写入队列，由 flush 批量落库
+     * @return 写库完成时得到带ID的预约，写库失败时以 ServiceException 结束
+     */
+    public CompletableFuture<Appointment> enqueue(Appointment appointment, Schedule schedule) {
+        PendingAppointment pendingAppointment = new PendingAppointment(appointment, bookingKey(appointment, schedule));
+        writeQueue.add(pendingAppointment);
+        return pendingAppointment.written;
+    }
+
+    /**
+     * 等待预约写库，返回写入后的预约
+     * 超时时预约仍在队列中，稍后仍可能写入成功，提示患者到“我的预约”中查看
+     */
+    public Appointment awaitWritten(CompletableFuture<Appointment> written) {
+        try {
+            return written.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServiceException) {
+                throw (ServiceException) e.getCause();
+            }
+            throw new ServiceException("预约失败");
+        } catch (TimeoutException e) {
+            LOGGER.warn("预约写库等待超时: timeout={}ms, queueSize={}", ackTimeoutMs, writeQueue.size());
+            throw new ServiceException("预约正在处理中，请稍后在我的预约中查看结果");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("预约正在处理中，请稍后在我的预约中查看结果");
+        }
+    }
+
+    /**
+     * 排班信息被修改（人数上限、状态、删除）后使缓存失效，下次预约时重新加载
+     */
+    public void evict(Long scheduleId) {
+        remaining.remove(scheduleId);
+    }
+
+    /**
+     * 当前等待写入的预约数
+     */
+    public int queueSize() {
+        return writeQueue.size();
+    }
+
+    /**
+     * 定时批量写回预约与名额变化
+     */
+    @Scheduled(fixedDelayString = "${booking.ledger.flush-interval:50}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        while (!writeQueue.isEmpty()) {
+            List<PendingAppointment> batch = new ArrayList<>(batchSize);
+            PendingAppointment pendingAppointment;
+            while (batch.size() < batchSize && (pendingAppointment = writeQueue.poll()) != null) {
+                batch.add(pendingAppointment);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            flushBatch(batch);
+            resourceVersions.bump(Family.SCHEDULE);
+        }
+    }
+
+    private void flushBatch(List<PendingAppointment> batch) {
+        Map<Long, List<PendingAppointment>> bySchedule = new LinkedHashMap<>();
+        for (PendingAppointment pendingAppointment : batch) {
+            bySchedule.computeIfAbsent(pendingAppointment.appointment.getScheduleId(), id -> new ArrayList<>())
+                    .add(pendingAppointment);
+        }
+
+        Set<PendingAppointment> rejected = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                rejected.clear();
+                List<Appointment> accepted = new ArrayList<>(batch.size());
+                for (Map.Entry<Long, List<PendingAppointment>> entry : bySchedule.entrySet()) {
+                    persistQuota(entry.getKey(), entry.getValue(), accepted, rejected);
+                }
+                if (!accepted.isEmpty()) {
+                    appointmentMapper.insert(accepted);
+                }
+            });
+        } catch (Exception e) {
+            // 整批写入失败时逐条重试，单条失败则通知预约请求
+            LOGGER.error("预约批量写入失败，改为逐条写入: size={}", batch.size(), e);
+            for (PendingAppointment pendingAppointment : batch) {
+                flushOne(pendingAppointment);
+            }
+            return;
+        }
+        for (PendingAppointment pendingAppointment : batch) {
+            if (rejected.contains(pendingAppointment)) {
+                finish(pendingAppointment, new ServiceException("该排班已满，无法预约"));
+            } else {
+                finish(pendingAppointment, null);
+            }
+        }
+        // 数据库拒绝了部分预约，说明内存名额与数据库不一致，写库结束后重新加载
+        for (PendingAppointment pendingAppointment : rejected) {
+            evict(pendingAppointment.appointment.getScheduleId());
+        }
+    }
+
+    /**
+     * 写回一个排班的名额变化，数据库确认占用成功的预约加入 accepted，名额不足的加入 rejected
+     */
+    private void persistQuota(Long scheduleId, List<PendingAppointment> appointments, List<Appointment> accepted,
+                              Set<PendingAppointment> rejected) {
+        if (scheduleMapper.reserveSlots(scheduleId, appointments.size()) > 0) {
+            for (PendingAppointment pendingAppointment : appointments) {
+                accepted.add(pendingAppointment.appointment);
+            }
+            return;
+        }
+        // 整组占用失败（如管理员调低了人数上限），逐个占用，占不到的通知预约请求失败
+        for (PendingAppointment pendingAppointment : appointments) {
+            if (scheduleMapper.reserveSlots(scheduleId, 1) > 0) {
+                accepted.add(pendingAppointment.appointment);
+            } else {
+                LOGGER.warn("排班名额不足，预约未写入: scheduleId={}, appointmentNo={}", scheduleId,
+                        pendingAppointment.appointment.getAppointmentNo());
+                rejected.add(pendingAppointment);
+            }
+        }
+    }
+
+    private void flushOne(PendingAppointment pendingAppointment) {
+        Appointment appointment = pendingAppointment.appointment;
+        Long scheduleId = appointment.getScheduleId();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (scheduleMapper.reserveSlots(scheduleId, 1) <= 0) {
+                    throw new ServiceException("该排班已满，无法预约");
+                }
+                appointmentMapper.insert(appointment);
+            });
+            finish(pendingAppointment, null);
+        } catch (ServiceException e) {
+            finish(pendingAppointment, e);
+            evict(scheduleId);
+        } catch (Exception e) {
+            LOGGER.error("预约写入失败: scheduleId={}, appointmentNo={}", scheduleId, appointment.getAppointmentNo(), e);
+            finish(pendingAppointment, new ServiceException("预约失败"));
+            evict(scheduleId);
+        }
+    }
+
+    /**
+     * 结束一个预约的写库：移出未写库集合（同时归还预约资格），通知等待的预约请求
+     */
+    private void finish(PendingAppointment pendingAppointment, ServiceException error) {
+        inFlight.remove(pendingAppointment.key);
+        if (error == null) {
+            pendingAppointment.written.complete(pendingAppointment.appointment);
+        } else {
+            pendingAppointment.written.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * 启动时根据预约表恢复账本
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * 对账：以预约表为准校正排班的当前预约人数，并清空内存账本使其重新加载
+     * 未写库的名额由尚未写库的预约统计，重新加载时扣除，无需另行重建
+     */
+    @Scheduled(cron = "${booking.ledger.reconcile-cron:0 */10 * * * *}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+
+        LocalDate today = LocalDate.now();
+        Map<Long, Integer> actual = new HashMap<>();
+        for (Map<String, Object> row : appointmentMapper.countActiveBySchedule(today)) {
+            actual.put(((Number) row.get("scheduleId")).longValue(), ((Number) row.get("total")).intValue());
+        }
+
+        List<Schedule> schedules = scheduleMapper.selectList(
+            new LambdaQueryWrapper<Schedule>()
+                .select(Schedule::getId, Schedule::getCurrentPatients)
+                .ge(Schedule::getScheduleDate, today)
+        );
+        int corrected = 0;
+        for (Schedule schedule : schedules) {
+            int count = actual.getOrDefault(schedule.getId(), 0);
+            if (schedule.getCurrentPatients() == null || schedule.getCurrentPatients() != count) {
+                corrected += scheduleMapper.correctPatients(schedule.getId(), count);
+            }
+        }
+        remaining.clear();
+        if (corrected > 0) {
+            resourceVersions.bump(Family.SCHEDULE);
+        }
+        LOGGER.info("号源账本对账完成: 排班数={}, 校正数={}, 未写库预约数={}", schedules.size(), corrected, inFlight.size());
+    }
+
+    private int loadRemaining(Schedule schedule) {
+        Schedule latest = scheduleMapper.selectById(schedule.getId());
+        if (latest == null || latest.getStatus() == null || latest.getStatus() != 1) {
+            return 0;
+        }
+        return latest.getRemainingQuota() - unflushed(schedule.getId());
+    }
+
+    /**
+     * 某个排班已在内存扣减但尚未写回数据库的名额数
+     */
+    private int unflushed(Long scheduleId) {
+        int count = 0;
+        for (Long reserved : inFlight.values()) {
+            if (scheduleId.equals(reserved)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 重复预约的判断口径与 AppointmentService 查库一致：同一患者、同一医生、同一天
+     */
+    private static String bookingKey(Appointment appointment, Schedule schedule) {
+        return appointment.getPatientId() + ":" + appointment.getDoctorId() + ":" + schedule.getScheduleDate();
+    }
+
+    /**
+     * 队列中的预约及其写库结果
+     */
+    private static class PendingAppointment {
+        private final Appointment appointment;
+        private final String key;
+        private final CompletableFuture<Appointment> written = new CompletableFuture<>();
+
+        PendingAppointment(Appointment appointment, String key) {
+            this.appointment = appointment;
+            this.key = key;
+        }
+    }
+}
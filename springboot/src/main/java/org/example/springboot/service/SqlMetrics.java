@@ -0,0 +1,349 @@
+package org.example.springboot.service;
+
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * SQL执行统计
+ * 由 MyBatis 拦截器在每条语句执行前后调用：按 Mapper 方法累计次数、行数、失败数和耗时分布；
+ * 在HTTP请求（或 withBudget 包裹的代码）范围内按语句形状（Mapper 方法 + SQL）计数，
+ * 同一形状执行次数超过阈值时记为重复执行（典型的 N+1 查询），并按接口汇总。
+ * 设置语句预算后可令超出预算的请求失败，供测试发现新增的逐条查询。
+ */
+@Component
+public class SqlMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlMetrics.class);
+
+    /**
+     * 耗时分布的桶上界（毫秒，含上界），最后还有一个不设上界的桶
+     */
+    static final long[] BUCKET_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500};
+
+    /**
+     * 最多保留的重复执行记录数
+     */
+    private static final int RECENT_REPEAT_LIMIT = 50;
+
+    @Value("${sql.metrics.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${sql.metrics.repeat-threshold:10}")
+    private int repeatThreshold = 10;
+
+    @Value("${sql.metrics.statement-budget:0}")
+    private int statementBudget;
+
+    @Value("${sql.metrics.fail-on-budget:false}")
+    private boolean failOnBudget;
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedDeque<Map<String, Object>> recentRepeats = new ConcurrentLinkedDeque<>();
+
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开始一个请求范围，之后本线程执行的语句计入该请求
+     */
+    public void beginRequest() {
+        if (enabled) {
+            currentScope.set(new Scope(failOnBudget ? statementBudget : 0));
+        }
+    }
+
+    /**
+     * 结束当前请求范围，按接口汇总并检查重复执行的语句
+     */
+    public void endRequest(String endpoint) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return;
+        }
+        currentScope.remove();
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.requests.increment();
+        stats.statements.add(scope.statements);
+        stats.dbNanos.add(scope.nanos);
+        stats.maxStatements.accumulateAndGet(scope.statements, Math::max);
+
+        for (Map.Entry<String, Integer> entry : scope.repeatedShapes(repeatThreshold).entrySet()) {
+            stats.repeated.increment();
+            stats.lastRepeated = entry.getKey() + " x" + entry.getValue();
+            LOGGER.warn("请求重复执行同一语句: endpoint={}, statement={}, count={}, total={}",
+                    endpoint, entry.getKey(), entry.getValue(), scope.statements);
+            Map<String, Object> repeat = new LinkedHashMap<>();
+            repeat.put("endpoint", endpoint);
+            repeat.put("statement", entry.getKey());
+            repeat.put("count", entry.getValue());
+            repeat.put("time", LocalDateTime.now().toString());
+            recentRepeats.addFirst(repeat);
+            while (recentRepeats.size() > RECENT_REPEAT_LIMIT) {
+                recentRepeats.pollLast();
+            }
+        }
+        if (statementBudget > 0 && scope.statements > statementBudget) {
+            LOGGER.warn("请求执行的SQL语句数超出预算: endpoint={}, statements={}, budget={}",
+                    endpoint, scope.statements, statementBudget);
+        }
+    }
+
+    /**
+     * 在语句预算内执行，结束后语句数超出预算则抛出 AssertionError（用于测试）
+     */
+    public <T> T withBudget(int maxStatements, Supplier<T> action) {
+        Scope previous = currentScope.get();
+        Scope scope = new Scope(0);
+        currentScope.set(scope);
+        try {
+            T result = action.get();
+            if (scope.statements > maxStatements) {
+                throw new AssertionError("执行了" + scope.statements + "条SQL语句，超出预算" + maxStatements
+                        + "，各语句执行次数: " + scope.shapeCounts());
+            }
+            return result;
+        } finally {
+            if (previous == null) {
+                currentScope.remove();
+            } else {
+                currentScope.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 语句执行前调用，计入当前请求；开启 fail-on-budget 时超出预算直接失败
+     */
+    public void beforeStatement(String statementId, String sql) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return;
+        }
+        int count;
+        // 并发子查询（FanOutExecutor）会在其他线程写同一个请求范围
+        synchronized (scope) {
+            count = ++scope.statements;
+            scope.shapes.computeIfAbsent(statementId, k -> new HashMap<>()).merge(sql, 1, Integer::sum);
+        }
+        if (scope.budget > 0 && count > scope.budget) {
+            throw new ServiceException("单个请求执行的SQL语句数超出预算(" + scope.budget + ")");
+        }
+    }
+
+    /**
+     * 语句执行后调用，记录耗时和影响/返回的行数
+     */
+    public void afterStatement(String statementId, long nanos, long rows, boolean failed) {
+        statements.computeIfAbsent(statementId, k -> new StatementStats()).record(nanos, rows, failed);
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            synchronized (scope) {
+                scope.nanos += nanos;
+            }
+        }
+    }
+
+    /**
+     * 把当前请求范围带到其他线程执行的任务中，任务里的语句仍计入发起请求
+     */
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            Scope previous = currentScope.get();
+            currentScope.set(scope);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    currentScope.remove();
+                } else {
+                    currentScope.set(previous);
+                }
+            }
+        };
+    }
+
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> statementList = new ArrayList<>();
+        statements.forEach((id, s) -> statementList.add(s.toMap(id)));
+        statementList.sort(Comparator.comparingDouble((Map<String, Object> m) -> (double) m.get("totalMs")).reversed());
+
+        List<Map<String, Object>> endpointList = new ArrayList<>();
+        endpoints.forEach((endpoint, s) -> endpointList.add(s.toMap(endpoint)));
+        endpointList.sort(Comparator.comparingDouble((Map<String, Object> m) -> (double) m.get("dbMs")).reversed());
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("repeatThreshold", repeatThreshold);
+        stats.put("statementBudget", statementBudget);
+        stats.put("bucketsMs", BUCKET_MS);
+        stats.put("statements", statementList);
+        stats.put("endpoints", endpointList);
+        stats.put("recentRepeats", new ArrayList<>(recentRepeats));
+        return stats;
+    }
+
+    /**
+     * 各 Mapper 方法的累计统计，键为 MappedStatement ID
+     */
+    public Map<String, StatementStats> getStatementStats() {
+        return statements;
+    }
+
+    public void reset() {
+        statements.clear();
+        endpoints.clear();
+        recentRepeats.clear();
+    }
+
+    private static double toMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * 单个 Mapper 方法的累计统计
+     */
+    public static class StatementStats {
+        private final LatencyHistogram latency = new LatencyHistogram(BUCKET_MS);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void record(long nanos, long rowCount, boolean failed) {
+            latency.record(nanos);
+            rows.add(rowCount);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getTotalNanos() {
+            return latency.getTotalNanos();
+        }
+
+        /**
+         * 各桶的计数（非累计），下标与 BUCKET_MS 对应，最后一个为超出最大上界的部分
+         */
+        public long[] getBuckets() {
+            return latency.getBuckets();
+        }
+
+        Map<String, Object> toMap(String id) {
+            long n = getCount();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("count", n);
+            map.put("rows", getRows());
+            map.put("errors", getErrors());
+            map.put("totalMs", toMs(getTotalNanos()));
+            map.put("avgMs", n == 0 ? 0.0 : toMs(getTotalNanos()) / n);
+            map.put("maxMs", toMs(latency.getMaxNanos()));
+            map.put("p50Ms", latency.percentileMs(0.5));
+            map.put("p95Ms", latency.percentileMs(0.95));
+            map.put("p99Ms", latency.percentileMs(0.99));
+            map.put("buckets", getBuckets());
+            return map;
+        }
+    }
+
+    /**
+     * 单个接口的累计统计
+     */
+    private static class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder dbNanos = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final LongAdder repeated = new LongAdder();
+        private volatile String lastRepeated;
+
+        Map<String, Object> toMap(String endpoint) {
+            long n = requests.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("endpoint", endpoint);
+            map.put("requests", n);
+            map.put("statements", statements.sum());
+            map.put("avgStatements", n == 0 ? 0.0 : (double) statements.sum() / n);
+            map.put("maxStatements", maxStatements.get());
+            map.put("dbMs", toMs(dbNanos.sum()));
+            map.put("repeated", repeated.sum());
+            map.put("lastRepeated", lastRepeated);
+            return map;
+        }
+    }
+
+    /**
+     * 一个请求范围内的计数，只在所属线程内访问
+     * 语句形状为 Mapper 方法 + SQL：参数不同的同一条SQL视为同一形状
+     */
+    private static class Scope {
+        private final int budget;
+        private final Map<String, Map<String, Integer>> shapes = new HashMap<>();
+        private int statements;
+        private long nanos;
+
+        Scope(int budget) {
+            this.budget = budget;
+        }
+
+        /**
+         * 执行次数超过阈值的语句，按 Mapper 方法合并
+         */
+        Map<String, Integer> repeatedShapes(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.forEach((statementId, sqlCounts) -> sqlCounts.forEach((sql, count) -> {
+                if (count > threshold) {
+                    repeated.merge(statementId, count, Math::max);
+                }
+            }));
+            return repeated;
+        }
+
+        Map<String, Integer> shapeCounts() {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            shapes.forEach((statementId, sqlCounts) -> sqlCounts.values()
+                    .forEach(count -> counts.merge(statementId, count, Integer::sum)));
+            return counts;
+        }
+    }
+}
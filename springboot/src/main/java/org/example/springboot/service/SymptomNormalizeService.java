@@ -0,0 +1,178 @@
+package org.example.springboot.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.util.SymptomDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 症状标准化
+ * 依次查询本地症状词典、标准化结果缓存（LRU），都未命中时才调用标准化服务，
+ * 常见症状不再每次经过远程调用
+ */
+@Service
+public class SymptomNormalizeService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SymptomNormalizeService.class);
+
+    @Resource
+    private SymptomNormalizer symptomNormalizer;
+
+    @Value("${symptom.normalizer.dictionary:classpath:symptom-dictionary.txt}")
+    private String dictionaryLocation;
+
+    @Value("${symptom.normalizer.cache-capacity:10000}")
+    private int cacheCapacity;
+
+    @Value("${symptom.normalizer.cache-ttl-minutes:60}")
+    private long cacheTtlMinutes;
+
+    @Value("${symptom.normalizer.max-batch:100}")
+    private int maxBatch;
+
+    private SymptomDictionary dictionary = new SymptomDictionary();
+
+    private LRUCache<String, String> cache;
+
+    private final LongAdder dictionaryHits = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder remoteCalls = new LongAdder();
+    private final LongAdder remoteFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(cacheCapacity, TimeUnit.MINUTES.toMillis(cacheTtlMinutes));
+        ResourceLoader resourceLoader = new DefaultResourceLoader();
+        org.springframework.core.io.Resource resource = resourceLoader.getResource(dictionaryLocation);
+        if (!resource.exists()) {
+            LOGGER.warn("症状词典不存在，全部症状将由标准化服务处理: {}", dictionaryLocation);
+            return;
+        }
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            dictionary = SymptomDictionary.load(reader);
+            LOGGER.info("症状词典加载完成: 词条数={}", dictionary.size());
+        } catch (Exception e) {
+            LOGGER.error("症状词典加载失败，全部症状将由标准化服务处理: {}", dictionaryLocation, e);
+        }
+    }
+
+    /**
+     * 标准化单条症状描述
+     */
+    public String normalize(String symptom) {
+        if (StringUtils.isBlank(symptom)) {
+            throw new ServiceException("症状不能为空");
+        }
+        String key = symptom.trim();
+        String standard = lookupLocal(key);
+        if (standard != null) {
+            return standard;
+        }
+        standard = callRemote(key);
+        if (standard == null) {
+            throw new ServiceException("症状标准化失败");
+        }
+        return standard;
+    }
+
+    /**
+     * 只用本地词典和缓存标准化，不调用标准化服务（供对时延敏感的查询使用）
+     * @return 未命中时返回null
+     */
+    public String normalizeLocal(String symptom) {
+        return StringUtils.isBlank(symptom) ? null : lookupLocal(symptom.trim());
+    }
+
+    /**
+     * 批量标准化，相同的描述只处理一次；单条失败时结果为null，不影响其他症状
+     * @return 原始描述 -> 标准症状，保持输入顺序
+     */
+    public Map<String, String> normalizeBatch(Collection<String> symptoms) {
+        if (symptoms == null || symptoms.isEmpty()) {
+            throw new ServiceException("症状不能为空");
+        }
+        if (symptoms.size() > maxBatch) {
+            throw new ServiceException("单次最多标准化" + maxBatch + "条症状");
+        }
+        return normalizeAll(symptoms);
+    }
+
+    /**
+     * 批量标准化（不限制条数，供后台任务使用）
+     */
+    public Map<String, String> normalizeAll(Collection<String> symptoms) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String symptom : symptoms) {
+            if (StringUtils.isBlank(symptom) || result.containsKey(symptom)) {
+                continue;
+            }
+            String key = symptom.trim();
+            String standard = lookupLocal(key);
+            result.put(symptom, standard != null ? standard : callRemote(key));
+        }
+        return result;
+    }
+
+    /**
+     * 命中统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("dictionarySize", dictionary.size());
+        stats.put("cacheSize", cache.size());
+        stats.put("dictionaryHits", dictionaryHits.sum());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("remoteCalls", remoteCalls.sum());
+        stats.put("remoteFailures", remoteFailures.sum());
+        return stats;
+    }
+
+    private String lookupLocal(String symptom) {
+        String standard = dictionary.match(symptom);
+        if (standard != null) {
+            dictionaryHits.increment();
+            return standard;
+        }
+        standard = cache.get(symptom, false);
+        if (standard != null) {
+            cacheHits.increment();
+        }
+        return standard;
+    }
+
+    /**
+     * 调用标准化服务，成功的结果写入缓存，失败不缓存
+     */
+    private String callRemote(String symptom) {
+        remoteCalls.increment();
+        try {
+            String standard = symptomNormalizer.normalize(symptom);
+            if (standard != null) {
+                cache.put(symptom, standard);
+            }
+            return standard;
+        } catch (Exception e) {
+            remoteFailures.increment();
+            LOGGER.error("症状标准化服务调用失败: {}", symptom, e);
+            return null;
+        }
+    }
+}
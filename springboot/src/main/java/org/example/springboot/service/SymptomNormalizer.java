@@ -0,0 +1,12 @@
+package org.example.springboot.service;
+
+/**
+ * 症状标准化后端（默认为Python标准化服务），测试中可替换为桩实现
+ */
+public interface SymptomNormalizer {
+    /**
+     * 将原始症状描述转换为标准症状
+     * @return 标准症状，无法识别时返回null
+     */
+    String normalize(String symptom);
+}
@@ -0,0 +1,336 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.entity.MedicalRecord;
+import org.example.springboot.mapper.MedicalRecordMapper;
+import org.example.springboot.util.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 就诊记录症状异步标准化
+ * 保存就诊记录时只把症状原文放入有界队列（事务提交后），由后台线程攒批调用标准化服务，
+ * 再用一条批量UPDATE回写 standard_symptoms，医生保存病历不再等待标准化服务。
+ * 队列满时短暂等待后放弃并计数（启动时的补偿扫描会重新入队），
+ * 标准化失败按指数退避重试，超过次数进入死信，可通过接口重新入队。
+ */
+@Component
+public class SymptomStandardizePipeline {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SymptomStandardizePipeline.class);
+
+    /**
+     * 死信最多保留的条数
+     */
+    private static final int DEAD_LETTER_LIMIT = 1000;
+
+    @Resource
+    private SymptomNormalizeService symptomNormalizeService;
+
+    @Resource
+    private MedicalRecordMapper medicalRecordMapper;
+
+    @Resource
+    private CaseIndexLoader caseIndexLoader;
+
+    @Value("${symptom.pipeline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${symptom.pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${symptom.pipeline.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${symptom.pipeline.workers:2}")
+    private int workers;
+
+    @Value("${symptom.pipeline.batch-size:50}")
+    private int batchSize;
+
+    @Value("${symptom.pipeline.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${symptom.pipeline.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${symptom.pipeline.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${symptom.pipeline.recover-limit:1000}")
+    private int recoverLimit;
+
+    private BlockingQueue<Task> queue;
+
+    private ExecutorService workerPool;
+
+    private ScheduledExecutorService retryScheduler;
+
+    private volatile boolean running;
+
+    private final ConcurrentLinkedDeque<Task> deadLetters = new ConcurrentLinkedDeque<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final AtomicLong lastLagMs = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+
+    /**
+     * 启动后台线程，并把未标准化的历史记录重新入队
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("symptom-retry"));
+        workerPool = Executors.newFixedThreadPool(workers, threadFactory("symptom-worker"));
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::runWorker);
+        }
+        recoverPending();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交一条待标准化的症状，有事务时在提交后入队
+     */
+    public void submit(Long recordId, String symptom) {
+        if (!enabled || recordId == null || StringUtils.isBlank(symptom)) {
+            return;
+        }
+        Task task = new Task(recordId, symptom);
+        TransactionHooks.afterCommit(() -> offer(task));
+    }
+
+    /**
+     * 死信重新入队
+     * @return 重新入队的条数
+     */
+    public int retryDeadLetters() {
+        int count = 0;
+        Task task;
+        while ((task = deadLetters.pollFirst()) != null) {
+            task.attempts = 0;
+            if (offer(task)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 队列与处理情况统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queueDepth", queue == null ? 0 : queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("processed", processed.sum());
+        stats.put("updated", updated.sum());
+        stats.put("retried", retried.sum());
+        stats.put("deadLettered", deadLettered.sum());
+        stats.put("deadLetterSize", deadLetters.size());
+        stats.put("lastLagMs", lastLagMs.get());
+        stats.put("maxLagMs", maxLagMs.get());
+        return stats;
+    }
+
+    /**
+     * 入队，队列满时最多等待 offerTimeoutMs，仍失败则放弃（记录保留空的标准症状，重启后补偿）
+     */
+    private boolean offer(Task task) {
+        if (!running) {
+            return false;
+        }
+        try {
+            if (queue.offer(task, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                enqueued.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        LOGGER.warn("症状标准化队列已满，放弃本次标准化: recordId={}", task.recordId);
+        return false;
+    }
+
+    private void runWorker() {
+        List<Task> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Task first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Task next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.error("症状标准化批处理失败: size={}", batch.size(), e);
+                for (Task task : batch) {
+                    retryOrDeadLetter(task);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 一批症状去重后调用标准化，成功的批量回写，失败的重试
+     */
+    void processBatch(List<Task> batch) {
+        Set<String> symptoms = new LinkedHashSet<>();
+        for (Task task : batch) {
+            symptoms.add(task.symptom);
+        }
+        Map<String, String> standards = symptomNormalizeService.normalizeAll(symptoms);
+
+        List<MedicalRecord> records = new ArrayList<>(batch.size());
+        long now = System.currentTimeMillis();
+        for (Task task : batch) {
+            String standard = standards.get(task.symptom);
+            if (standard == null) {
+                retryOrDeadLetter(task);
+                continue;
+            }
+            MedicalRecord record = new MedicalRecord();
+            record.setId(task.recordId);
+            record.setSymptom(task.symptom);
+            record.setStandardSymptoms(standard);
+            records.add(record);
+            long lag = now - task.enqueuedAt;
+            lastLagMs.set(lag);
+            maxLagMs.accumulateAndGet(lag, Math::max);
+        }
+        if (!records.isEmpty()) {
+            updated.add(medicalRecordMapper.batchUpdateStandardSymptoms(records));
+            for (MedicalRecord record : records) {
+                caseIndexLoader.refreshRecord(record.getId());
+            }
+        }
+        processed.add(records.size());
+    }
+
+    private void retryOrDeadLetter(Task task) {
+        task.attempts++;
+        if (task.attempts >= maxAttempts) {
+            deadLettered.increment();
+            deadLetters.addLast(task);
+            while (deadLetters.size() > DEAD_LETTER_LIMIT) {
+                deadLetters.pollFirst();
+            }
+            LOGGER.warn("症状标准化多次失败，转入死信: recordId={}, attempts={}", task.recordId, task.attempts);
+            return;
+        }
+        retried.increment();
+        long delay = retryBackoffMs << (task.attempts - 1);
+        retryScheduler.schedule(() -> offer(task), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 补偿：症状不为空但标准症状为空的记录重新入队（如上次停机时仍在队列中的任务）
+     */
+    private void recoverPending() {
+        try {
+            List<MedicalRecord> pending = medicalRecordMapper.selectList(new LambdaQueryWrapper<MedicalRecord>()
+                    .select(MedicalRecord::getId, MedicalRecord::getSymptom)
+                    .isNotNull(MedicalRecord::getSymptom)
+                    .ne(MedicalRecord::getSymptom, "")
+                    .and(wrapper -> wrapper.isNull(MedicalRecord::getStandardSymptoms)
+                            .or().eq(MedicalRecord::getStandardSymptoms, ""))
+                    .orderByDesc(MedicalRecord::getId)
+                    .last("LIMIT " + recoverLimit));
+            for (MedicalRecord record : pending) {
+                if (!offer(new Task(record.getId(), record.getSymptom()))) {
+                    break;
+                }
+            }
+            if (!pending.isEmpty()) {
+                LOGGER.info("未标准化的就诊记录已重新入队: {}", pending.size());
+            }
+        } catch (Exception e) {
+            LOGGER.error("未标准化就诊记录补偿入队失败", e);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 待标准化的症状
+     */
+    static final class Task {
+        private final Long recordId;
+        private final String symptom;
+        private final long enqueuedAt = System.currentTimeMillis();
+        private int attempts;
+
+        Task(Long recordId, String symptom) {
+            this.recordId = recordId;
+            this.symptom = symptom;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.apache.commons.lang3.StringUtils;
+import org.example.springboot.entity.Medicine;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.MedicineMapper;
+import org.example.springboot.util.TcmCooccurrenceIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 中医诊疗统计分析
+ * 诊断、证型、症状、用药的共现计数聚合在内存中，由 CaseIndexLoader 在启动后全量加载、随就诊记录和处方的增删改增量更新；
+ * 统计接口直接读取内存计数，不再对业务表做GROUP BY。
+ */
+@Component
+public class TcmAnalyticsService {
+    @Resource
+    private MedicineMapper medicineMapper;
+
+    @Resource
+    private CaseIndexLoader caseIndexLoader;
+
+    @Value("${analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.max-top:100}")
+    private int maxTop;
+
+    private final TcmCooccurrenceIndex index = new TcmCooccurrenceIndex();
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            caseIndexLoader.register(index);
+        }
+    }
+
+    /**
+     * 全量重建，见 CaseIndexLoader
+     * @return 已有加载在进行时返回false
+     */
+    public boolean rebuild() {
+        return caseIndexLoader.rebuild(List.of(index));
+    }
+
+    /**
+     * 最常见的诊断
+     */
+    public List<TcmCooccurrenceIndex.Count> topDiagnoses(Integer top) {
+        return readyIndex().topDiagnoses(limit(top));
+    }
+
+    /**
+     * 最常见的证型，指定诊断时为该诊断下的证型分布
+     */
+    public List<TcmCooccurrenceIndex.Count> topSyndromes(String diagnosis, Integer top) {
+        TcmCooccurrenceIndex ready = readyIndex();
+        return StringUtils.isBlank(diagnosis) ? ready.topSyndromes(limit(top))
+                : ready.topSyndromesByDiagnosis(diagnosis, limit(top));
+    }
+
+    /**
+     * 最常见的症状
+     */
+    public List<TcmCooccurrenceIndex.Count> topSymptoms(Integer top) {
+        return readyIndex().topSymptoms(limit(top));
+    }
+
+    /**
+     * 与某症状共同出现最多的证型
+     */
+    public List<TcmCooccurrenceIndex.Count> topSyndromesBySymptom(String symptom, Integer top) {
+        if (StringUtils.isBlank(symptom)) {
+            throw new ServiceException("症状不能为空");
+        }
+        return readyIndex().topSyndromesBySymptom(symptom, limit(top));
+    }
+
+    /**
+     * 某证型下开具最多的药品（按开具该药品的处方数）
+     */
+    public List<Map<String, Object>> topMedicinesBySyndrome(String syndrome, Integer top) {
+        if (StringUtils.isBlank(syndrome)) {
+            throw new ServiceException("证型不能为空");
+        }
+        List<TcmCooccurrenceIndex.IdCount> counts = readyIndex().topMedicinesBySyndrome(syndrome, limit(top));
+        List<Long> medicineIds = new ArrayList<>(counts.size());
+        for (TcmCooccurrenceIndex.IdCount count : counts) {
+            medicineIds.add(count.getId());
+        }
+        Map<Long, Medicine> medicines = AssociationLoader.loadByIds(medicineMapper, medicineIds, Medicine::getId);
+
+        List<Map<String, Object>> result = new ArrayList<>(counts.size());
+        for (TcmCooccurrenceIndex.IdCount count : counts) {
+            Medicine medicine = medicines.get(count.getId());
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("medicineId", count.getId());
+            item.put("medicineName", medicine == null ? null : medicine.getMedicineName());
+            item.put("count", count.getCount());
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * 统计概况
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = index.getStats();
+        summary.put("enabled", enabled);
+        return summary;
+    }
+
+    private TcmCooccurrenceIndex readyIndex() {
+        if (!enabled) {
+            throw new ServiceException("诊疗统计未启用");
+        }
+        if (!index.isReady()) {
+            throw new ServiceException("诊疗统计正在加载，请稍后再试");
+        }
+        return index;
+    }
+
+    private int limit(Integer top) {
+        if (top == null || top <= 0) {
+            return 10;
+        }
+        return Math.min(top, maxTop);
+    }
+}
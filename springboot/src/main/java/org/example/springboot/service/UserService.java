@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.toolkit.StringUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import jakarta.annotation.Resource;
 
+import org.example.springboot.DTO.BatchDeleteReport;
 import org.example.springboot.entity.User;
 import org.example.springboot.DTO.UserPasswordUpdateDTO;
 import org.example.springboot.DTO.UserRegisterDTO;
@@ -15,6 +16,7 @@ import org.example.springboot.exception.ServiceException;
 import org.example.springboot.mapper.DoctorMapper;
 import org.example.springboot.mapper.PatientMapper;
 import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.service.ResourceVersions.Family;
 import org.example.springboot.util.JwtTokenUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,10 +24,20 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class UserService {
+    /**
+     * 批量删除时每次检查和删除的ID数
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
     @Resource
     private UserMapper userMapper;
     
@@ -41,6 +53,12 @@ public class UserService {
     @Resource
     private PasswordEncoder bCryptPasswordEncoder;
 
+    @Resource
+    private JwtVerifierCache jwtVerifierCache;
+    
+    @Resource
+    private ResourceVersions resourceVersions;
+
     public User getByEmail(String email) {
         User user = userMapper.selectOne(new LambdaQueryWrapper<User>().eq(User::getEmail, email));
         if (user == null) {
@@ -177,6 +195,8 @@ public class UserService {
         if (userMapper.updateById(user) <= 0) {
             throw new ServiceException("用户更新失败");
         }
+        jwtVerifierCache.invalidate(id);
+        resourceVersions.bump(Family.USER);
     }
 
     public User getByUsername(String username) {
@@ -192,43 +212,79 @@ public class UserService {
 
     /**
      * 批量删除用户
-     * 在删除前检查每个用户是否被医生或患者关联
+     * 每批ID用一次查询确认存在、各一次查询取出关联的医生和患者，
+     * 未被关联的用户用一条带 NOT EXISTS 条件的DELETE删除，其余的在结果中给出原因
      */
     @Transactional
-    public void deleteBatch(List<Integer> ids) {
-        for (Integer id : ids) {
-            // 转换为Long类型
-            Long userId = Long.valueOf(id);
-            
-            // 检查用户是否存在
-            User user = userMapper.selectById(userId);
-            if (user == null) {
-                throw new ServiceException("ID为" + userId + "的用户不存在");
+    public BatchDeleteReport deleteBatch(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ServiceException("请选择要删除的用户");
+        }
+        List<Long> distinctIds = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id != null) {
+                distinctIds.add(Long.valueOf(id));
+            }
+        }
+        
+        Map<Long, String> reasons = new HashMap<>();
+        List<Long> deleted = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += DELETE_BATCH_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, distinctIds.size()));
+            Set<Long> existing = AssociationLoader.toIdSet(userMapper.selectObjs(
+                    new LambdaQueryWrapper<User>().select(User::getId).in(User::getId, chunk)));
+            Map<Long, String> doctorNames = new HashMap<>();
+            for (Doctor doctor : doctorMapper.selectList(new LambdaQueryWrapper<Doctor>()
+                    .select(Doctor::getId, Doctor::getUserId, Doctor::getName).in(Doctor::getUserId, chunk))) {
+                doctorNames.putIfAbsent(doctor.getUserId(), doctor.getName());
+            }
+            Map<Long, String> patientNames = new HashMap<>();
+            for (Patient patient : patientMapper.selectList(new LambdaQueryWrapper<Patient>()
+                    .select(Patient::getId, Patient::getUserId, Patient::getName).in(Patient::getUserId, chunk))) {
+                patientNames.putIfAbsent(patient.getUserId(), patient.getName());
             }
             
-            // 检查用户是否被医生关联
-            Doctor doctor = doctorMapper.selectOne(
-                new LambdaQueryWrapper<Doctor>()
-                    .eq(Doctor::getUserId, userId)
-            );
-            if (doctor != null) {
-                throw new ServiceException("ID为" + userId + "的用户已关联医生信息（" + doctor.getName() + "），不能删除");
+            List<Long> candidates = new ArrayList<>(chunk.size());
+            for (Long id : chunk) {
+                String reason = null;
+                if (!existing.contains(id)) {
+                    reason = "用户不存在";
+                } else if (doctorNames.containsKey(id)) {
+                    reason = "该用户已关联医生信息（" + doctorNames.get(id) + "），不能删除";
+                } else if (patientNames.containsKey(id)) {
+                    reason = "该用户已关联患者信息（" + patientNames.get(id) + "），不能删除";
+                }
+                if (reason == null) {
+                    candidates.add(id);
+                } else {
+                    reasons.put(id, reason);
+                }
             }
             
-            // 检查用户是否被患者关联
-            Patient patient = patientMapper.selectOne(
-                new LambdaQueryWrapper<Patient>()
-                    .eq(Patient::getUserId, userId)
-            );
-            if (patient != null) {
-                throw new ServiceException("ID为" + userId + "的用户已关联患者信息（" + patient.getName() + "），不能删除");
+            if (!candidates.isEmpty() && userMapper.deleteUnreferenced(candidates) < candidates.size()) {
+                // 检查之后又被医生或患者关联的用户不会被删除
+                Set<Long> remaining = AssociationLoader.toIdSet(userMapper.selectObjs(
+                        new LambdaQueryWrapper<User>().select(User::getId).in(User::getId, candidates)));
+                for (Long id : remaining) {
+                    reasons.put(id, "该用户已被医生或患者关联，不能删除");
+                }
+                candidates.removeAll(remaining);
             }
+            deleted.addAll(candidates);
+        }
+        
+        for (Long id : deleted) {
+            jwtVerifierCache.invalidate(id);
+        }
+        if (!deleted.isEmpty()) {
+            resourceVersions.bump(Family.USER);
         }
         
-        // 所有用户检查通过后，执行批量删除
-        if (userMapper.deleteByIds(ids) <= 0) {
-            throw new ServiceException("批量删除失败");
+        BatchDeleteReport report = new BatchDeleteReport();
+        for (Long id : distinctIds) {
+            report.add(id, reasons.get(id));
         }
+        return report;
     }
 
     public List<User> getUserList() {
@@ -281,6 +337,8 @@ public class UserService {
         if (userMapper.updateById(user) <= 0) {
             throw new ServiceException("密码修改失败");
         }
+        jwtVerifierCache.invalidate(id);
+        resourceVersions.bump(Family.USER);
     }
 
     /**
@@ -317,6 +375,8 @@ public class UserService {
         if (userMapper.updateById(user) <= 0) {
             throw new ServiceException("密码重置失败，请稍后再试");
         }
+        jwtVerifierCache.invalidate(user.getId());
+        resourceVersions.bump(Family.USER);
         
         // TODO: 在实际生产环境中，这里应该发送一封确认邮件到用户邮箱
         // sendPasswordResetConfirmationEmail(user.getEmail(), user.getUsername());
@@ -363,5 +423,7 @@ public class UserService {
         if (userMapper.deleteById(id) <= 0) {
             throw new ServiceException("删除失败");
         }
+        jwtVerifierCache.invalidate(id);
+        resourceVersions.bump(Family.USER);
     }
 }
@@ -0,0 +1,185 @@
+package org.example.springboot.util;
+
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 由就诊记录和处方构建的内存索引的公共部分（诊疗共现统计、用药推荐病例索引）
+ * 负责读写锁和全量加载状态：beginLoad 后逐条 loadRecord/loadPrescription，endLoad 后就绪；
+ * 加载期间的增量修改记下ID，全量加载读到的旧数据不会覆盖增量结果。子类只实现各自数据结构的增删。
+ */
+public abstract class CaseFactIndex {
+    protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 全量加载期间被增量修改过的记录和处方，加载时跳过
+     */
+    private final Set<Long> recordsTouchedWhileLoading = new HashSet<>();
+    private final Set<Long> prescriptionsTouchedWhileLoading = new HashSet<>();
+
+    private boolean loading;
+
+    private volatile boolean ready;
+
+    /**
+     * 新增或更新就诊记录
+     */
+    public final void putRecord(long id, String diagnosis, String syndrome, String symptoms) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                recordsTouchedWhileLoading.add(id);
+            }
+            putRecordInternal(id, diagnosis, syndrome, symptoms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除就诊记录
+     */
+    public final void removeRecord(long id) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                recordsTouchedWhileLoading.add(id);
+            }
+            removeRecordInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或更新处方的用药
+     */
+    public final void putPrescription(long id, long recordId, List<CaseItem> items) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                prescriptionsTouchedWhileLoading.add(id);
+            }
+            putPrescriptionInternal(id, recordId, items);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除处方
+     */
+    public final void removePrescription(long id) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                prescriptionsTouchedWhileLoading.add(id);
+            }
+            removePrescriptionInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 开始全量加载，清空现有数据；加载完成前 isReady 返回false
+     */
+    public final void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            recordsTouchedWhileLoading.clear();
+            prescriptionsTouchedWhileLoading.clear();
+            loading = true;
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全量加载一条就诊记录；加载期间已被增量修改的记录以增量数据为准
+     */
+    public final void loadRecord(long id, String diagnosis, String syndrome, String symptoms) {
+        lock.writeLock().lock();
+        try {
+            if (!recordsTouchedWhileLoading.contains(id)) {
+                putRecordInternal(id, diagnosis, syndrome, symptoms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全量加载一张处方；加载期间已被增量修改的处方以增量数据为准
+     */
+    public final void loadPrescription(long id, long recordId, List<CaseItem> items) {
+        lock.writeLock().lock();
+        try {
+            if (!prescriptionsTouchedWhileLoading.contains(id)) {
+                putPrescriptionInternal(id, recordId, items);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全量加载结束
+     */
+    public final void endLoad() {
+        lock.writeLock().lock();
+        try {
+            recordsTouchedWhileLoading.clear();
+            prescriptionsTouchedWhileLoading.clear();
+            loading = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public final boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 统计信息
+     */
+    public abstract Map<String, Object> getStats();
+
+    /**
+     * 清空全部数据，在写锁内调用
+     */
+    protected abstract void clear();
+
+    /**
+     * 以下增删方法均在写锁内调用
+     */
+    protected abstract void putRecordInternal(long id, String diagnosis, String syndrome, String symptoms);
+
+    protected abstract void removeRecordInternal(long id);
+
+    protected abstract void putPrescriptionInternal(long id, long recordId, List<CaseItem> items);
+
+    protected abstract void removePrescriptionInternal(long id);
+
+    /**
+     * 处方中的一味药
+     */
+    @Data
+    public static class CaseItem {
+        private long medicineId;
+        private String dosage;
+        private String frequency;
+        private String usage;
+        private Integer days;
+        private Integer quantity;
+    }
+}
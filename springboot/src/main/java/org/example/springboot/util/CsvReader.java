@@ -0,0 +1,122 @@
+package org.example.springboot.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 逐行读取（RFC 4180），与 {@link CsvWriter} 对应
+ * 支持引号内的逗号、换行和双写引号，自动跳过 UTF-8 BOM；每次只解析一行，不把文件整体读入内存。
+ */
+public class CsvReader implements Closeable {
+    private final Reader reader;
+
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+
+    /**
+     * 下一行开始的物理行号
+     */
+    private long nextLine = 1;
+
+    /**
+     * 最近读取的一行开始的物理行号
+     */
+    private long lineNumber;
+
+    public CsvReader(InputStream in) throws IOException {
+        reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        if (peek() == '\uFEFF') {
+            position++;
+        }
+    }
+
+    /**
+     * 读取下一行
+     * @return 各列的值，文件结束时返回null
+     */
+    public String[] readRow() throws IOException {
+        int ch = read();
+        if (ch < 0) {
+            return null;
+        }
+        lineNumber = nextLine;
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        while (ch >= 0) {
+            if (quoted) {
+                if (ch == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (ch == '\n') {
+                        nextLine++;
+                    }
+                    field.append((char) ch);
+                }
+            } else if (ch == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\r' || ch == '\n') {
+                if (ch == '\r' && peek() == '\n') {
+                    position++;
+                }
+                nextLine++;
+                break;
+            } else {
+                field.append((char) ch);
+            }
+            ch = read();
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * 最近读取的一行在文件中的起始行号（从1开始）
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        int ch = peek();
+        if (ch >= 0) {
+            position++;
+        }
+        return ch;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.springboot.util;
+
+import org.example.springboot.exception.ServiceException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页的位置标记：(create_time, id)
+ * 对外以Base64编码的不透明字符串传递
+ */
+public final class KeysetCursor {
+    private final LocalDateTime createTime;
+    private final Long id;
+
+    public KeysetCursor(LocalDateTime createTime, Long id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ServiceException("无效的分页游标");
+        }
+    }
+}
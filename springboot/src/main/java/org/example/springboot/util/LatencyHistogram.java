@@ -0,0 +1,96 @@
+package org.example.springboot.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定分桶的耗时分布
+ * 桶上界按毫秒给出（含上界），最后一个桶不设上界；记录一次只做几次无锁累加，
+ * 分位数按所在桶的上界估算，桶计数可直接导出为 Prometheus histogram。
+ * 线程安全。
+ */
+public class LatencyHistogram {
+    private final long[] boundsMs;
+    private final long[] boundsNanos;
+    private final AtomicLongArray buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(long... boundsMs) {
+        this.boundsMs = boundsMs.clone();
+        this.boundsNanos = new long[boundsMs.length];
+        for (int i = 0; i < boundsMs.length; i++) {
+            if (i > 0 && boundsMs[i] <= boundsMs[i - 1]) {
+                throw new IllegalArgumentException("桶上界必须递增");
+            }
+            boundsNanos[i] = TimeUnit.MILLISECONDS.toNanos(boundsMs[i]);
+        }
+        this.buckets = new AtomicLongArray(boundsMs.length + 1);
+    }
+
+    public void record(long nanos) {
+        int i = 0;
+        while (i < boundsNanos.length && nanos > boundsNanos[i]) {
+            i++;
+        }
+        buckets.incrementAndGet(i);
+        count.increment();
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    public long[] getBoundsMs() {
+        return boundsMs.clone();
+    }
+
+    /**
+     * 各桶的计数（非累计），最后一个为超出最大上界的部分
+     */
+    public long[] getBuckets() {
+        long[] result = new long[buckets.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = buckets.get(i);
+        }
+        return result;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 按桶估算的分位数（毫秒），落在最后一个桶时取最大值
+     */
+    public double percentileMs(double percentile) {
+        long[] counts = getBuckets();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < boundsMs.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return boundsMs[i];
+            }
+        }
+        return getMaxNanos() / 1_000_000.0;
+    }
+}
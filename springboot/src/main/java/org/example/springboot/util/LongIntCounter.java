@@ -0,0 +1,241 @@
+package org.example.springboot.util;
+
+import java.util.Arrays;
+
+/**
+ * long -> int 计数表（开放寻址，线性探测）
+ * 键和计数都以基本类型数组保存，避免 HashMap&lt;Long, Integer&gt; 的装箱开销；计数减到0时删除该键。
+ * 非线程安全，由调用方加锁。
+ */
+public class LongIntCounter {
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] counts;
+    private boolean[] used;
+    private int size;
+
+    public LongIntCounter() {
+        this(8);
+    }
+
+    public LongIntCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * 累加计数
+     * @return 累加后的计数
+     */
+    public int add(long key, int delta) {
+        int slot = find(key);
+        if (slot >= 0) {
+            int count = counts[slot] + delta;
+            if (count <= 0) {
+                removeAt(slot);
+                return 0;
+            }
+            counts[slot] = count;
+            return count;
+        }
+        if (delta <= 0) {
+            return 0;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+        slot = insertSlot(key);
+        keys[slot] = key;
+        counts[slot] = delta;
+        used[slot] = true;
+        size++;
+        return delta;
+    }
+
+    public int get(long key) {
+        int slot = find(key);
+        return slot >= 0 ? counts[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * 遍历所有非零计数
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                visitor.visit(keys[i], counts[i]);
+            }
+        }
+    }
+
+    /**
+     * 计数最大的前 limit 个键，计数相同时键小的在前
+     * @return 依次为键、计数的交替数组，长度为 2 * min(limit, size)
+     */
+    public long[] top(int limit) {
+        int n = Math.min(limit, size);
+        if (n <= 0) {
+            return new long[0];
+        }
+        // 容量为n的小顶堆，堆顶是当前入选者中最差的一个
+        long[] heapKeys = new long[n];
+        int[] heapCounts = new int[n];
+        int heapSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (!used[i]) {
+                continue;
+            }
+            if (heapSize < n) {
+                heapKeys[heapSize] = keys[i];
+                heapCounts[heapSize] = counts[i];
+                siftUp(heapKeys, heapCounts, heapSize++);
+            } else if (better(keys[i], counts[i], heapKeys[0], heapCounts[0])) {
+                heapKeys[0] = keys[i];
+                heapCounts[0] = counts[i];
+                siftDown(heapKeys, heapCounts, heapSize);
+            }
+        }
+        long[] result = new long[n * 2];
+        for (int i = n - 1; i >= 0; i--) {
+            result[i * 2] = heapKeys[0];
+            result[i * 2 + 1] = heapCounts[0];
+            heapKeys[0] = heapKeys[i];
+            heapCounts[0] = heapCounts[i];
+            siftDown(heapKeys, heapCounts, i);
+        }
+        return result;
+    }
+
+    private static boolean better(long key, int count, long otherKey, int otherCount) {
+        return count != otherCount ? count > otherCount : key < otherKey;
+    }
+
+    private static void siftUp(long[] heapKeys, int[] heapCounts, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >> 1;
+            if (!better(heapKeys[parent], heapCounts[parent], heapKeys[index], heapCounts[index])) {
+                break;
+            }
+            swap(heapKeys, heapCounts, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heapKeys, int[] heapCounts, int heapSize) {
+        int index = 0;
+        while (true) {
+            int left = index * 2 + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < heapSize && better(heapKeys[left], heapCounts[left], heapKeys[right], heapCounts[right])) {
+                worst = right;
+            }
+            if (!better(heapKeys[index], heapCounts[index], heapKeys[worst], heapCounts[worst])) {
+                return;
+            }
+            swap(heapKeys, heapCounts, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(long[] heapKeys, int[] heapCounts, int i, int j) {
+        long key = heapKeys[i];
+        heapKeys[i] = heapKeys[j];
+        heapKeys[j] = key;
+        int count = heapCounts[i];
+        heapCounts[i] = heapCounts[j];
+        heapCounts[j] = count;
+    }
+
+    /**
+     * 查找键所在的槽位，不存在时返回 -(首个空槽位) - 1
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private int insertSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (used[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * 删除槽位并把后续同簇的键前移，保持线性探测的查找链不断开
+     */
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        used[slot] = false;
+        size--;
+        int next = (slot + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]) & mask;
+            // home 不在 (slot, next] 区间内时，该键可以移到空出的 slot
+            boolean movable = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+            if (movable) {
+                keys[slot] = keys[next];
+                counts[slot] = counts[next];
+                used[slot] = true;
+                used[next] = false;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        used = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = insertSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                used[slot] = true;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 计数遍历回调
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int count);
+    }
+}
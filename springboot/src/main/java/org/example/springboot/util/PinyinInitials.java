@@ -0,0 +1,75 @@
+package org.example.springboot.util;
+
+import java.nio.charset.Charset;
+
+/**
+ * 汉字拼音首字母
+ * 基于GB2312一级汉字按拼音排序的编码区间计算，覆盖常用的3755个汉字；
+ * 二级汉字与非汉字字符原样保留（字母转小写），不依赖额外的拼音库
+ */
+public final class PinyinInitials {
+    private static final Charset GB2312 = Charset.forName("GB2312");
+
+    /**
+     * 各首字母在GB2312中的起始区位码（区号*100+位号），最后一项为一级汉字结束位置
+     */
+    private static final int[] BOUNDARIES = {
+        1601, 1637, 1833, 2078, 2274, 2302, 2433, 2594, 2787, 3106, 3212,
+        3472, 3635, 3722, 3730, 3858, 4027, 4086, 4390, 4558, 4684, 4925, 5249, 5590
+    };
+
+    private static final char[] LETTERS = {
+        'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'j', 'k', 'l',
+        'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'w', 'x', 'y', 'z'
+    };
+
+    private PinyinInitials() {
+    }
+
+    /**
+     * 获取字符串的拼音首字母，如 "张三" -> "zs"
+     */
+    public static String of(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            builder.append(initial(text.charAt(i)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 获取单个字符的拼音首字母，无法识别时返回字符本身（字母转小写）
+     */
+    public static char initial(char ch) {
+        if (ch < 0x80) {
+            return Character.toLowerCase(ch);
+        }
+        if (!isCjk(ch)) {
+            return ch;
+        }
+        byte[] bytes = String.valueOf(ch).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return ch;
+        }
+        int code = ((bytes[0] & 0xFF) - 0xA0) * 100 + ((bytes[1] & 0xFF) - 0xA0);
+        if (code < BOUNDARIES[0] || code >= BOUNDARIES[BOUNDARIES.length - 1]) {
+            return ch;
+        }
+        for (int i = LETTERS.length - 1; i >= 0; i--) {
+            if (code >= BOUNDARIES[i]) {
+                return LETTERS[i];
+            }
+        }
+        return ch;
+    }
+
+    /**
+     * 是否为中日韩统一表意文字
+     */
+    public static boolean isCjk(char ch) {
+        return Character.UnicodeScript.of(ch) == Character.UnicodeScript.HAN;
+    }
+}
@@ -0,0 +1,494 @@
+package org.example.springboot.util;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 历史处方相似病例索引（用药推荐）
+ * 每条就诊记录的证型和症状构成稀疏特征向量，按特征建立倒排列表；其处方明细作为该病例的用药。
+ * 推荐时按查询特征逐个扫描倒排列表累加得分（IDF加权，按病例特征数归一），取最相似的若干病例，
+ * 再把这些病例的用药按相似度加权汇总，给出药品及常用用量。
+ * IDF 在查询时按当前文档频率计算，增删记录和处方只需更新对应条目，无需重建；加载状态与读写锁见 CaseFactIndex。
+ */
+public class PrescriptionCaseIndex extends CaseFactIndex {
+    private static final String SYNDROME_PREFIX = "证:";
+    private static final String SYMPTOM_PREFIX = "症:";
+
+    /**
+     * 证型特征相对症状特征的权重
+     */
+    private final double syndromeWeight;
+
+    /**
+     * 单个特征最多扫描的倒排条目数，常见特征（如高发证型）只对已有候选补分
+     */
+    private final int maxPostings;
+
+    private final Map<String, Integer> featureIds = new HashMap<>();
+    private final Map<Integer, PostingList> postings = new HashMap<>();
+    private final Map<Long, int[]> recordFeatures = new HashMap<>();
+    private final Map<Long, CaseItems> prescriptions = new HashMap<>();
+    private final Map<Long, Set<Long>> recordPrescriptions = new HashMap<>();
+
+    /**
+     * 值相同的用量、频次、用法文本共用一个实例
+     */
+    private final Map<String, String> texts = new HashMap<>();
+
+    public PrescriptionCaseIndex(double syndromeWeight, int maxPostings) {
+        this.syndromeWeight = syndromeWeight;
+        this.maxPostings = maxPostings;
+    }
+
+    /**
+     * 按证型和症状推荐用药
+     * @param symptoms  症状（已切分）
+     * @param neighbors 参与汇总的相似病例数
+     * @param limit     返回的药品数
+     * @return 按推荐度降序的药品；没有可用特征或相似病例时为空
+     */
+    public List<Recommendation> recommend(String syndrome, Collection<String> symptoms, int neighbors, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] query = queryFeatures(syndrome, symptoms);
+            if (query.length == 0) {
+                return new ArrayList<>();
+            }
+            Accumulator accumulator = accumulate(query);
+            int[] nearest = accumulator.top(neighbors);
+            return aggregate(accumulator, nearest, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计信息
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("ready", isReady());
+            stats.put("records", recordFeatures.size());
+            stats.put("prescriptions", prescriptions.size());
+            stats.put("features", postings.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询特征，按文档频率升序（稀有特征区分度高，先扫描）
+     */
+    private int[] queryFeatures(String syndrome, Collection<String> symptoms) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        Integer syndromeId = featureIds.get(SYNDROME_PREFIX + normalize(syndrome));
+        if (syndromeId != null) {
+            ids.add(syndromeId);
+        }
+        if (symptoms != null) {
+            for (String symptom : symptoms) {
+                Integer symptomId = featureIds.get(SYMPTOM_PREFIX + normalize(symptom));
+                if (symptomId != null) {
+                    ids.add(symptomId);
+                }
+            }
+        }
+        return ids.stream()
+                .filter(postings::containsKey)
+                .sorted((a, b) -> Integer.compare(postings.get(a).size, postings.get(b).size))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * 逐个特征扫描倒排列表累加得分；超过 maxPostings 的列表在已有候选时只对候选补分，
+     * 没有候选时只扫描最新的 maxPostings 条
+     */
+    private Accumulator accumulate(int[] query) {
+        Accumulator accumulator = new Accumulator();
+        double total = recordFeatures.size();
+        for (int feature : query) {
+            PostingList list = postings.get(feature);
+            double weight = Math.log(1 + total / list.size) * (isSyndrome(feature) ? syndromeWeight : 1);
+            if (list.size <= maxPostings || accumulator.size == 0) {
+                int end = Math.max(0, list.size - maxPostings);
+                for (int i = list.size - 1; i >= end; i--) {
+                    accumulator.add(list.ids[i], weight);
+                }
+            } else {
+                for (int i = 0; i < accumulator.size; i++) {
+                    if (list.contains(accumulator.ids[i])) {
+                        accumulator.scores[i] += weight;
+                    }
+                }
+            }
+        }
+        // 特征多的病例天然容易命中，按特征数的平方根归一；没有处方的病例不参与推荐
+        for (int i = 0; i < accumulator.size; i++) {
+            long recordId = accumulator.ids[i];
+            accumulator.scores[i] = recordPrescriptions.containsKey(recordId)
+                    ? accumulator.scores[i] / Math.sqrt(recordFeatures.get(recordId).length) : 0;
+        }
+        return accumulator;
+    }
+
+    /**
+     * 相似病例的用药按相似度加权汇总；同一处方中重复的药品只计一次
+     */
+    private List<Recommendation> aggregate(Accumulator accumulator, int[] nearest, int limit) {
+        Map<Long, MedicineTally> tallies = new LinkedHashMap<>();
+        double totalWeight = 0;
+        int cases = 0;
+        for (int slot : nearest) {
+            double similarity = accumulator.scores[slot];
+            for (Long prescriptionId : recordPrescriptions.get(accumulator.ids[slot])) {
+                CaseItems items = prescriptions.get(prescriptionId);
+                totalWeight += similarity;
+                cases++;
+                Set<Long> seen = new HashSet<>();
+                for (int i = 0; i < items.medicineIds.length; i++) {
+                    long medicineId = items.medicineIds[i];
+                    MedicineTally tally = tallies.computeIfAbsent(medicineId, key -> new MedicineTally());
+                    if (seen.add(medicineId)) {
+                        tally.score += similarity;
+                        tally.support++;
+                    }
+                    tally.vote(items.dosages[i], items.frequencies[i], items.usages[i]);
+                    if (items.days[i] > 0) {
+                        tally.days.add(items.days[i]);
+                    }
+                    if (items.quantities[i] > 0) {
+                        tally.quantities.add(items.quantities[i]);
+                    }
+                }
+            }
+        }
+
+        List<Recommendation> result = new ArrayList<>(tallies.size());
+        for (Map.Entry<Long, MedicineTally> entry : tallies.entrySet()) {
+            MedicineTally tally = entry.getValue();
+            Recommendation recommendation = new Recommendation();
+            recommendation.setMedicineId(entry.getKey());
+            recommendation.setScore(totalWeight > 0 ? tally.score / totalWeight : 0);
+            recommendation.setSupport(tally.support);
+            recommendation.setCases(cases);
+            recommendation.setDosage(mode(tally.dosages));
+            recommendation.setFrequency(mode(tally.frequencies));
+            recommendation.setUsage(mode(tally.usages));
+            recommendation.setDays(median(tally.days));
+            recommendation.setQuantity(median(tally.quantities));
+            result.add(recommendation);
+        }
+        result.sort((a, b) -> a.getScore() != b.getScore() ? Double.compare(b.getScore(), a.getScore())
+                : Long.compare(a.getMedicineId(), b.getMedicineId()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @Override
+    protected void clear() {
+        featureIds.clear();
+        postings.clear();
+        recordFeatures.clear();
+        prescriptions.clear();
+        recordPrescriptions.clear();
+        texts.clear();
+    }
+
+    /**
+     * 病例特征只取证型和症状，不使用诊断
+     */
+    @Override
+    protected void putRecordInternal(long id, String diagnosis, String syndrome, String symptoms) {
+        removeRecordInternal(id);
+        Set<Integer> features = new LinkedHashSet<>();
+        String syndromeText = normalize(syndrome);
+        if (!syndromeText.isEmpty()) {
+            features.add(featureId(SYNDROME_PREFIX + syndromeText));
+        }
+        for (String symptom : TcmCooccurrenceIndex.splitSymptoms(symptoms)) {
+            features.add(featureId(SYMPTOM_PREFIX + normalize(symptom)));
+        }
+        if (features.isEmpty()) {
+            return;
+        }
+        int[] ids = features.stream().mapToInt(Integer::intValue).toArray();
+        recordFeatures.put(id, ids);
+        for (int feature : ids) {
+            postings.computeIfAbsent(feature, key -> new PostingList()).add(id);
+        }
+    }
+
+    @Override
+    protected void removeRecordInternal(long id) {
+        int[] old = recordFeatures.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (int feature : old) {
+            PostingList list = postings.get(feature);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(feature);
+            }
+        }
+    }
+
+    @Override
+    protected void putPrescriptionInternal(long id, long recordId, List<CaseItem> items) {
+        removePrescriptionInternal(id);
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        prescriptions.put(id, new CaseItems(recordId, items, texts));
+        recordPrescriptions.computeIfAbsent(recordId, key -> new HashSet<>()).add(id);
+    }
+
+    @Override
+    protected void removePrescriptionInternal(long id) {
+        CaseItems old = prescriptions.remove(id);
+        if (old == null) {
+            return;
+        }
+        Set<Long> linked = recordPrescriptions.get(old.recordId);
+        if (linked != null) {
+            linked.remove(id);
+            if (linked.isEmpty()) {
+                recordPrescriptions.remove(old.recordId);
+            }
+        }
+    }
+
+    /**
+     * 特征编号，证型特征为偶数、症状特征为奇数，查询时据此区分权重
+     */
+    private int featureId(String feature) {
+        Integer id = featureIds.get(feature);
+        if (id == null) {
+            int count = featureIds.size();
+            id = feature.startsWith(SYNDROME_PREFIX) ? count * 2 : count * 2 + 1;
+            featureIds.put(feature, id);
+        }
+        return id;
+    }
+
+    private static boolean isSyndrome(int feature) {
+        return (feature & 1) == 0;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim();
+    }
+
+    private static String mode(Map<String, Integer> votes) {
+        String best = null;
+        int bestCount = 0;
+        for (Map.Entry<String, Integer> entry : votes.entrySet()) {
+            if (entry.getValue() > bestCount) {
+                best = entry.getKey();
+                bestCount = entry.getValue();
+            }
+        }
+        return best;
+    }
+
+    private static Integer median(List<Integer> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        Integer[] sorted = values.toArray(new Integer[0]);
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * 候选病例及其得分，记录ID到槽位的映射用基本类型计数表保存
+     */
+    private static final class Accumulator {
+        private final LongIntCounter slots = new LongIntCounter(1024);
+        private long[] ids = new long[1024];
+        private double[] scores = new double[1024];
+        private int size;
+
+        void add(long id, double weight) {
+            int slot = slots.get(id) - 1;
+            if (slot < 0) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    scores = Arrays.copyOf(scores, size * 2);
+                }
+                slot = size++;
+                ids[slot] = id;
+                slots.add(id, slot + 1);
+            }
+            scores[slot] += weight;
+        }
+
+        /**
+         * 得分最高的 n 个槽位（得分为0的不计），按得分降序，得分相同时新病例在前
+         */
+        int[] top(int n) {
+            // 容量为n的小顶堆，堆顶是当前入选者中最差的一个
+            int[] heap = new int[Math.max(0, Math.min(n, size))];
+            int heapSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (scores[i] <= 0) {
+                    continue;
+                }
+                if (heapSize < heap.length) {
+                    heap[heapSize] = i;
+                    siftUp(heap, heapSize++);
+                } else if (heapSize > 0 && better(i, heap[0])) {
+                    heap[0] = i;
+                    siftDown(heap, heapSize);
+                }
+            }
+            int[] result = new int[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                result[i] = heap[0];
+                heap[0] = heap[i];
+                siftDown(heap, i);
+            }
+            return result;
+        }
+
+        private boolean better(int a, int b) {
+            return scores[a] != scores[b] ? scores[a] > scores[b] : ids[a] > ids[b];
+        }
+
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >> 1;
+                if (!better(heap[parent], heap[index])) {
+                    break;
+                }
+                int slot = heap[parent];
+                heap[parent] = heap[index];
+                heap[index] = slot;
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int index = 0;
+            while (true) {
+                int left = index * 2 + 1;
+                if (left >= heapSize) {
+                    return;
+                }
+                int worst = left;
+                if (left + 1 < heapSize && better(heap[left], heap[left + 1])) {
+                    worst = left + 1;
+                }
+                if (!better(heap[index], heap[worst])) {
+                    return;
+                }
+                int slot = heap[index];
+                heap[index] = heap[worst];
+                heap[worst] = slot;
+                index = worst;
+            }
+        }
+    }
+
+    /**
+     * 单个药品在相似病例中的汇总
+     */
+    private static final class MedicineTally {
+        private double score;
+        private int support;
+        private final Map<String, Integer> dosages = new HashMap<>();
+        private final Map<String, Integer> frequencies = new HashMap<>();
+        private final Map<String, Integer> usages = new HashMap<>();
+        private final List<Integer> days = new ArrayList<>();
+        private final List<Integer> quantities = new ArrayList<>();
+
+        void vote(String dosage, String frequency, String usage) {
+            if (dosage != null) {
+                dosages.merge(dosage, 1, Integer::sum);
+            }
+            if (frequency != null) {
+                frequencies.merge(frequency, 1, Integer::sum);
+            }
+            if (usage != null) {
+                usages.merge(usage, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 一张处方的用药，按列保存
+     */
+    private static final class CaseItems {
+        private final long recordId;
+        private final long[] medicineIds;
+        private final String[] dosages;
+        private final String[] frequencies;
+        private final String[] usages;
+        private final int[] days;
+        private final int[] quantities;
+
+        CaseItems(long recordId, List<CaseItem> items, Map<String, String> texts) {
+            this.recordId = recordId;
+            int n = items.size();
+            medicineIds = new long[n];
+            dosages = new String[n];
+            frequencies = new String[n];
+            usages = new String[n];
+            days = new int[n];
+            quantities = new int[n];
+            for (int i = 0; i < n; i++) {
+                CaseItem item = items.get(i);
+                medicineIds[i] = item.getMedicineId();
+                dosages[i] = intern(texts, item.getDosage());
+                frequencies[i] = intern(texts, item.getFrequency());
+                usages[i] = intern(texts, item.getUsage());
+                days[i] = item.getDays() == null ? 0 : item.getDays();
+                quantities[i] = item.getQuantity() == null ? 0 : item.getQuantity();
+            }
+        }
+
+        private static String intern(Map<String, String> texts, String text) {
+            String value = normalize(text);
+            return value.isEmpty() ? null : texts.computeIfAbsent(value, key -> key);
+        }
+    }
+
+    /**
+     * 推荐的药品
+     */
+    @Data
+    public static class Recommendation {
+        private long medicineId;
+        private String medicineName;
+        /**
+         * 推荐度：相似病例中开具该药的加权比例（0~1）
+         */
+        private double score;
+        /**
+         * 开具该药的相似处方数
+         */
+        private int support;
+        /**
+         * 参与汇总的相似处方数
+         */
+        private int cases;
+        private String dosage;
+        private String frequency;
+        private String usage;
+        private Integer days;
+        private Integer quantity;
+    }
+}
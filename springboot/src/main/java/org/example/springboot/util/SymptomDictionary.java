@@ -0,0 +1,146 @@
+package org.example.springboot.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 症状词典（字典树）
+ * 词典每行格式为 "标准症状=别名1,别名2"，标准症状本身也作为词条；
+ * 对输入按标点切分后逐段做最长匹配，只有每一段都能被词条（及连接词）完整覆盖时才给出结果，
+ * 否则返回null交由远程标准化服务处理，避免本地词典给出不完整的结果。
+ */
+public class SymptomDictionary {
+    /**
+     * 症状之间的分隔标点
+     */
+    private static final String SEPARATORS = "，,、；;。.！!？?／/\n\r\t ";
+
+    /**
+     * 可忽略的连接词，如 "头痛伴恶心"
+     */
+    private static final String CONNECTORS = "伴和及并且";
+
+    private final Node root = new Node();
+
+    private int size;
+
+    /**
+     * 从文本加载词典，忽略空行和#开头的注释
+     */
+    public static SymptomDictionary load(Reader reader) throws IOException {
+        SymptomDictionary dictionary = new SymptomDictionary();
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int index = line.indexOf('=');
+            String standard = (index < 0 ? line : line.substring(0, index)).trim();
+            if (standard.isEmpty()) {
+                continue;
+            }
+            dictionary.add(standard, standard);
+            if (index >= 0) {
+                for (String alias : line.substring(index + 1).split("[,，]")) {
+                    dictionary.add(alias.trim(), standard);
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * 添加词条
+     */
+    public void add(String term, String standard) {
+        if (term == null || term.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.children.computeIfAbsent(term.charAt(i), key -> new Node());
+        }
+        if (node.standard == null) {
+            size++;
+        }
+        node.standard = standard;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 将症状描述转换为标准症状，多个症状以顿号连接并去重
+     * @return 无法完整识别时返回null
+     */
+    public String match(String text) {
+        if (text == null) {
+            return null;
+        }
+        Set<String> standards = new LinkedHashSet<>();
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char ch = i < text.length() ? text.charAt(i) : ',';
+            if (SEPARATORS.indexOf(ch) >= 0) {
+                if (segment.length() > 0) {
+                    List<String> matched = matchSegment(segment);
+                    if (matched == null) {
+                        return null;
+                    }
+                    standards.addAll(matched);
+                    segment.setLength(0);
+                }
+            } else {
+                segment.append(ch);
+            }
+        }
+        return standards.isEmpty() ? null : String.join("、", standards);
+    }
+
+    /**
+     * 对一段文本做最长匹配，存在无法覆盖的字符时返回null
+     */
+    private List<String> matchSegment(CharSequence segment) {
+        List<String> standards = new ArrayList<>();
+        int position = 0;
+        while (position < segment.length()) {
+            Node node = root;
+            String standard = null;
+            int end = -1;
+            for (int i = position; i < segment.length(); i++) {
+                node = node.children.get(segment.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.standard != null) {
+                    standard = node.standard;
+                    end = i + 1;
+                }
+            }
+            if (standard != null) {
+                standards.add(standard);
+                position = end;
+            } else if (CONNECTORS.indexOf(segment.charAt(position)) >= 0) {
+                position++;
+            } else {
+                return null;
+            }
+        }
+        return standards;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private String standard;
+    }
+}
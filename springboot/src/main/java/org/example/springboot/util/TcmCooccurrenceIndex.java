@@ -0,0 +1,396 @@
+package org.example.springboot.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 中医诊断、证型、症状、用药的共现计数（内存增量聚合）
+ * 每条就诊记录贡献：诊断计数、证型计数、各症状计数、诊断-证型共现、症状-证型共现；
+ * 每张处方按其就诊记录的证型贡献证型-药品共现（同一处方中的同一药品只计一次）。
+ * 记录与处方按ID保存贡献过的事实，修改时先撤销旧贡献再计入新贡献，因此计数始终与最新数据一致。
+ * 文本统一映射为int编号，共现以 LongIntCounter 计数；加载状态与读写锁见 CaseFactIndex。
+ */
+public class TcmCooccurrenceIndex extends CaseFactIndex {
+    /**
+     * 症状之间的分隔标点
+     */
+    private static final String SYMPTOM_SEPARATORS = "，,、；;。.！!？?／/\n\r\t ";
+
+    private static final int NONE = -1;
+
+    /**
+     * 文本 -> 编号，编号 -> 文本
+     */
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+
+    private final Map<Long, RecordFacts> records = new HashMap<>();
+    private final Map<Long, PrescriptionFacts> prescriptions = new HashMap<>();
+
+    /**
+     * 就诊记录ID -> 关联的处方ID
+     */
+    private final Map<Long, Set<Long>> recordPrescriptions = new HashMap<>();
+
+    private final LongIntCounter diagnosisTotals = new LongIntCounter();
+    private final LongIntCounter syndromeTotals = new LongIntCounter();
+    private final LongIntCounter symptomTotals = new LongIntCounter();
+
+    /**
+     * 诊断编号 -> (证型编号 -> 次数)
+     */
+    private final Map<Integer, LongIntCounter> diagnosisSyndromes = new HashMap<>();
+
+    /**
+     * 症状编号 -> (证型编号 -> 次数)
+     */
+    private final Map<Integer, LongIntCounter> symptomSyndromes = new HashMap<>();
+
+    /**
+     * 证型编号 -> (药品ID -> 处方数)
+     */
+    private final Map<Integer, LongIntCounter> syndromeMedicines = new HashMap<>();
+
+    /**
+     * 最常见的诊断
+     */
+    public List<Count> topDiagnoses(int limit) {
+        return topTerms(diagnosisTotals, limit);
+    }
+
+    /**
+     * 最常见的证型
+     */
+    public List<Count> topSyndromes(int limit) {
+        return topTerms(syndromeTotals, limit);
+    }
+
+    /**
+     * 最常见的症状
+     */
+    public List<Count> topSymptoms(int limit) {
+        return topTerms(symptomTotals, limit);
+    }
+
+    /**
+     * 某诊断下最常见的证型
+     */
+    public List<Count> topSyndromesByDiagnosis(String diagnosis, int limit) {
+        return topTerms(diagnosisSyndromes, diagnosis, limit);
+    }
+
+    /**
+     * 与某症状共同出现最多的证型
+     */
+    public List<Count> topSyndromesBySymptom(String symptom, int limit) {
+        return topTerms(symptomSyndromes, symptom, limit);
+    }
+
+    /**
+     * 某证型下开具最多的药品
+     * @return 药品ID及开具该药品的处方数
+     */
+    public List<IdCount> topMedicinesBySyndrome(String syndrome, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer syndromeId = termIds.get(normalize(syndrome));
+            LongIntCounter counter = syndromeId == null ? null : syndromeMedicines.get(syndromeId);
+            List<IdCount> result = new ArrayList<>();
+            if (counter == null) {
+                return result;
+            }
+            long[] top = counter.top(limit);
+            for (int i = 0; i < top.length; i += 2) {
+                result.add(new IdCount(top[i], (int) top[i + 1]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 汇总信息
+     */
+    @Override
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("ready", isReady());
+            stats.put("records", records.size());
+            stats.put("prescriptions", prescriptions.size());
+            stats.put("terms", terms.size());
+            stats.put("diagnoses", diagnosisTotals.size());
+            stats.put("syndromes", syndromeTotals.size());
+            stats.put("symptoms", symptomTotals.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Count> topTerms(LongIntCounter counter, int limit) {
+        lock.readLock().lock();
+        try {
+            return toCounts(counter, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Count> topTerms(Map<Integer, LongIntCounter> counters, String key, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer keyId = termIds.get(normalize(key));
+            LongIntCounter counter = keyId == null ? null : counters.get(keyId);
+            return counter == null ? new ArrayList<>() : toCounts(counter, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Count> toCounts(LongIntCounter counter, int limit) {
+        long[] top = counter.top(limit);
+        List<Count> result = new ArrayList<>(top.length / 2);
+        for (int i = 0; i < top.length; i += 2) {
+            result.add(new Count(terms.get((int) top[i]), (int) top[i + 1]));
+        }
+        return result;
+    }
+
+    @Override
+    protected void clear() {
+        termIds.clear();
+        terms.clear();
+        records.clear();
+        prescriptions.clear();
+        recordPrescriptions.clear();
+        diagnosisTotals.clear();
+        syndromeTotals.clear();
+        symptomTotals.clear();
+        diagnosisSyndromes.clear();
+        symptomSyndromes.clear();
+        syndromeMedicines.clear();
+    }
+
+    @Override
+    protected void putRecordInternal(long id, String diagnosis, String syndrome, String symptoms) {
+        RecordFacts facts = new RecordFacts(termId(diagnosis), termId(syndrome), symptomIds(symptoms));
+        RecordFacts old = records.put(id, facts);
+        if (old != null) {
+            applyRecord(id, old, -1);
+        }
+        applyRecord(id, facts, 1);
+    }
+
+    /**
+     * 删除就诊记录，其处方不再计入证型-药品共现
+     */
+    @Override
+    protected void removeRecordInternal(long id) {
+        RecordFacts old = records.remove(id);
+        if (old != null) {
+            applyRecord(id, old, -1);
+        }
+    }
+
+    /**
+     * 处方只计入药品ID，同一处方中的同一药品只计一次
+     */
+    @Override
+    protected void putPrescriptionInternal(long id, long recordId, List<CaseItem> items) {
+        removePrescriptionInternal(id);
+        PrescriptionFacts facts = new PrescriptionFacts(recordId, distinctMedicineIds(items));
+        prescriptions.put(id, facts);
+        recordPrescriptions.computeIfAbsent(recordId, key -> new HashSet<>()).add(id);
+        RecordFacts record = records.get(recordId);
+        if (record != null) {
+            applyMedicines(record.syndrome, facts, 1);
+        }
+    }
+
+    @Override
+    protected void removePrescriptionInternal(long id) {
+        PrescriptionFacts old = prescriptions.remove(id);
+        if (old == null) {
+            return;
+        }
+        Set<Long> linked = recordPrescriptions.get(old.recordId);
+        if (linked != null) {
+            linked.remove(id);
+            if (linked.isEmpty()) {
+                recordPrescriptions.remove(old.recordId);
+            }
+        }
+        RecordFacts record = records.get(old.recordId);
+        if (record != null) {
+            applyMedicines(record.syndrome, old, -1);
+        }
+    }
+
+    /**
+     * 计入（delta=1）或撤销（delta=-1）一条就诊记录的贡献，包括其处方的证型-药品共现
+     */
+    private void applyRecord(long id, RecordFacts facts, int delta) {
+        if (facts.diagnosis != NONE) {
+            diagnosisTotals.add(facts.diagnosis, delta);
+        }
+        if (facts.syndrome != NONE) {
+            syndromeTotals.add(facts.syndrome, delta);
+            if (facts.diagnosis != NONE) {
+                addPair(diagnosisSyndromes, facts.diagnosis, facts.syndrome, delta);
+            }
+        }
+        for (int symptom : facts.symptoms) {
+            symptomTotals.add(symptom, delta);
+            if (facts.syndrome != NONE) {
+                addPair(symptomSyndromes, symptom, facts.syndrome, delta);
+            }
+        }
+        Set<Long> linked = recordPrescriptions.get(id);
+        if (linked != null) {
+            for (Long prescriptionId : linked) {
+                applyMedicines(facts.syndrome, prescriptions.get(prescriptionId), delta);
+            }
+        }
+    }
+
+    private void applyMedicines(int syndrome, PrescriptionFacts facts, int delta) {
+        if (syndrome == NONE) {
+            return;
+        }
+        for (long medicineId : facts.medicineIds) {
+            addPair(syndromeMedicines, syndrome, medicineId, delta);
+        }
+    }
+
+    private static void addPair(Map<Integer, LongIntCounter> counters, int key, long value, int delta) {
+        LongIntCounter counter = counters.get(key);
+        if (counter == null) {
+            if (delta <= 0) {
+                return;
+            }
+            counter = new LongIntCounter();
+            counters.put(key, counter);
+        }
+        counter.add(value, delta);
+        if (counter.size() == 0) {
+            counters.remove(key);
+        }
+    }
+
+    /**
+     * 文本的编号，空文本返回 NONE；编号只增不减，文本种类有限（诊断、证型、症状词表）
+     */
+    private int termId(String text) {
+        String term = normalize(text);
+        if (term.isEmpty()) {
+            return NONE;
+        }
+        Integer id = termIds.get(term);
+        if (id == null) {
+            id = terms.size();
+            terms.add(term);
+            termIds.put(term, id);
+        }
+        return id;
+    }
+
+    private int[] symptomIds(String symptoms) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String symptom : splitSymptoms(symptoms)) {
+            ids.add(termId(symptom));
+        }
+        int[] result = new int[ids.size()];
+        int i = 0;
+        for (Integer id : ids) {
+            result[i++] = id;
+        }
+        return result;
+    }
+
+    /**
+     * 按标点把症状描述切分为单个症状
+     */
+    public static List<String> splitSymptoms(String symptoms) {
+        List<String> result = new ArrayList<>();
+        if (symptoms == null) {
+            return result;
+        }
+        int start = 0;
+        for (int i = 0; i <= symptoms.length(); i++) {
+            if (i == symptoms.length() || SYMPTOM_SEPARATORS.indexOf(symptoms.charAt(i)) >= 0) {
+                if (i > start) {
+                    result.add(symptoms.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim();
+    }
+
+    private static long[] distinctMedicineIds(List<CaseItem> items) {
+        return items == null ? new long[0] : items.stream().mapToLong(CaseItem::getMedicineId).distinct().toArray();
+    }
+
+    /**
+     * 一条就诊记录计入的事实
+     */
+    private static final class RecordFacts {
+        private final int diagnosis;
+        private final int syndrome;
+        private final int[] symptoms;
+
+        RecordFacts(int diagnosis, int syndrome, int[] symptoms) {
+            this.diagnosis = diagnosis;
+            this.syndrome = syndrome;
+            this.symptoms = symptoms;
+        }
+    }
+
+    /**
+     * 一张处方计入的事实
+     */
+    private static final class PrescriptionFacts {
+        private final long recordId;
+        private final long[] medicineIds;
+
+        PrescriptionFacts(long recordId, long[] medicineIds) {
+            this.recordId = recordId;
+            this.medicineIds = medicineIds;
+        }
+    }
+
+    /**
+     * 文本及其次数
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Count {
+        private final String name;
+        private final int count;
+    }
+
+    /**
+     * ID及其次数
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class IdCount {
+        private final long id;
+        private final int count;
+    }
+}
@@ -0,0 +1,43 @@
+-- 游标分页迁移：为按 (create_time, id) 倒序翻页的表补建索引，已有库升级时执行一次
+-- 可重复执行：索引已存在时跳过；新建库时 schema.sql 中的预约表已带有该索引
+-- create_time 为空的历史数据按更新时间补齐，游标分页不返回 create_time 为空的记录
+
+-- 预约表
+UPDATE appointment SET create_time = COALESCE(update_time, '1970-01-01 00:00:00') WHERE create_time IS NULL;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'appointment' AND index_name = 'idx_appointment_create_time_id') = 0,
+              'CREATE INDEX idx_appointment_create_time_id ON appointment (create_time, id)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 患者表
+UPDATE patient SET create_time = COALESCE(update_time, '1970-01-01 00:00:00') WHERE create_time IS NULL;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'patient' AND index_name = 'idx_patient_create_time_id') = 0,
+              'CREATE INDEX idx_patient_create_time_id ON patient (create_time, id)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 就诊记录表
+UPDATE medical_record SET create_time = COALESCE(update_time, '1970-01-01 00:00:00') WHERE create_time IS NULL;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'medical_record' AND index_name = 'idx_medical_record_create_time_id') = 0,
+              'CREATE INDEX idx_medical_record_create_time_id ON medical_record (create_time, id)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 处方表
+UPDATE prescription SET create_time = COALESCE(update_time, '1970-01-01 00:00:00') WHERE create_time IS NULL;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'prescription' AND index_name = 'idx_prescription_create_time_id') = 0,
+              'CREATE INDEX idx_prescription_create_time_id ON prescription (create_time, id)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,18 @@
+-- 业务编号序列迁移：已有库升级时执行一次，可重复执行
+-- 新建 biz_sequence 表（新建库时 schema.sql 已包含），并按现有医生编号初始化各日期的医生序列，
+-- 避免改用号段生成后重新发出当天已存在的医生编号（旧实现按当天最大编号加一生成）
+-- 预约、就诊记录、处方的旧编号为随机数，无法据此初始化
+
+CREATE TABLE IF NOT EXISTS biz_sequence (
+    seq_key VARCHAR(32) PRIMARY KEY COMMENT '序列键(前缀+日期)',
+    next_value BIGINT NOT NULL DEFAULT 0 COMMENT '已分配的最大值',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) COMMENT '业务编号序列表';
+
+-- 医生编号格式：D + yyyyMMdd + 序号，序列键为前9位；已有序列只会调大不会调小
+INSERT INTO biz_sequence (seq_key, next_value)
+SELECT LEFT(doctor_no, 9), MAX(CAST(SUBSTRING(doctor_no, 10) AS UNSIGNED))
+FROM doctor
+WHERE doctor_no REGEXP '^D[0-9]{9,}$'
+GROUP BY LEFT(doctor_no, 9)
+ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, VALUES(next_value));
@@ -63,5 +63,15 @@ CREATE TABLE IF NOT EXISTS appointment (
     update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     FOREIGN KEY (patient_id) REFERENCES patient(id) ON DELETE CASCADE,
     FOREIGN KEY (doctor_id) REFERENCES doctor(id) ON DELETE CASCADE,
-    FOREIGN KEY (schedule_id) REFERENCES schedule(id) ON DELETE CASCADE
-) COMMENT '预约挂号表'; 
\ No newline at end of file
+    FOREIGN KEY (schedule_id) REFERENCES schedule(id) ON DELETE CASCADE,
+    INDEX idx_appointment_create_time_id (create_time, id) COMMENT '游标分页'
+) COMMENT '预约挂号表'; 
+
+-- 业务编号序列表（号段分配），已有库升级及医生序列初始化见 db/sequence-migration.sql
+CREATE TABLE IF NOT EXISTS biz_sequence (
+    seq_key VARCHAR(32) PRIMARY KEY COMMENT '序列键(前缀+日期)',
+    next_value BIGINT NOT NULL DEFAULT 0 COMMENT '已分配的最大值',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) COMMENT '业务编号序列表';
+
+-- 已有库的游标分页索引（CREATE TABLE IF NOT EXISTS 不会给已存在的表加索引）见 db/keyset-index-migration.sql
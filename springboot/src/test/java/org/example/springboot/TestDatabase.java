@@ -0,0 +1,98 @@
+package org.example.springboot;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 集成测试用的内嵌 MariaDB（MariaDB4j），同一测试JVM共用一个实例，首次使用时启动并建表，JVM退出时停止
+ * 测试类在 @DynamicPropertySource 方法中调用 register，把数据源指向它，不会连接 application.properties 中的数据库
+ */
+public final class TestDatabase {
+    private static final String DATABASE = "hospital_test";
+    private static final String[] SCRIPTS = {"db/schema-before.sql", "schema.sql", "db/schema-after.sql",
+            "db/keyset-index-migration.sql", "db/sequence-migration.sql"};
+
+    private static DB db;
+
+    private TestDatabase() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        properties().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    /**
+     * 指向内嵌数据库的数据源配置，不经过 Spring 测试框架启动应用时（如基准测试）使用
+     */
+    public static Map<String, String> properties() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", getJdbcUrl());
+        properties.put("spring.datasource.username", "root");
+        properties.put("spring.datasource.password", "");
+        return properties;
+    }
+
+    public static synchronized String getJdbcUrl() {
+        start();
+        return "jdbc:mysql://localhost:" + db.getConfiguration().getPort() + "/" + DATABASE
+                + "?useUnicode=true&characterEncoding=utf-8&allowMultiQueries=true&useSSL=false"
+                + "&serverTimezone=GMT%2b8&allowPublicKeyRetrieval=true";
+    }
+
+    private static synchronized void start() {
+        if (db != null) {
+            return;
+        }
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(0);
+        config.addArg("--character-set-server=utf8mb4");
+        config.addArg("--collation-server=utf8mb4_general_ci");
+        if ("root".equals(System.getProperty("user.name"))) {
+            // mariadbd 拒绝以 root 身份启动，除非显式指定
+            config.addArg("--user=root");
+        }
+        try {
+            DB started = DB.newEmbeddedDB(config.build());
+            started.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.stop();
+                } catch (ManagedProcessException ignored) {
+                    // JVM 退出时停止失败无需处理，数据目录在临时目录中
+                }
+            }));
+            db = started;
+            createSchema();
+        } catch (ManagedProcessException | SQLException e) {
+            throw new IllegalStateException("内嵌数据库启动失败", e);
+        }
+    }
+
+    private static void createSchema() throws SQLException {
+        String serverUrl = "jdbc:mysql://localhost:" + db.getConfiguration().getPort()
+                + "/?useSSL=false&allowPublicKeyRetrieval=true";
+        try (Connection connection = DriverManager.getConnection(serverUrl, "root", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE `" + DATABASE + "` DEFAULT CHARACTER SET utf8mb4");
+        }
+        try (Connection connection = DriverManager.getConnection(getJdbcUrl(), "root", "")) {
+            for (String script : SCRIPTS) {
+                ScriptUtils.executeSqlScript(connection,
+                        new EncodedResource(new ClassPathResource(script), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.springboot.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.springboot.service.ResourceVersions;
+import org.example.springboot.service.ResourceVersions.Family;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 列表响应缓存测试：版本不变时不加载数据，ETag匹配返回304
+ */
+class JsonResponseCacheTest {
+    private ResourceVersions resourceVersions;
+    private JsonResponseCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+    private volatile List<String> data = List.of("内科", "外科");
+    private final Supplier<List<String>> loader = () -> {
+        loads.incrementAndGet();
+        return data;
+    };
+
+    @BeforeEach
+    void setUp() {
+        resourceVersions = new ResourceVersions();
+        cache = new JsonResponseCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "resourceVersions", resourceVersions);
+        ReflectionTestUtils.setField(cache, "capacity", 16);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        cache.init();
+    }
+
+    private ResponseEntity<byte[]> get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return cache.serve(request, "department:list", loader, Family.DEPARTMENT);
+    }
+
+    @Test
+    void unchangedResourceServedFromCacheAndRevalidatedWith304() {
+        ResponseEntity<byte[]> first = get(null);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+        assertNotEquals(-1, first.getHeaders().getLastModified());
+
+        ResponseEntity<byte[]> second = get(null);
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+
+        ResponseEntity<byte[]> revalidated = get(etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertNull(revalidated.getBody());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void bumpReloadsAndChangesEtagOnlyWhenContentChanges() {
+        String etag = get(null).getHeaders().getETag();
+
+        // 版本变化但内容不变：重新加载，ETag保持不变
+        resourceVersions.bump(Family.DEPARTMENT);
+        assertEquals(HttpStatus.NOT_MODIFIED, get(etag).getStatusCode());
+        assertEquals(2, loads.get());
+
+        // 内容变化：返回新内容与新ETag
+        data = List.of("内科", "外科", "儿科");
+        resourceVersions.bump(Family.DEPARTMENT);
+        ResponseEntity<byte[]> changed = get(etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void unrelatedFamilyDoesNotInvalidate() {
+        get(null);
+        resourceVersions.bump(Family.SCHEDULE);
+        get(null);
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.springboot.mapper;
+
+import com.baomidou.mybatisplus.test.autoconfigure.MybatisPlusTest;
+import jakarta.annotation.Resource;
+import org.example.springboot.TestDatabase;
+import org.example.springboot.entity.Medicine;
+import org.example.springboot.entity.PrescriptionDetail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 处方明细JOIN查询测试：m_ 前缀的药品列映射到 PrescriptionDetail.medicine，药品行缺失时 medicine 为空
+ * 每个测试在事务中执行并回滚
+ */
+@MybatisPlusTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PrescriptionMapperTest {
+    @Resource
+    private PrescriptionMapper prescriptionMapper;
+
+    @Resource
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO patient (id, name) VALUES (9001, '测试患者')");
+        jdbcTemplate.update("INSERT INTO doctor (id, name) VALUES (9001, '测试医生')");
+        jdbcTemplate.update("INSERT INTO medicine (id, medicine_code, medicine_name, specification, dosage_form,"
+                + " manufacturer, category, price, stock, status, instructions)"
+                + " VALUES (9001, 'M09001', '酸枣仁', '500g/袋', '饮片', '测试药厂', '安神药', 0.35, 5000, 1, '先煎')");
+        jdbcTemplate.update("INSERT INTO prescription (id, prescription_no, patient_id, doctor_id)"
+                + " VALUES (9001, 'P-T-9001', 9001, 9001), (9002, 'P-T-9002', 9001, 9001)");
+        jdbcTemplate.update("INSERT INTO prescription_detail (id, prescription_id, medicine_id, dosage, frequency, days,"
+                + " quantity, `usage`) VALUES (9001, 9001, 9001, '15g', '每日两次', 7, 14, '水煎服')");
+        // 药品已被物理删除的历史明细：外键检查只在本连接内关闭，事务回滚后不影响其他测试
+        jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 0");
+        try {
+            jdbcTemplate.update("INSERT INTO prescription_detail (id, prescription_id, medicine_id, dosage, `usage`)"
+                    + " VALUES (9002, 9002, 9999, '10g', '冲服')");
+        } finally {
+            jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+    }
+
+    @Test
+    void mapsPrefixedMedicineColumns() {
+        List<PrescriptionDetail> details = prescriptionMapper.selectDetailsWithMedicine(List.of(9001L));
+
+        assertEquals(1, details.size());
+        PrescriptionDetail detail = details.get(0);
+        assertEquals(9001L, detail.getId());
+        assertEquals(9001L, detail.getPrescriptionId());
+        assertEquals(9001L, detail.getMedicineId());
+        assertEquals("15g", detail.getDosage());
+        assertEquals("每日两次", detail.getFrequency());
+        assertEquals(7, detail.getDays());
+        assertEquals(14, detail.getQuantity());
+        assertEquals("水煎服", detail.getUsage());
+        assertNotNull(detail.getCreateTime());
+
+        Medicine medicine = detail.getMedicine();
+        assertNotNull(medicine);
+        assertEquals(9001L, medicine.getId());
+        assertEquals("M09001", medicine.getMedicineCode());
+        assertEquals("酸枣仁", medicine.getMedicineName());
+        assertEquals("500g/袋", medicine.getSpecification());
+        assertEquals("饮片", medicine.getDosageForm());
+        assertEquals("测试药厂", medicine.getManufacturer());
+        assertEquals("安神药", medicine.getCategory());
+        assertEquals(0, new BigDecimal("0.35").compareTo(medicine.getPrice()));
+        assertEquals(5000, medicine.getStock());
+        assertEquals(1, medicine.getStatus());
+        assertEquals("先煎", medicine.getInstructions());
+        assertNotNull(medicine.getCreateTime());
+    }
+
+    @Test
+    void missingMedicineLeavesMedicineNull() {
+        List<PrescriptionDetail> details = prescriptionMapper.selectDetailsWithMedicine(List.of(9001L, 9002L));
+
+        assertEquals(2, details.size());
+        PrescriptionDetail orphan = details.get(1);
+        assertEquals(9002L, orphan.getId());
+        assertEquals(9002L, orphan.getPrescriptionId());
+        assertEquals(9999L, orphan.getMedicineId());
+        assertEquals("10g", orphan.getDosage());
+        assertEquals("冲服", orphan.getUsage());
+        assertNull(orphan.getMedicine());
+        // 同一结果集中其他明细的药品不受影响
+        assertTrue(details.get(0).getMedicine() != null && "酸枣仁".equals(details.get(0).getMedicine().getMedicineName()));
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 预约按姓名筛选测试：匹配数在上限内走ID列表，超过上限走单条关联查询，不再加载整批患者实体
+ */
+class AppointmentNameFilterTest {
+    private static final int IN_LIMIT = 2;
+
+    private AppointmentService appointmentService;
+    private AppointmentMapper appointmentMapper;
+    private PatientMapper patientMapper;
+    private DoctorMapper doctorMapper;
+
+    @BeforeAll
+    static void initTableInfo() {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, Appointment.class);
+        TableInfoHelper.initTableInfo(assistant, Patient.class);
+        TableInfoHelper.initTableInfo(assistant, Doctor.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        appointmentMapper = mock(AppointmentMapper.class);
+        patientMapper = mock(PatientMapper.class);
+        doctorMapper = mock(DoctorMapper.class);
+        when(appointmentMapper.selectPage(any(), any())).thenReturn(new Page<>(1, 10));
+        when(appointmentMapper.selectAppointmentsByNamePage(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new Page<>(1, 10));
+
+        appointmentService = new AppointmentService();
+        ReflectionTestUtils.setField(appointmentService, "appointmentMapper", appointmentMapper);
+        ReflectionTestUtils.setField(appointmentService, "patientMapper", patientMapper);
+        ReflectionTestUtils.setField(appointmentService, "doctorMapper", doctorMapper);
+        ReflectionTestUtils.setField(appointmentService, "nameFilterInLimit", IN_LIMIT);
+    }
+
+    @Test
+    void smallMatchUsesBoundedInList() {
+        when(patientMapper.selectObjs(any())).thenReturn(List.<Object>of(1L, 2L));
+
+        appointmentService.getAppointmentsByPage(null, null, "张", null, null, null, null, 1, 10);
+
+        verify(appointmentMapper).selectPage(any(), any());
+        verify(appointmentMapper, never()).selectAppointmentsByNamePage(any(), any(), any(), any(), any(), any(), any(), any());
+        verify(patientMapper, never()).selectList(any());
+    }
+
+    @Test
+    void overflowFallsBackToJoinQuery() {
+        when(patientMapper.selectObjs(any())).thenReturn(List.<Object>of(1L, 2L, 3L));
+
+        appointmentService.getAppointmentsByPage(null, null, "张", null, null, null, null, 1, 10);
+
+        verify(appointmentMapper).selectAppointmentsByNamePage(any(), isNull(), isNull(), eq("张"), isNull(),
+                isNull(), isNull(), isNull());
+        verify(appointmentMapper, never()).selectPage(any(), any());
+        verify(patientMapper, never()).selectList(any());
+    }
+
+    @Test
+    void noMatchSkipsAppointmentQuery() {
+        when(patientMapper.selectObjs(any())).thenReturn(List.<Object>of(1L));
+        when(doctorMapper.selectObjs(any())).thenReturn(Collections.emptyList());
+
+        Page<Appointment> page = appointmentService.getAppointmentsByPage(null, null, "张", "李", null, null, null, 1, 10);
+
+        assertTrue(page.getRecords().isEmpty());
+        verify(appointmentMapper, never()).selectPage(any(), any());
+        verify(appointmentMapper, never()).selectAppointmentsByNamePage(any(), any(), any(), anyString(), anyString(),
+                any(), any(), any());
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.springboot.service;
+
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Department;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.mapper.DepartmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 关联批量加载器测试：无论页大小多少，每个Mapper只执行一条SQL
+ */
+@ExtendWith(MockitoExtension.class)
+class AssociationLoaderTest {
+    @Mock
+    private PatientMapper patientMapper;
+
+    @Mock
+    private DoctorMapper doctorMapper;
+
+    @Mock
+    private DepartmentMapper departmentMapper;
+
+    @Mock
+    private ScheduleMapper scheduleMapper;
+
+    @InjectMocks
+    private AssociationLoader associationLoader;
+
+    @BeforeEach
+    void setUp() {
+        // 医生、科室经基础数据缓存加载，缓存初始为空
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache();
+        ReflectionTestUtils.setField(referenceDataCache, "doctorMapper", doctorMapper);
+        ReflectionTestUtils.setField(referenceDataCache, "departmentMapper", departmentMapper);
+        ReflectionTestUtils.setField(referenceDataCache, "capacity", 1000);
+        ReflectionTestUtils.setField(referenceDataCache, "ttlMinutes", 10L);
+        referenceDataCache.init();
+        ReflectionTestUtils.setField(associationLoader, "referenceDataCache", referenceDataCache);
+    }
+
+    @Test
+    void statementCountStaysFlatAsPageGrows() {
+        assertStatementsForPageSize(10);
+    }
+
+    @Test
+    void statementCountStaysFlatForLargePage() {
+        assertStatementsForPageSize(100);
+    }
+
+    private void assertStatementsForPageSize(int pageSize) {
+        List<Appointment> page = new ArrayList<>();
+        for (long i = 1; i <= pageSize; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setPatientId(i);
+            appointment.setDoctorId(i % 5 + 1);
+            page.add(appointment);
+        }
+        when(patientMapper.selectBatchIds(anyCollection())).thenAnswer(invocation -> {
+            List<Patient> patients = new ArrayList<>();
+            for (Object id : (Collection<?>) invocation.getArgument(0)) {
+                Patient patient = new Patient();
+                patient.setId((Long) id);
+                patients.add(patient);
+            }
+            return patients;
+        });
+        when(doctorMapper.selectBatchIds(anyCollection())).thenAnswer(invocation -> {
+            List<Doctor> doctors = new ArrayList<>();
+            for (Object id : (Collection<?>) invocation.getArgument(0)) {
+                Doctor doctor = new Doctor();
+                doctor.setId((Long) id);
+                doctor.setDepartmentId(1L);
+                doctors.add(doctor);
+            }
+            return doctors;
+        });
+        Department department = new Department();
+        department.setId(1L);
+        when(departmentMapper.selectBatchIds(anyCollection())).thenReturn(List.of(department));
+
+        Set<Long> patientIds = AssociationLoader.collectIds(page, Appointment::getPatientId);
+        Map<Long, Patient> patients = associationLoader.loadPatients(patientIds);
+        Map<Long, Doctor> doctors = associationLoader.loadDoctorsWithDepartment(
+                AssociationLoader.collectIds(page, Appointment::getDoctorId));
+
+        assertEquals(pageSize, patients.size());
+        assertEquals(5, doctors.size());
+        doctors.values().forEach(doctor -> assertNotNull(doctor.getDepartment()));
+
+        verify(patientMapper, times(1)).selectBatchIds(anyCollection());
+        verify(doctorMapper, times(1)).selectBatchIds(anyCollection());
+        verify(departmentMapper, times(1)).selectBatchIds(anyCollection());
+        // 第二页命中缓存，医生、科室不再查库
+        associationLoader.loadDoctorsWithDepartment(AssociationLoader.collectIds(page, Appointment::getDoctorId));
+        verify(doctorMapper, times(1)).selectBatchIds(anyCollection());
+        verify(departmentMapper, times(1)).selectBatchIds(anyCollection());
+        verify(patientMapper, never()).selectById(any());
+        verify(doctorMapper, never()).selectById(any());
+        verify(departmentMapper, never()).selectById(any());
+    }
+}
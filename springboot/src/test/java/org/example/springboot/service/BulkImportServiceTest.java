@@ -0,0 +1,119 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.DTO.ImportReport;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.PatientMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量导入测试：库内与文件内重复、格式错误逐行报告，按批写入，整批失败时逐行重试
+ */
+class BulkImportServiceTest {
+    private BulkImportService service;
+    private PatientMapper patientMapper;
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Patient.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        patientMapper = mock(PatientMapper.class);
+        when(patientMapper.selectObjs(any())).thenReturn(List.of("110101199001011234"));
+        when(patientMapper.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<Patient> patients = invocation.getArgument(0);
+            List<String> idCards = patients.stream().map(Patient::getIdCard).collect(Collectors.toList());
+            // 模拟导入期间其他请求已写入该身份证号
+            if (idCards.contains("110101199001011239")) {
+                throw new DuplicateKeyException("Duplicate entry '110101199001011239'");
+            }
+            batches.add(idCards);
+            return patients.size();
+        });
+
+        service = new BulkImportService();
+        ReflectionTestUtils.setField(service, "patientMapper", patientMapper);
+        ReflectionTestUtils.setField(service, "searchIndexService", mock(SearchIndexService.class));
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "maxRows", 100);
+        ReflectionTestUtils.setField(service, "maxErrors", 10);
+    }
+
+    @Test
+    void reportsRowErrorsAndInsertsInBatches() {
+        ImportReport report = service.importPatients(csv(
+                "姓名,身份证号,手机号,性别",
+                "张三,110101199001011234,,男",
+                "李四,110101199001011235,13800000000,男",
+                "王五,11010119900101123x,,",
+                "赵六,110101199001011235,,",
+                "孙七,123,,",
+                "",
+                "\"周,八\",110101199001011236,,女"));
+
+        assertEquals(6L, report.getTotal());
+        assertEquals(3L, report.getSucceeded());
+        assertEquals(3L, report.getFailed());
+        assertEquals(List.of(List.of("110101199001011235", "11010119900101123X"), List.of("110101199001011236")),
+                batches);
+
+        List<ImportReport.RowError> errors = report.getErrors();
+        assertEquals(2L, errors.get(0).getLine());
+        assertTrue(errors.get(0).getMessage().startsWith("身份证号已存在"));
+        assertEquals(5L, errors.get(1).getLine());
+        assertEquals(6L, errors.get(2).getLine());
+        assertEquals("身份证号格式不正确", errors.get(2).getMessage());
+    }
+
+    @Test
+    void retriesFailedBatchRowByRow() {
+        ImportReport report = service.importPatients(csv(
+                "name,idCard",
+                "李四,110101199001011235",
+                "钱九,110101199001011239"));
+
+        assertEquals(1L, report.getSucceeded());
+        assertEquals(1L, report.getFailed());
+        assertEquals(3L, report.getErrors().get(0).getLine());
+        assertEquals(List.of(List.of("110101199001011235")), batches);
+    }
+
+    @Test
+    void rejectsFileWithoutRequiredColumns() {
+        ServiceException e = assertThrows(ServiceException.class, () -> service.importPatients(csv("姓名,手机号", "张三,")));
+        assertTrue(e.getMessage().contains("身份证号"));
+    }
+
+    private static InputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\r\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.entity.MedicalRecord;
+import org.example.springboot.entity.Prescription;
+import org.example.springboot.entity.PrescriptionDetail;
+import org.example.springboot.mapper.MedicalRecordMapper;
+import org.example.springboot.mapper.PrescriptionDetailMapper;
+import org.example.springboot.mapper.PrescriptionMapper;
+import org.example.springboot.util.CaseFactIndex;
+import org.example.springboot.util.PrescriptionCaseIndex;
+import org.example.springboot.util.TcmCooccurrenceIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 病例索引同步测试：每次变更只读一次数据库，结果分发给所有已注册的索引
+ */
+class CaseIndexLoaderTest {
+    private CaseIndexLoader loader;
+    private MedicalRecordMapper medicalRecordMapper;
+    private PrescriptionMapper prescriptionMapper;
+    private PrescriptionDetailMapper prescriptionDetailMapper;
+    private TcmCooccurrenceIndex cooccurrence;
+    private PrescriptionCaseIndex cases;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), PrescriptionDetail.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        medicalRecordMapper = mock(MedicalRecordMapper.class);
+        prescriptionMapper = mock(PrescriptionMapper.class);
+        prescriptionDetailMapper = mock(PrescriptionDetailMapper.class);
+        loader = new CaseIndexLoader();
+        ReflectionTestUtils.setField(loader, "medicalRecordMapper", medicalRecordMapper);
+        ReflectionTestUtils.setField(loader, "prescriptionMapper", prescriptionMapper);
+        ReflectionTestUtils.setField(loader, "prescriptionDetailMapper", prescriptionDetailMapper);
+
+        cooccurrence = new TcmCooccurrenceIndex();
+        cases = new PrescriptionCaseIndex(2.0, 1000);
+        for (CaseFactIndex index : List.of(cooccurrence, cases)) {
+            index.beginLoad();
+            index.endLoad();
+            loader.register(index);
+        }
+    }
+
+    @Test
+    void changesAreReadOnceAndFedToEveryIndex() {
+        MedicalRecord record = new MedicalRecord();
+        record.setId(1L);
+        record.setTraditionalChineseMedicineDiagnosis("感冒");
+        record.setSyndromeType("风寒束表");
+        record.setSymptom("恶寒、头痛");
+        record.setStandardSymptoms("恶寒、头痛");
+        when(medicalRecordMapper.selectById(1L)).thenReturn(record);
+        Prescription prescription = new Prescription();
+        prescription.setId(10L);
+        prescription.setRecordId(1L);
+        when(prescriptionMapper.selectById(10L)).thenReturn(prescription);
+        PrescriptionDetail detail = new PrescriptionDetail();
+        detail.setMedicineId(101L);
+        detail.setDosage("9g");
+        when(prescriptionDetailMapper.selectList(any())).thenReturn(List.of(detail));
+
+        loader.refreshRecord(1L);
+        loader.refreshPrescription(10L);
+
+        verify(medicalRecordMapper, times(1)).selectById(1L);
+        verify(prescriptionMapper, times(1)).selectById(10L);
+        verify(prescriptionDetailMapper, times(1)).selectList(any());
+        assertEquals(101L, cooccurrence.topMedicinesBySyndrome("风寒束表", 10).get(0).getId());
+        assertEquals("9g", cases.recommend("风寒束表", List.of("恶寒"), 10, 10).get(0).getDosage());
+
+        when(prescriptionMapper.selectById(10L)).thenReturn(null);
+        loader.refreshPrescription(10L);
+        assertTrue(cooccurrence.topMedicinesBySyndrome("风寒束表", 10).isEmpty());
+        assertTrue(cases.recommend("风寒束表", List.of("恶寒"), 10, 10).isEmpty());
+    }
+}
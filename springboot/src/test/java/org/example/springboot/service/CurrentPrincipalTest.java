@@ -0,0 +1,101 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.entity.User;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.util.JwtTokenUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 请求级登录主体测试：同一请求内用户、患者只查询一次
+ */
+class CurrentPrincipalTest {
+    private MockHttpServletRequest request;
+    private UserMapper userMapper;
+    private PatientMapper patientMapper;
+    private CurrentPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        userMapper = mock(UserMapper.class);
+        patientMapper = mock(PatientMapper.class);
+        principal = new CurrentPrincipal();
+        ReflectionTestUtils.setField(principal, "request", request);
+        ReflectionTestUtils.setField(principal, "userMapper", userMapper);
+        ReflectionTestUtils.setField(principal, "patientMapper", patientMapper);
+        ReflectionTestUtils.setField(principal, "doctorMapper", mock(DoctorMapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void authenticatedRequestLoadsPatientOnceAndNeverQueriesUser() {
+        User user = new User();
+        user.setId(7L);
+        Patient patient = new Patient();
+        patient.setId(70L);
+        when(patientMapper.selectOne(any(Wrapper.class))).thenReturn(patient);
+
+        principal.authenticate(7L, user);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(7L, principal.getUserId());
+            assertEquals(7L, principal.getUser().getId());
+            assertSame(patient, principal.getPatient());
+        }
+
+        verify(patientMapper, times(1)).selectOne(any(Wrapper.class));
+        verify(userMapper, never()).selectById(anyLong());
+    }
+
+    @Test
+    void unauthenticatedRequestDecodesTokenOnce() {
+        User user = new User();
+        user.setId(5L);
+        when(userMapper.selectById(5L)).thenReturn(user);
+        request.addHeader("token", JwtTokenUtils.genToken("5", "secret"));
+
+        assertEquals(5L, principal.getUserId());
+        assertSame(user, principal.getUser());
+        assertSame(user, principal.getUser());
+        verify(userMapper, times(1)).selectById(5L);
+    }
+
+    @Test
+    void malformedTokenMeansNoUser() {
+        request.addHeader("token", "not-a-jwt");
+        assertNull(principal.getUserId());
+        assertNull(principal.getUser());
+        verify(userMapper, never()).selectById(anyLong());
+    }
+
+    @Test
+    void nonNumericUserIdMeansNoUser() {
+        request.setParameter("token", JwtTokenUtils.genToken("abc", "secret"));
+        assertNull(principal.getUserId());
+        assertNull(principal.getPatient());
+    }
+
+    @Test
+    void missingTokenMeansNoUser() {
+        assertNull(principal.getUserId());
+        assertNull(principal.getUser());
+        assertNull(principal.getPatient());
+    }
+}
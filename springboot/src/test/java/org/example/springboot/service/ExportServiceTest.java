@@ -0,0 +1,189 @@
+package org.example.springboot.service;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 导出测试：CSV 转义与状态映射；客户端中途断开时不抛出异常；
+ * 在小堆的子进程中流式导出100万行，验证内存占用不随行数增长
+ */
+class ExportServiceTest {
+    private static final int LARGE_ROWS = 1_000_000;
+
+    @Test
+    void writesHeaderLabelsAndEscapes() throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("prescriptionNo", "RX001");
+        row.put("prescriptionDate", LocalDate.of(2024, 3, 1));
+        row.put("patientName", "张三");
+        row.put("diagnosis", "感冒,咳嗽");
+        row.put("status", 1);
+        row.put("notes", "=1+1");
+        row.put("dosage", "9\"g\"");
+        row.put("createTime", LocalDateTime.of(2024, 3, 1, 8, 30));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = ExportService.writeCsv(List.of(row), ExportService.PRESCRIPTION_COLUMNS, out);
+        assertEquals(1L, rows);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("\uFEFF处方ID,处方编号,开方日期,"));
+        assertEquals("1,RX001,2024-03-01,,张三,,,\"感冒,咳嗽\",已取药,,,,\"9\"\"g\"\"\",,,,,\"'=1+1\",2024-03-01 08:30:00",
+                lines[1]);
+    }
+
+    @Test
+    void clientAbortIsLoggedNotThrown() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1L);
+        AppointmentMapper appointmentMapper = mock(AppointmentMapper.class);
+        when(appointmentMapper.scanForExport(any(), any(), any())).thenAnswer(invocation -> cursorOf(List.of(row)));
+
+        ExportService exportService = new ExportService();
+        ReflectionTestUtils.setField(exportService, "appointmentMapper", appointmentMapper);
+        ReflectionTestUtils.setField(exportService, "transactionManager", new NoOpTransactionManager());
+        ReflectionTestUtils.setField(exportService, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(exportService, "maxDays", 366);
+        exportService.init();
+
+        // 浏览器取消下载后，写响应流抛出 IOException（Tomcat 中为 ClientAbortException）
+        ExportService.ExportTarget aborted = () -> new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        assertEquals(-1L, exportService.exportAppointments(day, day, null, aborted));
+        // 许可已归还，后续导出不受影响
+        assertEquals(1L, exportService.exportAppointments(day, day, null, ByteArrayOutputStream::new));
+    }
+
+    private static Cursor<Map<String, Object>> cursorOf(List<Map<String, Object>> rows) {
+        return new Cursor<>() {
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public boolean isConsumed() {
+                return false;
+            }
+
+            @Override
+            public int getCurrentIndex() {
+                return 0;
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public Iterator<Map<String, Object>> iterator() {
+                return rows.iterator();
+            }
+        };
+    }
+
+    /**
+     * 不连接数据库的事务管理器
+     */
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+
+    @Test
+    void exportsMillionRowsWithSmallHeap() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Xmx32m",
+                "-cp", System.getProperty("java.class.path"), LargeExport.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals(0, process.exitValue(), output);
+        assertEquals(String.valueOf(LARGE_ROWS), output);
+    }
+
+    /**
+     * 子进程入口：逐行生成合成预约数据并导出到丢弃输出流，行对象不会被累积
+     */
+    static class LargeExport {
+        public static void main(String[] args) throws IOException {
+            Iterable<Map<String, Object>> rows = () -> new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < LARGE_ROWS;
+                }
+
+                @Override
+                public Map<String, Object> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int id = ++next;
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("id", (long) id);
+                    row.put("appointmentNo", "AP" + id);
+                    row.put("appointmentDate", LocalDate.of(2024, 1, 1).plusDays(id % 365));
+                    row.put("timeSlot", "上午");
+                    row.put("status", id % 3);
+                    row.put("symptoms", "恶寒、头痛, 无汗");
+                    row.put("patientNo", "P" + (id % 50_000));
+                    row.put("patientName", "患者" + (id % 50_000));
+                    row.put("doctorName", "医生" + (id % 200));
+                    row.put("deptName", "内科");
+                    row.put("createTime", LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(id));
+                    return row;
+                }
+            };
+            OutputStream discard = OutputStream.nullOutputStream();
+            long exported = ExportService.writeCsv(rows, ExportService.APPOINTMENT_COLUMNS, discard);
+            System.out.println(exported);
+        }
+    }
+}
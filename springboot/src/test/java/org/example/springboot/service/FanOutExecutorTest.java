@@ -0,0 +1,98 @@
+package org.example.springboot.service;
+
+import org.example.springboot.exception.ServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 并发子查询测试：并发执行、失败传播与跳过、SQL统计随子任务传递
+ */
+class FanOutExecutorTest {
+    private static final String SELECT_PATIENT = "org.example.springboot.mapper.PatientMapper.selectById";
+
+    private final SqlMetrics sqlMetrics = new SqlMetrics();
+
+    private final FanOutExecutor fanOutExecutor = new FanOutExecutor();
+
+    @AfterEach
+    void tearDown() {
+        fanOutExecutor.shutdown();
+    }
+
+    @Test
+    void runsSubtasksConcurrently() {
+        init(true);
+        CountDownLatch started = new CountDownLatch(2);
+        try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+            // 两个子任务互相等待对方开始，顺序执行时会超时返回false
+            FanOutExecutor.Subtask<Boolean> first = scope.fork(() -> awaitOther(started));
+            FanOutExecutor.Subtask<Boolean> second = scope.fork(() -> awaitOther(started));
+            scope.join();
+            assertTrue(first.get());
+            assertTrue(second.get());
+        }
+    }
+
+    @Test
+    void rethrowsFirstFailureAndSkipsPendingSubtasks() {
+        init(false);
+        AtomicBoolean ran = new AtomicBoolean();
+        ServiceException error = assertThrows(ServiceException.class, () -> {
+            try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+                scope.fork(() -> {
+                    throw new ServiceException("患者不存在");
+                });
+                scope.fork(() -> ran.getAndSet(true));
+                scope.join();
+            }
+        });
+        assertEquals("患者不存在", error.getMessage());
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void countsSubtaskStatementsInCallerScope() {
+        init(true);
+        AssertionError error = assertThrows(AssertionError.class, () -> sqlMetrics.withBudget(2, () -> {
+            try (FanOutExecutor.Scope scope = fanOutExecutor.open()) {
+                for (int i = 0; i < 3; i++) {
+                    scope.fork(() -> {
+                        sqlMetrics.beforeStatement(SELECT_PATIENT, "SELECT * FROM patient WHERE id=?");
+                        sqlMetrics.afterStatement(SELECT_PATIENT, 500_000L, 1, false);
+                        return null;
+                    });
+                }
+                scope.join();
+            }
+            return null;
+        }));
+        assertTrue(error.getMessage().contains(SELECT_PATIENT + "=3"));
+    }
+
+    private void init(boolean enabled) {
+        ReflectionTestUtils.setField(fanOutExecutor, "enabled", enabled);
+        ReflectionTestUtils.setField(fanOutExecutor, "poolSize", 4);
+        ReflectionTestUtils.setField(fanOutExecutor, "sqlMetrics", sqlMetrics);
+        fanOutExecutor.init();
+    }
+
+    private static boolean awaitOther(CountDownLatch started) {
+        started.countDown();
+        try {
+            return started.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
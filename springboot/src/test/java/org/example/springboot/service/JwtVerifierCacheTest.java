@@ -0,0 +1,117 @@
+package org.example.springboot.service;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.example.springboot.entity.User;
+import org.example.springboot.mapper.UserMapper;
+import org.example.springboot.util.JwtTokenUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT校验器缓存测试：命中时不查库，密码变更后旧token失效（本节点事务提交后、其他节点复核后）
+ */
+class JwtVerifierCacheTest {
+    private UserMapper userMapper;
+
+    private JwtVerifierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        cache = new JwtVerifierCache();
+        ReflectionTestUtils.setField(cache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(cache, "capacity", 100);
+        cache.init();
+    }
+
+    private static User user(Long id, String passwordHash) {
+        User user = new User();
+        user.setId(id);
+        user.setPassword(passwordHash);
+        return user;
+    }
+
+    @Test
+    void repeatedVerificationQueriesDatabaseOnce() {
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v1"));
+        String token = JwtTokenUtils.genToken("1", "hash-v1");
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1L, cache.verify(1L, token).getId());
+        }
+        verify(userMapper, times(1)).selectById(1L);
+    }
+
+    @Test
+    void oldTokenRejectedAfterPasswordChange() {
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v1"));
+        String oldToken = JwtTokenUtils.genToken("1", "hash-v1");
+        cache.verify(1L, oldToken);
+
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v2"));
+        cache.invalidate(1L);
+
+        assertThrows(JWTVerificationException.class, () -> cache.verify(1L, oldToken));
+        String newToken = JwtTokenUtils.genToken("1", "hash-v2");
+        assertEquals(1L, cache.verify(1L, newToken).getId());
+    }
+
+    @Test
+    void tokenSignedWithNewerHashReloadsStaleEntry() {
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v1"));
+        cache.verify(1L, JwtTokenUtils.genToken("1", "hash-v1"));
+
+        // 其他节点修改了密码，本节点缓存未失效
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v2"));
+        assertEquals(1L, cache.verify(1L, JwtTokenUtils.genToken("1", "hash-v2")).getId());
+    }
+
+    @Test
+    void entryCachedBeforeCommitEvictedAfterCompletion() {
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v1"));
+        String oldToken = JwtTokenUtils.genToken("1", "hash-v1");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(1L);
+            // 事务提交前并发请求按旧密码哈希重新缓存
+            cache.verify(1L, oldToken);
+            when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v2"));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThrows(JWTVerificationException.class, () -> cache.verify(1L, oldToken));
+    }
+
+    @Test
+    void oldTokenRejectedAfterRevalidationWhenChangedOnOtherNode() throws InterruptedException {
+        ReflectionTestUtils.setField(cache, "revalidateSeconds", 0L);
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v1"));
+        String oldToken = JwtTokenUtils.genToken("1", "hash-v1");
+        cache.verify(1L, oldToken);
+
+        // 其他节点修改了密码，本节点没有收到 invalidate
+        when(userMapper.selectById(1L)).thenReturn(user(1L, "hash-v2"));
+        Thread.sleep(5);
+        assertThrows(JWTVerificationException.class, () -> cache.verify(1L, oldToken));
+    }
+
+    @Test
+    void unknownUserRejected() {
+        assertThrows(JWTVerificationException.class, () -> cache.verify(99L, JwtTokenUtils.genToken("99", "x")));
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.common.CursorPage;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 游标分页测试：多取一条判断下一页，游标指向本页最后一条，可跳过计数
+ */
+class KeysetPagerTest {
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Appointment.class);
+    }
+
+    private static List<Appointment> rows(int count) {
+        List<Appointment> rows = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setId(1000L - i);
+            appointment.setCreateTime(base.minusMinutes(i));
+            rows.add(appointment);
+        }
+        return rows;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullPageReturnsCursorOfLastRow() {
+        AppointmentMapper mapper = mock(AppointmentMapper.class);
+        when(mapper.selectList(any(Wrapper.class))).thenReturn(rows(11));
+        when(mapper.selectCount(any(Wrapper.class))).thenReturn(500L);
+
+        CursorPage<Appointment> page = KeysetPager.page(mapper, new LambdaQueryWrapper<>(),
+                Appointment::getCreateTime, Appointment::getId, null, 10, false);
+
+        assertEquals(10, page.getRecords().size());
+        assertTrue(page.getHasMore());
+        assertEquals(500L, page.getTotal());
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(991L, next.getId());
+        assertEquals(page.getRecords().get(9).getCreateTime(), next.getCreateTime());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lastPageHasNoCursorAndSkipsCount() {
+        AppointmentMapper mapper = mock(AppointmentMapper.class);
+        when(mapper.selectList(any(Wrapper.class))).thenReturn(rows(3));
+        String cursor = new KeysetCursor(LocalDateTime.of(2024, 1, 2, 0, 0), 2000L).encode();
+
+        LambdaQueryWrapper<Appointment> wrapper = new LambdaQueryWrapper<>();
+        CursorPage<Appointment> page = KeysetPager.page(mapper, wrapper,
+                Appointment::getCreateTime, Appointment::getId, cursor, 10, true);
+
+        assertEquals(3, page.getRecords().size());
+        assertFalse(page.getHasMore());
+        assertNull(page.getNextCursor());
+        assertNull(page.getTotal());
+        verify(mapper, never()).selectCount(any(Wrapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rowsWithoutCreateTimeAreExcluded() {
+        AppointmentMapper mapper = mock(AppointmentMapper.class);
+        when(mapper.selectList(any(Wrapper.class))).thenReturn(rows(1));
+
+        LambdaQueryWrapper<Appointment> wrapper = new LambdaQueryWrapper<>();
+        KeysetPager.page(mapper, wrapper, Appointment::getCreateTime, Appointment::getId, null, 10, true);
+
+        assertTrue(wrapper.getSqlSegment().contains("create_time IS NOT NULL"), wrapper.getSqlSegment());
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.DTO.BatchDeleteReport;
+import org.example.springboot.entity.Patient;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.mapper.MedicalRecordMapper;
+import org.example.springboot.mapper.PatientMapper;
+import org.example.springboot.mapper.PrescriptionMapper;
+import org.example.springboot.service.SearchIndexService.Kind;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量删除患者测试：关联数据按批统计，可删除的一条语句删除，结果按请求顺序逐个给出
+ */
+class PatientBatchDeleteTest {
+    private PatientService patientService;
+    private PatientMapper patientMapper;
+    private SearchIndexService searchIndexService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Patient.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        patientMapper = mock(PatientMapper.class);
+        when(patientMapper.selectObjs(any())).thenReturn(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+        when(patientMapper.deleteUnreferenced(anyCollection())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        AppointmentMapper appointmentMapper = mock(AppointmentMapper.class);
+        when(appointmentMapper.countByPatientIds(anyCollection())).thenReturn(List.of(count(2L, 3L)));
+        MedicalRecordMapper medicalRecordMapper = mock(MedicalRecordMapper.class);
+        when(medicalRecordMapper.countByPatientIds(anyCollection())).thenReturn(List.of(count(3L, 1L)));
+        PrescriptionMapper prescriptionMapper = mock(PrescriptionMapper.class);
+        when(prescriptionMapper.countByPatientIds(anyCollection())).thenReturn(List.of());
+        searchIndexService = mock(SearchIndexService.class);
+
+        patientService = new PatientService();
+        ReflectionTestUtils.setField(patientService, "patientMapper", patientMapper);
+        ReflectionTestUtils.setField(patientService, "appointmentMapper", appointmentMapper);
+        ReflectionTestUtils.setField(patientService, "medicalRecordMapper", medicalRecordMapper);
+        ReflectionTestUtils.setField(patientService, "prescriptionMapper", prescriptionMapper);
+        ReflectionTestUtils.setField(patientService, "searchIndexService", searchIndexService);
+    }
+
+    @Test
+    void deletesUnreferencedAndReportsTheRest() {
+        BatchDeleteReport report = patientService.batchDeletePatients(Arrays.asList(5L, 2L, 9L, 1L, 3L, 1L, null));
+
+        assertEquals(2, report.getDeleted());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(5L, 2L, 9L, 1L, 3L),
+                report.getOutcomes().stream().map(BatchDeleteReport.Outcome::getId).collect(Collectors.toList()));
+        assertTrue(report.getOutcomes().get(0).isDeleted());
+        assertEquals("该患者已有3条预约记录，不能删除", report.getOutcomes().get(1).getReason());
+        assertEquals("患者不存在", report.getOutcomes().get(2).getReason());
+        assertEquals("该患者已有1条就诊记录，不能删除", report.getOutcomes().get(4).getReason());
+
+        verify(patientMapper, times(1)).deleteUnreferenced(List.of(5L, 1L));
+        verify(searchIndexService).remove(Kind.PATIENT, List.of(5L, 1L));
+    }
+
+    @Test
+    void keepsPatientsReferencedAfterTheCheck() {
+        // 模拟检查之后患者4产生了预约，DELETE 的 NOT EXISTS 条件使其未被删除
+        when(patientMapper.deleteUnreferenced(anyCollection())).thenReturn(1);
+        when(patientMapper.selectObjs(any())).thenReturn(Arrays.asList(4L, 5L), List.of(4L));
+
+        BatchDeleteReport report = patientService.batchDeletePatients(List.of(4L, 5L));
+
+        assertEquals(1, report.getDeleted());
+        assertFalse(report.getOutcomes().get(0).isDeleted());
+        assertEquals("该患者已产生关联数据，不能删除", report.getOutcomes().get(0).getReason());
+        verify(searchIndexService).remove(Kind.PATIENT, List.of(5L));
+    }
+
+    private static Map<String, Object> count(Long patientId, Long total) {
+        return Map.of("patientId", patientId, "total", total);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.springboot.service;
+
+import org.example.springboot.util.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prometheus 文本格式测试：累计桶、标签转义，以及接口统计的进行中请求数和返回码
+ */
+class PrometheusExporterTest {
+
+    @Test
+    void writesCumulativeBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram(5, 50);
+        histogram.record(1_000_000L);
+        histogram.record(20_000_000L);
+        histogram.record(90_000_000L);
+
+        StringBuilder out = new StringBuilder();
+        PrometheusExporter.histogram(out, "http_server_requests_seconds", "handler", "AppointmentController.page", histogram);
+
+        assertEquals(String.join("\n",
+                "http_server_requests_seconds_bucket{handler=\"AppointmentController.page\",le=\"0.005\"} 1",
+                "http_server_requests_seconds_bucket{handler=\"AppointmentController.page\",le=\"0.05\"} 2",
+                "http_server_requests_seconds_bucket{handler=\"AppointmentController.page\",le=\"+Inf\"} 3",
+                "http_server_requests_seconds_sum{handler=\"AppointmentController.page\"} 0.111",
+                "http_server_requests_seconds_count{handler=\"AppointmentController.page\"} 3",
+                ""), out.toString());
+    }
+
+    @Test
+    void escapesLabelValues() {
+        assertEquals("statement=\"a\\\"b\\\\c\\nd\"", PrometheusExporter.labels("statement", "a\"b\\c\nd"));
+    }
+
+    @Test
+    void tracksInFlightAndResultCodes() throws NoSuchMethodException {
+        RequestMetrics requestMetrics = new RequestMetrics();
+        RequestMetrics.HandlerStats first = requestMetrics.start(String.class.getMethod("length"));
+        RequestMetrics.HandlerStats second = requestMetrics.start(String.class.getMethod("length"));
+        assertTrue(first == second);
+        assertEquals(2, first.getInFlight());
+
+        requestMetrics.finish(first, 1_000_000L, null);
+        requestMetrics.finish(second, 2_000_000L, "-1");
+
+        assertEquals(0, first.getInFlight());
+        assertEquals("String.length", first.getName());
+        assertEquals(Map.of("200", 1L, "-1", 1L), first.getCodes());
+        assertEquals(2L, first.getLatency().getCount());
+    }
+}
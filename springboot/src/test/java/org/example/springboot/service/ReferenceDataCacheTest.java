@@ -0,0 +1,142 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import org.example.springboot.entity.Department;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.MedicineCategory;
+import org.example.springboot.mapper.DepartmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.MedicineCategoryMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 基础数据缓存测试：读穿、失效、容量淘汰与命中统计
+ */
+class ReferenceDataCacheTest {
+    private DoctorMapper doctorMapper;
+    private MedicineCategoryMapper medicineCategoryMapper;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        doctorMapper = mock(DoctorMapper.class);
+        medicineCategoryMapper = mock(MedicineCategoryMapper.class);
+        cache = new ReferenceDataCache();
+        ReflectionTestUtils.setField(cache, "doctorMapper", doctorMapper);
+        ReflectionTestUtils.setField(cache, "departmentMapper", mock(DepartmentMapper.class));
+        ReflectionTestUtils.setField(cache, "medicineCategoryMapper", medicineCategoryMapper);
+        ReflectionTestUtils.setField(cache, "capacity", 2);
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 10L);
+        cache.init();
+    }
+
+    private static Doctor doctor(Long id, String name) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setName(name);
+        return doctor;
+    }
+
+    @Test
+    void readThroughLoadsOnceAndReturnsCopies() {
+        when(doctorMapper.selectById(1L)).thenReturn(doctor(1L, "张三"));
+
+        Doctor first = cache.getDoctor(1L);
+        first.setDepartment(new Department());
+        Doctor second = cache.getDoctor(1L);
+
+        assertEquals("张三", second.getName());
+        assertNull(second.getDepartment());
+        assertNotSame(first, second);
+        verify(doctorMapper, times(1)).selectById(1L);
+        Map<String, Long> stats = cache.getStats().get("doctor");
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+    }
+
+    @Test
+    void evictReloadsLatestRow() {
+        when(doctorMapper.selectById(1L)).thenReturn(doctor(1L, "张三"));
+        cache.getDoctor(1L);
+
+        when(doctorMapper.selectById(1L)).thenReturn(doctor(1L, "李四"));
+        cache.evictDoctor(1L);
+
+        assertEquals("李四", cache.getDoctor(1L).getName());
+        verify(doctorMapper, times(2)).selectById(1L);
+    }
+
+    @Test
+    void capacityBoundEvictsLeastRecentlyUsed() {
+        for (long id = 1; id <= 3; id++) {
+            when(doctorMapper.selectById(id)).thenReturn(doctor(id, "D" + id));
+            cache.getDoctor(id);
+        }
+        assertEquals(2L, cache.getStats().get("doctor").get("size"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void categoryNameLookupUsesSingleSnapshot() {
+        MedicineCategory herb = new MedicineCategory();
+        herb.setId(3L);
+        herb.setCategoryName("草药");
+        when(medicineCategoryMapper.selectList(any(Wrapper.class))).thenReturn(List.of(herb));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(3L, cache.getActiveCategoryByName("草药").getId());
+        }
+        assertNull(cache.getActiveCategoryByName("不存在"));
+        verify(medicineCategoryMapper, times(1)).selectList(any(Wrapper.class));
+
+        cache.evictCategory(3L);
+        cache.getActiveCategories();
+        verify(medicineCategoryMapper, times(2)).selectList(any(Wrapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void categoryListLoadedDuringChangeIsNotReused() {
+        MedicineCategory stale = new MedicineCategory();
+        stale.setId(3L);
+        stale.setCategoryName("草药");
+        MedicineCategory renamed = new MedicineCategory();
+        renamed.setId(3L);
+        renamed.setCategoryName("中草药");
+        // 第一次加载读到旧数据的同时，分类被修改并失效
+        when(medicineCategoryMapper.selectList(any(Wrapper.class))).thenAnswer(invocation -> {
+            cache.evictCategory(3L);
+            return List.of(stale);
+        }).thenReturn(List.of(renamed));
+
+        assertEquals("草药", cache.getActiveCategories().get(0).getCategoryName());
+        assertEquals("中草药", cache.getActiveCategories().get(0).getCategoryName());
+        assertEquals("中草药", cache.getActiveCategories().get(0).getCategoryName());
+        verify(medicineCategoryMapper, times(2)).selectList(any(Wrapper.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void categoryListExpiresWithEntityTtl() {
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 0L);
+        when(medicineCategoryMapper.selectList(any(Wrapper.class))).thenReturn(List.of());
+
+        cache.getActiveCategories();
+        cache.getActiveCategories();
+        verify(medicineCategoryMapper, times(2)).selectList(any(Wrapper.class));
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.DTO.ScheduleTemplateDTO;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量排班测试：医生与冲突各查询一次，已有排班和批内重复在内存中排除，按批写入
+ */
+class ScheduleBatchCreateTest {
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private ScheduleService scheduleService;
+    private ScheduleMapper scheduleMapper;
+    private final List<Schedule> inserted = new ArrayList<>();
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Schedule.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        assertEquals(DayOfWeek.MONDAY, MONDAY.getDayOfWeek());
+        scheduleMapper = mock(ScheduleMapper.class);
+        Schedule existing = new Schedule();
+        existing.setDoctorId(1L);
+        existing.setScheduleDate(MONDAY);
+        existing.setTimeSlot("上午");
+        when(scheduleMapper.selectList(any())).thenReturn(List.of(existing));
+        when(scheduleMapper.batchInsert(anyList())).thenAnswer(invocation -> {
+            List<Schedule> batch = invocation.getArgument(0);
+            inserted.addAll(batch);
+            return batch.size();
+        });
+
+        ReferenceDataCache referenceDataCache = mock(ReferenceDataCache.class);
+        when(referenceDataCache.getDoctors(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Doctor> doctors = new HashMap<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (id <= 2) {
+                    Doctor doctor = new Doctor();
+                    doctor.setId(id);
+                    doctor.setName("医生" + id);
+                    doctors.put(id, doctor);
+                }
+            }
+            return doctors;
+        });
+
+        scheduleService = new ScheduleService();
+        ReflectionTestUtils.setField(scheduleService, "scheduleMapper", scheduleMapper);
+        ReflectionTestUtils.setField(scheduleService, "referenceDataCache", referenceDataCache);
+        ReflectionTestUtils.setField(scheduleService, "resourceVersions", new ResourceVersions());
+    }
+
+    @Test
+    void generatesWeekdaySlotsAndSkipsExisting() {
+        ScheduleTemplateDTO template = new ScheduleTemplateDTO();
+        template.setDoctorIds(List.of(1L, 2L));
+        template.setStartDate(MONDAY);
+        template.setWeeks(1);
+        template.setMaxPatients(20);
+
+        Map<String, Integer> result = scheduleService.generateSchedules(template);
+
+        // 2名医生 x 5个工作日 x 上午、下午，其中医生1周一上午已有排班
+        assertEquals(19, (int) result.get("created"));
+        assertEquals(1, (int) result.get("skipped"));
+        assertEquals(19, inserted.size());
+        assertTrue(inserted.stream().noneMatch(s -> s.getScheduleDate().getDayOfWeek() == DayOfWeek.SATURDAY));
+        assertTrue(inserted.stream().allMatch(s -> s.getStatus() == 1 && s.getCurrentPatients() == 0
+                && s.getMaxPatients() == 20));
+        verify(scheduleMapper, times(1)).selectList(any());
+        verify(scheduleMapper, times(1)).batchInsert(anyList());
+    }
+
+    @Test
+    void batchCreateFailsOnConflictWithoutInserting() {
+        List<Schedule> schedules = List.of(schedule(2L, MONDAY, "下午"), schedule(2L, MONDAY, "下午"));
+        assertThrows(ServiceException.class, () -> scheduleService.batchCreateSchedule(schedules));
+
+        List<Schedule> existing = List.of(schedule(1L, MONDAY, "上午"));
+        assertThrows(ServiceException.class, () -> scheduleService.batchCreateSchedule(existing));
+
+        List<Schedule> unknownDoctor = List.of(schedule(3L, MONDAY, "上午"));
+        ServiceException e = assertThrows(ServiceException.class, () -> scheduleService.batchCreateSchedule(unknownDoctor));
+        assertEquals("医生不存在: 3", e.getMessage());
+
+        verify(scheduleMapper, never()).batchInsert(anyList());
+    }
+
+    @Test
+    void missingMaxPatientsDefaultsLikeTheTable() {
+        Schedule unset = schedule(2L, MONDAY, "晚上");
+        unset.setMaxPatients(null);
+
+        scheduleService.batchCreateSchedule(List.of(unset, schedule(2L, MONDAY, "下午")));
+
+        assertEquals(2, inserted.size());
+        assertEquals(20, (int) inserted.get(0).getMaxPatients());
+        assertEquals(10, (int) inserted.get(1).getMaxPatients());
+    }
+
+    @Test
+    void invalidTemplateIsRejectedBeforeQuerying() {
+        ScheduleTemplateDTO noStartDate = template(1);
+        noStartDate.setStartDate(null);
+        assertEquals("开始日期不能为空",
+                assertThrows(ServiceException.class, () -> scheduleService.generateSchedules(noStartDate)).getMessage());
+
+        assertEquals("生成周数只能为1-12",
+                assertThrows(ServiceException.class, () -> scheduleService.generateSchedules(template(0))).getMessage());
+        assertEquals("生成周数只能为1-12",
+                assertThrows(ServiceException.class, () -> scheduleService.generateSchedules(template(13))).getMessage());
+        assertEquals("生成周数只能为1-12",
+                assertThrows(ServiceException.class, () -> scheduleService.generateSchedules(template(null))).getMessage());
+
+        verify(scheduleMapper, never()).selectList(any());
+        verify(scheduleMapper, never()).batchInsert(anyList());
+    }
+
+    private static ScheduleTemplateDTO template(Integer weeks) {
+        ScheduleTemplateDTO template = new ScheduleTemplateDTO();
+        template.setDoctorIds(List.of(1L, 2L));
+        template.setStartDate(MONDAY);
+        template.setWeeks(weeks);
+        template.setMaxPatients(20);
+        return template;
+    }
+
+    private static Schedule schedule(Long doctorId, LocalDate date, String timeSlot) {
+        Schedule schedule = new Schedule();
+        schedule.setDoctorId(doctorId);
+        schedule.setScheduleDate(date);
+        schedule.setTimeSlot(timeSlot);
+        schedule.setMaxPatients(10);
+        return schedule;
+    }
+}
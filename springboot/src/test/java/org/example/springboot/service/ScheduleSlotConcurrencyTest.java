@@ -0,0 +1,171 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.TestDatabase;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 号源并发占用测试：大量患者同时通过 createAppointment 预约同一排班时不能超额，最终人数与预约记录数一致
+ * 运行在内嵌数据库上，吞吐量对比见 src/jmh 中的 SlotReservationBenchmark
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ScheduleSlotConcurrencyTest {
+    private static final int MAX_PATIENTS = 50;
+    private static final int BOOKINGS = 2000;
+    private static final int THREADS = 64;
+
+    @Resource
+    private AppointmentService appointmentService;
+
+    @Resource
+    private ScheduleMapper scheduleMapper;
+
+    @Resource
+    private DoctorMapper doctorMapper;
+
+    @Resource
+    private AppointmentMapper appointmentMapper;
+
+    @Resource
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private Doctor doctor;
+    private Schedule schedule;
+    private List<Long> patientIds;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        doctor = new Doctor();
+        doctor.setName("并发测试医生");
+        doctor.setStatus(1);
+        doctor.setCreateTime(LocalDateTime.now());
+        doctor.setUpdateTime(LocalDateTime.now());
+        doctorMapper.insert(doctor);
+
+        schedule = new Schedule();
+        schedule.setDoctorId(doctor.getId());
+        schedule.setScheduleDate(LocalDate.now().plusDays(1));
+        schedule.setTimeSlot("上午");
+        schedule.setMaxPatients(MAX_PATIENTS);
+        schedule.setCurrentPatients(0);
+        schedule.setStatus(1);
+        scheduleMapper.insert(schedule);
+
+        // 每次预约使用不同的患者，避免被“同一天同一医生只能预约一次”拦截
+        List<Object[]> rows = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            rows.add(new Object[]{"并发测试患者" + i, "C" + doctor.getId() + "-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patient (name, patient_no) VALUES (?, ?)", rows);
+        patientIds = jdbcTemplate.queryForList("SELECT id FROM patient WHERE patient_no LIKE ? ORDER BY id",
+                Long.class, "C" + doctor.getId() + "-%");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM appointment WHERE schedule_id = ?", schedule.getId());
+        jdbcTemplate.update("DELETE FROM patient WHERE patient_no LIKE ?", "C" + doctor.getId() + "-%");
+        scheduleMapper.deleteById(schedule.getId());
+        doctorMapper.deleteById(doctor.getId());
+    }
+
+    @Test
+    void parallelBookingsNeverOverbook() throws InterruptedException {
+        AtomicInteger success = new AtomicInteger();
+        Map<String, AtomicInteger> rejections = new ConcurrentHashMap<>();
+        List<Throwable> errors = new ArrayList<>();
+        AtomicInteger next = new AtomicInteger();
+        runConcurrently(() -> {
+            Appointment appointment = new Appointment();
+            appointment.setPatientId(patientIds.get(next.getAndIncrement()));
+            appointment.setDoctorId(doctor.getId());
+            appointment.setScheduleId(schedule.getId());
+            try {
+                appointmentService.createAppointment(appointment);
+                success.incrementAndGet();
+            } catch (ServiceException e) {
+                rejections.computeIfAbsent(e.getMessage(), k -> new AtomicInteger()).incrementAndGet();
+            } catch (RuntimeException e) {
+                synchronized (errors) {
+                    errors.add(e);
+                }
+            }
+        });
+
+        assertTrue(errors.isEmpty(), () -> "预约出现非业务异常: " + errors);
+        assertEquals(MAX_PATIENTS, success.get());
+        assertEquals(Set.of("该排班已满，无法预约"), rejections.keySet());
+        assertEquals(BOOKINGS - MAX_PATIENTS, rejections.get("该排班已满，无法预约").get());
+
+        // 排班人数、预约记录数、预约编号三者一致
+        assertEquals(MAX_PATIENTS, scheduleMapper.selectById(schedule.getId()).getCurrentPatients());
+        List<Appointment> booked = appointmentMapper.selectList(
+                new LambdaQueryWrapper<Appointment>().eq(Appointment::getScheduleId, schedule.getId()));
+        assertEquals(MAX_PATIENTS, booked.size());
+        assertEquals(MAX_PATIENTS, booked.stream().map(Appointment::getAppointmentNo).collect(Collectors.toSet()).size());
+        assertEquals(MAX_PATIENTS, booked.stream().map(Appointment::getPatientId).collect(Collectors.toSet()).size());
+    }
+
+    private void runConcurrently(Runnable booking) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    booking.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        boolean finished = done.await(2, TimeUnit.MINUTES);
+        executor.shutdown();
+        assertTrue(finished, "并发预约未在2分钟内完成");
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.springboot.service;
+
+import jakarta.annotation.Resource;
+import org.example.springboot.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 编号序列并发测试：新一天（序列尚不存在）的第一批编号由大量线程同时领取时不能死锁，编号不重复
+ * 运行在内嵌数据库上，内存中的号段逻辑见 SequenceServiceTest
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SequenceConcurrencyTest {
+    private static final int THREADS = 64;
+
+    @Resource
+    private SequenceService sequenceService;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Test
+    void firstAllocationOfTheDayDoesNotDeadlock() throws InterruptedException {
+        // 新前缀相当于新的一天：所有线程同时发现号段为空，各自去初始化同一条序列
+        String prefix = "T" + System.nanoTime() % 100000;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        List<Throwable> errors = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    numbers.add(sequenceService.nextNo(prefix, 6));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        boolean finished = done.await(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        assertTrue(finished, "并发领取号段未在1分钟内完成");
+        assertTrue(errors.isEmpty(), () -> "领取号段出现异常: " + errors);
+        assertEquals(THREADS, numbers.size());
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.springboot.service;
+
+import org.example.springboot.mapper.SequenceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 编号生成测试：多节点并发生成不重复，号段内生成不访问数据库，领取号段时不阻塞其他取号
+ */
+class SequenceServiceTest {
+    private static final int BLOCK_SIZE = 50;
+
+    /**
+     * 模拟 biz_sequence 表
+     */
+    private final Map<String, AtomicLong> table = new ConcurrentHashMap<>();
+
+    private final AtomicInteger allocateCalls = new AtomicInteger();
+
+    /**
+     * 当前线程最近一次领取后的序列值
+     */
+    private final ThreadLocal<Long> allocated = new ThreadLocal<>();
+
+    private SequenceMapper sequenceMapper;
+
+    @BeforeEach
+    void setUp() {
+        sequenceMapper = mock(SequenceMapper.class);
+        when(sequenceMapper.initSequence(anyString())).thenAnswer(invocation -> {
+            table.putIfAbsent(invocation.getArgument(0), new AtomicLong());
+            return 1;
+        });
+        when(sequenceMapper.allocateBlock(anyString(), anyInt())).thenAnswer(invocation -> {
+            AtomicLong row = table.get(invocation.<String>getArgument(0));
+            if (row == null) {
+                return 0;
+            }
+            allocateCalls.incrementAndGet();
+            allocated.set(row.addAndGet(invocation.<Integer>getArgument(1)));
+            return 1;
+        });
+        // 数据库中 UPDATE 持有行锁直到领取事务提交，同一事务读到的是自己更新后的值
+        when(sequenceMapper.selectCurrentValue(anyString())).thenAnswer(invocation -> allocated.get());
+    }
+
+    private SequenceService newNode() {
+        SequenceService service = new SequenceService();
+        ReflectionTestUtils.setField(service, "sequenceMapper", sequenceMapper);
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "blockSize", BLOCK_SIZE);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void formatsPrefixDateAndPaddedSequence() {
+        SequenceService service = newNode();
+        String date = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+
+        assertEquals("A" + date + "000001", service.nextNo("A", 6));
+        assertEquals("A" + date + "000002", service.nextNo("A", 6));
+        assertEquals("D" + date + "001", service.nextNo("D", 3));
+    }
+
+    @Test
+    void concurrentNodesNeverCollide() throws InterruptedException {
+        SequenceService nodeA = newNode();
+        SequenceService nodeB = newNode();
+        int threads = 16;
+        int perThread = 500;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            SequenceService node = i % 2 == 0 ? nodeA : nodeB;
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < perThread; j++) {
+                    numbers.add(node.nextNo("P", 6));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        int total = threads * perThread;
+        assertEquals(total, numbers.size());
+        // 每个节点最多剩下未用完的当前号段和一个预取的号段
+        assertTrue(allocateCalls.get() <= total / BLOCK_SIZE + 4);
+    }
+
+    @Test
+    void takingNumbersNeverWaitsForAnAllocation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch allocating = new CountDownLatch(1);
+        when(sequenceMapper.allocateBlock(anyString(), anyInt())).thenAnswer(invocation -> {
+            AtomicLong row = table.get(invocation.<String>getArgument(0));
+            if (row == null) {
+                return 0;
+            }
+            if (allocateCalls.incrementAndGet() == 2) {
+                // 第二次领取（预取）卡在数据库上
+                allocating.countDown();
+                release.await();
+            }
+            allocated.set(row.addAndGet(invocation.<Integer>getArgument(1)));
+            return 1;
+        });
+        SequenceService service = newNode();
+        String date = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        for (int i = 1; i < 40; i++) {
+            service.nextNo("A", 6);
+        }
+
+        // 第40个号取出后剩余10个，触发预取并卡住
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> prefetching = executor.submit(() -> service.nextNo("A", 6));
+        assertTrue(allocating.await(5, TimeUnit.SECONDS));
+
+        // 预取期间其他线程照常取剩余的号，不排队等待
+        Future<String> remaining = executor.submit(() -> {
+            String last = null;
+            for (int i = 0; i < 10; i++) {
+                last = service.nextNo("A", 6);
+            }
+            return last;
+        });
+        assertEquals("A" + date + "000050", remaining.get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertEquals("A" + date + "000040", prefetching.get(5, TimeUnit.SECONDS));
+        assertEquals("A" + date + "000051", service.nextNo("A", 6));
+        assertEquals(2, allocateCalls.get());
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.example.springboot.TestDatabase;
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Doctor;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.exception.ServiceException;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.mapper.DoctorMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 高峰预约模式（号源内存账本）的端到端测试：预约返回时已经写库，不超额，写库窗口内的重复预约被拦截
+ */
+@SpringBootTest(properties = "booking.ledger.enabled=true")
+@ActiveProfiles("test")
+class SlotQuotaLedgerBookingTest {
+    private static final int MAX_PATIENTS = 50;
+    private static final int BOOKINGS = 1000;
+    private static final int THREADS = 64;
+
+    @Resource
+    private AppointmentService appointmentService;
+
+    @Resource
+    private ScheduleMapper scheduleMapper;
+
+    @Resource
+    private DoctorMapper doctorMapper;
+
+    @Resource
+    private AppointmentMapper appointmentMapper;
+
+    @Resource
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private Doctor doctor;
+    private Schedule schedule;
+    private List<Long> patientIds;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        doctor = new Doctor();
+        doctor.setName("账本测试医生");
+        doctor.setStatus(1);
+        doctor.setCreateTime(LocalDateTime.now());
+        doctor.setUpdateTime(LocalDateTime.now());
+        doctorMapper.insert(doctor);
+
+        schedule = new Schedule();
+        schedule.setDoctorId(doctor.getId());
+        schedule.setScheduleDate(LocalDate.now().plusDays(1));
+        schedule.setTimeSlot("下午");
+        schedule.setMaxPatients(MAX_PATIENTS);
+        schedule.setCurrentPatients(0);
+        schedule.setStatus(1);
+        scheduleMapper.insert(schedule);
+
+        List<Object[]> rows = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            rows.add(new Object[]{"账本测试患者" + i, "L" + doctor.getId() + "-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patient (name, patient_no) VALUES (?, ?)", rows);
+        patientIds = jdbcTemplate.queryForList("SELECT id FROM patient WHERE patient_no LIKE ? ORDER BY id",
+                Long.class, "L" + doctor.getId() + "-%");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM appointment WHERE schedule_id = ?", schedule.getId());
+        jdbcTemplate.update("DELETE FROM patient WHERE patient_no LIKE ?", "L" + doctor.getId() + "-%");
+        scheduleMapper.deleteById(schedule.getId());
+        doctorMapper.deleteById(doctor.getId());
+    }
+
+    @Test
+    void acknowledgedBookingsAreWrittenAndNeverOverbook() throws InterruptedException {
+        List<Appointment> acknowledged = new CopyOnWriteArrayList<>();
+        Map<String, AtomicInteger> rejections = new ConcurrentHashMap<>();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        runConcurrently(BOOKINGS, i -> booking(patientIds.get(i)), acknowledged, rejections, errors);
+
+        assertTrue(errors.isEmpty(), () -> "预约出现非业务异常: " + errors);
+        assertEquals(MAX_PATIENTS, acknowledged.size());
+        assertEquals(Set.of("该排班已满，无法预约"), rejections.keySet());
+
+        // 返回给患者的预约都已落库
+        for (Appointment appointment : acknowledged) {
+            assertNotNull(appointment.getId());
+            assertNotNull(appointmentMapper.selectById(appointment.getId()));
+        }
+        assertEquals(MAX_PATIENTS, scheduleMapper.selectById(schedule.getId()).getCurrentPatients());
+        assertEquals(MAX_PATIENTS, appointmentMapper.selectCount(
+                new LambdaQueryWrapper<Appointment>().eq(Appointment::getScheduleId, schedule.getId())).intValue());
+    }
+
+    @Test
+    void samePatientCannotBookTwiceBeforeFlush() throws InterruptedException {
+        Long patientId = patientIds.get(0);
+        List<Appointment> acknowledged = new CopyOnWriteArrayList<>();
+        Map<String, AtomicInteger> rejections = new ConcurrentHashMap<>();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        runConcurrently(THREADS, i -> booking(patientId), acknowledged, rejections, errors);
+
+        assertTrue(errors.isEmpty(), () -> "预约出现非业务异常: " + errors);
+        assertEquals(1, acknowledged.size());
+        assertEquals(Set.of("您已预约过该医生当天的门诊"), rejections.keySet());
+        List<Appointment> booked = appointmentMapper.selectList(
+                new LambdaQueryWrapper<Appointment>().eq(Appointment::getScheduleId, schedule.getId()));
+        assertEquals(1, booked.size());
+        assertEquals(1, scheduleMapper.selectById(schedule.getId()).getCurrentPatients());
+        assertEquals(Set.of(patientId), booked.stream().map(Appointment::getPatientId).collect(Collectors.toSet()));
+    }
+
+    private Appointment booking(Long patientId) {
+        Appointment appointment = new Appointment();
+        appointment.setPatientId(patientId);
+        appointment.setDoctorId(doctor.getId());
+        appointment.setScheduleId(schedule.getId());
+        return appointment;
+    }
+
+    private void runConcurrently(int bookings, IntFunction<Appointment> request, List<Appointment> acknowledged,
+                                 Map<String, AtomicInteger> rejections, List<Throwable> errors) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(bookings);
+        for (int i = 0; i < bookings; i++) {
+            int index = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    acknowledged.add(appointmentService.createAppointment(request.apply(index)));
+                } catch (ServiceException e) {
+                    rejections.computeIfAbsent(e.getMessage(), k -> new AtomicInteger()).incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    errors.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        boolean finished = done.await(2, TimeUnit.MINUTES);
+        executor.shutdown();
+        assertTrue(finished, "并发预约未在2分钟内完成");
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.springboot.service;
+
+import org.example.springboot.entity.Appointment;
+import org.example.springboot.entity.Schedule;
+import org.example.springboot.mapper.AppointmentMapper;
+import org.example.springboot.mapper.ScheduleMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 号源内存账本测试：并发扣减不超额，且每个排班只加载一次；未写库的预约拦截重复预约、放弃时归还名额
+ */
+@ExtendWith(MockitoExtension.class)
+class SlotQuotaLedgerTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlotQuotaLedgerTest.class);
+
+    @Mock
+    private ScheduleMapper scheduleMapper;
+
+    @Mock
+    private AppointmentMapper appointmentMapper;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SlotQuotaLedger slotQuotaLedger;
+
+    @Test
+    void concurrentReservationsNeverExceedQuota() throws InterruptedException {
+        Schedule schedule = openSchedule(1L, 200, 0);
+        when(scheduleMapper.selectById(1L)).thenReturn(schedule);
+
+        int attempts = 100_000;
+        AtomicInteger success = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch done = new CountDownLatch(attempts);
+        long begin = System.nanoTime();
+        for (int i = 0; i < attempts; i++) {
+            executor.execute(() -> {
+                if (slotQuotaLedger.tryReserve(schedule)) {
+                    success.incrementAndGet();
+                }
+                done.countDown();
+            });
+        }
+        done.await(1, TimeUnit.MINUTES);
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+        executor.shutdown();
+
+        LOGGER.info("内存账本: {} 次预约耗时 {} us", attempts, elapsedMicros);
+        assertEquals(200, success.get());
+        verify(scheduleMapper, times(1)).selectById(1L);
+    }
+
+    @Test
+    void releasedQuotaCanBeReservedAgain() {
+        Schedule schedule = openSchedule(2L, 1, 0);
+        when(scheduleMapper.selectById(2L)).thenReturn(schedule);
+
+        assertTrue(slotQuotaLedger.tryReserve(schedule));
+        assertFalse(slotQuotaLedger.tryReserve(schedule));
+        slotQuotaLedger.release(2L, 1);
+        assertTrue(slotQuotaLedger.tryReserve(schedule));
+    }
+
+    @Test
+    void closedScheduleHasNoQuota() {
+        Schedule schedule = openSchedule(3L, 10, 0);
+        schedule.setStatus(0);
+        when(scheduleMapper.selectById(3L)).thenReturn(schedule);
+
+        assertFalse(slotQuotaLedger.tryReserve(schedule));
+    }
+
+    @Test
+    void unflushedBookingBlocksDuplicateUntilAbandoned() {
+        Schedule schedule = openSchedule(4L, 5, 0);
+        when(scheduleMapper.selectById(4L)).thenReturn(schedule);
+        Appointment first = booking(10L, schedule);
+        Appointment second = booking(10L, schedule);
+
+        assertTrue(slotQuotaLedger.claim(first, schedule));
+        assertFalse(slotQuotaLedger.claim(second, schedule));
+        assertTrue(slotQuotaLedger.reserve(first, schedule));
+        slotQuotaLedger.abandon(first, schedule);
+        assertTrue(slotQuotaLedger.claim(second, schedule));
+    }
+
+    @Test
+    void abandonedBookingReturnsQuota() {
+        Schedule schedule = openSchedule(5L, 1, 0);
+        when(scheduleMapper.selectById(5L)).thenReturn(schedule);
+        Appointment first = booking(11L, schedule);
+        Appointment second = booking(12L, schedule);
+
+        assertTrue(slotQuotaLedger.claim(first, schedule));
+        assertTrue(slotQuotaLedger.reserve(first, schedule));
+        slotQuotaLedger.abandon(first, schedule);
+        assertTrue(slotQuotaLedger.claim(second, schedule));
+        assertTrue(slotQuotaLedger.reserve(second, schedule));
+    }
+
+    @Test
+    void reloadedQuotaExcludesUnflushedBookings() {
+        Schedule schedule = openSchedule(6L, 2, 0);
+        when(scheduleMapper.selectById(6L)).thenReturn(schedule);
+        Appointment first = booking(13L, schedule);
+
+        assertTrue(slotQuotaLedger.claim(first, schedule));
+        assertTrue(slotQuotaLedger.reserve(first, schedule));
+        // 排班被修改后重新加载，数据库中的人数尚未包含未写库的预约
+        slotQuotaLedger.evict(6L);
+        assertTrue(slotQuotaLedger.tryReserve(schedule));
+        assertFalse(slotQuotaLedger.tryReserve(schedule));
+        verify(scheduleMapper, times(2)).selectById(6L);
+    }
+
+    private Appointment booking(Long patientId, Schedule schedule) {
+        Appointment appointment = new Appointment();
+        appointment.setPatientId(patientId);
+        appointment.setDoctorId(1L);
+        appointment.setScheduleId(schedule.getId());
+        return appointment;
+    }
+
+    private Schedule openSchedule(Long id, int maxPatients, int currentPatients) {
+        Schedule schedule = new Schedule();
+        schedule.setId(id);
+        schedule.setScheduleDate(LocalDate.now().plusDays(1));
+        schedule.setMaxPatients(maxPatients);
+        schedule.setCurrentPatients(currentPatients);
+        schedule.setStatus(1);
+        return schedule;
+    }
+}
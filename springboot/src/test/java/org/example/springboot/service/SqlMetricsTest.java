@@ -0,0 +1,88 @@
+package org.example.springboot.service;
+
+import org.example.springboot.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL统计测试：耗时分桶、请求内重复语句识别、语句预算
+ */
+class SqlMetricsTest {
+    private static final String SELECT_PATIENT = "org.example.springboot.mapper.PatientMapper.selectById";
+    private static final String SELECT_DOCTOR = "org.example.springboot.mapper.DoctorMapper.selectById";
+
+    private final SqlMetrics sqlMetrics = new SqlMetrics();
+
+    @Test
+    void recordsLatencyBucketsAndRows() {
+        execute(SELECT_PATIENT, "SELECT * FROM patient WHERE id=?", 1);
+        sqlMetrics.afterStatement(SELECT_PATIENT, 3_000_000L, 1, false);
+        sqlMetrics.afterStatement(SELECT_PATIENT, 10_000_000_000L, 0, true);
+
+        SqlMetrics.StatementStats stats = sqlMetrics.getStatementStats().get(SELECT_PATIENT);
+        assertEquals(3L, stats.getCount());
+        assertEquals(2L, stats.getRows());
+        assertEquals(1L, stats.getErrors());
+        // <=1ms、<=5ms 各一次，超过最大上界一次
+        assertArrayEquals(new long[]{1, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 1}, stats.getBuckets());
+    }
+
+    @Test
+    void flagsRepeatedStatementPerEndpoint() {
+        sqlMetrics.beginRequest();
+        execute(SELECT_DOCTOR, "SELECT * FROM doctor WHERE id IN (?,?)", 2);
+        for (int i = 0; i < 11; i++) {
+            execute(SELECT_PATIENT, "SELECT * FROM patient WHERE id=?", 1);
+        }
+        sqlMetrics.endRequest("GET /appointment/page");
+
+        sqlMetrics.beginRequest();
+        execute(SELECT_PATIENT, "SELECT * FROM patient WHERE id=?", 1);
+        sqlMetrics.endRequest("GET /appointment/page");
+
+        Map<String, Object> stats = sqlMetrics.getStats();
+        Map<?, ?> endpoint = (Map<?, ?>) ((List<?>) stats.get("endpoints")).get(0);
+        assertEquals(2L, endpoint.get("requests"));
+        assertEquals(13L, endpoint.get("statements"));
+        assertEquals(12L, endpoint.get("maxStatements"));
+        assertEquals(1L, endpoint.get("repeated"));
+        Map<?, ?> repeat = (Map<?, ?>) ((List<?>) stats.get("recentRepeats")).get(0);
+        assertEquals(SELECT_PATIENT, repeat.get("statement"));
+        assertEquals(11, repeat.get("count"));
+    }
+
+    @Test
+    void failsWhenBudgetExceeded() {
+        AssertionError error = assertThrows(AssertionError.class, () -> sqlMetrics.withBudget(2, () -> {
+            for (int i = 0; i < 3; i++) {
+                execute(SELECT_PATIENT, "SELECT * FROM patient WHERE id=?", 1);
+            }
+            return null;
+        }));
+        assertTrue(error.getMessage().contains(SELECT_PATIENT + "=3"));
+        assertEquals(1, (int) sqlMetrics.withBudget(1, () -> {
+            execute(SELECT_DOCTOR, "SELECT * FROM doctor WHERE id=?", 1);
+            return 1;
+        }));
+
+        ReflectionTestUtils.setField(sqlMetrics, "statementBudget", 1);
+        ReflectionTestUtils.setField(sqlMetrics, "failOnBudget", true);
+        sqlMetrics.beginRequest();
+        execute(SELECT_DOCTOR, "SELECT * FROM doctor WHERE id=?", 1);
+        assertThrows(ServiceException.class, () -> sqlMetrics.beforeStatement(SELECT_PATIENT, "SELECT * FROM patient WHERE id=?"));
+        sqlMetrics.endRequest("GET /appointment/{id}");
+    }
+
+    private void execute(String statementId, String sql, long rows) {
+        sqlMetrics.beforeStatement(statementId, sql);
+        sqlMetrics.afterStatement(statementId, 500_000L, rows, false);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.springboot.service;
+
+import org.example.springboot.exception.ServiceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 症状标准化测试：词典命中不调用远程服务，远程结果被缓存，失败不缓存
+ */
+class SymptomNormalizeServiceTest {
+    private SymptomNormalizer remote;
+    private SymptomNormalizeService service;
+
+    @BeforeEach
+    void setUp() {
+        remote = mock(SymptomNormalizer.class);
+        service = new SymptomNormalizeService();
+        ReflectionTestUtils.setField(service, "symptomNormalizer", remote);
+        ReflectionTestUtils.setField(service, "dictionaryLocation", "classpath:symptom-dictionary.txt");
+        ReflectionTestUtils.setField(service, "cacheCapacity", 100);
+        ReflectionTestUtils.setField(service, "cacheTtlMinutes", 10L);
+        ReflectionTestUtils.setField(service, "maxBatch", 10);
+        service.init();
+    }
+
+    @Test
+    void dictionaryAnswersCommonSymptoms() {
+        assertEquals("头痛、发热", service.normalize("头疼，发烧"));
+        assertEquals("头痛、恶心", service.normalize("头痛伴恶心"));
+        verify(remote, never()).normalize(anyString());
+    }
+
+    @Test
+    void remoteResultIsCached() {
+        when(remote.normalize("舌苔黄腻三天")).thenReturn("苔黄腻");
+
+        assertEquals("苔黄腻", service.normalize("舌苔黄腻三天"));
+        assertEquals("苔黄腻", service.normalize(" 舌苔黄腻三天 "));
+        verify(remote, times(1)).normalize("舌苔黄腻三天");
+    }
+
+    @Test
+    void remoteFailureIsNotCached() {
+        when(remote.normalize("舌红少苔")).thenThrow(new RuntimeException("timeout")).thenReturn("舌红少苔");
+
+        assertThrows(ServiceException.class, () -> service.normalize("舌红少苔"));
+        assertEquals("舌红少苔", service.normalize("舌红少苔"));
+        verify(remote, times(2)).normalize("舌红少苔");
+    }
+
+    @Test
+    void batchDeduplicatesAndKeepsPartialResults() {
+        when(remote.normalize("脉弦")).thenReturn("弦脉");
+        when(remote.normalize("未知症状")).thenThrow(new RuntimeException("timeout"));
+
+        Map<String, String> result = service.normalizeBatch(List.of("咳嗽", "脉弦", "未知症状", "脉弦"));
+
+        assertEquals(3, result.size());
+        assertEquals("咳嗽", result.get("咳嗽"));
+        assertEquals("弦脉", result.get("脉弦"));
+        assertNull(result.get("未知症状"));
+        verify(remote, times(1)).normalize("脉弦");
+        assertThrows(ServiceException.class, () -> service.normalizeBatch(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11")));
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.springboot.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.example.springboot.entity.MedicalRecord;
+import org.example.springboot.mapper.MedicalRecordMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 症状异步标准化测试：攒批去重后一次回写，失败重试后进入死信
+ */
+class SymptomStandardizePipelineTest {
+    private SymptomStandardizePipeline pipeline;
+    private SymptomNormalizeService normalizeService;
+    private MedicalRecordMapper medicalRecordMapper;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), MedicalRecord.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        normalizeService = mock(SymptomNormalizeService.class);
+        medicalRecordMapper = mock(MedicalRecordMapper.class);
+        when(medicalRecordMapper.selectList(any())).thenReturn(Collections.emptyList());
+        when(medicalRecordMapper.batchUpdateStandardSymptoms(anyList()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        when(normalizeService.normalizeAll(any())).thenAnswer(invocation -> {
+            Map<String, String> result = new LinkedHashMap<>();
+            for (String symptom : invocation.<Collection<String>>getArgument(0)) {
+                result.put(symptom, "失败症状".equals(symptom) ? null : "标准-" + symptom);
+            }
+            return result;
+        });
+
+        pipeline = new SymptomStandardizePipeline();
+        ReflectionTestUtils.setField(pipeline, "symptomNormalizeService", normalizeService);
+        ReflectionTestUtils.setField(pipeline, "medicalRecordMapper", medicalRecordMapper);
+        ReflectionTestUtils.setField(pipeline, "caseIndexLoader", mock(CaseIndexLoader.class));
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 100);
+        ReflectionTestUtils.setField(pipeline, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "workers", 1);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 50);
+        ReflectionTestUtils.setField(pipeline, "lingerMs", 200L);
+        ReflectionTestUtils.setField(pipeline, "maxAttempts", 2);
+        ReflectionTestUtils.setField(pipeline, "retryBackoffMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "recoverLimit", 100);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void batchesAndWritesBackOnce() {
+        pipeline.submit(1L, "头痛");
+        pipeline.submit(2L, "头痛");
+        pipeline.submit(3L, "咳嗽");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MedicalRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(medicalRecordMapper, timeout(2000)).batchUpdateStandardSymptoms(captor.capture());
+        List<MedicalRecord> records = captor.getValue();
+        assertEquals(3, records.size());
+        assertEquals("标准-头痛", records.get(0).getStandardSymptoms());
+        assertEquals("头痛", records.get(0).getSymptom());
+        assertEquals("标准-咳嗽", records.get(2).getStandardSymptoms());
+        verify(normalizeService).normalizeAll(Set.of("头痛", "咳嗽"));
+    }
+
+    @Test
+    void failuresRetryThenDeadLetter() throws InterruptedException {
+        pipeline.submit(1L, "失败症状");
+
+        long deadline = System.currentTimeMillis() + 3000;
+        while ((long) pipeline.getStats().get("deadLettered") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Map<String, Object> stats = pipeline.getStats();
+        assertEquals(1L, stats.get("retried"));
+        assertEquals(1L, stats.get("deadLettered"));
+        assertEquals(1, stats.get("deadLetterSize"));
+
+        assertEquals(1, pipeline.retryDeadLetters());
+        assertTrue((long) pipeline.getStats().get("enqueued") >= 3);
+    }
+}
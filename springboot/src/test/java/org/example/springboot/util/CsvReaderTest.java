@@ -0,0 +1,51 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * CSV 读取测试：引号转义、引号内换行、BOM 与行号
+ */
+class CsvReaderTest {
+
+    @Test
+    void parsesQuotedFieldsAndTracksLines() throws IOException {
+        String csv = "\uFEFF姓名,备注\r\n"
+                + "张三,\"咳嗽,发热\"\r\n"
+                + "李四,\"第一行\n第二行\"\n"
+                + "\"王\"\"五\",\n"
+                + "赵六";
+        CsvReader reader = new CsvReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertArrayEquals(new String[]{"姓名", "备注"}, reader.readRow());
+        assertEquals(1L, reader.getLineNumber());
+        assertArrayEquals(new String[]{"张三", "咳嗽,发热"}, reader.readRow());
+        assertEquals(2L, reader.getLineNumber());
+        assertArrayEquals(new String[]{"李四", "第一行\n第二行"}, reader.readRow());
+        assertEquals(3L, reader.getLineNumber());
+        assertArrayEquals(new String[]{"王\"五", ""}, reader.readRow());
+        assertEquals(5L, reader.getLineNumber());
+        assertArrayEquals(new String[]{"赵六"}, reader.readRow());
+        assertNull(reader.readRow());
+    }
+
+    @Test
+    void readsWhatCsvWriterWrites() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvWriter writer = new CsvWriter(out);
+        writer.writeRow("a,b", "say \"hi\"", "多\r\n行", null, 12);
+        writer.flush();
+
+        CsvReader reader = new CsvReader(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(new String[]{"a,b", "say \"hi\"", "多\r\n行", "", "12"}, reader.readRow());
+        assertNull(reader.readRow());
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.springboot.util;
+
+import org.example.springboot.exception.ServiceException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 分页游标编解码测试
+ */
+class KeysetCursorTest {
+    @Test
+    void roundTrip() {
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 8, 30, 15);
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(time, 123456789L).encode());
+        assertEquals(time, decoded.getCreateTime());
+        assertEquals(123456789L, decoded.getId());
+    }
+
+    @Test
+    void tamperedCursorRejected() {
+        assertThrows(ServiceException.class, () -> KeysetCursor.decode("not-a-cursor"));
+        assertThrows(ServiceException.class, () -> KeysetCursor.decode("@@@"));
+    }
+}
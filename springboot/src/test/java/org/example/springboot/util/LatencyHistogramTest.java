@@ -0,0 +1,39 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsIncludeUpperBound() {
+        LatencyHistogram histogram = new LatencyHistogram(1, 10, 100);
+        histogram.record(1_000_000L);
+        histogram.record(1_000_001L);
+        histogram.record(10_000_000L);
+        histogram.record(500_000_000L);
+
+        assertArrayEquals(new long[]{1, 2, 0, 1}, histogram.getBuckets());
+        assertEquals(4L, histogram.getCount());
+        assertEquals(512_000_001L, histogram.getTotalNanos());
+        assertEquals(500_000_000L, histogram.getMaxNanos());
+    }
+
+    @Test
+    void percentileUsesBucketUpperBound() {
+        LatencyHistogram histogram = new LatencyHistogram(1, 10, 100);
+        assertEquals(0.0, histogram.percentileMs(0.99));
+        for (int i = 0; i < 98; i++) {
+            histogram.record(500_000L);
+        }
+        histogram.record(50_000_000L);
+        histogram.record(300_000_000L);
+
+        assertEquals(1.0, histogram.percentileMs(0.5));
+        assertEquals(100.0, histogram.percentileMs(0.99));
+        // 超出最大上界时取最大值
+        assertEquals(300.0, histogram.percentileMs(1.0));
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 计数表测试：随机增减后与 HashMap 结果一致，取前N个按计数倒序
+ */
+class LongIntCounterTest {
+
+    @Test
+    void matchesHashMapUnderRandomUpdates() {
+        LongIntCounter counter = new LongIntCounter();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5000) - 2500L;
+            int delta = random.nextInt(3) - 1;
+            counter.add(key, delta);
+            int count = expected.getOrDefault(key, 0) + delta;
+            if (count > 0) {
+                expected.put(key, count);
+            } else {
+                expected.remove(key);
+            }
+        }
+        assertEquals(expected.size(), counter.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), counter.get(entry.getKey()));
+        }
+        Map<Long, Integer> visited = new HashMap<>();
+        counter.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void topOrdersByCountThenKey() {
+        LongIntCounter counter = new LongIntCounter();
+        counter.add(7, 3);
+        counter.add(3, 5);
+        counter.add(9, 3);
+        counter.add(1, 1);
+        counter.add(4, 2);
+        counter.add(4, -2);
+
+        assertArrayEquals(new long[]{3, 5, 7, 3, 9, 3}, counter.top(3));
+        assertArrayEquals(new long[]{3, 5, 7, 3, 9, 3, 1, 1}, counter.top(10));
+        assertArrayEquals(new long[0], counter.top(0));
+    }
+}
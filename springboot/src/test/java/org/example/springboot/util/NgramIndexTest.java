@@ -0,0 +1,92 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 检索索引测试：结果与子串匹配一致，支持拼音首字母，增量更新与全量加载互不覆盖
+ */
+class NgramIndexTest {
+    private NgramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NgramIndex();
+        index.beginLoad();
+        index.load(1, "张伟", "110101199001011234", "13800138000");
+        index.load(2, "张伟强", "110101198512120021", "13912345678");
+        index.load(3, "维生素C片", "YP001");
+        index.endLoad();
+    }
+
+    @Test
+    void matchesSubstringNewestFirst() {
+        assertArrayEquals(new long[]{2, 1}, index.search("张伟"));
+        assertArrayEquals(new long[]{2}, index.search("伟强"));
+        assertArrayEquals(new long[]{1}, index.search("1380013"));
+        assertArrayEquals(new long[]{3}, index.search("维生素c"));
+        assertArrayEquals(new long[0], index.search("李四"));
+    }
+
+    @Test
+    void matchesPinyinInitials() {
+        assertEquals("zwq", PinyinInitials.of("张伟强"));
+        assertArrayEquals(new long[]{2, 1}, index.search("zw"));
+        assertArrayEquals(new long[]{2}, index.search("ZWQ"));
+        assertArrayEquals(new long[]{3}, index.search("wss"));
+    }
+
+    @Test
+    void unanswerableQueryFallsBack() {
+        assertNull(index.search("1"));
+        assertNull(index.search("  "));
+        assertNull(new NgramIndex().search("张伟"));
+    }
+
+    @Test
+    void incrementalUpdates() {
+        index.put(1, "李伟", "110101199001011234", "13800138000");
+        assertArrayEquals(new long[]{2}, index.search("张伟"));
+        assertArrayEquals(new long[]{1}, index.search("李伟"));
+
+        index.remove(2);
+        assertArrayEquals(new long[0], index.search("张伟"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void reloadKeepsConcurrentChanges() {
+        index.beginLoad();
+        assertFalse(index.isReady());
+        index.put(1, "李伟");
+        index.remove(2);
+        // 全量加载读到的是变更前的数据，不能覆盖增量结果
+        index.load(1, "张伟");
+        index.load(2, "张伟强");
+        index.load(3, "维生素C片", "YP001");
+        index.endLoad();
+
+        assertTrue(index.isReady());
+        assertArrayEquals(new long[]{1}, index.search("李伟"));
+        assertArrayEquals(new long[0], index.search("张伟"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void abandonedLoadReleasesDataAndStaysUnready() {
+        index.beginLoad();
+        index.load(1, "张伟");
+        index.abandonLoad();
+        index.put(4, "王芳");
+
+        assertFalse(index.isReady());
+        assertNull(index.search("张伟"));
+        assertEquals(0, index.size());
+    }
+}
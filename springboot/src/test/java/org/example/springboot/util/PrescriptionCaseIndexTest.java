@@ -0,0 +1,76 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用药推荐索引测试：相似病例的用药优先，常用用量取众数，记录和处方修改后即时生效
+ */
+class PrescriptionCaseIndexTest {
+    private PrescriptionCaseIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrescriptionCaseIndex(2.0, 1000);
+        index.beginLoad();
+        index.loadRecord(1, "感冒", "风寒束表", "恶寒、头痛、无汗");
+        index.loadRecord(2, "感冒", "风寒束表", "恶寒、鼻塞");
+        index.loadRecord(3, "感冒", "风热犯表", "发热、咽痛");
+        index.loadRecord(4, "感冒", "风寒束表", "恶寒");
+        index.loadPrescription(10, 1, List.of(item(101, "9g", 7), item(102, "6g", 7)));
+        index.loadPrescription(11, 2, List.of(item(101, "9g", 5), item(103, "3g", 5)));
+        index.loadPrescription(12, 3, List.of(item(104, "10g", 3)));
+        index.endLoad();
+    }
+
+    @Test
+    void recommendsFromSimilarCases() {
+        List<PrescriptionCaseIndex.Recommendation> result = index.recommend("风寒束表", List.of("恶寒", "头痛"), 10, 10);
+        assertEquals(101L, result.get(0).getMedicineId());
+        assertEquals(2, result.get(0).getSupport());
+        assertEquals(2, result.get(0).getCases());
+        assertEquals("9g", result.get(0).getDosage());
+        // 与查询更相似的病例1所用的药品排在病例2之前
+        assertEquals(102L, result.get(1).getMedicineId());
+        assertEquals(103L, result.get(2).getMedicineId());
+        assertTrue(result.stream().noneMatch(item -> item.getMedicineId() == 104L));
+
+        assertEquals(104L, index.recommend(null, List.of("咽痛"), 10, 10).get(0).getMedicineId());
+        assertTrue(index.recommend("不存在", List.of("不存在"), 10, 10).isEmpty());
+        assertEquals(1, index.recommend("风寒束表", List.of(), 10, 1).size());
+    }
+
+    @Test
+    void incrementalUpdates() {
+        // 新处方挂到原本没有处方的病例4
+        index.putPrescription(13, 4, List.of(item(105, "12g", 7)));
+        assertEquals(105L, index.recommend("风寒束表", List.of("恶寒"), 1, 10).get(0).getMedicineId());
+
+        // 病例3改为风寒证后，其用药进入风寒证的推荐
+        index.putRecord(3, "感冒", "风寒束表", "恶寒");
+        assertTrue(index.recommend("风寒束表", List.of(), 10, 10).stream()
+                .anyMatch(item -> item.getMedicineId() == 104L));
+
+        index.removePrescription(12);
+        index.removeRecord(1);
+        List<Long> medicines = new ArrayList<>();
+        index.recommend("风寒束表", List.of("恶寒"), 10, 10).forEach(item -> medicines.add(item.getMedicineId()));
+        // 病例4只有证型和恶寒两个特征，比病例2更贴近查询
+        assertEquals(List.of(105L, 101L, 103L), medicines);
+    }
+
+    private static PrescriptionCaseIndex.CaseItem item(long medicineId, String dosage, int days) {
+        PrescriptionCaseIndex.CaseItem item = new PrescriptionCaseIndex.CaseItem();
+        item.setMedicineId(medicineId);
+        item.setDosage(dosage);
+        item.setFrequency("每日一剂");
+        item.setDays(days);
+        return item;
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.springboot.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 诊疗共现计数测试：修改记录、处方后计数随之调整，全量加载不覆盖加载期间的增量修改
+ */
+class TcmCooccurrenceIndexTest {
+    private TcmCooccurrenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TcmCooccurrenceIndex();
+        index.beginLoad();
+        index.loadRecord(1, "感冒", "风寒束表", "恶寒、头痛、鼻塞");
+        index.loadRecord(2, "感冒", "风热犯表", "发热、头痛");
+        index.loadRecord(3, "感冒", "风寒束表", "恶寒,无汗");
+        index.loadRecord(4, "咳嗽", "风寒束表", "咳嗽");
+        index.loadPrescription(10, 1, items(101, 102, 101));
+        index.loadPrescription(11, 3, items(101));
+        index.loadPrescription(12, 2, items(103));
+        index.endLoad();
+    }
+
+    @Test
+    void aggregatesCooccurrence() {
+        assertEquals("感冒=3,咳嗽=1", format(index.topDiagnoses(10)));
+        assertEquals("风寒束表=2,风热犯表=1", format(index.topSyndromesByDiagnosis("感冒", 10)));
+        assertEquals("风寒束表=1,风热犯表=1", format(index.topSyndromesBySymptom("头痛", 10)));
+        assertEquals("恶寒=2,头痛=2", format(index.topSymptoms(2)));
+
+        List<TcmCooccurrenceIndex.IdCount> medicines = index.topMedicinesBySyndrome("风寒束表", 10);
+        assertEquals(2, medicines.size());
+        assertEquals(101, medicines.get(0).getId());
+        assertEquals(2, medicines.get(0).getCount());
+        assertEquals(102, medicines.get(1).getId());
+        assertTrue(index.topSyndromesByDiagnosis("不存在", 10).isEmpty());
+    }
+
+    @Test
+    void updatesMoveCounts() {
+        // 记录1改为风热证，其处方的用药随之计入风热证
+        index.putRecord(1, "感冒", "风热犯表", "发热");
+        assertEquals("风热犯表=2,风寒束表=1", format(index.topSyndromesByDiagnosis("感冒", 10)));
+        assertEquals(1, index.topMedicinesBySyndrome("风寒束表", 10).size());
+        assertEquals(3, index.topMedicinesBySyndrome("风热犯表", 10).size());
+        assertTrue(index.topSyndromesBySymptom("鼻塞", 10).isEmpty());
+
+        index.putPrescription(12, 2, items(104));
+        index.removePrescription(10);
+        assertEquals(1, index.topMedicinesBySyndrome("风热犯表", 10).size());
+        assertEquals(104, index.topMedicinesBySyndrome("风热犯表", 10).get(0).getId());
+
+        index.removeRecord(3);
+        assertTrue(index.topMedicinesBySyndrome("风寒束表", 10).isEmpty());
+        assertEquals("感冒=2,咳嗽=1", format(index.topDiagnoses(10)));
+    }
+
+    @Test
+    void reloadKeepsConcurrentChanges() {
+        index.beginLoad();
+        assertFalse(index.isReady());
+        index.putRecord(1, "咳嗽", "痰湿蕴肺", "咳嗽");
+        index.removeRecord(2);
+        // 全量加载读到的是变更前的数据，不能覆盖增量结果
+        index.loadRecord(1, "感冒", "风寒束表", "恶寒");
+        index.loadRecord(2, "感冒", "风热犯表", "发热");
+        index.loadPrescription(10, 1, items(101));
+        index.endLoad();
+
+        assertTrue(index.isReady());
+        assertEquals("咳嗽=1", format(index.topDiagnoses(10)));
+        assertEquals(101, index.topMedicinesBySyndrome("痰湿蕴肺", 10).get(0).getId());
+    }
+
+    private static String format(List<TcmCooccurrenceIndex.Count> counts) {
+        return counts.stream().map(count -> count.getName() + "=" + count.getCount()).collect(Collectors.joining(","));
+    }
+
+    private static List<CaseFactIndex.CaseItem> items(long... medicineIds) {
+        List<CaseFactIndex.CaseItem> items = new ArrayList<>();
+        for (long medicineId : medicineIds) {
+            CaseFactIndex.CaseItem item = new CaseFactIndex.CaseItem();
+            item.setMedicineId(medicineId);
+            items.add(item);
+        }
+        return items;
+    }
+}
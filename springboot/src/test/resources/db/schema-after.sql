@@ -0,0 +1,60 @@
+-- 测试库与压测库补充表结构：依赖 schema.sql 中的预约表，需在 schema.sql 之后执行
+
+-- 就诊记录表
+CREATE TABLE IF NOT EXISTS medical_record (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '记录ID',
+    record_no VARCHAR(50) UNIQUE COMMENT '记录编号',
+    patient_id BIGINT NOT NULL COMMENT '患者ID',
+    doctor_id BIGINT NOT NULL COMMENT '医生ID',
+    appointment_id BIGINT COMMENT '预约ID',
+    number_of_visits VARCHAR(20) COMMENT '就诊次数',
+    symptom TEXT COMMENT '症状',
+    standard_symptoms TEXT COMMENT '标准化症状',
+    traditional_chinese_medicine_diagnosis VARCHAR(200) COMMENT '中医诊断',
+    western_medicine_diagnosis VARCHAR(200) COMMENT '西医诊断',
+    syndrome_type VARCHAR(100) COMMENT '证型',
+    treatment TEXT COMMENT '治疗方案',
+    record_date DATE COMMENT '就诊日期',
+    notes TEXT COMMENT '备注',
+    follow_up DATE COMMENT '复诊日期',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    FOREIGN KEY (patient_id) REFERENCES patient(id) ON DELETE CASCADE,
+    FOREIGN KEY (doctor_id) REFERENCES doctor(id) ON DELETE CASCADE,
+    FOREIGN KEY (appointment_id) REFERENCES appointment(id) ON DELETE SET NULL
+) COMMENT '就诊记录表';
+
+-- 处方表
+CREATE TABLE IF NOT EXISTS prescription (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '处方ID',
+    prescription_no VARCHAR(50) UNIQUE COMMENT '处方编号',
+    patient_id BIGINT NOT NULL COMMENT '患者ID',
+    doctor_id BIGINT NOT NULL COMMENT '医生ID',
+    record_id BIGINT COMMENT '就诊记录ID',
+    prescription_date DATE COMMENT '开方日期',
+    diagnosis VARCHAR(200) COMMENT '诊断',
+    notes TEXT COMMENT '备注',
+    status INT DEFAULT 1 COMMENT '状态',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    FOREIGN KEY (patient_id) REFERENCES patient(id) ON DELETE CASCADE,
+    FOREIGN KEY (doctor_id) REFERENCES doctor(id) ON DELETE CASCADE,
+    FOREIGN KEY (record_id) REFERENCES medical_record(id) ON DELETE SET NULL
+) COMMENT '处方表';
+
+-- 处方明细表
+CREATE TABLE IF NOT EXISTS prescription_detail (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '明细ID',
+    prescription_id BIGINT NOT NULL COMMENT '处方ID',
+    medicine_id BIGINT NOT NULL COMMENT '药品ID',
+    dosage VARCHAR(50) COMMENT '剂量',
+    frequency VARCHAR(50) COMMENT '频次',
+    days INT COMMENT '天数',
+    quantity INT COMMENT '数量',
+    `usage` VARCHAR(100) COMMENT '用法',
+    notes TEXT COMMENT '备注',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    FOREIGN KEY (prescription_id) REFERENCES prescription(id) ON DELETE CASCADE,
+    FOREIGN KEY (medicine_id) REFERENCES medicine(id)
+) COMMENT '处方明细表';
@@ -0,0 +1,78 @@
+-- 测试库与压测库补充表结构：schema.sql 中的外键依赖这些表，需先于 schema.sql 执行
+-- 列与实体类保持一致
+
+-- 用户表
+CREATE TABLE IF NOT EXISTS user (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '用户ID',
+    username VARCHAR(50) NOT NULL UNIQUE COMMENT '用户名',
+    password VARCHAR(100) NOT NULL COMMENT '密码',
+    email VARCHAR(100) COMMENT '邮箱',
+    phone VARCHAR(20) COMMENT '手机号',
+    role_code VARCHAR(20) COMMENT '角色',
+    name VARCHAR(50) COMMENT '姓名',
+    sex VARCHAR(10) COMMENT '性别',
+    avatar VARCHAR(255) COMMENT '头像',
+    status INT DEFAULT 1 COMMENT '状态: 1-正常, 0-禁用',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) COMMENT '用户表';
+
+-- 科室表
+CREATE TABLE IF NOT EXISTS department (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '科室ID',
+    dept_name VARCHAR(50) NOT NULL COMMENT '科室名称',
+    dept_code VARCHAR(20) COMMENT '科室编码',
+    description TEXT COMMENT '描述',
+    director_id BIGINT COMMENT '科室主任ID',
+    status INT DEFAULT 1 COMMENT '状态: 1-正常, 0-停用',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) COMMENT '科室表';
+
+-- 患者表
+CREATE TABLE IF NOT EXISTS patient (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '患者ID',
+    user_id BIGINT COMMENT '关联用户ID',
+    patient_no VARCHAR(20) COMMENT '患者编号',
+    name VARCHAR(50) NOT NULL COMMENT '姓名',
+    id_card VARCHAR(18) COMMENT '身份证号',
+    birthday DATE COMMENT '出生日期',
+    sex VARCHAR(10) COMMENT '性别',
+    phone VARCHAR(20) COMMENT '手机号',
+    address VARCHAR(200) COMMENT '地址',
+    medical_history TEXT COMMENT '既往病史',
+    allergies TEXT COMMENT '过敏史',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE SET NULL
+) COMMENT '患者信息表';
+
+-- 药品分类表
+CREATE TABLE IF NOT EXISTS medicine_category (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '分类ID',
+    category_name VARCHAR(50) NOT NULL COMMENT '分类名称',
+    category_code VARCHAR(20) COMMENT '分类编码',
+    description TEXT COMMENT '描述',
+    status INT DEFAULT 1 COMMENT '状态: 1-正常, 0-停用',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) COMMENT '药品分类表';
+
+-- 药品表（schema.sql 中的药品表列名与实体不一致，这里先按实体建表）
+CREATE TABLE IF NOT EXISTS medicine (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '药品ID',
+    medicine_code VARCHAR(50) UNIQUE COMMENT '药品编码',
+    medicine_name VARCHAR(100) NOT NULL COMMENT '药品名称',
+    specification VARCHAR(100) COMMENT '规格',
+    dosage_form VARCHAR(50) COMMENT '剂型',
+    manufacturer VARCHAR(200) COMMENT '生产厂家',
+    category VARCHAR(50) COMMENT '药品分类',
+    category_id BIGINT COMMENT '分类ID',
+    price DECIMAL(10, 2) COMMENT '单价',
+    stock INT DEFAULT 0 COMMENT '库存',
+    status TINYINT(1) DEFAULT 1 COMMENT '状态: 1-正常, 0-下架',
+    instructions TEXT COMMENT '用法说明',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    FOREIGN KEY (category_id) REFERENCES medicine_category(id) ON DELETE SET NULL
+) COMMENT '药品信息表';